@@ -253,8 +253,12 @@ void FixedLengthColumnBase<T>::put_mysql_row_buffer(MysqlRowBuffer* buf, size_t
         buf->push_decimal(_data[idx].to_string());
     } else if constexpr (std::is_arithmetic_v<T>) {
         buf->push_number(_data[idx]);
+    } else if constexpr (std::is_same_v<T, DateValue>) {
+        buf->push_date(_data[idx]);
+    } else if constexpr (std::is_same_v<T, TimestampValue>) {
+        buf->push_timestamp(_data[idx]);
     } else {
-        // date/datetime or something else.
+        // something else.
         std::string s = _data[idx].to_string();
         buf->push_string(s.data(), s.size());
     }
@@ -18,11 +18,13 @@ namespace pipeline {
 class ResultSinkOperator final : public Operator {
 public:
     ResultSinkOperator(OperatorFactory* factory, int32_t id, int32_t plan_node_id, int32_t driver_sequence,
-                       TResultSinkType::type sink_type, const std::vector<ExprContext*>& output_expr_ctxs,
+                       TResultSinkType::type sink_type, bool is_binary_row,
+                       const std::vector<ExprContext*>& output_expr_ctxs,
                        const std::shared_ptr<BufferControlBlock>& sender, std::atomic<int32_t>& num_result_sinks,
                        std::atomic<int64_t>& num_written_rows, FragmentContext* const fragment_ctx)
             : Operator(factory, id, "result_sink", plan_node_id, driver_sequence),
               _sink_type(sink_type),
+              _is_binary_row(is_binary_row),
               _output_expr_ctxs(output_expr_ctxs),
               _sender(sender),
               _num_result_sinkers(num_result_sinks),
@@ -56,6 +58,7 @@ public:
 
 private:
     TResultSinkType::type _sink_type;
+    bool _is_binary_row;
     std::vector<ExprContext*> _output_expr_ctxs;
 
     /// The following three fields are shared by all the ResultSinkOperators
@@ -77,10 +80,11 @@ private:
 
 class ResultSinkOperatorFactory final : public OperatorFactory {
 public:
-    ResultSinkOperatorFactory(int32_t id, TResultSinkType::type sink_type, std::vector<TExpr> t_output_expr,
-                              FragmentContext* const fragment_ctx)
+    ResultSinkOperatorFactory(int32_t id, TResultSinkType::type sink_type, bool is_binary_row,
+                              std::vector<TExpr> t_output_expr, FragmentContext* const fragment_ctx)
             : OperatorFactory(id, "result_sink", Operator::s_pseudo_plan_node_id_for_result_sink),
               _sink_type(sink_type),
+              _is_binary_row(is_binary_row),
               _t_output_expr(std::move(t_output_expr)),
               _fragment_ctx(fragment_ctx) {}
 
@@ -93,7 +97,7 @@ public:
         // so it doesn't need memory barrier here.
         _increment_num_result_sinkers_no_barrier();
         return std::make_shared<ResultSinkOperator>(this, _id, _plan_node_id, driver_sequence, _sink_type,
-                                                    _output_expr_ctxs, _sender, _num_result_sinkers, _num_written_rows,
+                                                    _is_binary_row, _output_expr_ctxs, _sender, _num_result_sinkers, _num_written_rows,
                                                     _fragment_ctx);
     }
 
@@ -105,6 +109,7 @@ private:
     void _increment_num_result_sinkers_no_barrier() { _num_result_sinkers.fetch_add(1, std::memory_order_relaxed); }
 
     TResultSinkType::type _sink_type;
+    bool _is_binary_row;
     std::vector<TExpr> _t_output_expr;
     std::vector<ExprContext*> _output_expr_ctxs;
 
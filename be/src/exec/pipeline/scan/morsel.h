@@ -78,7 +78,11 @@ private:
 class ScanMorsel : public Morsel {
 public:
     ScanMorsel(int32_t plan_node_id, const TScanRange& scan_range)
-            : Morsel(plan_node_id), _scan_range(std::make_unique<TScanRange>(scan_range)) {}
+            : Morsel(plan_node_id), _scan_range(std::make_unique<TScanRange>(scan_range)) {
+        if (_scan_range->__isset.internal_scan_range && _scan_range->internal_scan_range.__isset.from_version) {
+            set_from_version(_scan_range->internal_scan_range.from_version);
+        }
+    }
 
     ScanMorsel(int32_t plan_node_id, const TScanRangeParams& scan_range)
             : ScanMorsel(plan_node_id, scan_range.scan_range) {}
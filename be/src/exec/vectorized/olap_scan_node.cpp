@@ -18,6 +18,7 @@
 #include "exprs/expr_context.h"
 #include "exprs/vectorized/runtime_filter_bank.h"
 #include "glog/logging.h"
+#include "gutil/strings/substitute.h"
 #include "runtime/current_thread.h"
 #include "runtime/descriptors.h"
 #include "runtime/exec_env.h"
@@ -646,6 +647,15 @@ StatusOr<TabletSharedPtr> OlapScanNode::get_tablet(const TInternalScanRange* sca
     return tablet;
 }
 
+Status OlapScanNode::check_incremental_version(const TabletSharedPtr& tablet, int64_t from_version,
+                                               int64_t version) {
+    if (from_version > 0 && tablet->has_delete_predicates(Version(from_version, version))) {
+        return Status::NotSupported(strings::Substitute("tablet $0 has delete predicates in version range [$1, $2]",
+                                                        tablet->tablet_id(), from_version, version));
+    }
+    return Status::OK();
+}
+
 int OlapScanNode::estimated_max_concurrent_chunks() const {
     int64_t query_limit = runtime_state()->query_mem_tracker_ptr()->limit();
 
@@ -667,12 +677,14 @@ Status OlapScanNode::_capture_tablet_rowsets() {
         const auto& scan_range = _scan_ranges[i];
 
         int64_t version = strtoul(scan_range->version.c_str(), nullptr, 10);
+        int64_t from_version = scan_range->__isset.from_version ? scan_range->from_version : 0;
         ASSIGN_OR_RETURN(TabletSharedPtr tablet, get_tablet(scan_range.get()));
+        RETURN_IF_ERROR(check_incremental_version(tablet, from_version, version));
 
         // Capture row sets of this version tablet.
         {
             std::shared_lock l(tablet->get_header_lock());
-            RETURN_IF_ERROR(tablet->capture_consistent_rowsets(Version(0, version), &_tablet_rowsets[i]));
+            RETURN_IF_ERROR(tablet->capture_consistent_rowsets(Version(from_version, version), &_tablet_rowsets[i]));
         }
     }
 
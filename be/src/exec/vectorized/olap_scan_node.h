@@ -75,6 +75,9 @@ public:
     int estimated_max_concurrent_chunks() const;
 
     static StatusOr<TabletSharedPtr> get_tablet(const TInternalScanRange* scan_range);
+    // Only the appended rows could be read incrementally, the rows deleted by the delete predicates in the
+    // version range [from_version, version] can not be told.
+    static Status check_incremental_version(const TabletSharedPtr& tablet, int64_t from_version, int64_t version);
     static int compute_priority(int32_t num_submitted_tasks);
 
 private:
@@ -40,7 +40,7 @@ Status TabletScanner::init(RuntimeState* runtime_state, const TabletScannerParam
     RETURN_IF_ERROR(_init_reader_params(params.key_ranges));
     const TabletSchema& tablet_schema = _tablet->tablet_schema();
     Schema child_schema = ChunkHelper::convert_schema_to_format_v2(tablet_schema, _reader_columns);
-    _reader = std::make_shared<TabletReader>(_tablet, Version(0, _version), std::move(child_schema));
+    _reader = std::make_shared<TabletReader>(_tablet, Version(_from_version, _version), std::move(child_schema));
     if (_reader_columns.size() == _scanner_columns.size()) {
         _prj_iter = _reader;
     } else {
@@ -105,6 +105,7 @@ Status TabletScanner::close(RuntimeState* state) {
 Status TabletScanner::_get_tablet(const TInternalScanRange* scan_range) {
     TTabletId tablet_id = scan_range->tablet_id;
     _version = strtoul(scan_range->version.c_str(), nullptr, 10);
+    _from_version = scan_range->__isset.from_version ? scan_range->from_version : 0;
 
     std::string err;
     _tablet = StorageEngine::instance()->tablet_manager()->get_tablet(tablet_id, true, &err);
@@ -113,7 +114,7 @@ Status TabletScanner::_get_tablet(const TInternalScanRange* scan_range) {
         LOG(WARNING) << msg;
         return Status::InternalError(msg);
     }
-    return Status::OK();
+    return OlapScanNode::check_incremental_version(_tablet, _from_version, _version);
 }
 
 Status TabletScanner::_init_reader_params(const std::vector<OlapScanRange*>* key_ranges) {
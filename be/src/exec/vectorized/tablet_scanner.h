@@ -89,6 +89,7 @@ private:
 
     TabletSharedPtr _tablet;
     int64_t _version = 0;
+    int64_t _from_version = 0;
 
     // output columns of `this` TabletScanner, i.e, the final output columns of `get_chunk`.
     std::vector<uint32_t> _scanner_columns;
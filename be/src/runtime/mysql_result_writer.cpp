@@ -34,8 +34,12 @@
 namespace starrocks {
 
 MysqlResultWriter::MysqlResultWriter(BufferControlBlock* sinker, const std::vector<ExprContext*>& output_expr_ctxs,
-                                     RuntimeProfile* parent_profile)
-        : _sinker(sinker), _output_expr_ctxs(output_expr_ctxs), _row_buffer(nullptr), _parent_profile(parent_profile) {}
+                                     RuntimeProfile* parent_profile, bool is_binary_row)
+        : _sinker(sinker),
+          _output_expr_ctxs(output_expr_ctxs),
+          _row_buffer(nullptr),
+          _parent_profile(parent_profile),
+          _is_binary_row(is_binary_row) {}
 
 MysqlResultWriter::~MysqlResultWriter() {
     delete _row_buffer;
@@ -47,7 +51,7 @@ Status MysqlResultWriter::init(RuntimeState* state) {
         return Status::InternalError("sinker is NULL pointer.");
     }
 
-    _row_buffer = new (std::nothrow) MysqlRowBuffer();
+    _row_buffer = new (std::nothrow) MysqlRowBuffer(_is_binary_row);
 
     if (nullptr == _row_buffer) {
         return Status::InternalError("no memory to alloc.");
@@ -95,25 +99,51 @@ Status MysqlResultWriter::close() {
     return Status::OK();
 }
 
-StatusOr<TFetchDataResultPtr> MysqlResultWriter::_process_chunk(vectorized::Chunk* chunk) {
-    SCOPED_TIMER(_append_chunk_timer);
-    int num_rows = chunk->num_rows();
-    auto result = std::make_unique<TFetchDataResult>();
-    auto& result_rows = result->result_batch.rows;
-    result_rows.resize(num_rows);
-
+StatusOr<vectorized::Columns> MysqlResultWriter::_evaluate_output_columns(vectorized::Chunk* chunk) {
     vectorized::Columns result_columns;
-    // Step 1: compute expr
     int num_columns = _output_expr_ctxs.size();
     result_columns.reserve(num_columns);
 
     for (int i = 0; i < num_columns; ++i) {
         ASSIGN_OR_RETURN(ColumnPtr column, _output_expr_ctxs[i]->evaluate(chunk));
-        column = _output_expr_ctxs[i]->root()->type().type == TYPE_TIME
+        // TIME is encoded from the seconds in binary protocol
+        column = _output_expr_ctxs[i]->root()->type().type == TYPE_TIME && !_is_binary_row
                          ? vectorized::ColumnHelper::convert_time_column_from_double_to_str(column)
                          : column;
         result_columns.emplace_back(std::move(column));
     }
+    return result_columns;
+}
+
+void MysqlResultWriter::_put_row(const vectorized::Columns& columns, size_t row) {
+    if (!_is_binary_row) {
+        for (auto& column : columns) {
+            column->put_mysql_row_buffer(_row_buffer, row);
+        }
+        return;
+    }
+
+    _row_buffer->start_binary_row(columns.size());
+    for (size_t i = 0; i < columns.size(); ++i) {
+        if (_output_expr_ctxs[i]->root()->type().type != TYPE_TIME) {
+            columns[i]->put_mysql_row_buffer(_row_buffer, row);
+        } else if (columns[i]->is_null(row)) {
+            _row_buffer->push_null();
+        } else {
+            _row_buffer->push_time(columns[i]->get(row).get_double());
+        }
+    }
+}
+
+StatusOr<TFetchDataResultPtr> MysqlResultWriter::_process_chunk(vectorized::Chunk* chunk) {
+    SCOPED_TIMER(_append_chunk_timer);
+    int num_rows = chunk->num_rows();
+    auto result = std::make_unique<TFetchDataResult>();
+    auto& result_rows = result->result_batch.rows;
+    result_rows.resize(num_rows);
+
+    // Step 1: compute expr
+    ASSIGN_OR_RETURN(vectorized::Columns result_columns, _evaluate_output_columns(chunk));
 
     // Step 2: convert chunk to mysql row format row by row
     {
@@ -121,9 +151,7 @@ StatusOr<TFetchDataResultPtr> MysqlResultWriter::_process_chunk(vectorized::Chun
         SCOPED_TIMER(_convert_tuple_timer);
         for (int i = 0; i < num_rows; ++i) {
             DCHECK_EQ(0, _row_buffer->length());
-            for (auto& result_column : result_columns) {
-                result_column->put_mysql_row_buffer(_row_buffer, i);
-            }
+            _put_row(result_columns, i);
             size_t len = _row_buffer->length();
             _row_buffer->move_content(&result_rows[i]);
             _row_buffer->reserve(len * 1.1);
@@ -137,18 +165,8 @@ StatusOr<TFetchDataResultPtrs> MysqlResultWriter::process_chunk(vectorized::Chun
     int num_rows = chunk->num_rows();
     std::vector<TFetchDataResultPtr> results;
 
-    vectorized::Columns result_columns;
     // Step 1: compute expr
-    int num_columns = _output_expr_ctxs.size();
-    result_columns.reserve(num_columns);
-
-    for (int i = 0; i < num_columns; ++i) {
-        ASSIGN_OR_RETURN(ColumnPtr column, _output_expr_ctxs[i]->evaluate(chunk));
-        column = _output_expr_ctxs[i]->root()->type().type == TYPE_TIME
-                         ? vectorized::ColumnHelper::convert_time_column_from_double_to_str(column)
-                         : column;
-        result_columns.emplace_back(std::move(column));
-    }
+    ASSIGN_OR_RETURN(vectorized::Columns result_columns, _evaluate_output_columns(chunk));
 
     // Step 2: convert chunk to mysql row format row by row
     {
@@ -163,9 +181,7 @@ StatusOr<TFetchDataResultPtrs> MysqlResultWriter::process_chunk(vectorized::Chun
 
         for (int i = 0; i < num_rows; ++i) {
             DCHECK_EQ(0, _row_buffer->length());
-            for (auto& result_column : result_columns) {
-                result_column->put_mysql_row_buffer(_row_buffer, i);
-            }
+            _put_row(result_columns, i);
             size_t len = _row_buffer->length();
 
             if (UNLIKELY(current_bytes + len >= _max_row_buffer_size)) {
@@ -33,11 +33,12 @@ class BufferControlBlock;
 class RuntimeProfile;
 using TFetchDataResultPtr = std::unique_ptr<TFetchDataResult>;
 using TFetchDataResultPtrs = std::vector<TFetchDataResultPtr>;
-// convert the row batch to mysql protocol row
+// convert the row batch to mysql protocol row, the rows are encoded in binary protocol if is_binary_row is set,
+// which are the results of prepared statements
 class MysqlResultWriter final : public ResultWriter {
 public:
     MysqlResultWriter(BufferControlBlock* sinker, const std::vector<ExprContext*>& output_expr_ctxs,
-                      RuntimeProfile* parent_profile);
+                      RuntimeProfile* parent_profile, bool is_binary_row = false);
 
     ~MysqlResultWriter() override;
 
@@ -55,6 +56,8 @@ private:
     void _init_profile();
     // this function is only used in non-pipeline engine
     StatusOr<TFetchDataResultPtr> _process_chunk(vectorized::Chunk* chunk);
+    StatusOr<vectorized::Columns> _evaluate_output_columns(vectorized::Chunk* chunk);
+    void _put_row(const vectorized::Columns& columns, size_t row);
 
     BufferControlBlock* _sinker;
     const std::vector<ExprContext*>& _output_expr_ctxs;
@@ -71,6 +74,8 @@ private:
     RuntimeProfile::Counter* _sent_rows_counter = nullptr;
 
     const size_t _max_row_buffer_size = 1024 * 1024 * 1024;
+
+    const bool _is_binary_row;
 };
 
 } // namespace starrocks
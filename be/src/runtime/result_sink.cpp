@@ -47,6 +47,7 @@ ResultSink::ResultSink(const RowDescriptor& row_desc, const std::vector<TExpr>&
     } else {
         _sink_type = sink.type;
     }
+    _is_binary_row = sink.__isset.is_binary_row && sink.is_binary_row;
 
     if (_sink_type == TResultSinkType::FILE) {
         CHECK(sink.__isset.file_options);
@@ -81,7 +82,7 @@ Status ResultSink::prepare(RuntimeState* state) {
     // create writer based on sink type
     switch (_sink_type) {
     case TResultSinkType::MYSQL_PROTOCAL:
-        _writer.reset(new (std::nothrow) MysqlResultWriter(_sender.get(), _output_expr_ctxs, _profile));
+        _writer.reset(new (std::nothrow) MysqlResultWriter(_sender.get(), _output_expr_ctxs, _profile, _is_binary_row));
         break;
     case TResultSinkType::FILE:
         CHECK(_file_opts.get() != nullptr);
@@ -60,6 +60,8 @@ public:
 
     TResultSinkType::type get_sink_type() const { return _sink_type; }
 
+    bool is_binary_row() const { return _is_binary_row; }
+
     const std::vector<TExpr>& get_output_exprs() const { return _t_output_expr; }
 
     std::shared_ptr<ResultFileOptions> get_file_opts() const { return _file_opts; }
@@ -67,6 +69,8 @@ public:
 private:
     Status prepare_exprs(RuntimeState* state);
     TResultSinkType::type _sink_type;
+    // encode the rows of MYSQL_PROTOCAL in binary protocol
+    bool _is_binary_row = false;
     // set file options when sink type is FILE
     std::shared_ptr<ResultFileOptions> _file_opts;
 
@@ -39,6 +39,7 @@
 #include "runtime/routine_load/routine_load_task_executor.h"
 #include "runtime/runtime_filter_worker.h"
 #include "service/brpc.h"
+#include "util/compression/block_compression.h"
 #include "util/stopwatch.hpp"
 #include "util/thrift_util.h"
 #include "util/uid_util.h"
@@ -181,7 +182,7 @@ void PInternalServiceImplBase<T>::exec_batch_plan_fragments(google::protobuf::Rp
         return;
     }
 
-    auto st = _exec_batch_plan_fragments(cntl);
+    auto st = _exec_batch_plan_fragments(cntl, request);
     if (!st.ok()) {
         LOG(WARNING) << "exec multi plan fragments failed, errmsg=" << st.get_error_msg();
     }
@@ -251,8 +252,26 @@ Status PInternalServiceImplBase<T>::_exec_plan_fragment(brpc::Controller* cntl)
 }
 
 template <typename T>
-Status PInternalServiceImplBase<T>::_exec_batch_plan_fragments(brpc::Controller* cntl) {
+Status PInternalServiceImplBase<T>::_exec_batch_plan_fragments(brpc::Controller* cntl,
+                                                                const PExecBatchPlanFragmentsRequest* request) {
     auto ser_request = cntl->request_attachment().to_string();
+    if (request->has_attachment_compression_type() &&
+        request->attachment_compression_type() != CompressionTypePB::NO_COMPRESSION) {
+        // The large requests, e.g. with many scan ranges, may be compressed by FE.
+        const BlockCompressionCodec* codec = nullptr;
+        RETURN_IF_ERROR(get_block_compression_codec(
+                static_cast<CompressionTypePB>(request->attachment_compression_type()), &codec));
+        if (codec == nullptr) {
+            return Status::InternalError("unknown compression type of the batch plan fragments request");
+        }
+        std::string uncompressed(request->attachment_uncompressed_size(), '\0');
+        Slice output(uncompressed.data(), uncompressed.size());
+        RETURN_IF_ERROR(codec->decompress(Slice(ser_request), &output));
+        if (output.size != uncompressed.size()) {
+            return Status::InternalError("the batch plan fragments request is decompressed to an unexpected size");
+        }
+        ser_request.swap(uncompressed);
+    }
     std::shared_ptr<TExecBatchPlanFragmentsParams> t_batch_requests = std::make_shared<TExecBatchPlanFragmentsParams>();
     {
         const uint8_t* buf = (const uint8_t*)ser_request.data();
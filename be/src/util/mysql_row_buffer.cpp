@@ -64,8 +64,21 @@ static char* pack_vlen(char* packet, uint64_t length) {
     return packet + 8;
 }
 
+void MysqlRowBuffer::start_binary_row(uint32_t num_cols) {
+    DCHECK(_is_binary_format);
+    // packet header, followed by the null bitmap which starts from the third bit
+    _data.push_back(0x00);
+    _null_bitmap_offset = _data.size();
+    _data.resize(_data.size() + (num_cols + 7 + 2) / 8, 0);
+    _field_pos = 0;
+}
+
 void MysqlRowBuffer::push_null() {
-    if (_array_level == 0) {
+    if (_is_binary_top_level()) {
+        uint32_t bit = _field_pos + 2;
+        _data[_null_bitmap_offset + bit / 8] |= (1 << (bit % 8));
+        _field_pos++;
+    } else if (_array_level == 0) {
         _data.push_back(0xfb);
     } else {
         // lowercase 'null' is more convenient for JSON parsing
@@ -76,6 +89,13 @@ void MysqlRowBuffer::push_null() {
 template <typename T>
 void MysqlRowBuffer::push_number(T data) {
     static_assert(std::is_arithmetic_v<T> || std::is_same_v<T, __int128>);
+    // LARGEINT is sent as string in binary format
+    if constexpr (!std::is_same_v<T, __int128>) {
+        if (_is_binary_top_level()) {
+            _push_binary_number(data);
+            return;
+        }
+    }
     int length = 0;
     char* end = nullptr;
     char* pos = nullptr;
@@ -117,11 +137,106 @@ void MysqlRowBuffer::push_number(T data) {
     pos += length + length_prefix_bytes;
     DCHECK(pos >= _data.data() && pos <= _data.data() + _data.size());
     _data.resize(pos - _data.data());
+    _field_pos += _is_binary_top_level();
+}
+
+template <typename T>
+void MysqlRowBuffer::_push_binary_number(T data) {
+    // the values are stored in little endian, bool is sent as tinyint
+    char* pos = _resize_extra(sizeof(T));
+    strings::memcpy_inlined(pos, &data, sizeof(T));
+    _field_pos++;
+}
+
+void MysqlRowBuffer::push_date(const DateValue& data) {
+    if (!_is_binary_top_level()) {
+        std::string s = data.to_string();
+        push_string(s.data(), s.size());
+        return;
+    }
+    int year = 0;
+    int month = 0;
+    int day = 0;
+    data.to_date(&year, &month, &day);
+    _push_binary_datetime(year, month, day, 0, 0, 0, 0);
+}
+
+void MysqlRowBuffer::push_timestamp(const TimestampValue& data) {
+    if (!_is_binary_top_level()) {
+        std::string s = data.to_string();
+        push_string(s.data(), s.size());
+        return;
+    }
+    int year = 0;
+    int month = 0;
+    int day = 0;
+    int hour = 0;
+    int minute = 0;
+    int second = 0;
+    int usec = 0;
+    data.to_timestamp(&year, &month, &day, &hour, &minute, &second, &usec);
+    _push_binary_datetime(year, month, day, hour, minute, second, usec);
+}
+
+// The length is 0, 4, 7 or 11, the trailing zero parts are omitted
+void MysqlRowBuffer::_push_binary_datetime(int year, int month, int day, int hour, int minute, int second,
+                                           int usec) {
+    int length = 0;
+    if (usec != 0) {
+        length = 11;
+    } else if (hour != 0 || minute != 0 || second != 0) {
+        length = 7;
+    } else if (year != 0 || month != 0 || day != 0) {
+        length = 4;
+    }
+    char* pos = _resize_extra(1 + length);
+    int1store(pos++, length);
+    if (length >= 4) {
+        int2store(pos, year);
+        pos += 2;
+        int1store(pos++, month);
+        int1store(pos++, day);
+    }
+    if (length >= 7) {
+        int1store(pos++, hour);
+        int1store(pos++, minute);
+        int1store(pos++, second);
+    }
+    if (length == 11) {
+        uint32_t micro = usec;
+        strings::memcpy_inlined(pos, &micro, 4);
+    }
+    _field_pos++;
+}
+
+void MysqlRowBuffer::push_time(double seconds) {
+    DCHECK(_is_binary_top_level());
+    bool negative = seconds < 0;
+    auto total = static_cast<uint64_t>(negative ? -seconds : seconds);
+    uint32_t days = total / 86400;
+    int hour = total % 86400 / 3600;
+    int minute = total % 3600 / 60;
+    int second = total % 60;
+    if (total == 0) {
+        _data.push_back(0x00);
+        _field_pos++;
+        return;
+    }
+    char* pos = _resize_extra(9);
+    int1store(pos++, 8);
+    int1store(pos++, negative ? 1 : 0);
+    strings::memcpy_inlined(pos, &days, 4);
+    pos += 4;
+    int1store(pos++, hour);
+    int1store(pos++, minute);
+    int1store(pos++, second);
+    _field_pos++;
 }
 
 void MysqlRowBuffer::push_string(const char* str, size_t length, char escape_char) {
     if (_array_level == 0) {
         _push_string_normal(str, length);
+        _field_pos += _is_binary_format;
     } else {
         // Surround the string with two double-quotas.
         const size_t escaped_len = 2 + _length_after_escape(str, length, escape_char);
@@ -144,6 +259,7 @@ void MysqlRowBuffer::push_string(const char* str, size_t length, char escape_cha
 void MysqlRowBuffer::push_decimal(const Slice& s) {
     if (_array_level == 0) {
         _push_string_normal(s.data, s.size);
+        _field_pos += _is_binary_format;
     } else {
         char* pos = _resize_extra(s.size);
         strings::memcpy_inlined(pos, s.data, s.size);
@@ -185,6 +301,7 @@ void MysqlRowBuffer::_leave_scope(char c) {
             int1store(&_data[_array_offset - 1], 254);
             int8store(&_data[_array_offset], curr_scope_len);
         }
+        _field_pos += _is_binary_format;
     }
 }
 
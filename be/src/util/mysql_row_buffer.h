@@ -22,6 +22,8 @@
 #pragma once
 
 #include "storage/uint24.h"
+#include "types/date_value.h"
+#include "types/timestamp_value.h"
 #include "util/raw_container.h"
 #include "util/slice.h"
 
@@ -29,13 +31,18 @@ namespace starrocks {
 
 // Reference:
 //   https://dev.mysql.com/doc/internals/en/com-query-response.html#text-resultset-row
+//   https://dev.mysql.com/doc/internals/en/binary-protocol-resultset-row.html
+// In binary format, the values are encoded by their types except the elements of array and map, which are
+// encoded as text in one string value. Every row must be started by start_binary_row().
 class MysqlRowBuffer final {
 public:
-    MysqlRowBuffer() = default;
+    explicit MysqlRowBuffer(bool is_binary_format = false) : _is_binary_format(is_binary_format) {}
     ~MysqlRowBuffer() = default;
 
     void reset() { _data.clear(); }
 
+    void start_binary_row(uint32_t num_cols);
+
     void push_null();
     void push_tinyint(int8_t data) { push_number(data); }
     void push_smallint(int16_t data) { push_number(data); }
@@ -51,6 +58,10 @@ public:
     void push_number(T data);
     void push_number(uint24_t data) { push_number((uint32_t)data); }
     void push_decimal(const Slice& s);
+    void push_date(const DateValue& data);
+    void push_timestamp(const TimestampValue& data);
+    // TIME is represented as seconds
+    void push_time(double seconds);
 
     void begin_push_array() { _enter_scope('['); }
     void finish_push_array() { _leave_scope(']'); }
@@ -84,10 +95,19 @@ private:
     size_t _length_after_escape(const char* str, size_t length, char escape_char = '"');
     char* _escape(char* dst, const char* src, size_t length, char escape_char = '"');
     void _push_string_normal(const char* str, size_t lenght);
+    bool _is_binary_top_level() const { return _is_binary_format && _array_level == 0; }
+    template <typename T>
+    void _push_binary_number(T data);
+    void _push_binary_datetime(int year, int month, int day, int hour, int minute, int second, int usec);
 
     raw::RawString _data;
     uint32_t _array_level = 0;
     uint32_t _array_offset = 0;
+
+    const bool _is_binary_format;
+    // the offset of null bitmap and the index of next field in current binary row
+    size_t _null_bitmap_offset = 0;
+    uint32_t _field_pos = 0;
 };
 
 } // namespace starrocks
@@ -0,0 +1,82 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.analysis;
+
+import com.google.common.base.Preconditions;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.sql.ast.AstVisitor;
+import com.starrocks.thrift.TExprNode;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// The parameter marker '?' of the statement prepared by COM_STMT_PREPARE.
+// Its type is inferred from the context when analyzing, and the value bound by COM_STMT_EXECUTE
+// is cast to the type when planning, so the statement is only analyzed once.
+public class Parameter extends Expr {
+    // offset of the marker in the statement, the parameters are bound in the order of their positions
+    private final int position;
+    // The clones of a parameter share the bound value
+    private final AtomicReference<LiteralExpr> value;
+
+    public Parameter(int position) {
+        this.position = position;
+        this.value = new AtomicReference<>();
+    }
+
+    protected Parameter(Parameter other) {
+        super(other);
+        this.position = other.position;
+        this.value = other.value;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public LiteralExpr getValue() {
+        return value.get();
+    }
+
+    public void setValue(LiteralExpr value) {
+        this.value.set(value);
+    }
+
+    @Override
+    protected void analyzeImpl(Analyzer analyzer) throws AnalysisException {
+        throw new AnalysisException("Parameter markers are only supported by the new analyzer");
+    }
+
+    @Override
+    protected String toSqlImpl() {
+        return "?";
+    }
+
+    @Override
+    protected void toThrift(TExprNode msg) {
+        Preconditions.checkState(getValue() != null, "parameter is not bound");
+        getValue().toThrift(msg);
+    }
+
+    @Override
+    public Expr clone() {
+        return new Parameter(this);
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitParameter(this, context);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        return position == ((Parameter) o).position;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + position;
+    }
+}
@@ -20,21 +20,34 @@ package com.starrocks.analysis;
 public class RedirectStatus {
     private final boolean isForwardToLeader;
     private boolean needToWaitJournalSync;
+    // the statement only reads the replicated metadata, so it could be executed on the non-leader FE
+    // after the journals of the last write of the session are replayed
+    private final boolean isReadableAfterSync;
 
     public RedirectStatus() {
         isForwardToLeader = true;
         needToWaitJournalSync = true;
+        isReadableAfterSync = false;
     }
 
     public RedirectStatus(boolean isForwardToLeader, boolean needToWaitJournalSync) {
+        this(isForwardToLeader, needToWaitJournalSync, false);
+    }
+
+    public RedirectStatus(boolean isForwardToLeader, boolean needToWaitJournalSync, boolean isReadableAfterSync) {
         this.isForwardToLeader = isForwardToLeader;
         this.needToWaitJournalSync = needToWaitJournalSync;
+        this.isReadableAfterSync = isReadableAfterSync;
     }
 
     public boolean isForwardToLeader() {
         return isForwardToLeader;
     }
 
+    public boolean isReadableAfterSync() {
+        return isReadableAfterSync;
+    }
+
     public boolean isNeedToWaitJournalSync() {
         return needToWaitJournalSync;
     }
@@ -46,4 +59,6 @@ public class RedirectStatus {
     public static RedirectStatus FORWARD_NO_SYNC = new RedirectStatus(true, false);
     public static RedirectStatus FORWARD_WITH_SYNC = new RedirectStatus(true, true);
     public static RedirectStatus NO_FORWARD = new RedirectStatus(false, false);
+    // forward without sync, or read locally if the session enables enable_follower_read_your_writes
+    public static RedirectStatus FORWARD_OR_READ_AFTER_SYNC = new RedirectStatus(true, false, true);
 }
@@ -38,8 +38,11 @@ import com.starrocks.common.UserException;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.DebugUtil;
+import com.starrocks.common.util.IntentionLock;
+import com.starrocks.common.util.IntentionLock.Mode;
 import com.starrocks.common.util.QueryableReentrantReadWriteLock;
 import com.starrocks.common.util.Util;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.persist.CreateTableInfo;
 import com.starrocks.persist.DropInfo;
 import com.starrocks.server.GlobalStateMgr;
@@ -52,6 +55,8 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -84,7 +89,10 @@ public class Database extends MetaObject implements Writable {
 
     private long id;
     private String fullQualifiedName;
-    private QueryableReentrantReadWriteLock rwLock;
+    // The tables are locked hierarchically, see readLockTable() and writeLockTable().
+    private IntentionLock rwLock;
+    // table id -> lock of table, the lock is created when it is acquired for the first time
+    private final Map<Long, QueryableReentrantReadWriteLock> tableLocks = new ConcurrentHashMap<>();
 
     // table family group map
     private Map<Long, Table> idToTable;
@@ -115,7 +123,7 @@ public class Database extends MetaObject implements Writable {
         if (this.fullQualifiedName == null) {
             this.fullQualifiedName = "";
         }
-        this.rwLock = new QueryableReentrantReadWriteLock(true);
+        this.rwLock = new IntentionLock(true);
         this.idToTable = new ConcurrentHashMap<>();
         this.nameToTable = new ConcurrentHashMap<>();
         this.dataQuotaBytes = FeConstants.default_db_data_quota_bytes;
@@ -134,6 +142,9 @@ public class Database extends MetaObject implements Writable {
 
     private void logSlowLockEventIfNeeded(long startMs, String type, Thread formerOwner) {
         long endMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_DB_LOCK_WAIT_LATENCY.update(endMs - startMs);
+        }
         if (endMs - startMs > Config.slow_lock_threshold_ms &&
                 endMs > lastSlowLockLogTime + Config.slow_lock_log_every_ms) {
             lastSlowLockLogTime = endMs;
@@ -153,7 +164,7 @@ public class Database extends MetaObject implements Writable {
     public void readLock() {
         long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
         Thread formerOwner = rwLock.getOwner();
-        this.rwLock.readLock().lock();
+        this.rwLock.lock(Mode.SHARED);
         logSlowLockEventIfNeeded(startMs, "readLock", formerOwner);
     }
 
@@ -161,12 +172,12 @@ public class Database extends MetaObject implements Writable {
     public boolean readLockAndCheckExist() {
         long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
         Thread formerOwner = rwLock.getOwner();
-        this.rwLock.readLock().lock();
+        this.rwLock.lock(Mode.SHARED);
         logSlowLockEventIfNeeded(startMs, "readLock", formerOwner);
         if (exist) {
             return true;
         } else {
-            this.rwLock.readLock().unlock();
+            this.rwLock.unlock(Mode.SHARED);
             return false;
         }
     }
@@ -175,7 +186,7 @@ public class Database extends MetaObject implements Writable {
         try {
             long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
             Thread formerOwner = rwLock.getOwner();
-            if (!this.rwLock.readLock().tryLock(timeout, unit)) {
+            if (!this.rwLock.tryLock(Mode.SHARED, timeout, unit)) {
                 logTryLockFailureEvent("readLock");
                 return false;
             }
@@ -192,7 +203,7 @@ public class Database extends MetaObject implements Writable {
         try {
             long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
             Thread formerOwner = rwLock.getOwner();
-            if (!this.rwLock.readLock().tryLock(timeout, unit)) {
+            if (!this.rwLock.tryLock(Mode.SHARED, timeout, unit)) {
                 logTryLockFailureEvent("readLock");
                 return false;
             }
@@ -200,7 +211,7 @@ public class Database extends MetaObject implements Writable {
             if (exist) {
                 return true;
             } else {
-                this.rwLock.readLock().unlock();
+                this.rwLock.unlock(Mode.SHARED);
                 return false;
             }
         } catch (InterruptedException e) {
@@ -211,13 +222,13 @@ public class Database extends MetaObject implements Writable {
     }
 
     public void readUnlock() {
-        this.rwLock.readLock().unlock();
+        this.rwLock.unlock(Mode.SHARED);
     }
 
     public void writeLock() {
         long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
         Thread formerOwner = rwLock.getOwner();
-        this.rwLock.writeLock().lock();
+        this.rwLock.lock(Mode.EXCLUSIVE);
         logSlowLockEventIfNeeded(startMs, "writeLock", formerOwner);
     }
 
@@ -225,12 +236,12 @@ public class Database extends MetaObject implements Writable {
     public boolean writeLockAndCheckExist() {
         long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
         Thread formerOwner = rwLock.getOwner();
-        this.rwLock.writeLock().lock();
+        this.rwLock.lock(Mode.EXCLUSIVE);
         logSlowLockEventIfNeeded(startMs, "writeLock", formerOwner);
         if (exist) {
             return true;
         } else {
-            this.rwLock.writeLock().unlock();
+            this.rwLock.unlock(Mode.EXCLUSIVE);
             return false;
         }
     }
@@ -239,7 +250,7 @@ public class Database extends MetaObject implements Writable {
         try {
             long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
             Thread formerOwner = rwLock.getOwner();
-            if (!this.rwLock.writeLock().tryLock(timeout, unit)) {
+            if (!this.rwLock.tryLock(Mode.EXCLUSIVE, timeout, unit)) {
                 logTryLockFailureEvent("writeLock");
                 return false;
             }
@@ -256,7 +267,7 @@ public class Database extends MetaObject implements Writable {
         try {
             long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
             Thread formerOwner = rwLock.getOwner();
-            if (!this.rwLock.writeLock().tryLock(timeout, unit)) {
+            if (!this.rwLock.tryLock(Mode.EXCLUSIVE, timeout, unit)) {
                 logTryLockFailureEvent("tryWriteLock");
                 return false;
             }
@@ -264,7 +275,7 @@ public class Database extends MetaObject implements Writable {
             if (exist) {
                 return true;
             } else {
-                this.rwLock.writeLock().unlock();
+                this.rwLock.unlock(Mode.EXCLUSIVE);
                 return false;
             }
         } catch (InterruptedException e) {
@@ -275,11 +286,136 @@ public class Database extends MetaObject implements Writable {
     }
 
     public void writeUnlock() {
-        this.rwLock.writeLock().unlock();
+        this.rwLock.unlock(Mode.EXCLUSIVE);
     }
 
     public boolean isWriteLockHeldByCurrentThread() {
-        return this.rwLock.writeLock().isHeldByCurrentThread();
+        return this.rwLock.isExclusiveHeldByCurrentThread();
+    }
+
+    private QueryableReentrantReadWriteLock getTableLock(long tableId) {
+        return tableLocks.computeIfAbsent(tableId, k -> new QueryableReentrantReadWriteLock(false));
+    }
+
+    private void lockTables(Collection<Long> tableIds, boolean write) {
+        // lock the tables in the order of id to avoid deadlock
+        for (long tableId : tableIds.stream().sorted().distinct().toArray(Long[]::new)) {
+            QueryableReentrantReadWriteLock tableLock = getTableLock(tableId);
+            long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (write) {
+                tableLock.writeLock().lock();
+            } else {
+                tableLock.readLock().lock();
+            }
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_TABLE_LOCK_WAIT_LATENCY.update(
+                        TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS) - startMs);
+            }
+        }
+    }
+
+    private void unlockTables(Collection<Long> tableIds, boolean write) {
+        for (long tableId : tableIds.stream().distinct().toArray(Long[]::new)) {
+            if (write) {
+                getTableLock(tableId).writeLock().unlock();
+            } else {
+                getTableLock(tableId).readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Lock the db in intention shared mode and the tables in shared mode, so the operations on the other
+     * tables are not blocked. It is the same as readLock() if table level lock is disabled or tableIds is empty.
+     * The caller should only access the locked tables. Acquiring the write lock of db while holding them fails
+     * with IllegalStateException, since the lock can't be upgraded.
+     * The same tableIds should be passed to readUnlockTables().
+     */
+    public void readLockTables(Collection<Long> tableIds) {
+        if (!Config.enable_table_level_lock || tableIds.isEmpty()) {
+            readLock();
+            return;
+        }
+        long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+        Thread formerOwner = rwLock.getOwner();
+        rwLock.lock(Mode.INTENTION_SHARED);
+        logSlowLockEventIfNeeded(startMs, "readLockTables", formerOwner);
+        lockTables(tableIds, false);
+    }
+
+    public void readUnlockTables(Collection<Long> tableIds) {
+        if (!Config.enable_table_level_lock || tableIds.isEmpty()) {
+            readUnlock();
+            return;
+        }
+        unlockTables(tableIds, false);
+        rwLock.unlock(Mode.INTENTION_SHARED);
+    }
+
+    /**
+     * Lock the db in intention exclusive mode and the tables in exclusive mode. It is the same as writeLock()
+     * if table level lock is disabled or tableIds is empty.
+     * The caller should only modify the locked tables. Acquiring the read or write lock of db while holding
+     * the tables in write mode fails with IllegalStateException, since the writes to the other tables
+     * are not excluded by the table locks.
+     */
+    public void writeLockTables(Collection<Long> tableIds) {
+        if (!Config.enable_table_level_lock || tableIds.isEmpty()) {
+            writeLock();
+            return;
+        }
+        long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+        Thread formerOwner = rwLock.getOwner();
+        rwLock.lock(Mode.INTENTION_EXCLUSIVE);
+        logSlowLockEventIfNeeded(startMs, "writeLockTables", formerOwner);
+        lockTables(tableIds, true);
+    }
+
+    // Only the intention lock of db is acquired with timeout, the table locks are held for short time.
+    public boolean tryWriteLockTables(Collection<Long> tableIds, long timeout, TimeUnit unit) {
+        if (!Config.enable_table_level_lock || tableIds.isEmpty()) {
+            return tryWriteLock(timeout, unit);
+        }
+        try {
+            long startMs = TimeUnit.MILLISECONDS.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+            Thread formerOwner = rwLock.getOwner();
+            if (!rwLock.tryLock(Mode.INTENTION_EXCLUSIVE, timeout, unit)) {
+                logTryLockFailureEvent("tryWriteLockTables");
+                return false;
+            }
+            logSlowLockEventIfNeeded(startMs, "tryWriteLockTables", formerOwner);
+        } catch (InterruptedException e) {
+            LOG.warn("failed to try write lock tables at db[" + id + "]", e);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        lockTables(tableIds, true);
+        return true;
+    }
+
+    public void writeUnlockTables(Collection<Long> tableIds) {
+        if (!Config.enable_table_level_lock || tableIds.isEmpty()) {
+            writeUnlock();
+            return;
+        }
+        unlockTables(tableIds, true);
+        rwLock.unlock(Mode.INTENTION_EXCLUSIVE);
+    }
+
+    public void readLockTable(long tableId) {
+        readLockTables(Collections.singletonList(tableId));
+    }
+
+    public void readUnlockTable(long tableId) {
+        readUnlockTables(Collections.singletonList(tableId));
+    }
+
+    public void writeLockTable(long tableId) {
+        writeLockTables(Collections.singletonList(tableId));
+    }
+
+    public void writeUnlockTable(long tableId) {
+        writeUnlockTables(Collections.singletonList(tableId));
     }
 
     public long getId() {
@@ -518,6 +654,10 @@ public class Database extends MetaObject implements Writable {
         if (table != null) {
             this.nameToTable.remove(tableName);
             this.idToTable.remove(table.getId());
+            // nobody is holding or waiting for the table lock when the write lock of db is held
+            if (isWriteLockHeldByCurrentThread()) {
+                tableLocks.remove(table.getId());
+            }
         }
     }
 
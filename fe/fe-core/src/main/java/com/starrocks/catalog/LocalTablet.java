@@ -88,19 +88,22 @@ public class LocalTablet extends Tablet implements GsonPostProcessable {
     // no need to persist
     private long lastStatusCheckTime = -1;
 
+    // Most tablets have 3 replicas, allocate the list exactly instead of the default capacity of 10.
+    private static final int DEFAULT_REPLICA_CAPACITY = 3;
+
     public LocalTablet() {
-        this(0L, new ArrayList<>());
+        this(0L, new ArrayList<>(DEFAULT_REPLICA_CAPACITY));
     }
 
     public LocalTablet(long id) {
-        this(id, new ArrayList<>());
+        this(id, new ArrayList<>(DEFAULT_REPLICA_CAPACITY));
     }
 
     public LocalTablet(long id, List<Replica> replicas) {
         super(id);
         this.replicas = replicas;
         if (this.replicas == null) {
-            this.replicas = new ArrayList<>();
+            this.replicas = new ArrayList<>(DEFAULT_REPLICA_CAPACITY);
         }
 
         checkedVersion = -1L;
@@ -368,6 +371,9 @@ public class LocalTablet extends Tablet implements GsonPostProcessable {
 
         id = in.readLong();
         int replicaCount = in.readInt();
+        if (replicas instanceof ArrayList) {
+            ((ArrayList<Replica>) replicas).ensureCapacity(replicaCount);
+        }
         for (int i = 0; i < replicaCount; ++i) {
             Replica replica = Replica.read(in);
             if (deleteRedundantReplica(replica.getBackendId(), replica.getVersion())) {
@@ -393,6 +399,9 @@ public class LocalTablet extends Tablet implements GsonPostProcessable {
     public void gsonPostProcess() {
         // we need to update immutableReplicas, because replicas after deserialization from a json string
         // will be different from the replicas initiated in the constructor
+        if (replicas instanceof ArrayList) {
+            ((ArrayList<Replica>) replicas).trimToSize();
+        }
         immutableReplicas = Collections.unmodifiableList(replicas);
     }
 
@@ -26,6 +26,7 @@ import com.google.common.collect.Lists;
 import com.google.gson.annotations.SerializedName;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
+import com.starrocks.common.util.LongHashMap;
 import com.starrocks.lake.LakeTablet;
 import com.starrocks.persist.gson.GsonPostProcessable;
 import com.starrocks.server.GlobalStateMgr;
@@ -35,9 +36,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import javax.annotation.Nullable;
 
 public class MaterializedIndex extends MetaObject implements Writable, GsonPostProcessable {
@@ -89,7 +88,8 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     @SerializedName(value = "rowCount")
     private long rowCount;
 
-    private Map<Long, Tablet> idToTablets;
+    // tablet id -> tablet, keyed by primitive long to save the boxed keys and entries of millions of tablets
+    private LongHashMap<Tablet> idToTablets;
     @SerializedName(value = "tablets")
     // this is for keeping tablet order
     private List<Tablet> tablets;
@@ -123,7 +123,7 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     public MaterializedIndex(long id, @Nullable IndexState state, long visibleTxnId) {
         this.id = id;
         this.state = state == null ? IndexState.NORMAL : state;
-        this.idToTablets = new HashMap<>();
+        this.idToTablets = new LongHashMap<>();
         this.tablets = new ArrayList<>();
         this.rowCount = 0;
         this.visibleTxnId = (this.state == IndexState.SHADOW) ? visibleTxnId : 0;
@@ -278,6 +278,8 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
         rowCount = in.readLong();
 
         int tabletCount = in.readInt();
+        tablets = new ArrayList<>(tabletCount);
+        idToTablets = new LongHashMap<>(tabletCount);
         for (int i = 0; i < tabletCount; ++i) {
             // LakeTablet uses json serialization.
             Tablet tablet = LocalTablet.read(in);
@@ -304,8 +306,15 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
             return false;
         }
         MaterializedIndex other = (MaterializedIndex) obj;
-        return idToTablets.equals(other.idToTablets) && state.equals(other.state) && (rowCount == other.rowCount) &&
-                (visibleTxnId == other.visibleTxnId);
+        if (idToTablets.size() != other.idToTablets.size()) {
+            return false;
+        }
+        for (Tablet tablet : tablets) {
+            if (!tablet.equals(other.idToTablets.get(tablet.getId()))) {
+                return false;
+            }
+        }
+        return state.equals(other.state) && (rowCount == other.rowCount) && (visibleTxnId == other.visibleTxnId);
     }
 
     @Override
@@ -329,6 +338,10 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     @Override
     public void gsonPostProcess() {
         // build "idToTablets" from "tablets"
+        if (tablets instanceof ArrayList) {
+            ((ArrayList<Tablet>) tablets).trimToSize();
+        }
+        idToTablets = new LongHashMap<>(tablets.size());
         for (Tablet tablet : tablets) {
             idToTablets.put(tablet.getId(), tablet);
         }
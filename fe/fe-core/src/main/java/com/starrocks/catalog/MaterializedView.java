@@ -6,6 +6,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import com.google.gson.annotations.SerializedName;
 import com.starrocks.analysis.DescriptorTable.ReferencedPartitionInfo;
@@ -31,6 +32,7 @@ import com.starrocks.sql.analyzer.Field;
 import com.starrocks.sql.analyzer.RelationFields;
 import com.starrocks.sql.analyzer.RelationId;
 import com.starrocks.sql.analyzer.Scope;
+import com.starrocks.sql.common.SyncPartitionUtils;
 import com.starrocks.sql.optimizer.Utils;
 import com.starrocks.statistic.StatsConstants;
 import com.starrocks.thrift.TTableDescriptor;
@@ -44,6 +46,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -228,6 +231,11 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
             return baseTableVisibleVersionMap;
         }
 
+        // replace the partition infos of the refreshed base tables
+        public void updateBaseTableVisibleVersionMap(Map<Long, Map<String, BasePartitionInfo>> versionMap) {
+            baseTableVisibleVersionMap.putAll(versionMap);
+        }
+
         public boolean isDefineStartTime() {
             return defineStartTime;
         }
@@ -405,10 +413,11 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
         }
 
         OlapTable baseTable = (OlapTable) base;
+        // do not modify the version map here, it is also called by the queries to check the freshness
         Map<String, BasePartitionInfo> baseTableVisibleVersionMap = getRefreshScheme()
                 .getAsyncRefreshContext()
                 .getBaseTableVisibleVersionMap()
-                .computeIfAbsent(baseTable.getId(), k -> Maps.newHashMap());
+                .getOrDefault(baseTable.getId(), Collections.emptyMap());
         Set<String> result = Sets.newHashSet();
         // check whether there are partitions added
         for (String partitionName : baseTable.getPartitionNames()) {
@@ -435,6 +444,103 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
         return result;
     }
 
+    /**
+     * Return the base table which the partitions of this materialized view are derived from,
+     * or null if this materialized view is not partitioned.
+     */
+    public OlapTable getPartitionRefBaseTable() {
+        if (!(partitionInfo instanceof ExpressionRangePartitionInfo) || partitionRefTableExprs == null
+                || partitionRefTableExprs.isEmpty()) {
+            return null;
+        }
+        List<SlotRef> slotRefs = Lists.newArrayList();
+        partitionRefTableExprs.get(0).collect(SlotRef.class, slotRefs);
+        if (slotRefs.size() != 1 || slotRefs.get(0).getTblNameWithoutAnalyzed() == null) {
+            return null;
+        }
+        String tableName = slotRefs.get(0).getTblNameWithoutAnalyzed().getTbl();
+        for (BaseTableInfo baseTableInfo : baseTableInfos) {
+            if (tableName.equals(baseTableInfo.getTableName())) {
+                Table table = baseTableInfo.getTable();
+                return table != null && table.isOlapTable() ? (OlapTable) table : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the names of the partitions which are not refreshed since their base partitions changed.
+     * Return null if it could not be told, e.g. the materialized view is inactive or has external base tables.
+     */
+    public Set<String> getStalePartitionNames() {
+        if (!active || refreshScheme == null || refreshScheme.getType() != RefreshType.ASYNC) {
+            return null;
+        }
+        List<OlapTable> baseTables = Lists.newArrayList();
+        for (BaseTableInfo baseTableInfo : baseTableInfos) {
+            Table table = baseTableInfo.getTable();
+            if (table == null || !table.isOlapTable()) {
+                return null;
+            }
+            baseTables.add((OlapTable) table);
+        }
+        OlapTable refBaseTable = getPartitionRefBaseTable();
+        if (partitionInfo instanceof ExpressionRangePartitionInfo && refBaseTable == null) {
+            return null;
+        }
+        for (OlapTable baseTable : baseTables) {
+            if (baseTable != refBaseTable && !getNeedRefreshPartitionNames(baseTable).isEmpty()) {
+                // the change of a non-partition base table affects all the partitions
+                return Sets.newHashSet(getPartitionNames());
+            }
+        }
+        Set<String> stalePartitionNames = Sets.newHashSet();
+        if (refBaseTable == null) {
+            return stalePartitionNames;
+        }
+        Map<String, Range<PartitionKey>> baseRangeMap = refBaseTable.getRangePartitionMap();
+        Map<String, Range<PartitionKey>> mvRangeMap = getRangePartitionMap();
+        Map<String, Set<String>> baseToMvNameRef = SyncPartitionUtils.generatePartitionRefMap(baseRangeMap, mvRangeMap);
+        Map<String, Set<String>> mvToBaseNameRef = SyncPartitionUtils.generatePartitionRefMap(mvRangeMap, baseRangeMap);
+        for (Map.Entry<String, Set<String>> entry : mvToBaseNameRef.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                // the base partitions are dropped, while the rows of them are kept until refreshed
+                stalePartitionNames.add(entry.getKey());
+            }
+        }
+        Set<String> baseChangedPartitionNames = getNeedRefreshPartitionNames(refBaseTable);
+        if (baseChangedPartitionNames.isEmpty()) {
+            return stalePartitionNames;
+        }
+        for (String baseChangedPartitionName : baseChangedPartitionNames) {
+            Set<String> mvPartitionNames = baseToMvNameRef.get(baseChangedPartitionName);
+            if (mvPartitionNames == null) {
+                // the base partition is dropped or not synced yet
+                return Sets.newHashSet(getPartitionNames());
+            }
+            stalePartitionNames.addAll(mvPartitionNames);
+        }
+        SyncPartitionUtils.calcPotentialRefreshPartition(stalePartitionNames, baseChangedPartitionNames,
+                baseToMvNameRef, mvToBaseNameRef);
+        return stalePartitionNames;
+    }
+
+    /**
+     * Return the names of the partitions of the partition ref base table, which the given partitions are
+     * refreshed from.
+     */
+    public Set<String> getRefBasePartitionNames(Set<String> mvPartitionNames) {
+        OlapTable refBaseTable = getPartitionRefBaseTable();
+        Preconditions.checkState(refBaseTable != null);
+        Map<String, Set<String>> mvToBaseNameRef = SyncPartitionUtils.generatePartitionRefMap(
+                getRangePartitionMap(), refBaseTable.getRangePartitionMap());
+        Set<String> basePartitionNames = Sets.newHashSet();
+        for (String mvPartitionName : mvPartitionNames) {
+            basePartitionNames.addAll(mvToBaseNameRef.getOrDefault(mvPartitionName, Collections.emptySet()));
+        }
+        return basePartitionNames;
+    }
+
     @Override
     public TTableDescriptor toThrift(List<ReferencedPartitionInfo> partitions) {
         TTableDescriptor tTableDescriptor = new TTableDescriptor(id, TTableType.MATERIALIZED_VIEW,
@@ -499,7 +605,7 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
                 active = false;
                 continue;
             }
-            table.addRelatedMaterializedView(id);
+            table.addRelatedMaterializedView(dbId, id);
         }
         if (partitionInfo instanceof SinglePartitionInfo) {
             return;
@@ -25,7 +25,6 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.gson.annotations.SerializedName;
 import com.starrocks.analysis.DescriptorTable.ReferencedPartitionInfo;
 import com.starrocks.common.FeMetaVersion;
@@ -123,14 +122,14 @@ public class Table extends MetaObject implements Writable {
     protected String comment = "";
 
     // not serialized field
-    // record all materialized views based on this Table
-    private Set<Long> relatedMaterializedViews;
+    // record all materialized views based on this Table, materialized view id -> db id
+    private Map<Long, Long> relatedMaterializedViews;
 
     public Table(TableType type) {
         this.type = type;
         this.fullSchema = Lists.newArrayList();
         this.nameToColumn = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
-        this.relatedMaterializedViews = Sets.newConcurrentHashSet();
+        this.relatedMaterializedViews = Maps.newConcurrentMap();
     }
 
     public Table(long id, String tableName, TableType type, List<Column> fullSchema) {
@@ -151,7 +150,7 @@ public class Table extends MetaObject implements Writable {
             Preconditions.checkArgument(type == TableType.VIEW, "Table has no columns");
         }
         this.createTime = Instant.now().getEpochSecond();
-        this.relatedMaterializedViews = Sets.newConcurrentHashSet();
+        this.relatedMaterializedViews = Maps.newConcurrentMap();
     }
 
     public boolean isTypeRead() {
@@ -506,8 +505,8 @@ public class Table extends MetaObject implements Writable {
     }
 
     // should call this when create materialized view
-    public void addRelatedMaterializedView(long mvId) {
-        relatedMaterializedViews.add(mvId);
+    public void addRelatedMaterializedView(long dbId, long mvId) {
+        relatedMaterializedViews.put(mvId, dbId);
     }
 
     // should call this when drop materialized view
@@ -516,7 +515,12 @@ public class Table extends MetaObject implements Writable {
     }
 
     public Set<Long> getRelatedMaterializedViews() {
-        return relatedMaterializedViews;
+        return relatedMaterializedViews.keySet();
+    }
+
+    // return null if the materialized view is not based on this table
+    public Long getRelatedMaterializedViewDbId(long mvId) {
+        return relatedMaterializedViews.get(mvId);
     }
 
 }
@@ -23,14 +23,14 @@ package com.starrocks.catalog;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Table;
 import com.starrocks.catalog.Replica.ReplicaState;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
+import com.starrocks.common.util.LongHashMap;
+import com.starrocks.common.util.LongLongHashMap;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.thrift.TPartitionVersionInfo;
@@ -46,12 +46,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 /*
  * this class stores a inverted index
@@ -67,37 +67,39 @@ public class TabletInvertedIndex {
     public static final TabletMeta NOT_EXIST_TABLET_META = new TabletMeta(NOT_EXIST_VALUE, NOT_EXIST_VALUE,
             NOT_EXIST_VALUE, NOT_EXIST_VALUE, NOT_EXIST_VALUE, TStorageMedium.HDD);
 
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // The index is sharded by tablet id, every shard has its own lock, so the report handling, the
+    // tablet scheduling and the DDL on different tablets do not block each other.
+    private static final int SHARD_NUM = 64;
 
-    // tablet id -> tablet meta
-    private Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+    private final Shard[] shards = new Shard[SHARD_NUM];
 
-    // replica id -> tablet id
-    private Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
-
-    // tablet id -> (backend id -> replica)
-    private Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
-    // backing replica table, for visiting backend replicas faster.
-    // backend id -> (tablet id -> replica)
-    private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
+    // replica id -> tablet id, striped by replica id. The stripe is locked after the shard of the tablet,
+    // and no other lock is acquired when holding it.
+    private final LongLongHashMap[] replicaToTabletMaps = new LongLongHashMap[SHARD_NUM];
 
     public TabletInvertedIndex() {
+        for (int i = 0; i < SHARD_NUM; i++) {
+            shards[i] = new Shard();
+            replicaToTabletMaps[i] = new LongLongHashMap(NOT_EXIST_VALUE);
+        }
     }
 
-    private void readLock() {
-        this.lock.readLock().lock();
-    }
-
-    private void readUnlock() {
-        this.lock.readLock().unlock();
+    private Shard getShard(long tabletId) {
+        return shards[(int) (tabletId & (SHARD_NUM - 1))];
     }
 
-    private void writeLock() {
-        this.lock.writeLock().lock();
+    private void mapReplicaToTablet(long replicaId, long tabletId) {
+        LongLongHashMap replicaToTabletMap = replicaToTabletMaps[(int) (replicaId & (SHARD_NUM - 1))];
+        synchronized (replicaToTabletMap) {
+            replicaToTabletMap.put(replicaId, tabletId);
+        }
     }
 
-    private void writeUnlock() {
-        this.lock.writeLock().unlock();
+    private void unmapReplicaToTablet(long replicaId) {
+        LongLongHashMap replicaToTabletMap = replicaToTabletMaps[(int) (replicaId & (SHARD_NUM - 1))];
+        synchronized (replicaToTabletMap) {
+            replicaToTabletMap.remove(replicaId);
+        }
     }
 
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
@@ -127,154 +129,169 @@ public class TabletInvertedIndex {
             backendStorageTypeCnt = be.getAvailableBackendStorageTypeCnt();
         }
 
-        readLock();
         long start = System.currentTimeMillis();
-        try {
-            LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                // traverse replicas in meta with this backend
-                for (Map.Entry<Long, Replica> entry : replicaMetaWithBackend.entrySet()) {
-                    long tabletId = entry.getKey();
-                    Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
-
-                    if (tabletMeta.isLakeTablet()) {
-                        continue;
-                    }
-
-                    if (backendTablets.containsKey(tabletId)) {
-                        TTablet backendTablet = backendTablets.get(tabletId);
-                        Replica replica = entry.getValue();
-                        for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
-                            if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
-                                foundTabletsWithValidSchema.add(tabletId);
-                                // 1. (intersection)
-                                if (needSync(replica, backendTabletInfo)) {
-                                    // need sync
-                                    tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
-                                }
-
-                                // check and set path
-                                // path info of replica is only saved in Leader FE
-                                if (backendTabletInfo.isSetPath_hash() &&
-                                        replica.getPathHash() != backendTabletInfo.getPath_hash()) {
-                                    replica.setPathHash(backendTabletInfo.getPath_hash());
-                                }
+        LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
+        for (Shard shard : shards) {
+            long[] tabletIds;
+            Replica[] replicas;
+            TabletMeta[] tabletMetas;
+            shard.readLock();
+            try {
+                LongHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend == null) {
+                    continue;
+                }
+                tabletIds = replicaMetaWithBackend.keys();
+                replicas = new Replica[tabletIds.length];
+                tabletMetas = new TabletMeta[tabletIds.length];
+                for (int i = 0; i < tabletIds.length; i++) {
+                    replicas[i] = replicaMetaWithBackend.get(tabletIds[i]);
+                    tabletMetas[i] = shard.tabletMetaMap.get(tabletIds[i]);
+                    Preconditions.checkState(tabletMetas[i] != null);
+                }
+            } finally {
+                shard.readUnlock();
+            }
 
-                                if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
-                                        && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
-                                    // update the schema hash only when replica is normal
-                                    replica.setSchemaHash(backendTabletInfo.getSchema_hash());
-                                }
+            // traverse replicas in meta with this backend, the lock is not needed because it only protects
+            // the index, not the replicas and tablet metas.
+            for (int i = 0; i < tabletIds.length; i++) {
+                long tabletId = tabletIds[i];
+                TabletMeta tabletMeta = tabletMetas[i];
 
-                                if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
-                                    LOG.warn("replica {} of tablet {} on backend {} need recovery. "
-                                                    + "replica in FE: {}, report version {}, report schema hash: {},"
-                                                    + " is bad: {}, is version missing: {}",
-                                            replica.getId(), tabletId, backendId, replica,
-                                            backendTabletInfo.getVersion(),
-                                            backendTabletInfo.getSchema_hash(),
-                                            backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
-                                            backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() :
-                                                    "unset");
-                                    tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
-                                }
+                if (tabletMeta.isLakeTablet()) {
+                    continue;
+                }
 
-                                // check if need migration
-                                long partitionId = tabletMeta.getPartitionId();
-                                TStorageMedium storageMedium = storageMediumMap.get(partitionId);
-                                if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
-                                    // If storage medium is less than 1, there is no need to send migration tasks to BE.
-                                    // Because BE will ignore this request.
-                                    if (storageMedium != backendTabletInfo.getStorage_medium()) {
-                                        if (backendStorageTypeCnt <= 1) {
-                                            LOG.debug("available storage medium type count is less than 1, " +
-                                                            "no need to send migrate task. tabletId={}, backendId={}.",
-                                                    tabletId, backendId);
-                                        } else if (tabletMigrationMap.size() <=
-                                                Config.tablet_sched_max_migration_task_sent_once) {
-                                            tabletMigrationMap.put(storageMedium, tabletId);
-                                        }
-                                    }
-                                    if (storageMedium != tabletMeta.getStorageMedium()) {
-                                        tabletMeta.setStorageMedium(storageMedium);
+                if (backendTablets.containsKey(tabletId)) {
+                    TTablet backendTablet = backendTablets.get(tabletId);
+                    Replica replica = replicas[i];
+                    for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
+                        if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
+                            foundTabletsWithValidSchema.add(tabletId);
+                            // 1. (intersection)
+                            if (needSync(replica, backendTabletInfo)) {
+                                // need sync
+                                tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
+                            }
+
+                            // check and set path
+                            // path info of replica is only saved in Leader FE
+                            if (backendTabletInfo.isSetPath_hash() &&
+                                    replica.getPathHash() != backendTabletInfo.getPath_hash()) {
+                                replica.setPathHash(backendTabletInfo.getPath_hash());
+                            }
+
+                            if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
+                                    && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
+                                // update the schema hash only when replica is normal
+                                replica.setSchemaHash(backendTabletInfo.getSchema_hash());
+                            }
+
+                            if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
+                                LOG.warn("replica {} of tablet {} on backend {} need recovery. "
+                                                + "replica in FE: {}, report version {}, report schema hash: {},"
+                                                + " is bad: {}, is version missing: {}",
+                                        replica.getId(), tabletId, backendId, replica,
+                                        backendTabletInfo.getVersion(),
+                                        backendTabletInfo.getSchema_hash(),
+                                        backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
+                                        backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() :
+                                                "unset");
+                                tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
+                            }
+
+                            // check if need migration
+                            long partitionId = tabletMeta.getPartitionId();
+                            TStorageMedium storageMedium = storageMediumMap.get(partitionId);
+                            if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
+                                // If storage medium is less than 1, there is no need to send migration tasks to BE.
+                                // Because BE will ignore this request.
+                                if (storageMedium != backendTabletInfo.getStorage_medium()) {
+                                    if (backendStorageTypeCnt <= 1) {
+                                        LOG.debug("available storage medium type count is less than 1, " +
+                                                        "no need to send migrate task. tabletId={}, backendId={}.",
+                                                tabletId, backendId);
+                                    } else if (tabletMigrationMap.size() <=
+                                            Config.tablet_sched_max_migration_task_sent_once) {
+                                        tabletMigrationMap.put(storageMedium, tabletId);
                                     }
                                 }
-                                // check if should clear transactions
-                                if (backendTabletInfo.isSetTransaction_ids()) {
-                                    List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
-                                    GlobalTransactionMgr transactionMgr =
-                                            GlobalStateMgr.getCurrentGlobalTransactionMgr();
-                                    for (Long transactionId : transactionIds) {
-                                        TransactionState transactionState =
-                                                transactionMgr.getTransactionState(tabletMeta.getDbId(), transactionId);
-                                        if (transactionState == null ||
-                                                transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
-                                            transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
-                                            LOG.debug("transaction id [{}] is not valid any more, "
-                                                    + "clear it from backend [{}]", transactionId, backendId);
-                                        } else if (transactionState.getTransactionStatus() ==
-                                                TransactionStatus.VISIBLE) {
-                                            TableCommitInfo tableCommitInfo =
-                                                    transactionState.getTableCommitInfo(tabletMeta.getTableId());
-                                            PartitionCommitInfo partitionCommitInfo =
-                                                    tableCommitInfo.getPartitionCommitInfo(partitionId);
-                                            if (partitionCommitInfo == null) {
-                                                /*
-                                                 * This may happen as follows:
-                                                 * 1. txn is committed on BE, and report commit info to FE
-                                                 * 2. FE received report and begin to assemble partitionCommitInfos.
-                                                 * 3. At the same time, some of partitions have been dropped, so
-                                                 *    partitionCommitInfos does not contain these partitions.
-                                                 * 4. So we will not able to get partitionCommitInfo here.
-                                                 *
-                                                 * Just print a log to observe
-                                                 */
-                                                LOG.info(
-                                                        "failed to find partition commit info. table: {}, " +
-                                                                "partition: {}, tablet: {}, txn_id: {}",
-                                                        tabletMeta.getTableId(), partitionId, tabletId,
-                                                        transactionState.getTransactionId());
-                                            } else {
-                                                TPartitionVersionInfo versionInfo =
-                                                        new TPartitionVersionInfo(tabletMeta.getPartitionId(),
-                                                                partitionCommitInfo.getVersion(), 0);
-                                                ListMultimap<Long, TPartitionVersionInfo> map =
-                                                        transactionsToPublish.get(transactionState.getDbId());
-                                                if (map == null) {
-                                                    map = ArrayListMultimap.create();
-                                                    transactionsToPublish.put(transactionState.getDbId(), map);
-                                                }
-                                                map.put(transactionId, versionInfo);
-                                                transactionsToCommitTime.put(transactionId,
-                                                        transactionState.getCommitTime());
+                                if (storageMedium != tabletMeta.getStorageMedium()) {
+                                    tabletMeta.setStorageMedium(storageMedium);
+                                }
+                            }
+                            // check if should clear transactions
+                            if (backendTabletInfo.isSetTransaction_ids()) {
+                                List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
+                                GlobalTransactionMgr transactionMgr =
+                                        GlobalStateMgr.getCurrentGlobalTransactionMgr();
+                                for (Long transactionId : transactionIds) {
+                                    TransactionState transactionState =
+                                            transactionMgr.getTransactionState(tabletMeta.getDbId(), transactionId);
+                                    if (transactionState == null ||
+                                            transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
+                                        transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
+                                        LOG.debug("transaction id [{}] is not valid any more, "
+                                                + "clear it from backend [{}]", transactionId, backendId);
+                                    } else if (transactionState.getTransactionStatus() ==
+                                            TransactionStatus.VISIBLE) {
+                                        TableCommitInfo tableCommitInfo =
+                                                transactionState.getTableCommitInfo(tabletMeta.getTableId());
+                                        PartitionCommitInfo partitionCommitInfo =
+                                                tableCommitInfo.getPartitionCommitInfo(partitionId);
+                                        if (partitionCommitInfo == null) {
+                                            /*
+                                             * This may happen as follows:
+                                             * 1. txn is committed on BE, and report commit info to FE
+                                             * 2. FE received report and begin to assemble partitionCommitInfos.
+                                             * 3. At the same time, some of partitions have been dropped, so
+                                             *    partitionCommitInfos does not contain these partitions.
+                                             * 4. So we will not able to get partitionCommitInfo here.
+                                             *
+                                             * Just print a log to observe
+                                             */
+                                            LOG.info(
+                                                    "failed to find partition commit info. table: {}, " +
+                                                            "partition: {}, tablet: {}, txn_id: {}",
+                                                    tabletMeta.getTableId(), partitionId, tabletId,
+                                                    transactionState.getTransactionId());
+                                        } else {
+                                            TPartitionVersionInfo versionInfo =
+                                                    new TPartitionVersionInfo(tabletMeta.getPartitionId(),
+                                                            partitionCommitInfo.getVersion(), 0);
+                                            ListMultimap<Long, TPartitionVersionInfo> map =
+                                                    transactionsToPublish.get(transactionState.getDbId());
+                                            if (map == null) {
+                                                map = ArrayListMultimap.create();
+                                                transactionsToPublish.put(transactionState.getDbId(), map);
                                             }
+                                            map.put(transactionId, versionInfo);
+                                            transactionsToCommitTime.put(transactionId,
+                                                    transactionState.getCommitTime());
                                         }
                                     }
-                                } // end for txn id
-
-                                // update replicas's version count
-                                // no need to write log, and no need to get db lock.
-                                if (backendTabletInfo.isSetVersion_count()) {
-                                    replica.setVersionCount(backendTabletInfo.getVersion_count());
                                 }
-                            } else {
-                                // tablet with invalid schemahash
-                                foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
-                            } // end for be tablet info
-                        }
-                    } else {
-                        // 2. (meta - be)
-                        // may need delete from meta
-                        LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
-                        tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
+                            } // end for txn id
+
+                            // update replicas's version count
+                            // no need to write log, and no need to get db lock.
+                            if (backendTabletInfo.isSetVersion_count()) {
+                                replica.setVersionCount(backendTabletInfo.getVersion_count());
+                            }
+                        } else {
+                            // tablet with invalid schemahash
+                            foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
+                        } // end for be tablet info
                     }
-                } // end for replicaMetaWithBackend
-            }
-        } finally {
-            readUnlock();
-        }
+                } else {
+                    // 2. (meta - be)
+                    // may need delete from meta
+                    LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
+                    tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
+                }
+            } // end for replicas of shard
+        } // end for shards
 
         long end = System.currentTimeMillis();
         LOG.info("finished to do tablet diff with backend[{}]. sync: {}. metaDel: {}. foundValid: {}. foundInvalid: {}."
@@ -285,34 +302,36 @@ public class TabletInvertedIndex {
     }
 
     public Long getTabletIdByReplica(long replicaId) {
-        readLock();
-        try {
-            return replicaToTabletMap.get(replicaId);
-        } finally {
-            readUnlock();
+        LongLongHashMap replicaToTabletMap = replicaToTabletMaps[(int) (replicaId & (SHARD_NUM - 1))];
+        long tabletId;
+        synchronized (replicaToTabletMap) {
+            tabletId = replicaToTabletMap.get(replicaId);
         }
+        return tabletId == NOT_EXIST_VALUE ? null : tabletId;
     }
 
     public TabletMeta getTabletMeta(long tabletId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            return tabletMetaMap.get(tabletId);
+            return shard.tabletMetaMap.get(tabletId);
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
     public List<TabletMeta> getTabletMetaList(List<Long> tabletIdList) {
         List<TabletMeta> tabletMetaList = new ArrayList<>(tabletIdList.size());
-        readLock();
-        try {
-            for (Long tabletId : tabletIdList) {
-                tabletMetaList.add(tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
+        for (Long tabletId : tabletIdList) {
+            Shard shard = getShard(tabletId);
+            shard.readLock();
+            try {
+                tabletMetaList.add(shard.tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
+            } finally {
+                shard.readUnlock();
             }
-            return tabletMetaList;
-        } finally {
-            readUnlock();
         }
+        return tabletMetaList;
     }
 
     private boolean needSync(Replica replicaInFe, TTabletInfo backendTabletInfo) {
@@ -391,18 +410,63 @@ public class TabletInvertedIndex {
         return false;
     }
 
+
     // always add tablet before adding replicas
     public void addTablet(long tabletId, TabletMeta tabletMeta) {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            tabletMetaMap.putIfAbsent(tabletId, tabletMeta);
+            shard.tabletMetaMap.putIfAbsent(tabletId, tabletMeta);
 
             LOG.debug("add tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
+        }
+    }
+
+    /**
+     * Add the tablets of one materialized index and their replicas, the tablets in the same shard are
+     * added under one write lock, used to rebuild the inverted index after loading image.
+     */
+    public void addTablets(TabletMeta tabletMeta, List<Tablet> tablets) {
+        if (GlobalStateMgr.isCheckpointThread()) {
+            return;
+        }
+        List<List<Tablet>> tabletsOfShards = new ArrayList<>(SHARD_NUM);
+        for (int i = 0; i < SHARD_NUM; i++) {
+            tabletsOfShards.add(null);
+        }
+        for (Tablet tablet : tablets) {
+            int shardIdx = (int) (tablet.getId() & (SHARD_NUM - 1));
+            if (tabletsOfShards.get(shardIdx) == null) {
+                tabletsOfShards.set(shardIdx, new ArrayList<>());
+            }
+            tabletsOfShards.get(shardIdx).add(tablet);
+        }
+        for (int i = 0; i < SHARD_NUM; i++) {
+            List<Tablet> tabletsOfShard = tabletsOfShards.get(i);
+            if (tabletsOfShard == null) {
+                continue;
+            }
+            Shard shard = shards[i];
+            shard.writeLock();
+            try {
+                for (Tablet tablet : tabletsOfShard) {
+                    long tabletId = tablet.getId();
+                    shard.tabletMetaMap.putIfAbsent(tabletId, tabletMeta);
+                    if (tablet instanceof LocalTablet) {
+                        for (Replica replica : ((LocalTablet) tablet).getImmutableReplicas()) {
+                            shard.putReplica(tabletId, replica);
+                            mapReplicaToTablet(replica.getId(), tabletId);
+                        }
+                    }
+                }
+            } finally {
+                shard.writeUnlock();
+            }
         }
     }
 
@@ -410,23 +474,21 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Map<Long, Replica> replicas = replicaMetaTable.rowMap().remove(tabletId);
+            Replica[] replicas = shard.replicaMetaTable.remove(tabletId);
             if (replicas != null) {
-                for (Replica replica : replicas.values()) {
-                    replicaToTabletMap.remove(replica.getId());
-                }
-
-                for (long backendId : replicas.keySet()) {
-                    backingReplicaMetaTable.remove(backendId, tabletId);
+                for (Replica replica : replicas) {
+                    unmapReplicaToTablet(replica.getId());
+                    shard.removeBackingReplica(replica.getBackendId(), tabletId);
                 }
             }
-            tabletMetaMap.remove(tabletId);
+            shard.tabletMetaMap.remove(tabletId);
 
             LOG.debug("delete tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -434,16 +496,16 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
-            replicaToTabletMap.put(replica.getId(), tabletId);
-            backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            shard.putReplica(tabletId, replica);
+            mapReplicaToTablet(replica.getId(), tabletId);
             LOG.debug("add replica {} of tablet {} in backend {}",
                     replica.getId(), tabletId, replica.getBackendId());
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -451,45 +513,47 @@ public class TabletInvertedIndex {
         if (GlobalStateMgr.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            if (replicaMetaTable.containsRow(tabletId)) {
-                Replica replica = replicaMetaTable.remove(tabletId, backendId);
-                replicaToTabletMap.remove(replica.getId());
-                replicaMetaTable.remove(tabletId, backendId);
-                backingReplicaMetaTable.remove(backendId, tabletId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            Replica replica = shard.removeReplica(tabletId, backendId);
+            if (replica != null) {
+                unmapReplicaToTablet(replica.getId());
                 LOG.debug("delete replica {} of tablet {} in backend {}",
                         replica.getId(), tabletId, backendId);
             } else {
                 // this may happen when fe restart after tablet is empty(bug cause)
                 // add log instead of assertion to observe
-                LOG.error("tablet[{}] contains no replica in inverted index", tabletId);
+                LOG.error("tablet[{}] contains no replica in backend {} in inverted index", tabletId, backendId);
             }
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
     public Replica getReplica(long tabletId, long backendId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
-            return replicaMetaTable.get(tabletId, backendId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId), tabletId);
+            return shard.getReplica(tabletId, backendId);
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            if (replicaMetaTable.containsRow(tabletId)) {
-                return Lists.newArrayList(replicaMetaTable.row(tabletId).values());
+            Replica[] replicas = shard.replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                return Lists.newArrayList(replicas);
             }
             return Lists.newArrayList();
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
@@ -501,95 +565,109 @@ public class TabletInvertedIndex {
      * @return list of replica or null if backend not found
      */
     public List<Replica> getReplicasOnBackendByTabletIds(List<Long> tabletIds, long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                List<Replica> replicas = Lists.newArrayList();
-                for (long tabletId : tabletIds) {
-                    replicas.add(replicaMetaWithBackend.get(tabletId));
-                }
-                return replicas;
+        List<Replica> replicas = Lists.newArrayListWithCapacity(tabletIds.size());
+        for (long tabletId : tabletIds) {
+            Shard shard = getShard(tabletId);
+            shard.readLock();
+            try {
+                replicas.add(shard.getReplica(tabletId, backendId));
+            } finally {
+                shard.readUnlock();
             }
-            return null;
-        } finally {
-            readUnlock();
         }
+        return replicas;
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds.addAll(replicaMetaWithBackend.keySet());
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    for (long tabletId : replicaMetaWithBackend.keys()) {
+                        tabletIds.add(tabletId);
+                    }
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds = replicaMetaWithBackend.keySet().stream().filter(
-                        id -> tabletMetaMap.get(id).getStorageMedium() == storageMedium).collect(Collectors.toList());
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    for (long tabletId : replicaMetaWithBackend.keys()) {
+                        if (shard.tabletMetaMap.get(tabletId).getStorageMedium() == storageMedium) {
+                            tabletIds.add(tabletId);
+                        }
+                    }
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public long getTabletNumByBackendId(long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.size();
+        long num = 0;
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    num += replicaMetaWithBackend.size();
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return num;
     }
 
     public long getTabletNumByBackendIdAndPathHash(long backendId, long pathHash) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.values().stream().filter(r -> r.getPathHash() == pathHash).count();
+        long num = 0;
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    num += replicaMetaWithBackend.values().stream().filter(r -> r.getPathHash() == pathHash).count();
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return num;
     }
 
     public Map<TStorageMedium, Long> getReplicaNumByBeIdAndStorageMedium(long backendId) {
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
         long hddNum = 0;
         long ssdNum = 0;
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                for (long tabletId : replicaMetaWithBackend.keySet()) {
-                    if (tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
-                        hddNum++;
-                    } else {
-                        ssdNum++;
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                LongHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    for (long tabletId : replicaMetaWithBackend.keys()) {
+                        if (shard.tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
+                            hddNum++;
+                        } else {
+                            ssdNum++;
+                        }
                     }
                 }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         replicaNumMap.put(TStorageMedium.HDD, hddNum);
         replicaNumMap.put(TStorageMedium.SSD, ssdNum);
@@ -598,15 +676,119 @@ public class TabletInvertedIndex {
 
     // just for test
     public void clear() {
-        writeLock();
-        try {
-            tabletMetaMap.clear();
-            replicaToTabletMap.clear();
-            replicaMetaTable.clear();
-            backingReplicaMetaTable.clear();
-        } finally {
-            writeUnlock();
+        for (int i = 0; i < SHARD_NUM; i++) {
+            Shard shard = shards[i];
+            shard.writeLock();
+            try {
+                shard.tabletMetaMap.clear();
+                shard.replicaMetaTable.clear();
+                shard.backingReplicaMetaTable.clear();
+            } finally {
+                shard.writeUnlock();
+            }
+            synchronized (replicaToTabletMaps[i]) {
+                replicaToTabletMaps[i].clear();
+            }
         }
     }
-}
 
+    private static class Shard {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // tablet id -> tablet meta
+        private final LongHashMap<TabletMeta> tabletMetaMap = new LongHashMap<>();
+
+        // tablet id -> replicas, at most one replica on each backend
+        private final LongHashMap<Replica[]> replicaMetaTable = new LongHashMap<>();
+        // backing replica table, for visiting backend replicas faster.
+        // backend id -> (tablet id -> replica)
+        private final LongHashMap<LongHashMap<Replica>> backingReplicaMetaTable = new LongHashMap<>();
+
+        private void readLock() {
+            lock.readLock().lock();
+        }
+
+        private void readUnlock() {
+            lock.readLock().unlock();
+        }
+
+        private void writeLock() {
+            lock.writeLock().lock();
+        }
+
+        private void writeUnlock() {
+            lock.writeLock().unlock();
+        }
+
+        private Replica getReplica(long tabletId, long backendId) {
+            Replica[] replicas = replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                for (Replica replica : replicas) {
+                    if (replica.getBackendId() == backendId) {
+                        return replica;
+                    }
+                }
+            }
+            return null;
+        }
+
+        // Put the replica of tablet, replace the old one on the same backend
+        private void putReplica(long tabletId, Replica replica) {
+            long backendId = replica.getBackendId();
+            Replica[] replicas = replicaMetaTable.get(tabletId);
+            if (replicas == null) {
+                replicaMetaTable.put(tabletId, new Replica[] {replica});
+            } else {
+                int idx = 0;
+                while (idx < replicas.length && replicas[idx].getBackendId() != backendId) {
+                    idx++;
+                }
+                if (idx == replicas.length) {
+                    replicas = Arrays.copyOf(replicas, replicas.length + 1);
+                    replicaMetaTable.put(tabletId, replicas);
+                }
+                replicas[idx] = replica;
+            }
+
+            LongHashMap<Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+            if (replicaMetaWithBackend == null) {
+                replicaMetaWithBackend = new LongHashMap<>();
+                backingReplicaMetaTable.put(backendId, replicaMetaWithBackend);
+            }
+            replicaMetaWithBackend.put(tabletId, replica);
+        }
+
+        private Replica removeReplica(long tabletId, long backendId) {
+            Replica[] replicas = replicaMetaTable.get(tabletId);
+            if (replicas == null) {
+                return null;
+            }
+            for (int i = 0; i < replicas.length; i++) {
+                Replica replica = replicas[i];
+                if (replica.getBackendId() == backendId) {
+                    if (replicas.length == 1) {
+                        replicaMetaTable.remove(tabletId);
+                    } else {
+                        Replica[] newReplicas = new Replica[replicas.length - 1];
+                        System.arraycopy(replicas, 0, newReplicas, 0, i);
+                        System.arraycopy(replicas, i + 1, newReplicas, i, replicas.length - i - 1);
+                        replicaMetaTable.put(tabletId, newReplicas);
+                    }
+                    removeBackingReplica(backendId, tabletId);
+                    return replica;
+                }
+            }
+            return null;
+        }
+
+        private void removeBackingReplica(long backendId, long tabletId) {
+            LongHashMap<Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+            if (replicaMetaWithBackend != null) {
+                replicaMetaWithBackend.remove(tabletId);
+                if (replicaMetaWithBackend.isEmpty()) {
+                    backingReplicaMetaTable.remove(backendId);
+                }
+            }
+        }
+    }
+}
@@ -687,7 +687,7 @@ public class TabletSchedCtx implements Comparable<TabletSchedCtx> {
             // clear all CLONE replicas
             Database db = GlobalStateMgr.getCurrentState().getDbIncludeRecycleBin(dbId);
             if (db != null) {
-                db.writeLock();
+                db.writeLockTable(tblId);
                 try {
                     List<Replica> cloneReplicas = Lists.newArrayList();
                     tablet.getImmutableReplicas().stream().filter(r -> r.getState() == ReplicaState.CLONE).forEach(
@@ -698,7 +698,7 @@ public class TabletSchedCtx implements Comparable<TabletSchedCtx> {
                     }
 
                 } finally {
-                    db.writeUnlock();
+                    db.writeUnlockTable(tblId);
                 }
             }
         }
@@ -905,7 +905,7 @@ public class TabletSchedCtx implements Comparable<TabletSchedCtx> {
         if (db == null) {
             throw new SchedException(Status.UNRECOVERABLE, "db does not exist");
         }
-        db.writeLock();
+        db.writeLockTable(tblId);
         try {
             OlapTable olapTable = (OlapTable) globalStateMgr.getTableIncludeRecycleBin(db, tblId);
             if (olapTable == null) {
@@ -955,7 +955,7 @@ public class TabletSchedCtx implements Comparable<TabletSchedCtx> {
             }
             throw e;
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTable(tblId);
         }
 
         if (request.isSetCopy_size()) {
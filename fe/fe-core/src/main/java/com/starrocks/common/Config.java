@@ -123,6 +123,14 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long slow_lock_log_every_ms = 3000L;
 
+    /**
+     * If true, the loads, publish, tablet scheduling and query planning lock the tables they access
+     * instead of the whole database, so the operations on different tables of a database do not block
+     * each other. Can not be changed at runtime because the lock and unlock must be consistent.
+     */
+    @ConfField
+    public static boolean enable_table_level_lock = true;
+
     /**
      * dump_log_dir:
      * This specifies FE dump log dir.
@@ -261,6 +269,20 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * Num of threads used by checkpoint to serialize the sections of image in parallel.
+     * The sections are written serially if it is not greater than 1.
+     */
+    @ConfField(mutable = true)
+    public static int checkpoint_image_write_threads_num = 4;
+
+    /**
+     * Num of threads used to load the independent sections of image and rebuild the tablet inverted index
+     * in parallel when FE starts. The image is loaded serially if it is not greater than 1.
+     */
+    @ConfField(mutable = true)
+    public static int image_load_threads_num = 4;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
@@ -581,6 +603,20 @@ public class Config extends ConfigBase {
     @ConfField
     public static String mysql_server_version = "5.1.0";
 
+    /**
+     * Whether the server supports the compressed mysql protocol, e.g. `mysql --compress`.
+     * The packets of the connections which enable CLIENT_COMPRESS are compressed by zlib, which saves the network
+     * bandwidth of the large result sets at the cost of CPU. Only affects the new connections.
+     */
+    @ConfField(mutable = true)
+    public static boolean mysql_server_enable_compression = false;
+
+    /**
+     * The mysql packets smaller than this are sent uncompressed in the compressed mysql protocol
+     */
+    @ConfField(mutable = true)
+    public static int mysql_server_compression_min_bytes = 50;
+
     /**
      * node(FE or BE) will be considered belonging to the same StarRocks cluster if they have same cluster id.
      * Cluster id is usually a random integer generated when master FE start at first time.
@@ -619,6 +655,13 @@ public class Config extends ConfigBase {
     @ConfField
     public static int publish_version_interval_ms = 10;
 
+    /**
+     * Num of threads to finish the published transactions. The transactions on different tables are finished
+     * concurrently, so their edit logs are written in the same journal batch.
+     */
+    @ConfField
+    public static int publish_version_finish_threads_num = 4;
+
     /**
      * The thrift server max worker threads
      */
@@ -945,6 +988,19 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int max_query_retry_time = 2;
 
+    /**
+     * Max num of fetch data rpcs sent to BE concurrently by one query, so that the next result batches
+     * are prefetched while the current batch is being sent to the client. 1 means no prefetching.
+     */
+    @ConfField(mutable = true)
+    public static int result_fetch_max_inflight_rpc_num = 3;
+
+    /**
+     * Max bytes of the result batches prefetched by one query.
+     */
+    @ConfField(mutable = true)
+    public static long result_fetch_max_prefetch_bytes = 64L * 1024 * 1024;
+
     /**
      * In order not to wait too long for create table(index), set a max timeout.
      */
@@ -1122,6 +1178,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int report_queue_size = 100;
 
+    /**
+     * Num of threads to handle the reports of backends, the reports of one backend are handled by
+     * the same thread in order, and the reports of different backends are handled concurrently.
+     */
+    @ConfField
+    public static int report_handler_threads_num = 4;
+
     /**
      * If set to true, metric collector will be run as a daemon timer to collect metrics at fix interval
      */
@@ -1320,6 +1383,25 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long max_planner_scalar_rewrite_num = 100000;
 
+    /**
+     * Max num of threads shared by all sessions to run join reorder algorithms concurrently,
+     * only used when session variable `cbo_enable_parallel_join_reorder` is true.
+     */
+    @ConfField
+    public static int optimizer_join_reorder_threads_num = 8;
+
+    /**
+     * Max num of exec plans cached by one session when session variable `enable_plan_cache` is true.
+     */
+    @ConfField(mutable = true)
+    public static int plan_cache_max_entries_per_session = 128;
+
+    /**
+     * Max num of statements prepared by COM_STMT_PREPARE in one session.
+     */
+    @ConfField(mutable = true)
+    public static int max_prepared_stmt_count_per_session = 1024;
+
     /**
      * statistic collect flag
      */
@@ -1464,10 +1546,17 @@ public class Config extends ConfigBase {
 
     /**
      * num of thread to handle hive meta load concurrency.
+     * It is the max number of partition batches of a hive catalog requested from the metastore concurrently.
      */
     @ConfField
     public static int hive_meta_load_concurrency = 4;
 
+    /**
+     * The max number of partitions got from the hive metastore in one request.
+     */
+    @ConfField(mutable = true)
+    public static int hive_meta_partition_batch_size = 1000;
+
     /**
      * The interval of lazy refreshing hive metastore cache
      */
@@ -1498,6 +1587,34 @@ public class Config extends ConfigBase {
     @ConfField
     public static int remote_file_metadata_load_concurrency = 32;
 
+    /**
+     * If set to true, the hive partitions, the remote file lists and the iceberg manifests of the external catalogs
+     * are also cached in the local disk as the second tier of the memory caches, which survives the restart of fe.
+     */
+    @ConfField
+    public static boolean enable_external_meta_disk_cache = false;
+
+    /**
+     * The directory of the local disk cache of the external catalog metadata.
+     */
+    @ConfField
+    public static String external_meta_disk_cache_dir = StarRocksFE.STARROCKS_HOME_DIR + "/external_meta_cache";
+
+    /**
+     * The max size in MB of each local disk cache of the external catalog metadata, the least recently
+     * used entries are evicted once it is exceeded.
+     */
+    @ConfField(mutable = true)
+    public static long external_meta_disk_cache_capacity_mb = 4096;
+
+    /**
+     * The max age in seconds of the entries of the local disk cache of the external catalog metadata, which are
+     * written before fe starts. The changes of the external metadata, e.g. the hive metastore events, are not
+     * invalidated while fe is down, so the entries loaded before are kept for a shorter time than the ttl.
+     */
+    @ConfField(mutable = true)
+    public static long external_meta_disk_cache_max_age_after_restart_sec = 3600;
+
     /**
      * Hive MetaStore Client socket timeout in seconds.
      */
@@ -1559,6 +1676,25 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long iceberg_worker_num_threads = 64;
 
+    /**
+     * If set to true, the data files of iceberg tables are planned by reading their manifests in parallel
+     * in the FE, instead of the iceberg table scan. Snapshots with delete files are always planned by the table scan.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_iceberg_parallel_planning = true;
+
+    /**
+     * Number of threads to read the manifests of iceberg tables when planning.
+     */
+    @ConfField
+    public static int iceberg_plan_manifest_threads = 16;
+
+    /**
+     * The max number of data files of the iceberg manifests cached in the FE.
+     */
+    @ConfField
+    public static long iceberg_manifest_cache_max_num_files = 500000;
+
     /**
      * fe will call es api to get es index shard info every es_state_sync_interval_secs
      */
@@ -1664,6 +1800,14 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean enable_experimental_mv = false;
 
+    /**
+     * If set to true, the async materialized views only read the rows appended to the base table since the last
+     * refresh when possible, instead of recomputing the whole partitions.
+     * Only the duplicate key base tables without delete is supported, otherwise a full refresh is done.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_mv_incremental_refresh = false;
+
     @ConfField
     public static boolean enable_dict_optimize_routine_load = false;
 
@@ -1727,10 +1871,10 @@ public class Config extends ConfigBase {
     public static String jaeger_grpc_endpoint = "";
 
     @ConfField
-    public static String lake_compaction_selector = "SimpleSelector";
+    public static String lake_compaction_selector = "ScoreSelector";
 
     @ConfField
-    public static String lake_compaction_sorter = "RandomSorter";
+    public static String lake_compaction_sorter = "ScoreSorter";
 
     @ConfField
     public static long lake_compaction_simple_selector_min_versions = 3;
@@ -1741,6 +1885,31 @@ public class Config extends ConfigBase {
     @ConfField
     public static long lake_compaction_simple_selector_threshold_seconds = 300;
 
+    /**
+     * The score of a partition is computed by the ScoreSelector as
+     * pending versions * (1 + read weight * log2(1 + recent reads)) + ingestion weight * versions loaded per minute,
+     * and only the partitions whose score reaches lake_compaction_score_selector_min_score, or not compacted for
+     * lake_compaction_simple_selector_threshold_seconds, are compacted.
+     * The reads are counted when the queries are executed, and reported to the leader by the other FEs.
+     */
+    @ConfField(mutable = true)
+    public static long lake_compaction_score_selector_min_versions = 3;
+
+    @ConfField(mutable = true)
+    public static double lake_compaction_score_selector_min_score = 10.0;
+
+    @ConfField(mutable = true)
+    public static double lake_compaction_score_read_weight = 1.0;
+
+    @ConfField(mutable = true)
+    public static double lake_compaction_score_ingestion_weight = 1.0;
+
+    /**
+     * The reads of a partition counted by the compaction score decay by half every lake_compaction_score_read_half_life_seconds.
+     */
+    @ConfField(mutable = true)
+    public static long lake_compaction_score_read_half_life_seconds = 300;
+
     /**
      * -1 means calculate the value in an adaptive way.
      * 0 will disable compaction.
@@ -1748,6 +1917,13 @@ public class Config extends ConfigBase {
     @ConfField
     public static int lake_compaction_max_tasks = -1;
 
+    /**
+     * The max number of running compaction tasks on one compute node.
+     * -1 means lake_compaction_max_tasks evenly divided by the alive compute nodes.
+     */
+    @ConfField(mutable = true)
+    public static int lake_compaction_max_tasks_per_worker = -1;
+
     @ConfField(mutable = true)
     public static boolean enable_new_publish_mechanism = false;
 
@@ -1759,6 +1935,55 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static String metadata_journal_skip_bad_journal_ids = "";
 
+    /**
+     * Whether the non-leader FE reads the journals and deserializes them ahead of replaying in background threads.
+     * The journals are still applied one by one in order by the replayer.
+     */
+    @ConfField
+    public static boolean metadata_journal_replay_pipeline_enabled = false;
+
+    /**
+     * The max number of journals read ahead of replaying
+     */
+    @ConfField
+    public static int metadata_journal_replay_queue_size = 10000;
+
+    /**
+     * The number of threads to deserialize the journals read ahead of replaying
+     */
+    @ConfField
+    public static int metadata_journal_replay_deserialize_threads = 4;
+
+    /**
+     * The compression of the journals written, "none" or "deflate".
+     * The journals are readable in either way, but the FEs of the old versions could not read the compressed
+     * journals, so only set it after all the FEs are upgraded.
+     */
+    @ConfField(mutable = true)
+    public static String metadata_journal_compression = "none";
+
+    /**
+     * The journals smaller than this are not compressed
+     */
+    @ConfField(mutable = true)
+    public static int metadata_journal_compression_min_bytes = 512;
+
+    /**
+     * The max time the non-leader FE waits for the journals of the last write of a session to be replayed,
+     * if the session enables enable_follower_read_your_writes. The statement is forwarded to the leader on timeout.
+     */
+    @ConfField(mutable = true)
+    public static int follower_read_your_writes_max_wait_ms = 5000;
+
+    /**
+     * The batch fragments requests of the pipeline engine larger than this are compressed by zlib before delivered
+     * to the backends, e.g. the requests with many scan ranges. Set it to -1 to disable the compression.
+     * The backends of the old versions could not execute the compressed requests, so only set it after all the
+     * backends are upgraded.
+     */
+    @ConfField(mutable = true)
+    public static long deliver_fragments_compression_min_bytes = -1;
+
     @ConfField(mutable = true)
     public static boolean recursive_dir_search_enabled = false;
 
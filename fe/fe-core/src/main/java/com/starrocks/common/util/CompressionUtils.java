@@ -13,6 +13,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -110,6 +111,24 @@ public class CompressionUtils {
         return outStr.toString();
     }
 
+    /**
+     * Deflate the input into output[outputOffset, outputOffset + maxLength) with the deflater, which is reset first
+     * and not ended.
+     *
+     * @return the length of the deflated data, or -1 if it is longer than maxLength
+     */
+    public static int deflate(Deflater deflater, byte[] input, int inputOffset, int inputLength,
+                              byte[] output, int outputOffset, int maxLength) {
+        deflater.reset();
+        deflater.setInput(input, inputOffset, inputLength);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished() && length < maxLength) {
+            length += deflater.deflate(output, outputOffset + length, maxLength - length);
+        }
+        return deflater.finished() ? length : -1;
+    }
+
     public static boolean isGzipCompressed(byte[] compressedStr) {
         return (compressedStr[0] == (byte) (GZIPInputStream.GZIP_MAGIC)) &&
                 (compressedStr[1] == (byte) (GZIPInputStream.GZIP_MAGIC >> 8));
@@ -34,6 +34,10 @@ public class Daemon extends Thread {
 
     private MetaContext metaContext = null;
 
+    // set by wakeUp() to start the next cycle without waiting for the interval, guarded by wakeUpLock
+    private final Object wakeUpLock = new Object();
+    private boolean wakeUpRequested = false;
+
     {
         setDaemon(true);
     }
@@ -97,6 +101,26 @@ public class Daemon extends Thread {
         this.intervalMs = intervalMs;
     }
 
+    /**
+     * Start the next cycle immediately if the daemon is waiting for the interval, or right after the current
+     * cycle if it is running.
+     */
+    public void wakeUp() {
+        synchronized (wakeUpLock) {
+            wakeUpRequested = true;
+            wakeUpLock.notifyAll();
+        }
+    }
+
+    private void waitForNextCycle() throws InterruptedException {
+        synchronized (wakeUpLock) {
+            if (!wakeUpRequested) {
+                wakeUpLock.wait(intervalMs);
+            }
+            wakeUpRequested = false;
+        }
+    }
+
     /**
      * implement in child
      */
@@ -118,7 +142,7 @@ public class Daemon extends Thread {
             }
 
             try {
-                Thread.sleep(intervalMs);
+                waitForNextCycle();
             } catch (InterruptedException e) {
                 LOG.error("InterruptedException: ", e);
             }
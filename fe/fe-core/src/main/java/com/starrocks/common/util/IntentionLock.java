@@ -0,0 +1,213 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The lock of a parent object (e.g. database) in hierarchical locking, which supports the intention modes
+ * besides the shared and exclusive modes. A thread locks the parent in intention mode before locking
+ * the children (e.g. tables), so the operations on different children do not block each other, while
+ * the operations on the whole parent still exclude the operations on the children.
+ *
+ *        IS   IX   S    X
+ *   IS   y    y    y    n
+ *   IX   y    y    n    n
+ *   S    y    n    y    n
+ *   X    n    n    n    n
+ *
+ * IS, IX and S hold the read lock of the underlying fair read write lock, X holds the write lock of it.
+ * S and IX additionally hold the "group" of their mode, the groups of S and IX exclude each other.
+ * The lock is reentrant, a thread holding X is granted all the modes. A thread only holding IS acquires
+ * the group of S or IX like the other threads. A thread holding S or IX can not request the other one
+ * of them or X, since the lock can't be upgraded without deadlock, the request fails with
+ * IllegalStateException instead of being granted or blocked forever.
+ */
+public class IntentionLock {
+    public enum Mode {
+        INTENTION_SHARED,
+        INTENTION_EXCLUSIVE,
+        SHARED,
+        EXCLUSIVE
+    }
+
+    private static class GroupHold {
+        private final Mode mode;
+        private int count = 1;
+
+        private GroupHold(Mode mode) {
+            this.mode = mode;
+        }
+    }
+
+    private final QueryableReentrantReadWriteLock rwLock;
+
+    // all the fields below are guarded by this
+    private int sharedHolders = 0;
+    private int intentionExclusiveHolders = 0;
+    private int sharedWaiters = 0;
+    private int intentionExclusiveWaiters = 0;
+    private final Map<Thread, GroupHold> groupHolds = Maps.newHashMap();
+
+    public IntentionLock(boolean fair) {
+        this.rwLock = new QueryableReentrantReadWriteLock(fair);
+    }
+
+    public void lock(Mode mode) {
+        checkUpgrade(mode);
+        if (mode == Mode.EXCLUSIVE) {
+            rwLock.writeLock().lock();
+            return;
+        }
+        rwLock.readLock().lock();
+        if (mode != Mode.INTENTION_SHARED) {
+            acquireGroup(mode, -1L);
+        }
+    }
+
+    public boolean tryLock(Mode mode, long timeout, TimeUnit unit) throws InterruptedException {
+        checkUpgrade(mode);
+        if (mode == Mode.EXCLUSIVE) {
+            return rwLock.writeLock().tryLock(timeout, unit);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!rwLock.readLock().tryLock(timeout, unit)) {
+            return false;
+        }
+        if (mode != Mode.INTENTION_SHARED && !acquireGroup(mode, deadline)) {
+            rwLock.readLock().unlock();
+            return false;
+        }
+        return true;
+    }
+
+    public void unlock(Mode mode) {
+        if (mode == Mode.EXCLUSIVE) {
+            rwLock.writeLock().unlock();
+            return;
+        }
+        if (mode != Mode.INTENTION_SHARED) {
+            releaseGroup(mode);
+        }
+        rwLock.readLock().unlock();
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return rwLock.getReadHoldCount() > 0 || rwLock.isWriteLockedByCurrentThread();
+    }
+
+    public boolean isExclusiveHeldByCurrentThread() {
+        return rwLock.writeLock().isHeldByCurrentThread();
+    }
+
+    public Thread getOwner() {
+        return rwLock.getOwner();
+    }
+
+    // The modes which would wait for the modes held by this thread are rejected
+    private void checkUpgrade(Mode mode) {
+        if (mode == Mode.INTENTION_SHARED || rwLock.isWriteLockedByCurrentThread()) {
+            return;
+        }
+        Mode heldMode = getGroupHeldByCurrentThread();
+        if (mode == Mode.EXCLUSIVE ? rwLock.getReadHoldCount() > 0 : heldMode != null && heldMode != mode) {
+            throw new IllegalStateException("Can't lock in " + mode + " mode while holding "
+                    + (heldMode == null ? Mode.INTENTION_SHARED : heldMode) + " mode");
+        }
+    }
+
+    private synchronized Mode getGroupHeldByCurrentThread() {
+        GroupHold hold = groupHolds.get(Thread.currentThread());
+        return hold == null ? null : hold.mode;
+    }
+
+    // deadline < 0 means waiting until the group is acquired
+    private synchronized boolean acquireGroup(Mode mode, long deadline) {
+        Thread current = Thread.currentThread();
+        GroupHold hold = groupHolds.get(current);
+        if (hold != null) {
+            // The other mode is only granted by X held by this thread, it's rejected by checkUpgrade otherwise
+            if (hold.mode == mode) {
+                hold.count++;
+            }
+            return true;
+        }
+
+        boolean shared = mode == Mode.SHARED;
+        boolean interrupted = false;
+        if (shared) {
+            sharedWaiters++;
+        } else {
+            intentionExclusiveWaiters++;
+        }
+        try {
+            while (!canAcquireGroup(shared)) {
+                if (deadline < 0) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                } else {
+                    long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remainingMs <= 0) {
+                        return false;
+                    }
+                    try {
+                        wait(remainingMs);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            if (shared) {
+                sharedWaiters--;
+            } else {
+                intentionExclusiveWaiters--;
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (shared) {
+            sharedHolders++;
+        } else {
+            intentionExclusiveHolders++;
+        }
+        groupHolds.put(current, new GroupHold(mode));
+        return true;
+    }
+
+    // The new comers of a group wait if the other group is waiting, so neither group starves.
+    private boolean canAcquireGroup(boolean shared) {
+        int holders = shared ? sharedHolders : intentionExclusiveHolders;
+        int otherHolders = shared ? intentionExclusiveHolders : sharedHolders;
+        int otherWaiters = shared ? intentionExclusiveWaiters : sharedWaiters;
+        return otherHolders == 0 && (otherWaiters == 0 || holders == 0);
+    }
+
+    private synchronized void releaseGroup(Mode mode) {
+        Thread current = Thread.currentThread();
+        GroupHold hold = groupHolds.get(current);
+        if (hold == null || hold.mode != mode) {
+            // the lock was granted by X held by this thread
+            return;
+        }
+        if (--hold.count > 0) {
+            return;
+        }
+        groupHolds.remove(current);
+        if (mode == Mode.SHARED) {
+            sharedHolders--;
+        } else {
+            intentionExclusiveHolders--;
+        }
+        notifyAll();
+    }
+}
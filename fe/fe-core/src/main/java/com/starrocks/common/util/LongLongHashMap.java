@@ -0,0 +1,146 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+/**
+ * A hash map from primitive long to primitive long, see {@link LongHashMap}.
+ * The key 0 is used to mark the free slots, and it is kept out of the table.
+ * Not thread safe.
+ */
+public class LongLongHashMap {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final long missingValue;
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    private boolean containsZeroKey;
+    private long zeroValue;
+
+    /**
+     * @param missingValue the value returned by get() and remove() if the key does not exist
+     */
+    public LongLongHashMap(long missingValue) {
+        this.missingValue = missingValue;
+        allocate(LongHashMap.capacityFor(0));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size + (containsZeroKey ? 1 : 0);
+    }
+
+    public long get(long key) {
+        if (key == 0) {
+            return containsZeroKey ? zeroValue : missingValue;
+        }
+        int slot = LongHashMap.hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return containsZeroKey;
+        }
+        int slot = LongHashMap.hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            containsZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = LongHashMap.hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    public long remove(long key) {
+        if (key == 0) {
+            long old = containsZeroKey ? zeroValue : missingValue;
+            containsZeroKey = false;
+            return old;
+        }
+        int pos = LongHashMap.hash(key) & mask;
+        while (keys[pos] != key) {
+            if (keys[pos] == 0) {
+                return missingValue;
+            }
+            pos = (pos + 1) & mask;
+        }
+        long old = values[pos];
+        size--;
+        // move the following entries in the probe sequence backward, see LongHashMap.shiftKeys
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if (keys[pos] == 0) {
+                    keys[last] = 0;
+                    return old;
+                }
+                int slot = LongHashMap.hash(keys[pos]) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = LongHashMap.hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    public void clear() {
+        allocate(LongHashMap.capacityFor(0));
+        size = 0;
+        containsZeroKey = false;
+    }
+}
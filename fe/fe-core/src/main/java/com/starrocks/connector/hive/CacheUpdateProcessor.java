@@ -55,6 +55,7 @@ public class CacheUpdateProcessor {
 
         if (remoteFileIO.isPresent()) {
             String tableLocation = hmsTable.getTableLocation();
+            remoteFileIO.get().invalidateDiskCache(tableLocation);
             List<RemotePathKey> presentPathKey = remoteFileIO.get().getPresentPathKeyInCache(tableLocation, isRecursive);
             List<Future<?>> futures = Lists.newArrayList();
             presentPathKey.forEach(pathKey -> {
@@ -7,6 +7,7 @@ import com.starrocks.common.Config;
 import com.starrocks.connector.ReentrantExecutor;
 import com.starrocks.external.CachingRemoteFileConf;
 import com.starrocks.external.CachingRemoteFileIO;
+import com.starrocks.external.LocalDiskMetaCache;
 import com.starrocks.external.RemoteFileIO;
 import com.starrocks.external.hive.CachingHiveMetastore;
 import com.starrocks.external.hive.CachingHiveMetastoreConf;
@@ -14,6 +15,7 @@ import com.starrocks.external.hive.HiveMetaClient;
 import com.starrocks.external.hive.HiveMetastore;
 import com.starrocks.external.hive.HiveRemoteFileIO;
 import com.starrocks.external.hive.IHiveMetastore;
+import com.starrocks.external.hive.Partition;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.conf.MetastoreConf;
@@ -34,6 +36,7 @@ public class HiveConnectorInternalMgr {
     private final CachingRemoteFileConf remoteFileConf;
 
     private ExecutorService refreshHiveMetastoreExecutor;
+    private ExecutorService loadPartitionExecutor;
     private ExecutorService refreshRemoteFileExecutor;
     private ExecutorService pullRemoteFileExecutor;
 
@@ -64,12 +67,17 @@ public class HiveConnectorInternalMgr {
         if (pullRemoteFileExecutor != null) {
             pullRemoteFileExecutor.shutdown();
         }
+        if (loadPartitionExecutor != null) {
+            loadPartitionExecutor.shutdown();
+        }
     }
 
     public IHiveMetastore createHiveMetastore() {
         // TODO(stephen): Abstract the creator class to construct hive meta client
         HiveMetaClient metaClient = createHiveMetaClient();
-        IHiveMetastore hiveMetastore = new HiveMetastore(metaClient, catalogName);
+        loadPartitionExecutor = Executors.newFixedThreadPool(Config.hive_meta_load_concurrency,
+                new ThreadFactoryBuilder().setNameFormat("hive-metastore-load-partitions-%d").build());
+        IHiveMetastore hiveMetastore = new HiveMetastore(metaClient, catalogName, loadPartitionExecutor);
         IHiveMetastore baseHiveMetastore;
         if (!enableMetastoreCache) {
             baseHiveMetastore = hiveMetastore;
@@ -82,7 +90,9 @@ public class HiveConnectorInternalMgr {
                     hmsConf.getCacheTtlSec(),
                     hmsConf.getCacheRefreshIntervalSec(),
                     hmsConf.getCacheMaxNum(),
-                    hmsConf.enableListNamesCache());
+                    hmsConf.enableListNamesCache(),
+                    LocalDiskMetaCache.create(catalogName, "partitions", hmsConf.getCacheTtlSec(),
+                            Partition.DISK_CACHE_CODEC));
         }
 
         return baseHiveMetastore;
@@ -91,7 +101,7 @@ public class HiveConnectorInternalMgr {
     public RemoteFileIO createRemoteFileIO() {
         // TODO(stephen): Abstract the creator class to construct RemoteFiloIO
         Configuration configuration = new Configuration();
-        RemoteFileIO remoteFileIO = new HiveRemoteFileIO(configuration);
+        HiveRemoteFileIO remoteFileIO = new HiveRemoteFileIO(configuration);
 
         RemoteFileIO baseRemoteFileIO;
         if (!enableRemoteFileCache) {
@@ -104,7 +114,9 @@ public class HiveConnectorInternalMgr {
                     new ReentrantExecutor(refreshRemoteFileExecutor, remoteFileConf.getPerQueryCacheMaxSize()),
                     remoteFileConf.getCacheTtlSec(),
                     remoteFileConf.getCacheRefreshIntervalSec(),
-                    remoteFileConf.getCacheMaxSize());
+                    remoteFileConf.getCacheMaxSize(),
+                    LocalDiskMetaCache.create(catalogName, "remote_files", remoteFileConf.getCacheTtlSec(),
+                            remoteFileIO.getRemoteFilesCodec()));
         }
 
         return baseRemoteFileIO;
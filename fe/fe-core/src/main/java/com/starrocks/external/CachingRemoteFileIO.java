@@ -6,8 +6,12 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.starrocks.connector.exception.StarRocksConnectorException;
+import com.starrocks.metric.MetricRepo;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.Map;
@@ -24,15 +28,39 @@ public class CachingRemoteFileIO implements RemoteFileIO {
     public static final long NEVER_REFRESH = -1;
     private final RemoteFileIO fileIO;
     private final LoadingCache<RemotePathKey, List<RemoteFileDesc>> cache;
+    // the second tier of the cache, null if disabled
+    private final LocalDiskMetaCache<List<RemoteFileDesc>> diskCache;
 
     protected CachingRemoteFileIO(RemoteFileIO fileIO,
                                Executor executor,
                                long expireAfterWriteSec,
                                long refreshIntervalSec,
                                long maxSize) {
+        this(fileIO, executor, expireAfterWriteSec, refreshIntervalSec, maxSize, null);
+    }
+
+    protected CachingRemoteFileIO(RemoteFileIO fileIO,
+                                  Executor executor,
+                                  long expireAfterWriteSec,
+                                  long refreshIntervalSec,
+                                  long maxSize,
+                                  LocalDiskMetaCache<List<RemoteFileDesc>> diskCache) {
         this.fileIO = fileIO;
+        this.diskCache = diskCache;
         this.cache = newCacheBuilder(expireAfterWriteSec, refreshIntervalSec, maxSize)
-                .build(asyncReloading(CacheLoader.from(this::loadRemoteFiles), executor));
+                .build(asyncReloading(new CacheLoader<RemotePathKey, List<RemoteFileDesc>>() {
+                    @Override
+                    public List<RemoteFileDesc> load(@NotNull RemotePathKey pathKey) {
+                        return loadRemoteFilesThroughDisk(pathKey);
+                    }
+
+                    // the entry in the disk is as old as the one to reload, so always reload from the remote storage
+                    @Override
+                    public ListenableFuture<List<RemoteFileDesc>> reload(@NotNull RemotePathKey pathKey,
+                                                                        @NotNull List<RemoteFileDesc> oldValue) {
+                        return Futures.immediateFuture(loadRemoteFiles(pathKey));
+                    }
+                }, executor));
     }
 
     public static CachingRemoteFileIO createCatalogLevelInstance(RemoteFileIO fileIO, Executor executor,
@@ -41,6 +69,13 @@ public class CachingRemoteFileIO implements RemoteFileIO {
 
     }
 
+    public static CachingRemoteFileIO createCatalogLevelInstance(RemoteFileIO fileIO, Executor executor,
+                                                                 long expireAfterWrite, long refreshInterval,
+                                                                 long maxSize,
+                                                                 LocalDiskMetaCache<List<RemoteFileDesc>> diskCache) {
+        return new CachingRemoteFileIO(fileIO, executor, expireAfterWrite, refreshInterval, maxSize, diskCache);
+    }
+
     public static CachingRemoteFileIO createQueryLevelInstance(RemoteFileIO fileIO, long maxSize) {
         return new CachingRemoteFileIO(
                 fileIO,
@@ -52,7 +87,15 @@ public class CachingRemoteFileIO implements RemoteFileIO {
 
     public Map<RemotePathKey, List<RemoteFileDesc>> getRemoteFiles(RemotePathKey pathKey) {
         try {
-            return ImmutableMap.of(pathKey, cache.getUnchecked(pathKey));
+            List<RemoteFileDesc> remoteFiles = cache.getIfPresent(pathKey);
+            if (diskCache != null) {
+                MetricRepo.increaseExternalMetaCacheRequest(diskCache.getName(), LocalDiskMetaCache.MEMORY_TIER,
+                        remoteFiles != null);
+            }
+            if (remoteFiles == null) {
+                remoteFiles = cache.getUnchecked(pathKey);
+            }
+            return ImmutableMap.of(pathKey, remoteFiles);
         } catch (UncheckedExecutionException e) {
             throwIfInstanceOf(e.getCause(), StarRocksConnectorException.class);
             throw e;
@@ -60,7 +103,38 @@ public class CachingRemoteFileIO implements RemoteFileIO {
     }
 
     public List<RemoteFileDesc> loadRemoteFiles(RemotePathKey pathKey) {
-        return fileIO.getRemoteFiles(pathKey).get(pathKey);
+        long loadTime = System.currentTimeMillis();
+        List<RemoteFileDesc> remoteFiles = fileIO.getRemoteFiles(pathKey).get(pathKey);
+        if (diskCache != null) {
+            diskCache.put(toDiskCacheKey(pathKey), remoteFiles, loadTime);
+        }
+        return remoteFiles;
+    }
+
+    private List<RemoteFileDesc> loadRemoteFilesThroughDisk(RemotePathKey pathKey) {
+        if (diskCache != null) {
+            List<RemoteFileDesc> remoteFiles = diskCache.get(toDiskCacheKey(pathKey));
+            if (remoteFiles != null) {
+                return remoteFiles;
+            }
+        }
+        return loadRemoteFiles(pathKey);
+    }
+
+    // eg: "hdfs://host/warehouse/t/" or "hdfs://host/warehouse/t/**" if recursive
+    private static String toDiskCacheKey(RemotePathKey pathKey) {
+        return LocalDiskMetaCache.trimTrailingSeparators(pathKey.getPath()) + LocalDiskMetaCache.SEPARATOR +
+                (pathKey.isRecursive() ? "**" : "");
+    }
+
+    /**
+     * Invalidate the remote files under the base path in the disk cache, which may be absent in the memory cache
+     * and could not be updated one by one.
+     */
+    public void invalidateDiskCache(String basePath) {
+        if (diskCache != null) {
+            diskCache.invalidatePrefix(basePath);
+        }
     }
 
     public Map<RemotePathKey, List<RemoteFileDesc>> getPresentRemoteFiles(List<RemotePathKey> paths) {
@@ -93,5 +167,8 @@ public class CachingRemoteFileIO implements RemoteFileIO {
 
     public void invalidateAll() {
         cache.invalidateAll();
+        if (diskCache != null) {
+            diskCache.invalidateAll();
+        }
     }
 }
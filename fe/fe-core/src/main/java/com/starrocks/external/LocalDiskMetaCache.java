@@ -0,0 +1,472 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
+import com.starrocks.metric.MetricRepo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The local disk tier of the metadata caches of the external catalog, which is looked up when the memory cache
+ * misses, and survives the restart of fe.
+ * Every entry is a file named by the hash of its key, which consists of a header of magic, generation, load time
+ * and key, followed by the value encoded by the {@link Codec}. The entries are stale if they are of another
+ * generation, older than the ttl, older than external_meta_disk_cache_max_age_after_restart_sec while written
+ * before fe starts, or loaded before their key prefix is invalidated, e.g. the entries of a table when the table
+ * is refreshed by the hive event processor. The keys are separated by '/', and a prefix is
+ * made of the whole segments. Invalidating all the entries only bumps the generation. The stale files are deleted
+ * when they are read, or evicted in the order of the last access time once the total size exceeds the capacity.
+ * The invalidated prefixes are appended to a log, which is compacted once most of its records are overwritten
+ * or expired. The generation is bumped instead if too many prefixes are invalidated.
+ */
+public class LocalDiskMetaCache<V> {
+    private static final Logger LOG = LogManager.getLogger(LocalDiskMetaCache.class);
+
+    public static final String MEMORY_TIER = "memory";
+    public static final String DISK_TIER = "disk";
+    public static final char SEPARATOR = '/';
+
+    private static final int MAGIC = 0x5352444D;
+    private static final int PREFIXES_MAGIC = 0x53524950;
+    private static final String GENERATION_FILE = "GENERATION";
+    private static final String INVALIDATED_PREFIXES_FILE = "INVALIDATED_PREFIXES";
+    private static final String TMP_SUFFIX = ".tmp";
+    // the key is written in modified utf-8 which is limited to 64KB
+    private static final int MAX_KEY_LENGTH = 16 * 1024;
+    // bump the generation rather than keeping more invalidated prefixes in memory
+    @VisibleForTesting
+    static final int MAX_INVALIDATED_PREFIXES = 10000;
+    private static final int MIN_PREFIX_LOG_RECORDS_TO_COMPACT = 1024;
+
+    public interface Codec<V> {
+        void write(DataOutput out, V value) throws IOException;
+
+        V read(DataInput in) throws IOException;
+    }
+
+    private final String name;
+    private final File dir;
+    private final LongSupplier capacityBytes;
+    private final long ttlMs;
+    private final Codec<V> codec;
+    // the entries written before are not invalidated by the changes while fe is down
+    private final long openTime;
+
+    private final AtomicLong usedBytes = new AtomicLong(0);
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private volatile long generation;
+    // key prefix -> the time it is invalidated
+    private final Map<String, Long> invalidatedPrefixes = new ConcurrentHashMap<>();
+    // the number of records in the log of invalidated prefixes, guarded by this
+    private int prefixLogRecords = 0;
+
+    /**
+     * Return null if the disk cache is disabled or could not be created.
+     *
+     * @param ttlSec entries older than it are ignored, negative if never expire
+     */
+    public static <V> LocalDiskMetaCache<V> create(String catalogName, String cacheName, long ttlSec,
+                                                   Codec<V> codec) {
+        if (!Config.enable_external_meta_disk_cache) {
+            return null;
+        }
+        File dir = new File(new File(Config.external_meta_disk_cache_dir, catalogName), cacheName);
+        try {
+            return new LocalDiskMetaCache<>(catalogName + "." + cacheName, dir,
+                    () -> Config.external_meta_disk_cache_capacity_mb * 1024L * 1024L, ttlSec, codec);
+        } catch (IOException e) {
+            LOG.warn("Failed to create disk cache {} of catalog {} in {}", cacheName, catalogName, dir, e);
+            return null;
+        }
+    }
+
+    @VisibleForTesting
+    LocalDiskMetaCache(String name, File dir, LongSupplier capacityBytes, long ttlSec, Codec<V> codec)
+            throws IOException {
+        this.name = name;
+        this.dir = dir;
+        this.capacityBytes = capacityBytes;
+        this.ttlMs = ttlSec < 0 ? -1 : ttlSec * 1000L;
+        this.codec = codec;
+        this.openTime = System.currentTimeMillis();
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("failed to create directory " + dir);
+        }
+        this.generation = loadGeneration();
+        loadInvalidatedPrefixes();
+        long totalBytes = 0;
+        for (File file : listEntryFiles()) {
+            if (file.getName().endsWith(TMP_SUFFIX)) {
+                // left by the crashed writes
+                file.delete();
+            } else {
+                totalBytes += file.length();
+            }
+        }
+        usedBytes.set(totalBytes);
+        LOG.info("Disk cache {} is loaded from {}, generation: {}, size: {}", name, dir, generation, totalBytes);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return null if the key is absent, stale or failed to read.
+     */
+    public V get(String key) {
+        V value = null;
+        File file = getEntryFile(key);
+        if (file.exists()) {
+            value = read(file, key);
+        }
+        MetricRepo.increaseExternalMetaCacheRequest(name, DISK_TIER, value != null);
+        return value;
+    }
+
+    private V read(File file, String key) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readLong() != generation) {
+                delete(file);
+                return null;
+            }
+            long writeTime = in.readLong();
+            if (isExpired(writeTime)) {
+                delete(file);
+                return null;
+            }
+            // hash collision, the file is overwritten by the next put
+            if (!key.equals(in.readUTF())) {
+                return null;
+            }
+            if (isInvalidated(key, writeTime)) {
+                delete(file);
+                return null;
+            }
+            V value = codec.read(in);
+            file.setLastModified(System.currentTimeMillis());
+            return value;
+        } catch (FileNotFoundException e) {
+            // evicted or invalidated concurrently
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to read {} from disk cache {}, delete it", key, name, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    private boolean isExpired(long writeTime) {
+        long age = System.currentTimeMillis() - writeTime;
+        if (ttlMs >= 0 && age > ttlMs) {
+            return true;
+        }
+        return writeTime < openTime && age > Config.external_meta_disk_cache_max_age_after_restart_sec * 1000L;
+    }
+
+    /**
+     * @param loadTime the time before the value is loaded from the source, so the value is stale if its prefix
+     *                 is invalidated while loading, even though it is put after the invalidation
+     */
+    public void put(String key, V value, long loadTime) {
+        if (key.length() > MAX_KEY_LENGTH || value == null) {
+            return;
+        }
+        File file = getEntryFile(key);
+        File tmpFile = new File(file.getPath() + "." + Thread.currentThread().getId() + TMP_SUFFIX);
+        try {
+            File parent = file.getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("failed to create directory " + parent);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeLong(generation);
+                out.writeLong(loadTime);
+                out.writeUTF(key);
+                codec.write(out, value);
+            }
+            long delta = tmpFile.length() - file.length();
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            usedBytes.addAndGet(delta);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to write {} to disk cache {}", key, name, e);
+            tmpFile.delete();
+            return;
+        }
+
+        if (usedBytes.get() > capacityBytes.getAsLong()) {
+            evict();
+        }
+    }
+
+    public void invalidate(String key) {
+        delete(getEntryFile(key));
+    }
+
+    /**
+     * Invalidate the entries of the key prefix written so far, the stale files are deleted lazily.
+     */
+    public synchronized void invalidatePrefix(String prefix) {
+        long now = System.currentTimeMillis();
+        String trimmedPrefix = trimTrailingSeparators(prefix);
+        invalidatedPrefixes.put(trimmedPrefix, now);
+        removeExpiredPrefixes(now);
+        if (invalidatedPrefixes.size() > MAX_INVALIDATED_PREFIXES) {
+            LOG.info("Too many invalidated prefixes of disk cache {}, bump generation", name);
+            invalidateAll();
+            return;
+        }
+        try {
+            if (prefixLogRecords >= Math.max(MIN_PREFIX_LOG_RECORDS_TO_COMPACT, 2 * invalidatedPrefixes.size())) {
+                saveInvalidatedPrefixes();
+            } else {
+                appendInvalidatedPrefix(trimmedPrefix, now);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to save invalidated prefixes of disk cache {}, bump generation", name, e);
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Invalidate all the entries by bumping the generation, the stale files are deleted lazily.
+     */
+    public synchronized void invalidateAll() {
+        try {
+            saveGeneration(generation + 1);
+            generation++;
+            invalidatedPrefixes.clear();
+            saveInvalidatedPrefixes();
+        } catch (IOException e) {
+            // could not make the entries stale, so remove them all
+            LOG.warn("Failed to bump generation of disk cache {}, delete all entries", name, e);
+            listEntryFiles().forEach(this::delete);
+        }
+    }
+
+    // the entries loaded before these prefixes are invalidated have expired
+    private void removeExpiredPrefixes(long now) {
+        if (ttlMs >= 0) {
+            invalidatedPrefixes.values().removeIf(invalidateTime -> now - invalidateTime > ttlMs);
+        }
+    }
+
+    private boolean isInvalidated(String key, long writeTime) {
+        if (invalidatedPrefixes.isEmpty()) {
+            return false;
+        }
+        for (int i = key.indexOf(SEPARATOR); i >= 0; i = key.indexOf(SEPARATOR, i + 1)) {
+            Long invalidateTime = invalidatedPrefixes.get(key.substring(0, i));
+            // the entry written in the same millisecond may be loaded before the invalidation
+            if (invalidateTime != null && writeTime <= invalidateTime) {
+                return true;
+            }
+        }
+        Long invalidateTime = invalidatedPrefixes.get(key);
+        return invalidateTime != null && writeTime <= invalidateTime;
+    }
+
+    public static String trimTrailingSeparators(String path) {
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    @VisibleForTesting
+    long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    @VisibleForTesting
+    long getGeneration() {
+        return generation;
+    }
+
+    @VisibleForTesting
+    int getInvalidatedPrefixNum() {
+        return invalidatedPrefixes.size();
+    }
+
+    @VisibleForTesting
+    synchronized int getPrefixLogRecords() {
+        return prefixLogRecords;
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Pair<File, Long>> files = Lists.newArrayList();
+            long totalBytes = 0;
+            for (File file : listEntryFiles()) {
+                if (!file.getName().endsWith(TMP_SUFFIX)) {
+                    files.add(Pair.create(file, file.lastModified()));
+                    totalBytes += file.length();
+                }
+            }
+            files.sort(Comparator.comparingLong(pair -> pair.second));
+
+            // leave some room to avoid evicting on every put
+            long targetBytes = capacityBytes.getAsLong() / 10 * 9;
+            int evicted = 0;
+            for (Pair<File, Long> pair : files) {
+                if (totalBytes <= targetBytes) {
+                    break;
+                }
+                long length = pair.first.length();
+                if (pair.first.delete()) {
+                    totalBytes -= length;
+                    evicted++;
+                }
+            }
+            usedBytes.set(totalBytes);
+            LOG.info("Evicted {} entries from disk cache {}, size: {}", evicted, name, totalBytes);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void delete(File file) {
+        long length = file.length();
+        if (file.delete()) {
+            usedBytes.addAndGet(-length);
+        }
+    }
+
+    private File getEntryFile(String key) {
+        String hash = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+        return new File(new File(dir, hash.substring(0, 2)), hash);
+    }
+
+    private List<File> listEntryFiles() {
+        List<File> entryFiles = Lists.newArrayList();
+        File[] subDirs = dir.listFiles(File::isDirectory);
+        if (subDirs == null) {
+            return entryFiles;
+        }
+        for (File subDir : subDirs) {
+            File[] files = subDir.listFiles(File::isFile);
+            if (files != null) {
+                entryFiles.addAll(Lists.newArrayList(files));
+            }
+        }
+        return entryFiles;
+    }
+
+    private long loadGeneration() throws IOException {
+        File file = new File(dir, GENERATION_FILE);
+        if (!file.exists()) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Replay the log of invalidated prefixes, the later record of a prefix overwrites the earlier one.
+     * The log is compacted after loaded, which also drops the record partially appended before crash.
+     */
+    private void loadInvalidatedPrefixes() throws IOException {
+        File file = new File(dir, INVALIDATED_PREFIXES_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        boolean valid = true;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != PREFIXES_MAGIC) {
+                valid = false;
+            } else {
+                while (true) {
+                    String prefix = in.readUTF();
+                    invalidatedPrefixes.put(prefix, in.readLong());
+                }
+            }
+        } catch (EOFException e) {
+            // the end of log
+        }
+        removeExpiredPrefixes(System.currentTimeMillis());
+        if (!valid || invalidatedPrefixes.size() > MAX_INVALIDATED_PREFIXES) {
+            // the invalidations are unknown or too many, make all the entries stale
+            saveGeneration(generation + 1);
+            generation++;
+            invalidatedPrefixes.clear();
+        }
+        saveInvalidatedPrefixes();
+    }
+
+    private synchronized void saveInvalidatedPrefixes() throws IOException {
+        File file = new File(dir, INVALIDATED_PREFIXES_FILE);
+        File tmpFile = new File(dir, INVALIDATED_PREFIXES_FILE + TMP_SUFFIX);
+        Map<String, Long> prefixes = ImmutableMap.copyOf(invalidatedPrefixes);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(PREFIXES_MAGIC);
+            for (Map.Entry<String, Long> entry : prefixes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        prefixLogRecords = prefixes.size();
+    }
+
+    private synchronized void appendInvalidatedPrefix(String prefix, long invalidateTime) throws IOException {
+        File file = new File(dir, INVALIDATED_PREFIXES_FILE);
+        // the header is written when the log is created or compacted
+        if (!file.exists()) {
+            saveInvalidatedPrefixes();
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            out.writeUTF(prefix);
+            out.writeLong(invalidateTime);
+        }
+        prefixLogRecords++;
+    }
+
+    private void saveGeneration(long newGeneration) throws IOException {
+        File file = new File(dir, GENERATION_FILE);
+        File tmpFile = new File(dir, GENERATION_FILE + TMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmpFile))) {
+            out.writeLong(newGeneration);
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -6,6 +6,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.connector.exception.StarRocksConnectorException;
 import com.starrocks.external.hive.Partition;
+import com.starrocks.metric.MetricRepo;
 
 import java.util.Collection;
 import java.util.List;
@@ -22,15 +23,26 @@ public class RemoteFileOperations {
     private final ExecutorService executor;
     private final boolean isRecursive;
     private final boolean enableCatalogLevelCache;
+    // used to record the listing latency of the catalog, null if not recorded
+    private final String catalogName;
 
     public RemoteFileOperations(CachingRemoteFileIO remoteFileIO,
                                 ExecutorService executor,
                                 boolean isRecursive,
                                 boolean enableCatalogLevelCache) {
+        this(remoteFileIO, executor, isRecursive, enableCatalogLevelCache, null);
+    }
+
+    public RemoteFileOperations(CachingRemoteFileIO remoteFileIO,
+                                ExecutorService executor,
+                                boolean isRecursive,
+                                boolean enableCatalogLevelCache,
+                                String catalogName) {
         this.remoteFileIO = remoteFileIO;
         this.executor = executor;
         this.isRecursive = isRecursive;
         this.enableCatalogLevelCache = enableCatalogLevelCache;
+        this.catalogName = catalogName;
     }
 
     public List<RemoteFileInfo> getRemoteFiles(List<Partition> partitions) {
@@ -38,6 +50,7 @@ public class RemoteFileOperations {
     }
 
     public List<RemoteFileInfo> getRemoteFiles(List<Partition> partitions, Optional<String> hudiTableLocation) {
+        long start = System.currentTimeMillis();
         Map<RemotePathKey, Partition> pathKeyToPartition = Maps.newHashMap();
         for (Partition partition : partitions) {
             RemotePathKey key = RemotePathKey.of(partition.getFullPath(), isRecursive, hudiTableLocation);
@@ -52,19 +65,20 @@ public class RemoteFileOperations {
             futures.add(future);
         }
 
-        List<Map<RemotePathKey, List<RemoteFileDesc>>> result = Lists.newArrayList();
+        // build the file infos of the listed partitions while the others are still being listed
         for (Future<Map<RemotePathKey, List<RemoteFileDesc>>> future : futures) {
             try {
-                result.add(future.get());
+                resultRemoteFiles.addAll(fillFileInfo(future.get(), pathKeyToPartition));
             } catch (InterruptedException | ExecutionException e) {
+                // no need to list the rest partitions of a failed listing
+                futures.forEach(f -> f.cancel(true));
                 throw new StarRocksConnectorException("Failed to get remote files, msg: %s", e.getMessage());
             }
         }
 
-        for (Map<RemotePathKey, List<RemoteFileDesc>> pathToDesc : result) {
-            resultRemoteFiles.addAll(fillFileInfo(pathToDesc, pathKeyToPartition));
+        if (MetricRepo.isInit && catalogName != null) {
+            MetricRepo.getExternalMetaLatency(catalogName, "list_files").update(System.currentTimeMillis() - start);
         }
-
         return resultRemoteFiles;
     }
 
@@ -9,12 +9,17 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.HiveMetaStoreTable;
 import com.starrocks.catalog.Table;
 import com.starrocks.connector.exception.StarRocksConnectorException;
+import com.starrocks.external.LocalDiskMetaCache;
+import com.starrocks.metric.MetricRepo;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
@@ -48,6 +53,8 @@ public class CachingHiveMetastore implements IHiveMetastore {
 
     // eg: "year=2022/month=10" -> Partition
     protected LoadingCache<HivePartitionName, Partition> partitionCache;
+    // the second tier of the partition cache, null if disabled
+    protected LocalDiskMetaCache<Partition> partitionDiskCache;
     protected LoadingCache<HiveTableName, HivePartitionStats> tableStatsCache;
     protected LoadingCache<HivePartitionName, HivePartitionStats> partitionStatsCache;
 
@@ -67,6 +74,16 @@ public class CachingHiveMetastore implements IHiveMetastore {
         return new CachingHiveMetastore(metastore, executor, expireAfterWrite, refreshInterval, maxSize, enableListNamesCache);
     }
 
+    public static CachingHiveMetastore createCatalogLevelInstance(IHiveMetastore metastore, Executor executor,
+                                                                  long expireAfterWrite, long refreshInterval,
+                                                                  long maxSize, boolean enableListNamesCache,
+                                                                  LocalDiskMetaCache<Partition> partitionDiskCache) {
+        CachingHiveMetastore cachingHiveMetastore = new CachingHiveMetastore(
+                metastore, executor, expireAfterWrite, refreshInterval, maxSize, enableListNamesCache);
+        cachingHiveMetastore.partitionDiskCache = partitionDiskCache;
+        return cachingHiveMetastore;
+    }
+
     protected CachingHiveMetastore(IHiveMetastore metastore, Executor executor, long expireAfterWriteSec,
                                    long refreshIntervalSec, long maxSize, boolean enableListNamesCache) {
         this.metastore = metastore;
@@ -98,13 +115,20 @@ public class CachingHiveMetastore implements IHiveMetastore {
                 .build(asyncReloading(new CacheLoader<HivePartitionName, Partition>() {
                     @Override
                     public Partition load(@NotNull HivePartitionName key) {
-                        return loadPartition(key);
+                        return loadPartitionThroughDisk(key);
                     }
 
                     @Override
                     public Map<HivePartitionName, Partition> loadAll(
                             @NotNull Iterable<? extends HivePartitionName> partitionKeys) {
-                        return loadPartitionsByNames(partitionKeys);
+                        return loadPartitionsByNamesThroughDisk(partitionKeys);
+                    }
+
+                    // the entry in the disk is as old as the one to reload, so always reload from the metastore
+                    @Override
+                    public ListenableFuture<Partition> reload(@NotNull HivePartitionName key,
+                                                              @NotNull Partition oldValue) {
+                        return Futures.immediateFuture(loadPartition(key));
                     }
                 }, executor));
 
@@ -181,11 +205,41 @@ public class CachingHiveMetastore implements IHiveMetastore {
     }
 
     public Partition getPartition(String dbName, String tblName, List<String> partitionValues) {
-        return get(partitionCache, HivePartitionName.of(dbName, tblName, partitionValues));
+        HivePartitionName hivePartitionName = HivePartitionName.of(dbName, tblName, partitionValues);
+        if (partitionDiskCache != null) {
+            MetricRepo.increaseExternalMetaCacheRequest(partitionDiskCache.getName(), LocalDiskMetaCache.MEMORY_TIER,
+                    partitionCache.getIfPresent(hivePartitionName) != null);
+        }
+        return get(partitionCache, hivePartitionName);
     }
 
     public Partition loadPartition(HivePartitionName key) {
-        return metastore.getPartition(key.getDatabaseName(), key.getTableName(), key.getPartitionValues());
+        long loadTime = System.currentTimeMillis();
+        Partition partition = metastore.getPartition(key.getDatabaseName(), key.getTableName(), key.getPartitionValues());
+        if (partitionDiskCache != null) {
+            partitionDiskCache.put(toDiskCacheKey(key), partition, loadTime);
+        }
+        return partition;
+    }
+
+    private Partition loadPartitionThroughDisk(HivePartitionName key) {
+        if (partitionDiskCache != null) {
+            Partition partition = partitionDiskCache.get(toDiskCacheKey(key));
+            if (partition != null) {
+                return partition;
+            }
+        }
+        return loadPartition(key);
+    }
+
+    // eg: "db/tbl/[2022, 10]"
+    private static String toDiskCacheKey(HivePartitionName hivePartitionName) {
+        return toDiskCacheKeyPrefix(hivePartitionName.getDatabaseName(), hivePartitionName.getTableName()) +
+                LocalDiskMetaCache.SEPARATOR + hivePartitionName.getPartitionValues();
+    }
+
+    private static String toDiskCacheKeyPrefix(String dbName, String tblName) {
+        return dbName + LocalDiskMetaCache.SEPARATOR + tblName;
     }
 
     public Map<String, Partition> getPartitionsByNames(String dbName, String tblName, List<String> partitionNames) {
@@ -195,6 +249,14 @@ public class CachingHiveMetastore implements IHiveMetastore {
                         "partition name is missing"))
                 .collect(Collectors.toList());
 
+        if (partitionDiskCache != null) {
+            int presentNum = partitionCache.getAllPresent(hivePartitionNames).size();
+            MetricRepo.increaseExternalMetaCacheRequests(partitionDiskCache.getName(), LocalDiskMetaCache.MEMORY_TIER,
+                    true, presentNum);
+            MetricRepo.increaseExternalMetaCacheRequests(partitionDiskCache.getName(), LocalDiskMetaCache.MEMORY_TIER,
+                    false, hivePartitionNames.size() - presentNum);
+        }
+
         Map<HivePartitionName, Partition> all = getAll(partitionCache, hivePartitionNames);
         ImmutableMap.Builder<String, Partition> partitionsByName = ImmutableMap.builder();
         for (Map.Entry<HivePartitionName, Partition> entry : all.entrySet()) {
@@ -205,6 +267,7 @@ public class CachingHiveMetastore implements IHiveMetastore {
 
     private Map<HivePartitionName, Partition> loadPartitionsByNames(Iterable<? extends HivePartitionName> partitionNames) {
         HivePartitionName hivePartitionName = Iterables.get(partitionNames, 0);
+        long loadTime = System.currentTimeMillis();
         Map<String, Partition> partitionsByNames =  metastore.getPartitionsByNames(
                 hivePartitionName.getDatabaseName(),
                 hivePartitionName.getTableName(),
@@ -213,11 +276,36 @@ public class CachingHiveMetastore implements IHiveMetastore {
 
         ImmutableMap.Builder<HivePartitionName, Partition> partitions = ImmutableMap.builder();
         for (HivePartitionName partitionName : partitionNames) {
-            partitions.put(partitionName, partitionsByNames.get(partitionName.getPartitionNames().get()));
+            Partition partition = partitionsByNames.get(partitionName.getPartitionNames().get());
+            partitions.put(partitionName, partition);
+            if (partitionDiskCache != null) {
+                partitionDiskCache.put(toDiskCacheKey(partitionName), partition, loadTime);
+            }
         }
         return partitions.build();
     }
 
+    private Map<HivePartitionName, Partition> loadPartitionsByNamesThroughDisk(
+            Iterable<? extends HivePartitionName> partitionNames) {
+        if (partitionDiskCache == null) {
+            return loadPartitionsByNames(partitionNames);
+        }
+        Map<HivePartitionName, Partition> partitions = Maps.newHashMap();
+        List<HivePartitionName> missingPartitionNames = Lists.newArrayList();
+        for (HivePartitionName partitionName : partitionNames) {
+            Partition partition = partitionDiskCache.get(toDiskCacheKey(partitionName));
+            if (partition != null) {
+                partitions.put(partitionName, partition);
+            } else {
+                missingPartitionNames.add(partitionName);
+            }
+        }
+        if (!missingPartitionNames.isEmpty()) {
+            partitions.putAll(loadPartitionsByNames(missingPartitionNames));
+        }
+        return partitions;
+    }
+
     public HivePartitionStats getTableStatistics(String dbName, String tblName) {
         return get(tableStatsCache, HiveTableName.of(dbName, tblName));
     }
@@ -273,6 +361,11 @@ public class CachingHiveMetastore implements IHiveMetastore {
     }
 
     public void refreshTable(String hiveDbName, String hiveTblName) {
+        // the partitions absent in the memory cache are not reloaded below
+        if (partitionDiskCache != null) {
+            partitionDiskCache.invalidatePrefix(toDiskCacheKeyPrefix(hiveDbName, hiveTblName));
+        }
+
         databaseCache.put(hiveDbName, loadDb(hiveDbName));
 
         HiveTableName hiveTableName = HiveTableName.of(hiveDbName, hiveTblName);
@@ -344,5 +437,8 @@ public class CachingHiveMetastore implements IHiveMetastore {
         partitionCache.invalidateAll();
         tableStatsCache.invalidateAll();
         partitionStatsCache.invalidateAll();
+        if (partitionDiskCache != null) {
+            partitionDiskCache.invalidateAll();
+        }
     }
 }
\ No newline at end of file
@@ -21,9 +21,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.thrift.transport.TTransportException;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class HiveMetaClient {
     private static final Logger LOG = LogManager.getLogger(HiveMetaClient.class);
@@ -34,8 +35,10 @@ public class HiveMetaClient {
     // Maximum number of idle metastore connections in the connection pool at any point.
     private static final int MAX_HMS_CONNECTION_POOL_SIZE = 32;
 
-    private final LinkedList<AutoCloseClient> clientPool = new LinkedList<>();
-    private final Object clientPoolLock = new Object();
+    // the idle clients, borrowed and returned without a global lock so that the concurrent requests
+    // to the metastore are not serialized
+    private final BlockingQueue<AutoCloseClient> clientPool = new ArrayBlockingQueue<>(MAX_HMS_CONNECTION_POOL_SIZE);
+    private final Object clientCreateLock = new Object();
 
     private final HiveConf conf;
 
@@ -71,12 +74,8 @@ public class HiveMetaClient {
 
         @Override
         public void close() {
-            synchronized (clientPoolLock) {
-                if (clientPool.size() >= MAX_HMS_CONNECTION_POOL_SIZE) {
-                    hiveClient.close();
-                } else {
-                    clientPool.offer(this);
-                }
+            if (!clientPool.offer(this)) {
+                hiveClient.close();
             }
         }
     }
@@ -91,16 +90,15 @@ public class HiveMetaClient {
             Thread.currentThread().setContextClassLoader(ClassLoader.getSystemClassLoader());
         }
 
-        synchronized (clientPoolLock) {
-            AutoCloseClient client = clientPool.poll();
-            // The pool was empty so create a new client and return that.
-            // Serialize client creation to defend against possible race conditions accessing
-            // local Kerberos state
-            if (client == null) {
-                return new AutoCloseClient(conf);
-            } else {
-                return client;
-            }
+        AutoCloseClient client = clientPool.poll();
+        if (client != null) {
+            return client;
+        }
+        // The pool was empty so create a new client and return that.
+        // Serialize client creation to defend against possible race conditions accessing
+        // local Kerberos state, it does not block the clients borrowed from the pool.
+        synchronized (clientCreateLock) {
+            return new AutoCloseClient(conf);
         }
     }
 
@@ -3,18 +3,24 @@
 package com.starrocks.external.hive;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.HiveMetaStoreTable;
 import com.starrocks.catalog.HudiTable;
 import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
 import com.starrocks.connector.exception.StarRocksConnectorException;
 import com.starrocks.external.PartitionUtil;
+import com.starrocks.metric.MetricRepo;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -25,10 +31,17 @@ import static com.starrocks.external.hive.HiveMetastoreApiConverter.toHiveCommon
 public class HiveMetastore implements IHiveMetastore {
     private final HiveMetaClient client;
     private final String catalogName;
+    // used to get the partitions in batches concurrently, null to get them in the calling thread
+    private final ExecutorService partitionLoadExecutor;
 
     public HiveMetastore(HiveMetaClient client, String catalogName) {
+        this(client, catalogName, null);
+    }
+
+    public HiveMetastore(HiveMetaClient client, String catalogName, ExecutorService partitionLoadExecutor) {
         this.client = client;
         this.catalogName = catalogName;
+        this.partitionLoadExecutor = partitionLoadExecutor;
     }
 
     @Override
@@ -82,8 +95,13 @@ public class HiveMetastore implements IHiveMetastore {
     }
 
     public Map<String, Partition> getPartitionsByNames(String dbName, String tblName, List<String> partitionNames) {
+        long start = System.currentTimeMillis();
         List<org.apache.hadoop.hive.metastore.api.Partition> partitions =
-                client.getPartitionsByNames(dbName, tblName, partitionNames);
+                getPartitionsInBatches(dbName, tblName, partitionNames);
+        if (MetricRepo.isInit && catalogName != null) {
+            MetricRepo.getExternalMetaLatency(catalogName, "get_partitions")
+                    .update(System.currentTimeMillis() - start);
+        }
 
         Map<String, List<String>> partitionNameToPartitionValues = partitionNames.stream()
                 .collect(Collectors.toMap(Function.identity(), PartitionUtil::toPartitionValues));
@@ -101,6 +119,47 @@ public class HiveMetastore implements IHiveMetastore {
         return resultBuilder.build();
     }
 
+    // A large number of partitions in one request is slow and may exceed the timeout of the metastore,
+    // so they are got in batches, and the batches are got concurrently if there is an executor.
+    private List<org.apache.hadoop.hive.metastore.api.Partition> getPartitionsInBatches(
+            String dbName, String tblName, List<String> partitionNames) {
+        int batchSize = Math.max(1, Config.hive_meta_partition_batch_size);
+        if (partitionNames.size() <= batchSize) {
+            return client.getPartitionsByNames(dbName, tblName, partitionNames);
+        }
+
+        List<List<String>> batches = Lists.partition(partitionNames, batchSize);
+        List<org.apache.hadoop.hive.metastore.api.Partition> partitions = Lists.newArrayList();
+        if (partitionLoadExecutor == null) {
+            for (List<String> batch : batches) {
+                partitions.addAll(client.getPartitionsByNames(dbName, tblName, batch));
+            }
+            return partitions;
+        }
+
+        List<Future<List<org.apache.hadoop.hive.metastore.api.Partition>>> futures = Lists.newArrayList();
+        for (List<String> batch : batches) {
+            futures.add(partitionLoadExecutor.submit(() -> client.getPartitionsByNames(dbName, tblName, batch)));
+        }
+        try {
+            for (Future<List<org.apache.hadoop.hive.metastore.api.Partition>> future : futures) {
+                partitions.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new StarRocksConnectorException("Interrupted while getting partitions on [%s.%s]", dbName, tblName);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof StarRocksConnectorException) {
+                throw (StarRocksConnectorException) e.getCause();
+            }
+            throw new StarRocksConnectorException("Failed to get partitions on [%s.%s], msg: %s",
+                    dbName, tblName, e.getMessage());
+        }
+        return partitions;
+    }
+
     public HivePartitionStats getTableStatistics(String dbName, String tblName) {
         org.apache.hadoop.hive.metastore.api.Table table = client.getTable(dbName, tblName);
         HiveCommonStats commonStats = toHiveCommonStats(table.getParameters());
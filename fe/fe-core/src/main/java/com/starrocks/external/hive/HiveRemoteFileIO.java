@@ -3,11 +3,13 @@
 package com.starrocks.external.hive;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.starrocks.common.FeConstants;
 import com.starrocks.connector.exception.StarRocksConnectorException;
+import com.starrocks.external.LocalDiskMetaCache;
 import com.starrocks.external.ObjectStorageUtils;
 import com.starrocks.external.PartitionUtil;
 import com.starrocks.external.RemoteFileBlockDesc;
@@ -24,11 +26,14 @@ import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class HiveRemoteFileIO implements RemoteFileIO {
     private static final Logger LOG = LogManager.getLogger(HiveRemoteFileIO.class);
@@ -41,7 +46,7 @@ public class HiveRemoteFileIO implements RemoteFileIO {
     // blockHost is ip:port
     private final Map<String, Long> blockHostToId = new ConcurrentHashMap<>();
     private final Map<Long, String> idToBlockHost = new ConcurrentHashMap<>();
-    private long hostId = 0;
+    private final AtomicLong hostId = new AtomicLong(0);
     private static final int UNKNOWN_STORAGE_ID = -1;
 
     public HiveRemoteFileIO(Configuration configuration) {
@@ -131,7 +136,7 @@ public class HiveRemoteFileIO implements RemoteFileIO {
 
     public long getHostId(String hostName) {
         return blockHostToId.computeIfAbsent(hostName, k -> {
-            long newId = hostId++;
+            long newId = hostId.getAndIncrement();
             idToBlockHost.put(newId, hostName);
             return newId;
         });
@@ -142,6 +147,58 @@ public class HiveRemoteFileIO implements RemoteFileIO {
         return hostPort.split(":")[0];
     }
 
+    /**
+     * The codec of the remote files in the local disk cache. The replica hosts are written by name, since their ids
+     * are only valid in this process.
+     */
+    public LocalDiskMetaCache.Codec<List<RemoteFileDesc>> getRemoteFilesCodec() {
+        return new LocalDiskMetaCache.Codec<List<RemoteFileDesc>>() {
+            @Override
+            public void write(DataOutput out, List<RemoteFileDesc> fileDescs) throws IOException {
+                out.writeInt(fileDescs.size());
+                for (RemoteFileDesc fileDesc : fileDescs) {
+                    out.writeUTF(fileDesc.getFileName());
+                    out.writeUTF(Strings.nullToEmpty(fileDesc.getCompression()));
+                    out.writeLong(fileDesc.getLength());
+                    out.writeInt(fileDesc.getBlockDescs().size());
+                    for (RemoteFileBlockDesc blockDesc : fileDesc.getBlockDescs()) {
+                        out.writeLong(blockDesc.getOffset());
+                        out.writeLong(blockDesc.getLength());
+                        out.writeInt(blockDesc.getReplicaHostIds().length);
+                        for (long replicaHostId : blockDesc.getReplicaHostIds()) {
+                            out.writeUTF(idToBlockHost.get(replicaHostId));
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public List<RemoteFileDesc> read(DataInput in) throws IOException {
+                int fileNum = in.readInt();
+                List<RemoteFileDesc> fileDescs = Lists.newArrayListWithCapacity(fileNum);
+                for (int i = 0; i < fileNum; i++) {
+                    String fileName = in.readUTF();
+                    String compression = in.readUTF();
+                    long length = in.readLong();
+                    int blockNum = in.readInt();
+                    ImmutableList.Builder<RemoteFileBlockDesc> blockDescs = ImmutableList.builder();
+                    for (int j = 0; j < blockNum; j++) {
+                        long offset = in.readLong();
+                        long blockLength = in.readLong();
+                        String[] hostNames = new String[in.readInt()];
+                        for (int k = 0; k < hostNames.length; k++) {
+                            hostNames[k] = in.readUTF();
+                        }
+                        blockDescs.add(buildRemoteFileBlockDesc(offset, blockLength, getReplicaHostIds(hostNames)));
+                    }
+                    fileDescs.add(new RemoteFileDesc(fileName, compression, length, blockDescs.build(),
+                            ImmutableList.of()));
+                }
+                return fileDescs;
+            }
+        };
+    }
+
     @VisibleForTesting
     public void setFileSystem(FileSystem fs) {
         this.fileSystem = fs;
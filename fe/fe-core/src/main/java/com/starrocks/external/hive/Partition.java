@@ -2,8 +2,13 @@
 
 package com.starrocks.external.hive;
 
+import com.google.common.collect.Maps;
+import com.starrocks.external.LocalDiskMetaCache;
 import com.starrocks.external.hive.text.TextFileFormatDesc;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
 
@@ -13,6 +18,62 @@ import java.util.Objects;
  * is to reduce repeated calls to the hive metastore rpc interface at each stage.
  */
 public class Partition {
+    // the codec of the partition in the local disk cache
+    public static final LocalDiskMetaCache.Codec<Partition> DISK_CACHE_CODEC = new LocalDiskMetaCache.Codec<Partition>() {
+        @Override
+        public void write(DataOutput out, Partition partition) throws IOException {
+            out.writeInt(partition.parameters == null ? -1 : partition.parameters.size());
+            if (partition.parameters != null) {
+                for (Map.Entry<String, String> entry : partition.parameters.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    writeNullableString(out, entry.getValue());
+                }
+            }
+            writeNullableString(out, partition.inputFormat == null ? null : partition.inputFormat.name());
+            TextFileFormatDesc textDesc = partition.textFileFormatDesc;
+            out.writeBoolean(textDesc != null);
+            if (textDesc != null) {
+                writeNullableString(out, textDesc.getFieldDelim());
+                writeNullableString(out, textDesc.getLineDelim());
+                writeNullableString(out, textDesc.getCollectionDelim());
+                writeNullableString(out, textDesc.getMapkeyDelim());
+            }
+            writeNullableString(out, partition.fullPath);
+            out.writeBoolean(partition.isSplittable);
+        }
+
+        @Override
+        public Partition read(DataInput in) throws IOException {
+            int paramNum = in.readInt();
+            Map<String, String> parameters = null;
+            if (paramNum >= 0) {
+                parameters = Maps.newHashMapWithExpectedSize(paramNum);
+                for (int i = 0; i < paramNum; i++) {
+                    parameters.put(in.readUTF(), readNullableString(in));
+                }
+            }
+            String inputFormat = readNullableString(in);
+            TextFileFormatDesc textDesc = null;
+            if (in.readBoolean()) {
+                textDesc = new TextFileFormatDesc(readNullableString(in), readNullableString(in),
+                        readNullableString(in), readNullableString(in));
+            }
+            return new Partition(parameters, inputFormat == null ? null : RemoteFileInputFormat.valueOf(inputFormat),
+                    textDesc, readNullableString(in), in.readBoolean());
+        }
+
+        private void writeNullableString(DataOutput out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private String readNullableString(DataInput in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    };
+
     private final Map<String, String> parameters;
     private final RemoteFileInputFormat inputFormat;
     private final TextFileFormatDesc textFileFormatDesc;
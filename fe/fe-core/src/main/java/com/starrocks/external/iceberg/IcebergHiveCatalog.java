@@ -109,7 +109,7 @@ public class IcebergHiveCatalog extends BaseMetastoreCatalog implements IcebergC
                 fileIOImpl == null ? new HadoopFileIO(conf) : CatalogUtil.loadFileIO(fileIOImpl, properties, conf);
 
         // warp cache fileIO
-        IcebergCachingFileIO cachingFileIO = new IcebergCachingFileIO(fileIO);
+        IcebergCachingFileIO cachingFileIO = new IcebergCachingFileIO(fileIO, name);
         cachingFileIO.initialize(properties);
         this.fileIO = cachingFileIO;
 
@@ -0,0 +1,201 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external.iceberg;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.sql.PlannerProfile;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFiles;
+import org.apache.iceberg.ManifestReader;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.expressions.Evaluator;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.InclusiveMetricsEvaluator;
+import org.apache.iceberg.expressions.ManifestEvaluator;
+import org.apache.iceberg.expressions.Projections;
+import org.apache.iceberg.io.FileIO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plans the data files of an iceberg snapshot by reading its manifests in parallel in a dedicated pool, instead of
+ * the iceberg table scan which reads them in the planning thread or the pool shared by all the iceberg operations.
+ * The manifests are pruned by the partition summaries, and the data files by the partitions and column metrics.
+ * The live data files of the manifests are cached by the manifest path, since the manifests are immutable and
+ * shared by the snapshots, so that planning a new snapshot only reads the manifests added by it.
+ */
+public class IcebergScanPlanner {
+    private static final Logger LOG = LogManager.getLogger(IcebergScanPlanner.class);
+
+    private static final String PROFILE_PREFIX = "Iceberg.Plan.";
+
+    private static final ExecutorService PLAN_EXECUTOR = ThreadPoolManager.newDaemonFixedThreadPool(
+            Config.iceberg_plan_manifest_threads, Integer.MAX_VALUE, "iceberg-plan-manifest", true);
+
+    // manifest path -> the live data files in the manifest
+    private static final Cache<String, List<DataFile>> MANIFEST_CACHE = Caffeine.newBuilder()
+            .maximumWeight(Config.iceberg_manifest_cache_max_num_files)
+            .weigher((String path, List<DataFile> dataFiles) -> Math.max(dataFiles.size(), 1))
+            .build();
+
+    /**
+     * The delete files of format v2 could not be planned by the manifests, which are not supported by the scan.
+     */
+    public static boolean canPlan(Table table, Snapshot snapshot) {
+        return Config.enable_iceberg_parallel_planning && table instanceof BaseTable &&
+                snapshot.deleteManifests().isEmpty();
+    }
+
+    /**
+     * Returns the data files of the snapshot which may contain the rows matching the predicates.
+     */
+    public static List<DataFile> planDataFiles(Table table, Snapshot snapshot, List<Expression> icebergPredicates) {
+        Expression filter = icebergPredicates.stream().reduce(Expressions.alwaysTrue(), Expressions::and);
+        Map<Integer, PartitionSpec> specs = table.specs();
+        Schema schema = table.schema();
+        FileIO io = table.io();
+
+        List<ManifestFile> manifests = snapshot.dataManifests();
+        List<ManifestFile> matchedManifests = Lists.newArrayList();
+        try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer(PROFILE_PREFIX + "PruneManifests")) {
+            Map<Integer, ManifestEvaluator> evaluators = Maps.newHashMap();
+            for (ManifestFile manifest : manifests) {
+                ManifestEvaluator evaluator = evaluators.computeIfAbsent(manifest.partitionSpecId(),
+                        specId -> ManifestEvaluator.forRowFilter(filter, specs.get(specId), false));
+                if (evaluator.eval(manifest)) {
+                    matchedManifests.add(manifest);
+                }
+            }
+        }
+
+        AtomicInteger cacheMisses = new AtomicInteger(0);
+        AtomicInteger totalDataFiles = new AtomicInteger(0);
+        List<Future<List<DataFile>>> futures = Lists.newArrayListWithCapacity(matchedManifests.size());
+        for (ManifestFile manifest : matchedManifests) {
+            futures.add(PLAN_EXECUTOR.submit(() -> {
+                List<DataFile> dataFiles = MANIFEST_CACHE.get(manifest.path(), path -> {
+                    cacheMisses.incrementAndGet();
+                    return readManifest(manifest, io, specs);
+                });
+                totalDataFiles.addAndGet(dataFiles.size());
+                return filterDataFiles(dataFiles, specs.get(manifest.partitionSpecId()), schema, filter);
+            }));
+        }
+
+        List<DataFile> result = Lists.newArrayList();
+        try (PlannerProfile.ScopedTimer ignored = PlannerProfile.getScopedTimer(PROFILE_PREFIX + "ReadManifests")) {
+            for (Future<List<DataFile>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new StarRocksIcebergException(String.format("Interrupted while planning iceberg table %s",
+                    table.name()));
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            LOG.warn("Failed to plan iceberg table {} of snapshot {}", table.name(), snapshot.snapshotId(), e);
+            throw new StarRocksIcebergException(String.format("Failed to plan iceberg table %s: %s",
+                    table.name(), e.getCause() == null ? e.getMessage() : e.getCause().getMessage()));
+        }
+
+        PlannerProfile.addCounter(PROFILE_PREFIX + "Manifests", manifests.size());
+        PlannerProfile.addCounter(PROFILE_PREFIX + "PrunedManifests", manifests.size() - matchedManifests.size());
+        PlannerProfile.addCounter(PROFILE_PREFIX + "ManifestCacheMisses", cacheMisses.get());
+        PlannerProfile.addCounter(PROFILE_PREFIX + "DataFiles", result.size());
+        PlannerProfile.addCounter(PROFILE_PREFIX + "PrunedDataFiles", totalDataFiles.get() - result.size());
+        LOG.debug("Planned {} data files of iceberg table {} from {}/{} manifests, {} manifests read",
+                result.size(), table.name(), matchedManifests.size(), manifests.size(), cacheMisses.get());
+        return result;
+    }
+
+    private static List<DataFile> readManifest(ManifestFile manifest, FileIO io, Map<Integer, PartitionSpec> specs) {
+        try (ManifestReader<DataFile> reader = ManifestFiles.read(manifest, io, specs)) {
+            return ImmutableList.copyOf(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<DataFile> filterDataFiles(List<DataFile> dataFiles, PartitionSpec spec, Schema schema,
+                                                  Expression filter) {
+        if (filter == Expressions.alwaysTrue()) {
+            return dataFiles;
+        }
+        // the evaluators are created for each manifest, since they are not shared between threads
+        Evaluator partitionEvaluator = new Evaluator(spec.partitionType(),
+                Projections.inclusive(spec, false).project(filter), false);
+        InclusiveMetricsEvaluator metricsEvaluator = new InclusiveMetricsEvaluator(schema, filter, false);
+        List<DataFile> matched = Lists.newArrayList();
+        for (DataFile dataFile : dataFiles) {
+            if (partitionEvaluator.eval(dataFile.partition()) && metricsEvaluator.eval(dataFile)) {
+                matched.add(dataFile);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Splits the data file into ranges of about the split size at its split offsets, e.g. the row groups of
+     * parquet, or evenly if it has no split offsets. Returns the pairs of offset and length.
+     */
+    public static List<long[]> splitDataFile(DataFile dataFile, long splitSize) {
+        List<long[]> splits = Lists.newArrayList();
+        long fileLength = dataFile.fileSizeInBytes();
+        if (!dataFile.format().isSplittable() || splitSize <= 0) {
+            splits.add(new long[] {0, fileLength});
+            return splits;
+        }
+
+        List<Long> offsets = dataFile.splitOffsets();
+        if (isValidSplitOffsets(offsets, fileLength)) {
+            long start = 0;
+            for (int i = 1; i < offsets.size(); i++) {
+                if (offsets.get(i) - start >= splitSize) {
+                    splits.add(new long[] {start, offsets.get(i) - start});
+                    start = offsets.get(i);
+                }
+            }
+            splits.add(new long[] {start, fileLength - start});
+            return splits;
+        }
+
+        for (long start = 0; start < fileLength; start += splitSize) {
+            splits.add(new long[] {start, Math.min(splitSize, fileLength - start)});
+        }
+        return splits;
+    }
+
+    private static boolean isValidSplitOffsets(List<Long> offsets, long fileLength) {
+        if (offsets == null || offsets.size() < 2) {
+            return false;
+        }
+        for (int i = 1; i < offsets.size(); i++) {
+            if (offsets.get(i) <= offsets.get(i - 1) || offsets.get(i) >= fileLength) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
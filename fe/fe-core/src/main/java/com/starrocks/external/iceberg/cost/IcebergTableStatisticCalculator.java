@@ -4,6 +4,7 @@ package com.starrocks.external.iceberg.cost;
 
 import com.google.common.collect.ImmutableList;
 import com.starrocks.catalog.Column;
+import com.starrocks.external.iceberg.IcebergScanPlanner;
 import com.starrocks.external.iceberg.IcebergUtil;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
@@ -214,13 +215,19 @@ public class IcebergTableStatisticCalculator {
                 .filter(column -> !identityPartitionIds.contains(column.fieldId()) && column.type().isPrimitiveType())
                 .collect(toImmutableList());
 
-        TableScan tableScan = IcebergUtil.getTableScan(icebergTable,
-                snapshot.get(), icebergPredicates);
+        CloseableIterable<DataFile> plannedDataFiles;
+        if (IcebergScanPlanner.canPlan(icebergTable, snapshot.get())) {
+            plannedDataFiles = CloseableIterable.withNoopClose(
+                    IcebergScanPlanner.planDataFiles(icebergTable, snapshot.get(), icebergPredicates));
+        } else {
+            TableScan tableScan = IcebergUtil.getTableScan(icebergTable,
+                    snapshot.get(), icebergPredicates);
+            plannedDataFiles = CloseableIterable.transform(tableScan.planFiles(), FileScanTask::file);
+        }
 
         IcebergFileStats icebergFileStats = null;
-        try (CloseableIterable<FileScanTask> fileScanTasks = tableScan.planFiles()) {
-            for (FileScanTask fileScanTask : fileScanTasks) {
-                DataFile dataFile = fileScanTask.file();
+        try (CloseableIterable<DataFile> dataFiles = plannedDataFiles) {
+            for (DataFile dataFile : dataFiles) {
                 // ignore this data file.
                 if (dataFile.recordCount() == 0) {
                     continue;
@@ -24,6 +24,8 @@ package com.starrocks.external.iceberg.io;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Weigher;
+import com.starrocks.external.LocalDiskMetaCache;
+import com.starrocks.metric.MetricRepo;
 import org.apache.iceberg.exceptions.NotFoundException;
 import org.apache.iceberg.exceptions.RuntimeIOException;
 import org.apache.iceberg.io.FileIO;
@@ -36,6 +38,8 @@ import org.apache.iceberg.util.PropertyUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -56,16 +60,28 @@ public class IcebergCachingFileIO implements FileIO {
 
     private ContentCache fileContentCache;
     private FileIO wrappedIO;
+    private final String catalogName;
 
     public IcebergCachingFileIO(FileIO io) {
+        this(io, null);
+    }
+
+    /**
+     * @param catalogName the name of the catalog to cache the metadata files in the local disk, null if not
+     */
+    public IcebergCachingFileIO(FileIO io, String catalogName) {
         this.wrappedIO = io;
+        this.catalogName = catalogName;
     }
 
     @Override
     public void initialize(Map<String, String> properties) {
         long maxTotalBytes = PropertyUtil.propertyAsLong(properties, FILEIO_CACHE_MAX_TOTAL_BYTES,
                                                         DEFAULT_FILEIO_CACHE_MAX_TOTAL_BYTES);
-        this.fileContentCache = new ContentCache(DEFAULT_FILEIO_CACHE_MAX_CONTENT_LENGTH, maxTotalBytes);
+        // the metadata and manifest files are immutable, so they never expire
+        LocalDiskMetaCache<CacheEntry> diskCache = catalogName == null ? null :
+                LocalDiskMetaCache.create(catalogName, "metadata_files", -1, CacheEntry.CODEC);
+        this.fileContentCache = new ContentCache(DEFAULT_FILEIO_CACHE_MAX_CONTENT_LENGTH, maxTotalBytes, diskCache);
     }
 
     @Override
@@ -86,6 +102,33 @@ public class IcebergCachingFileIO implements FileIO {
     }
 
     private static class CacheEntry {
+        private static final LocalDiskMetaCache.Codec<CacheEntry> CODEC = new LocalDiskMetaCache.Codec<CacheEntry>() {
+            @Override
+            public void write(DataOutput out, CacheEntry entry) throws IOException {
+                out.writeLong(entry.length);
+                for (ByteBuffer buffer : entry.buffers) {
+                    ByteBuffer duplicate = buffer.duplicate();
+                    byte[] bytes = new byte[duplicate.remaining()];
+                    duplicate.get(bytes);
+                    out.write(bytes);
+                }
+            }
+
+            @Override
+            public CacheEntry read(DataInput in) throws IOException {
+                long length = in.readLong();
+                List<ByteBuffer> buffers = Lists.newArrayList();
+                long remaining = length;
+                while (remaining > 0) {
+                    byte[] buf = new byte[(int) Math.min(BUFFER_CHUNK_SIZE, remaining)];
+                    in.readFully(buf);
+                    buffers.add(ByteBuffer.wrap(buf));
+                    remaining -= buf.length;
+                }
+                return new CacheEntry(length, buffers);
+            }
+        };
+
         private final long length;
         private final List<ByteBuffer> buffers;
 
@@ -99,10 +142,13 @@ public class IcebergCachingFileIO implements FileIO {
         private final long maxTotalBytes;
         private final long maxContentLength;
         private final Cache<String, CacheEntry> cache;
+        // the second tier of the cache, null if disabled
+        private final LocalDiskMetaCache<CacheEntry> diskCache;
 
-        private ContentCache(long maxContentLength, long maxTotalBytes) {
+        private ContentCache(long maxContentLength, long maxTotalBytes, LocalDiskMetaCache<CacheEntry> diskCache) {
             this.maxTotalBytes = maxTotalBytes;
             this.maxContentLength = maxContentLength;
+            this.diskCache = diskCache;
 
             Caffeine<Object, Object> builder = Caffeine.newBuilder();
             this.cache = builder.maximumWeight(maxTotalBytes)
@@ -118,16 +164,42 @@ public class IcebergCachingFileIO implements FileIO {
             return maxContentLength;
         }
 
+        // the entry in the disk is loaded by getIfPresent, which is always called before to get the file length
         public CacheEntry get(String key, Function<String, CacheEntry> mappingFunction) {
-            return cache.get(key, mappingFunction);
+            if (diskCache == null) {
+                return cache.get(key, mappingFunction);
+            }
+            return cache.get(key, k -> {
+                long loadTime = System.currentTimeMillis();
+                CacheEntry entry = mappingFunction.apply(k);
+                if (entry != null) {
+                    diskCache.put(k, entry, loadTime);
+                }
+                return entry;
+            });
         }
 
         public CacheEntry getIfPresent(String location) {
-            return cache.getIfPresent(location);
+            CacheEntry entry = cache.getIfPresent(location);
+            if (diskCache == null) {
+                return entry;
+            }
+            MetricRepo.increaseExternalMetaCacheRequest(diskCache.getName(), LocalDiskMetaCache.MEMORY_TIER,
+                    entry != null);
+            if (entry == null) {
+                entry = diskCache.get(location);
+                if (entry != null) {
+                    cache.put(location, entry);
+                }
+            }
+            return entry;
         }
 
         public void invalidate(String key) {
             cache.invalidate(key);
+            if (diskCache != null) {
+                diskCache.invalidate(key);
+            }
         }
     }
 
@@ -40,6 +40,12 @@ public interface Journal {
     public JournalCursor read(long fromKey, long toKey)
             throws JournalException, JournalInconsistentException, InterruptedException;
 
+    // Same as read(), but the journals may be read and deserialized ahead of the caller in background threads
+    public default JournalCursor readAhead(long fromKey, long toKey)
+            throws JournalException, JournalInconsistentException, InterruptedException {
+        return read(fromKey, toKey);
+    }
+
     // Delete journals whose max id is less than deleteToJournalId
     public void deleteJournals(long deleteJournalToId);
 
@@ -0,0 +1,139 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.journal;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.util.CompressionUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The encoding of the serialized JournalEntity stored in the journal storage.
+ *
+ * The legacy encoding stores the serialized JournalEntity, which starts with its op code, as is.
+ * The versioned encoding stores it as
+ *   | magic (short) | version (byte) | codec (byte) | op code (short) | raw length (int) | encoded entity |
+ * The magic is a negative short which is never used as an op code, so the journals of both encodings could be read
+ * from the same journal storage, including the journals written by the old versions.
+ *
+ * A journal is only stored in the versioned encoding if it is compressed smaller, e.g. the journals in GSON.
+ */
+public class JournalEncoding {
+    public static final short MAGIC = Short.MIN_VALUE;
+    public static final byte VERSION_1 = 1;
+
+    public static final byte CODEC_NONE = 0;
+    public static final byte CODEC_DEFLATE = 1;
+
+    public static final String COMPRESSION_NONE = "none";
+    public static final String COMPRESSION_DEFLATE = "deflate";
+
+    // magic + version + codec + op code + raw length
+    private static final int HEADER_SIZE = 2 + 1 + 1 + 2 + 4;
+
+    /**
+     * Encode the serialized journal entity with the compression of metadata_journal_compression.
+     * Return null if it should be stored as is.
+     */
+    public static byte[] encode(byte[] data, int length) {
+        if (!COMPRESSION_DEFLATE.equalsIgnoreCase(Config.metadata_journal_compression)
+                || length < Math.max(Config.metadata_journal_compression_min_bytes, 2)) {
+            return null;
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            // not worth it unless saving at least 1/8
+            byte[] buffer = new byte[HEADER_SIZE + length - length / 8];
+            int encodedLength = CompressionUtils.deflate(deflater, data, 0, length, buffer, HEADER_SIZE,
+                    buffer.length - HEADER_SIZE);
+            if (encodedLength < 0) {
+                return null;
+            }
+            encodedLength += HEADER_SIZE;
+
+            ByteBuffer header = ByteBuffer.wrap(buffer, 0, HEADER_SIZE);
+            header.putShort(MAGIC);
+            header.put(VERSION_1);
+            header.put(CODEC_DEFLATE);
+            header.putShort(getOpCode(data, length));
+            header.putInt(length);
+            byte[] encoded = new byte[encodedLength];
+            System.arraycopy(buffer, 0, encoded, 0, encodedLength);
+            return encoded;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decode the journal data stored in either encoding into the serialized journal entity.
+     */
+    public static byte[] decode(byte[] data) throws IOException {
+        if (!isVersioned(data)) {
+            return data;
+        }
+        ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER_SIZE);
+        header.getShort();
+        byte version = header.get();
+        byte codec = header.get();
+        header.getShort();
+        int rawLength = header.getInt();
+        if (version != VERSION_1) {
+            throw new IOException("unknown journal encoding version " + version);
+        }
+
+        switch (codec) {
+            case CODEC_NONE: {
+                byte[] raw = new byte[data.length - HEADER_SIZE];
+                System.arraycopy(data, HEADER_SIZE, raw, 0, raw.length);
+                return raw;
+            }
+            case CODEC_DEFLATE: {
+                Inflater inflater = new Inflater();
+                try {
+                    inflater.setInput(data, HEADER_SIZE, data.length - HEADER_SIZE);
+                    byte[] raw = new byte[rawLength];
+                    int length = 0;
+                    while (length < rawLength && !inflater.finished()) {
+                        int n = inflater.inflate(raw, length, rawLength - length);
+                        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        length += n;
+                    }
+                    if (length != rawLength) {
+                        throw new IOException(String.format("journal is inflated to %d bytes, expect %d bytes",
+                                length, rawLength));
+                    }
+                    return raw;
+                } catch (DataFormatException e) {
+                    throw new IOException("failed to inflate journal", e);
+                } finally {
+                    inflater.end();
+                }
+            }
+            default:
+                throw new IOException("unknown journal codec " + codec);
+        }
+    }
+
+    /**
+     * The op code of the journal data stored in either encoding.
+     */
+    public static short getOpCode(byte[] data, int length) {
+        if (length < 2) {
+            return -1;
+        }
+        int offset = isVersioned(data) ? 4 : 0;
+        return (short) (((data[offset] & 0xff) << 8) | (data[offset + 1] & 0xff));
+    }
+
+    private static boolean isVersioned(byte[] data) {
+        return data.length >= HEADER_SIZE && (short) (((data[0] & 0xff) << 8) | (data[1] & 0xff)) == MAGIC;
+    }
+}
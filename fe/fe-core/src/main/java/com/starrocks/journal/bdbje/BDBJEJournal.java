@@ -28,12 +28,15 @@ import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.Transaction;
+import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
 import com.starrocks.common.io.DataOutputBuffer;
 import com.starrocks.journal.Journal;
 import com.starrocks.journal.JournalCursor;
+import com.starrocks.journal.JournalEncoding;
 import com.starrocks.journal.JournalException;
 import com.starrocks.journal.JournalInconsistentException;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.staros.StarMgrServer;
 import org.apache.logging.log4j.LogManager;
@@ -62,6 +65,9 @@ public class BDBJEJournal implements Journal {
 
     // store uncommitted kv, used for rebuilding txn on commit fails
     private List<Pair<DatabaseEntry, DatabaseEntry>> uncommitedDatas = new ArrayList<>();
+    // op code, raw bytes and stored bytes of the uncommitted journals, counted in the metrics on commit,
+    // kept along with `uncommitedDatas` until the txn is committed
+    private List<long[]> uncommittedBytes = new ArrayList<>();
 
     @VisibleForTesting
     public BDBJEJournal(BDBEnvironment bdbEnvironment, CloseSafeDatabase currentJournalDB) {
@@ -124,6 +130,13 @@ public class BDBJEJournal implements Journal {
         return BDBJournalCursor.getJournalCursor(bdbEnvironment, prefix, fromKey, toKey);
     }
 
+    @Override
+    public JournalCursor readAhead(long fromKey, long toKey)
+            throws JournalException, JournalInconsistentException, InterruptedException {
+        return BDBPipelinedJournalCursor.getJournalCursor(bdbEnvironment, prefix, fromKey, toKey,
+                Config.metadata_journal_replay_queue_size);
+    }
+
     @Override
     public long getMaxJournalId() {
         long ret = -1;
@@ -328,8 +341,10 @@ public class BDBJEJournal implements Journal {
         DatabaseEntry theKey = new DatabaseEntry();
         TupleBinding<Long> idBinding = TupleBinding.getPrimitiveBinding(Long.class);
         idBinding.objectToEntry(journalId, theKey);
-        // entity is the value
-        DatabaseEntry theData = new DatabaseEntry(buffer.getData(), 0, buffer.getLength());
+        // entity is the value, compressed if metadata_journal_compression is set
+        byte[] encoded = JournalEncoding.encode(buffer.getData(), buffer.getLength());
+        DatabaseEntry theData = encoded == null ? new DatabaseEntry(buffer.getData(), 0, buffer.getLength()) :
+                new DatabaseEntry(encoded);
 
         JournalException exception = null;
         for (int i = 0; i < RETRY_TIME; i++) {
@@ -347,6 +362,8 @@ public class BDBJEJournal implements Journal {
                 }
                 // success
                 uncommitedDatas.add(Pair.create(theKey, theData));
+                uncommittedBytes.add(new long[] {JournalEncoding.getOpCode(buffer.getData(), buffer.getLength()),
+                        buffer.getLength(), theData.getSize()});
                 return;
             } catch (DatabaseException e) {
                 String errMsg = String.format(
@@ -400,6 +417,9 @@ public class BDBJEJournal implements Journal {
                 // commit
                 try {
                     currentTrasaction.commit();
+                    for (long[] bytes : uncommittedBytes) {
+                        MetricRepo.increaseJournalWriteBytes((short) bytes[0], bytes[1], bytes[2]);
+                    }
                     return;
                 } catch (DatabaseException e) {
                     String errMsg = String.format("failed to commit journal after retried %d times! txn[%s] db[%s]",
@@ -415,6 +435,7 @@ public class BDBJEJournal implements Journal {
             // always reset current txn
             currentTrasaction = null;
             uncommitedDatas.clear();
+            uncommittedBytes.clear();
         }
     }
 
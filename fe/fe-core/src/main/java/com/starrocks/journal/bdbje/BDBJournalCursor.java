@@ -30,6 +30,7 @@ import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.rep.InsufficientLogException;
 import com.sleepycat.je.rep.RestartRequiredException;
 import com.starrocks.journal.JournalCursor;
+import com.starrocks.journal.JournalEncoding;
 import com.starrocks.journal.JournalEntity;
 import com.starrocks.journal.JournalException;
 import com.starrocks.journal.JournalInconsistentException;
@@ -46,8 +47,8 @@ public class BDBJournalCursor implements JournalCursor {
     private static final int RETRY_TIME = 3;
     private static final long SLEEP_INTERVAL_SEC = 3;
 
-    private long toKey;
-    private long nextKey;
+    protected long toKey;
+    protected long nextKey;
     private BDBEnvironment environment;
     // names of all local databases, will set on initialization, and will update every time `prelong()` is called
     protected List<Long> localDBNames = null;
@@ -103,15 +104,19 @@ public class BDBJournalCursor implements JournalCursor {
      */
     public static BDBJournalCursor getJournalCursor(BDBEnvironment env, String prefix, long fromKey, long toKey)
             throws JournalException, JournalInconsistentException, InterruptedException {
+        checkKeyRange(fromKey, toKey);
+        BDBJournalCursor cursor = new BDBJournalCursor(env, prefix, fromKey, toKey);
+        cursor.refresh();
+        return cursor;
+    }
+
+    protected static void checkKeyRange(long fromKey, long toKey) throws JournalException {
         if (fromKey < 0  // fromKey must be a positive number
                 || (toKey > 0 && toKey < fromKey)  // if toKey is a positive number, it must be smaller than fromKey
                 || (toKey <= 0 && toKey != JournalCursor.CUROSR_END_KEY)  // if toKey is a negative number, it must be END
             ) {
             throw new JournalException(String.format("Invalid key range! fromKey %s toKey %s", fromKey, toKey));
         }
-        BDBJournalCursor cursor = new BDBJournalCursor(env, prefix, fromKey, toKey);
-        cursor.refresh();
-        return cursor;
     }
 
     /**
@@ -229,15 +234,15 @@ public class BDBJournalCursor implements JournalCursor {
         throw exception;
     }
 
-    protected JournalEntity deserializeData(DatabaseEntry data) throws JournalException {
-        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data.getData()));
+    protected JournalEntity deserializeData(long key, DatabaseEntry data) throws JournalException {
         JournalEntity ret = new JournalEntity();
         try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(JournalEncoding.decode(data.getData())));
             ret.readFields(in);
         } catch (IOException e) {
             // bad data, will not retry
             String errMsg = String.format("fail to read journal entity key=%s, data=%s",
-                    nextKey, data);
+                    key, data);
             LOG.error(errMsg, e);
             JournalException exception = new JournalException(errMsg);
             exception.initCause(e);
@@ -248,6 +253,20 @@ public class BDBJournalCursor implements JournalCursor {
 
     @Override
     public JournalEntity next() throws InterruptedException, JournalException, JournalInconsistentException {
+        DatabaseEntry data = readData();
+        if (data == null) {
+            return null;
+        }
+        JournalEntity entity = deserializeData(nextKey, data);
+        nextKey++;
+        return entity;
+    }
+
+    /**
+     * Read the serialized data of the next journal without moving the cursor.
+     * Return null when there is no more journals, or if need to retry from outside.
+     */
+    protected DatabaseEntry readData() throws InterruptedException, JournalException, JournalInconsistentException {
         // EOF
         if (toKey > 0 && nextKey > toKey) {
             LOG.info("cursor reaches the end: next key {} > to key {}", nextKey, toKey);
@@ -276,10 +295,7 @@ public class BDBJournalCursor implements JournalCursor {
                 OperationStatus operationStatus = database.get(null, theKey, theData, LockMode.READ_COMMITTED);
 
                 if (operationStatus == OperationStatus.SUCCESS) {
-                    // 3. serialized
-                    JournalEntity entity = deserializeData(theData);
-                    nextKey++;
-                    return entity;
+                    return theData;
                 } else if (operationStatus == OperationStatus.NOTFOUND) {
                     // read until there is no more log exists, return
                     if (toKey == JournalCursor.CUROSR_END_KEY) {
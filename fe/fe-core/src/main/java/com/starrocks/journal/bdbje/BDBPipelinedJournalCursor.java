@@ -0,0 +1,241 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.journal.bdbje;
+
+import com.sleepycat.je.DatabaseEntry;
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.journal.JournalException;
+import com.starrocks.journal.JournalInconsistentException;
+import com.starrocks.meta.MetaContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A journal cursor which reads the journals ahead of the caller in a background thread and deserializes them in
+ * parallel, while the journals are still returned strictly in the order of the journal id.
+ *
+ * At most queueSize journals are read ahead. The reader stops when there is no more journal, or when it fails to
+ * read a journal, and is restarted by refresh(), the same way the replayer retries a BDBJournalCursor.
+ * If a journal fails to be read or deserialized, the journals read ahead of it are dropped, and the reader is
+ * restarted at it by refresh(), so it is retried until it is skipped by skipNext(), like a BDBJournalCursor.
+ */
+public class BDBPipelinedJournalCursor extends BDBJournalCursor {
+    private static final Logger LOG = LogManager.getLogger(BDBPipelinedJournalCursor.class);
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final ExecutorService DESERIALIZE_EXECUTOR = ThreadPoolManager.newDaemonFixedThreadPool(
+            Config.metadata_journal_replay_deserialize_threads, Integer.MAX_VALUE, "journal-deserializer", true);
+
+    private final ExecutorService readerExecutor;
+    // the journals read ahead, ordered by the journal id
+    private final BlockingQueue<ReadAheadJournal> readAheadQueue;
+    // the meta version of the caller, which is needed to deserialize the journals
+    private final MetaContext metaContext;
+    private Future<?> reader = null;
+    // the journal taken from the queue and not returned yet
+    private ReadAheadJournal head = null;
+    private volatile boolean closed = false;
+    private volatile boolean stopping = false;
+    // the key of the journal failed to be returned by the last next(), -1 if it succeeded
+    private long failedKey = -1;
+    // the key to restart the reader at by refresh(), -1 to continue from nextKey
+    private long seekKey = -1;
+
+    private static class ReadAheadJournal {
+        private final long key;
+        private final Future<JournalEntity> entity;
+
+        ReadAheadJournal(long key, Future<JournalEntity> entity) {
+            this.key = key;
+            this.entity = entity;
+        }
+    }
+
+    public static BDBPipelinedJournalCursor getJournalCursor(BDBEnvironment env, String prefix, long fromKey,
+                                                             long toKey, int queueSize)
+            throws JournalException, JournalInconsistentException, InterruptedException {
+        checkKeyRange(fromKey, toKey);
+        BDBPipelinedJournalCursor cursor = new BDBPipelinedJournalCursor(env, prefix, fromKey, toKey, queueSize);
+        cursor.refresh();
+        return cursor;
+    }
+
+    protected BDBPipelinedJournalCursor(BDBEnvironment env, String prefix, long fromKey, long toKey, int queueSize) {
+        super(env, prefix, fromKey, toKey);
+        this.readAheadQueue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+        this.readerExecutor = ThreadPoolManager.newDaemonCacheThreadPool(1, "journal-reader", false);
+        this.metaContext = MetaContext.get();
+    }
+
+    @Override
+    public void refresh() throws JournalException, JournalInconsistentException, InterruptedException {
+        if (reader != null && !reader.isDone()) {
+            // still reading ahead, the databases are refreshed after the reader stops
+            return;
+        }
+        super.refresh();
+        if (seekKey >= 0) {
+            // reopen the database of the key, which may be before the database the reader stopped in
+            if (database != null) {
+                database.close();
+                database = null;
+            }
+            nextKey = seekKey;
+            calculateNextDbIndex();
+            seekKey = -1;
+        }
+        reader = readerExecutor.submit(this::readAhead);
+    }
+
+    @Override
+    public JournalEntity next() throws InterruptedException, JournalException, JournalInconsistentException {
+        failedKey = -1;
+        while (true) {
+            if (head == null) {
+                // check the reader before polling, so that the journals queued before it stops are not missed
+                boolean readerStopped = reader == null || reader.isDone();
+                head = readerStopped ? readAheadQueue.poll() :
+                        readAheadQueue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (head == null && readerStopped) {
+                    return null;
+                }
+            }
+            if (head != null) {
+                try {
+                    JournalEntity entity = getEntity(head.entity);
+                    head = null;
+                    return entity;
+                } catch (JournalException | JournalInconsistentException e) {
+                    // stay at the failed journal until it is read successfully or skipped
+                    failedKey = head.key;
+                    seekKey = head.key;
+                    stopReader();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void skipNext() {
+        if (failedKey < 0) {
+            // the journal which failed to be applied has been read past already
+            LOG.error("!!! DANGER: CURSOR SKIP THE LAST RETURNED JOURNAL !!!");
+            return;
+        }
+        LOG.error("!!! DANGER: CURSOR SKIP {} !!!", failedKey);
+        seekKey = failedKey + 1;
+        failedKey = -1;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        waitReaderStopped();
+        readerExecutor.shutdown();
+        readAheadQueue.clear();
+        head = null;
+        super.close();
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed && !stopping) {
+                DatabaseEntry data = readData();
+                if (data == null) {
+                    return;
+                }
+                long key = nextKey;
+                Future<JournalEntity> future = DESERIALIZE_EXECUTOR.submit(() -> deserialize(key, data));
+                nextKey++;
+                if (!enqueue(new ReadAheadJournal(key, future))) {
+                    return;
+                }
+            }
+        } catch (Throwable e) {
+            LOG.warn("failed to read journal {} ahead", nextKey, e);
+            CompletableFuture<JournalEntity> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+            try {
+                enqueue(new ReadAheadJournal(nextKey, failure));
+            } catch (InterruptedException ie) {
+                LOG.warn("interrupted when queueing the failure of journal {}", nextKey, ie);
+            }
+        }
+    }
+
+    private JournalEntity deserialize(long key, DatabaseEntry data) throws JournalException {
+        // the meta version is read from the thread local meta context when deserializing the tables and so on
+        if (metaContext != null) {
+            metaContext.setThreadLocalInfo();
+        }
+        try {
+            return deserializeData(key, data);
+        } finally {
+            MetaContext.remove();
+        }
+    }
+
+    private boolean enqueue(ReadAheadJournal journal) throws InterruptedException {
+        while (!readAheadQueue.offer(journal, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            if (closed || stopping) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void stopReader() {
+        stopping = true;
+        try {
+            // unblock the reader waiting for the queue
+            readAheadQueue.clear();
+            waitReaderStopped();
+            readAheadQueue.clear();
+            head = null;
+        } finally {
+            stopping = false;
+        }
+    }
+
+    private void waitReaderStopped() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.warn("journal reader stopped with exception", e);
+        }
+    }
+    private static JournalEntity getEntity(Future<JournalEntity> future)
+            throws InterruptedException, JournalException, JournalInconsistentException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof JournalException) {
+                throw (JournalException) cause;
+            } else if (cause instanceof JournalInconsistentException) {
+                throw (JournalInconsistentException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            JournalException exception = new JournalException("failed to read journal: " + cause.getMessage());
+            exception.initCause(cause);
+            throw exception;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
+import com.starrocks.journal.JournalEncoding;
 import com.starrocks.journal.JournalEntity;
 import com.starrocks.meta.MetaContext;
 import org.json.JSONArray;
@@ -150,9 +151,9 @@ public class BDBTool {
         OperationStatus status = db.get(null, queryKey, value, LockMode.READ_COMMITTED);
         if (status == OperationStatus.SUCCESS) {
             byte[] retData = value.getData();
-            DataInputStream in = new DataInputStream(new ByteArrayInputStream(retData));
             JournalEntity entity = new JournalEntity();
             try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(JournalEncoding.decode(retData)));
                 entity.readFields(in);
             } catch (Exception e) {
                 e.printStackTrace();
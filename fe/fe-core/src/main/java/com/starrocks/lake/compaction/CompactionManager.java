@@ -14,11 +14,14 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
 
@@ -28,9 +31,16 @@ public class CompactionManager {
     @SerializedName(value = "partitionStatisticsHashMap")
     private final Map<PartitionIdentifier, PartitionStatistics> partitionStatisticsHashMap = new HashMap<>();
 
+    // partition id -> reads of partition since the last time chose partitions to compact, or since the last
+    // time reported to the leader on the other FEs
+    private final Map<Long, LongAdder> partitionReads = new ConcurrentHashMap<>();
+
     private Selector selector;
     private Sorter sorter;
     private CompactionScheduler compactionScheduler;
+    // the result of the last time chose partitions to compact, for metrics
+    private volatile int candidatePartitionNum = 0;
+    private volatile double maxCompactionScore = 0;
 
     public CompactionManager() {
         try {
@@ -88,10 +98,73 @@ public class CompactionManager {
 
     @NotNull
     synchronized List<PartitionIdentifier> choosePartitionsToCompact() {
+        collectPartitionReads();
         List<PartitionStatistics> selection = sorter.sort(selector.select(partitionStatisticsHashMap.values()));
+        candidatePartitionNum = selection.size();
+        maxCompactionScore = selection.stream().mapToDouble(PartitionStatistics::getCompactionScore).max().orElse(0);
         return selection.stream().map(PartitionStatistics::getPartition).collect(Collectors.toList());
     }
 
+    /**
+     * Count the reads of partitions of a lake table when a query is executed, which raise the compaction score of
+     * the partitions. The partition ids are unique across tables, so the table is not needed here.
+     */
+    public void handlePartitionsRead(@NotNull Collection<Long> partitionIds) {
+        for (Long partitionId : partitionIds) {
+            partitionReads.computeIfAbsent(partitionId, k -> new LongAdder()).increment();
+        }
+    }
+
+    // Add the reads counted and reported by the other FEs.
+    public void addPartitionReads(@NotNull Map<Long, Long> reads) {
+        reads.forEach((partitionId, num) -> partitionReads.computeIfAbsent(partitionId, k -> new LongAdder()).add(num));
+    }
+
+    // Remove the reads counted by this FE, to report them to the leader.
+    @NotNull
+    Map<Long, Long> drainPartitionReads() {
+        Map<Long, Long> reads = new HashMap<>();
+        for (Long partitionId : partitionReads.keySet()) {
+            LongAdder num = partitionReads.remove(partitionId);
+            if (num != null) {
+                reads.put(partitionId, num.sum());
+            }
+        }
+        return reads;
+    }
+
+    private void collectPartitionReads() {
+        if (partitionReads.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long halfLifeMs = Config.lake_compaction_score_read_half_life_seconds * 1000;
+        for (PartitionStatistics statistics : partitionStatisticsHashMap.values()) {
+            LongAdder reads = partitionReads.remove(statistics.getPartition().getPartitionId());
+            if (reads != null) {
+                statistics.addReads(reads.sum(), now, halfLifeMs);
+            }
+        }
+        // the reads of the partitions without any loading are useless
+        partitionReads.clear();
+    }
+
+    public int getCandidatePartitionNum() {
+        return candidatePartitionNum;
+    }
+
+    public double getMaxCompactionScore() {
+        return maxCompactionScore;
+    }
+
+    public int getRunningCompactionTaskNum() {
+        CompactionScheduler scheduler;
+        synchronized (this) {
+            scheduler = compactionScheduler;
+        }
+        return scheduler == null ? 0 : scheduler.getRunningTaskNum();
+    }
+
     @NotNull
     synchronized Set<PartitionIdentifier> getAllPartitions() {
         return new HashSet<>(partitionStatisticsHashMap.keySet());
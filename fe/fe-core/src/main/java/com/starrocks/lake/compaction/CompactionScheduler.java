@@ -23,11 +23,14 @@ import com.starrocks.lake.Utils;
 import com.starrocks.proto.CompactRequest;
 import com.starrocks.proto.CompactResponse;
 import com.starrocks.rpc.BrpcProxy;
+import com.starrocks.rpc.FrontendServiceProxy;
 import com.starrocks.rpc.LakeService;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.FrontendOptions;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TReportPartitionReadsRequest;
 import com.starrocks.transaction.BeginTransactionException;
 import com.starrocks.transaction.GlobalTransactionMgr;
 import com.starrocks.transaction.TabletCommitInfo;
@@ -53,6 +56,7 @@ public class CompactionScheduler extends Daemon {
     private static final long MIN_COMPACTION_INTERVAL_MS_ON_SUCCESS = 3000L;
     private static final long MIN_COMPACTION_INTERVAL_MS_ON_FAILURE = 6000L;
     private static final long PARTITION_CLEAN_INTERVAL_SECOND = 30;
+    private static final long PARTITION_READS_REPORT_INTERVAL_MS = 10000L;
 
     private boolean finishedWaiting = false;
     private long waitTxnId = -1;
@@ -62,6 +66,8 @@ public class CompactionScheduler extends Daemon {
     private final GlobalStateMgr stateMgr;
     private final Map<PartitionIdentifier, CompactionContext> runningCompactions;
     private long lastPartitionCleanTime;
+    private long lastPartitionReadsReportTime;
+    private volatile int runningTaskNum = 0;
 
     CompactionScheduler(@NotNull CompactionManager compactionManager, @NotNull SystemInfoService systemInfoService,
                         @NotNull GlobalTransactionMgr transactionMgr, @NotNull GlobalStateMgr stateMgr) {
@@ -84,6 +90,32 @@ public class CompactionScheduler extends Daemon {
         // compaction task can be executed only after the status of the previous compaction task changes to visible or canceled.
         if (stateMgr.isLeader() && stateMgr.isReady() && allCommittedTransactionsBeforeRestartHaveFinished()) {
             schedule();
+        } else if (!stateMgr.isLeader()) {
+            reportPartitionReads();
+        }
+    }
+
+    // The queries are executed on all FEs, but only the leader schedules compaction by the reads.
+    private void reportPartitionReads() {
+        long now = System.currentTimeMillis();
+        if (now - lastPartitionReadsReportTime < PARTITION_READS_REPORT_INTERVAL_MS) {
+            return;
+        }
+        lastPartitionReadsReportTime = now;
+        Map<Long, Long> reads = compactionManager.drainPartitionReads();
+        if (reads.isEmpty() || stateMgr.getLeaderIp() == null) {
+            return;
+        }
+        TReportPartitionReadsRequest request = new TReportPartitionReadsRequest();
+        request.setPartition_reads(reads);
+        TNetworkAddress leaderAddress = new TNetworkAddress(stateMgr.getLeaderIp(), stateMgr.getLeaderRpcPort());
+        try {
+            FrontendServiceProxy.call(leaderAddress, Config.thrift_rpc_timeout_ms, Config.thrift_rpc_retry_times,
+                    client -> client.reportPartitionReads(request));
+        } catch (Exception e) {
+            // The reads only change the order of compaction, they are dropped rather than retried.
+            LOG.warn("Fail to report the reads of {} partitions to leader {}: {}", reads.size(), leaderAddress,
+                    e.getMessage());
         }
     }
 
@@ -131,22 +163,41 @@ public class CompactionScheduler extends Daemon {
         int index = 0;
         int compactionLimit = compactionTaskLimit();
         int numRunningTasks = runningCompactions.values().stream().mapToInt(CompactionContext::getNumCompactionTasks).sum();
+        runningTaskNum = numRunningTasks;
         if (numRunningTasks >= compactionLimit) {
             return;
         }
 
+        // The running tasks of each worker, a partition is not compacted if any worker of its tablets is busy.
+        int workerLimit = compactionTaskLimitPerWorker(compactionLimit);
+        Map<Long, Integer> workerToRunningTasks = Maps.newHashMap();
+        for (CompactionContext context : runningCompactions.values()) {
+            addWorkerRunningTasks(workerToRunningTasks, context);
+        }
+
+        // The partitions are in the descending order of priority.
         List<PartitionIdentifier> partitions = compactionManager.choosePartitionsToCompact(runningCompactions.keySet());
         while (numRunningTasks < compactionLimit && index < partitions.size()) {
             PartitionIdentifier partition = partitions.get(index++);
-            CompactionContext context = startCompaction(partition);
+            CompactionContext context = startCompaction(partition, workerToRunningTasks, workerLimit);
             if (context != null) {
                 numRunningTasks += context.getNumCompactionTasks();
+                addWorkerRunningTasks(workerToRunningTasks, context);
                 runningCompactions.put(partition, context);
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Created new compaction job. partition={} txnId={}", partition, context.getTxnId());
                 }
             }
         }
+        runningTaskNum = numRunningTasks;
+    }
+
+    private static void addWorkerRunningTasks(Map<Long, Integer> workerToRunningTasks, CompactionContext context) {
+        context.getBeToTablets().forEach((beId, tablets) -> workerToRunningTasks.merge(beId, tablets.size(), Integer::sum));
+    }
+
+    int getRunningTaskNum() {
+        return runningTaskNum;
     }
 
     private int compactionTaskLimit() {
@@ -156,6 +207,14 @@ public class CompactionScheduler extends Daemon {
         return systemInfoService.getAliveBackendNumber() * 4;
     }
 
+    private int compactionTaskLimitPerWorker(int compactionLimit) {
+        if (Config.lake_compaction_max_tasks_per_worker >= 0) {
+            return Config.lake_compaction_max_tasks_per_worker;
+        }
+        int aliveWorkers = Math.max(systemInfoService.getAliveBackendNumber(), 1);
+        return Math.max((compactionLimit + aliveWorkers - 1) / aliveWorkers, 1);
+    }
+
     private void cleanPartition() {
         long now = System.currentTimeMillis();
         if (now - lastPartitionCleanTime >= PARTITION_CLEAN_INTERVAL_SECOND * 1000L) {
@@ -182,7 +241,8 @@ public class CompactionScheduler extends Daemon {
         }
     }
 
-    private CompactionContext startCompaction(PartitionIdentifier partitionIdentifier) {
+    private CompactionContext startCompaction(PartitionIdentifier partitionIdentifier,
+                                              Map<Long, Integer> workerToRunningTasks, int workerLimit) {
         Database db = stateMgr.getDb(partitionIdentifier.getDbId());
         if (db == null) {
             compactionManager.removePartition(partitionIdentifier);
@@ -222,6 +282,10 @@ public class CompactionScheduler extends Daemon {
                 compactionManager.enableCompactionAfter(partitionIdentifier, MIN_COMPACTION_INTERVAL_MS_ON_FAILURE);
                 return null;
             }
+            // Skip the partition in this round, the partitions of the other workers may be compacted.
+            if (beToTablets.keySet().stream().anyMatch(beId -> workerToRunningTasks.getOrDefault(beId, 0) >= workerLimit)) {
+                return null;
+            }
 
             // Note: call `beginTransaction()` in the scope of database reader lock to make sure no shadow index will
             // be added to this table(i.e., no schema change) before calling `beginTransaction()`.
@@ -14,6 +14,11 @@ class PartitionStatistics {
     private PartitionVersion currentVersion;
     @SerializedName(value = "nextCompactionTime")
     private long nextCompactionTime;
+    // The reads of partition decayed by time, only kept in memory.
+    private transient double decayedReads = 0;
+    private transient long lastReadTime = 0;
+    // Set by the selector, only kept in memory.
+    private transient double compactionScore = 0;
 
     PartitionStatistics(PartitionIdentifier partition) {
         this.partition = partition;
@@ -57,6 +62,33 @@ class PartitionStatistics {
         return getCurrentVersion().getVersion() - getLastCompactionVersion().getVersion();
     }
 
+    // Number of versions loaded per minute since the last compaction.
+    double getIngestionRate(long currentTs) {
+        long elapsedMs = Math.max(currentTs - getLastCompactionTime(), 60 * 1000L);
+        return getDeltaVersions() * 60 * 1000.0 / elapsedMs;
+    }
+
+    void addReads(long reads, long currentTs, long halfLifeMs) {
+        decayedReads = getRecentReads(currentTs, halfLifeMs) + reads;
+        lastReadTime = currentTs;
+    }
+
+    // The reads of partition, each of which is halved every halfLifeMs.
+    double getRecentReads(long currentTs, long halfLifeMs) {
+        if (decayedReads == 0 || halfLifeMs <= 0) {
+            return decayedReads;
+        }
+        return decayedReads * Math.pow(0.5, (double) Math.max(currentTs - lastReadTime, 0) / halfLifeMs);
+    }
+
+    double getCompactionScore() {
+        return compactionScore;
+    }
+
+    void setCompactionScore(double compactionScore) {
+        this.compactionScore = compactionScore;
+    }
+
     @Override
     public String toString() {
         return new Gson().toJson(this);
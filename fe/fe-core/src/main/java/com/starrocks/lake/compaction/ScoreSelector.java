@@ -0,0 +1,42 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.lake.compaction;
+
+import com.starrocks.common.Config;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Select the partitions by the compaction score, which grows with the pending versions, the ingestion rate and the
+ * read frequency of the partition, so the partitions with more read amplification are compacted first.
+ * The partitions not compacted for lake_compaction_simple_selector_threshold_seconds are selected regardless of the
+ * score, so the cold partitions with a few versions are compacted eventually.
+ */
+public class ScoreSelector implements Selector {
+    public ScoreSelector() {
+    }
+
+    @Override
+    @NotNull
+    public List<PartitionStatistics> select(@NotNull Collection<PartitionStatistics> statistics) {
+        long now = System.currentTimeMillis();
+        long thresholdMilliseconds = Config.lake_compaction_simple_selector_threshold_seconds * 1000;
+        return statistics.stream()
+                .filter(p -> p.getNextCompactionTime() <= now)
+                .filter(p -> p.getDeltaVersions() >= Config.lake_compaction_score_selector_min_versions)
+                .peek(p -> p.setCompactionScore(computeScore(p, now)))
+                .filter(p -> p.getCompactionScore() >= Config.lake_compaction_score_selector_min_score ||
+                        now - p.getLastCompactionTime() >= thresholdMilliseconds)
+                .collect(Collectors.toList());
+    }
+
+    static double computeScore(PartitionStatistics statistics, long currentTs) {
+        double recentReads = statistics.getRecentReads(currentTs, Config.lake_compaction_score_read_half_life_seconds * 1000);
+        double readFactor = 1 + Config.lake_compaction_score_read_weight * Math.log(1 + recentReads) / Math.log(2);
+        return statistics.getDeltaVersions() * readFactor +
+                Config.lake_compaction_score_ingestion_weight * statistics.getIngestionRate(currentTs);
+    }
+}
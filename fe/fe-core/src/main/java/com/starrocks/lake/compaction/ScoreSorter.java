@@ -0,0 +1,21 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.lake.compaction;
+
+import java.util.Comparator;
+import java.util.List;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Sort the partitions by the compaction score set by the selector in descending order.
+ */
+public class ScoreSorter implements Sorter {
+    public ScoreSorter() {
+    }
+
+    @NotNull
+    public List<PartitionStatistics> sort(@NotNull List<PartitionStatistics> partitionStatistics) {
+        partitionStatistics.sort(Comparator.comparingDouble(PartitionStatistics::getCompactionScore).reversed());
+        return partitionStatistics;
+    }
+}
@@ -114,6 +114,7 @@ import com.starrocks.thrift.TTableMeta;
 import com.starrocks.thrift.TTabletInfo;
 import com.starrocks.thrift.TTabletMeta;
 import com.starrocks.thrift.TTaskType;
+import com.starrocks.transaction.PublishVersionDaemon;
 import com.starrocks.transaction.TabletCommitInfo;
 import com.starrocks.transaction.TransactionState;
 import com.starrocks.transaction.TransactionState.LoadJobSourceType;
@@ -584,6 +585,11 @@ public class LeaderImpl {
         if (txnState != null) {
             txnState.updatePublishTaskFinishTime();
         }
+        // try to finish the transaction without waiting for the interval of publish version daemon
+        PublishVersionDaemon publishVersionDaemon = GlobalStateMgr.getCurrentState().getPublishVersionDaemon();
+        if (publishVersionDaemon != null) {
+            publishVersionDaemon.wakeUp();
+        }
 
         if (request.getTask_status().getStatus_code() != TStatusCode.OK) {
             // not remove the task from queue and be will retry
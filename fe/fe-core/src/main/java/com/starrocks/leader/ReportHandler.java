@@ -47,10 +47,12 @@ import com.starrocks.common.FeConstants;
 import com.starrocks.common.InternalErrorCode;
 import com.starrocks.common.MetaNotFoundException;
 import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.util.Daemon;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.metric.GaugeMetric;
 import com.starrocks.metric.Metric.MetricUnit;
+import com.starrocks.metric.MetricLabel;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.persist.BackendTabletsInfo;
 import com.starrocks.persist.ReplicaPersistInfo;
@@ -97,6 +99,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 
 public class ReportHandler extends Daemon {
     public enum ReportType {
@@ -111,8 +114,13 @@ public class ReportHandler extends Daemon {
 
     private BlockingQueue<ReportTask> reportQueue = Queues.newLinkedBlockingQueue();
 
+    // report type -> (backend id -> the latest report not handled)
     private Map<ReportType, Map<Long, ReportTask>> pendingTaskMap = Maps.newHashMap();
 
+    // The reports of different backends are handled concurrently, the reports of one backend are always
+    // handled by the same single thread executor, so they are handled in the order they are received.
+    private final ExecutorService[] reportExecutors;
+
     public ReportHandler() {
         super("ReportHandler");
         GaugeMetric<Long> gaugeQueueSize = new GaugeMetric<Long>(
@@ -127,6 +135,26 @@ public class ReportHandler extends Daemon {
         pendingTaskMap.put(ReportType.DISK_REPORT, Maps.newHashMap());
         pendingTaskMap.put(ReportType.TASK_REPORT, Maps.newHashMap());
         pendingTaskMap.put(ReportType.RESOURCE_GROUP_REPORT, Maps.newHashMap());
+        for (ReportType type : pendingTaskMap.keySet()) {
+            GaugeMetric<Long> gaugePendingNum = new GaugeMetric<Long>(
+                    "report_pending_num", MetricUnit.NOUNIT, "num of reports waiting to be handled") {
+                @Override
+                public Long getValue() {
+                    synchronized (pendingTaskMap) {
+                        return (long) pendingTaskMap.get(type).size();
+                    }
+                }
+            };
+            gaugePendingNum.addLabel(new MetricLabel("type", type.name().toLowerCase()));
+            MetricRepo.addMetric(gaugePendingNum);
+        }
+
+        int threadNum = Math.max(1, Config.report_handler_threads_num);
+        reportExecutors = new ExecutorService[threadNum];
+        for (int i = 0; i < threadNum; i++) {
+            reportExecutors[i] = ThreadPoolManager.newDaemonFixedThreadPool(1, Integer.MAX_VALUE,
+                    "report-handler-" + i, true);
+        }
     }
 
     public TMasterResult handleReport(TReportRequest request) throws TException {
@@ -267,6 +295,7 @@ public class ReportHandler extends Daemon {
 
         public long beId;
         public ReportType type;
+        private final long receiveTime = System.currentTimeMillis();
         private Map<TTaskType, Set<Long>> tasks;
         private Map<String, TDisk> disks;
         private Map<Long, TTablet> tablets;
@@ -1294,21 +1323,37 @@ public class ReportHandler extends Daemon {
     @Override
     protected void runOneCycle() {
         while (true) {
-            ReportTask task = null;
             try {
-                task = reportQueue.take();
-                synchronized (pendingTaskMap) {
-                    // using lastest task
-                    task = pendingTaskMap.get(task.type).get(task.beId);
-                    if (task == null) {
-                        throw new Exception("pendingTaskMap not exists " + task.beId);
-                    }
-                    pendingTaskMap.get(task.type).remove(task.beId, task);
-                }
-                task.exec();
+                ReportTask task = reportQueue.take();
+                ReportType type = task.type;
+                long beId = task.beId;
+                reportExecutors[(int) (beId % reportExecutors.length)].submit(() -> handleReport(type, beId));
             } catch (Exception e) {
-                LOG.warn("got interupted exception when executing report", e);
+                LOG.warn("got interupted exception when dispatching report", e);
             }
         }
     }
+
+    private void handleReport(ReportType type, long beId) {
+        ReportTask task;
+        synchronized (pendingTaskMap) {
+            // using lastest task, the superseded ones are dropped when putting to queue
+            task = pendingTaskMap.get(type).remove(beId);
+        }
+        if (task == null) {
+            LOG.warn("pendingTaskMap not exists {} report of be {}", type, beId);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            task.exec();
+        } catch (Exception e) {
+            LOG.warn("got exception when executing {} report of be {}", type, beId, e);
+        }
+        if (MetricRepo.isInit) {
+            long endTime = System.currentTimeMillis();
+            MetricRepo.HISTO_REPORT_WAIT_LATENCY.get(type).update(startTime - task.receiveTime);
+            MetricRepo.HISTO_REPORT_EXEC_LATENCY.get(type).update(endTime - startTime);
+        }
+    }
 }
@@ -5,6 +5,7 @@ package com.starrocks.load;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.PartitionType;
@@ -24,6 +25,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 // InsertOverwriteJobRunner will execute the insert overwrite.
@@ -127,7 +129,7 @@ public class InsertOverwriteJobRunner {
         createTempPartitions();
         prepareInsert();
         executeInsert();
-        doCommit(false);
+        doCommit(false, insertStmt.getMvBaseTableVersionMap());
         transferTo(InsertOverwriteJobState.OVERWRITE_SUCCESS);
     }
 
@@ -151,7 +153,7 @@ public class InsertOverwriteJobRunner {
                 break;
             case OVERWRITE_SUCCESS:
                 job.setJobState(InsertOverwriteJobState.OVERWRITE_SUCCESS);
-                doCommit(true);
+                doCommit(true, info.getMvBaseTableVersionMap());
                 LOG.info("replay insert overwrite job:{} to SUCCESS", job.getJobId());
                 break;
             default:
@@ -248,7 +250,8 @@ public class InsertOverwriteJobRunner {
         }
     }
 
-    private void doCommit(boolean isReplay) {
+    // the base table versions refreshed by the overwrite of materialized view are updated with the partitions
+    private void doCommit(boolean isReplay, Map<Long, Map<String, MaterializedView.BasePartitionInfo>> mvVersionMap) {
         Database db = getAndWriteLockDatabase(dbId);
         try {
             OlapTable targetTable = checkAndGetTable(db, tableId);
@@ -263,9 +266,14 @@ public class InsertOverwriteJobRunner {
             } else {
                 targetTable.replacePartition(sourcePartitionNames.get(0), tmpPartitionNames.get(0));
             }
+            if (targetTable instanceof MaterializedView && mvVersionMap != null) {
+                ((MaterializedView) targetTable).getRefreshScheme().getAsyncRefreshContext()
+                        .updateBaseTableVisibleVersionMap(mvVersionMap);
+            }
             if (!isReplay) {
                 InsertOverwriteStateChangeInfo info = new InsertOverwriteStateChangeInfo(job.getJobId(), job.getJobState(),
                         InsertOverwriteJobState.OVERWRITE_SUCCESS, job.getSourcePartitionIds(), job.getTmpPartitionIds());
+                info.setMvBaseTableVersionMap(mvVersionMap);
                 GlobalStateMgr.getCurrentState().getEditLog().logInsertOverwriteStateChange(info);
             }
         } catch (Exception e) {
@@ -35,6 +35,7 @@ import com.starrocks.common.DdlException;
 import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.KafkaUtil;
+import com.starrocks.leader.ReportHandler.ReportType;
 import com.starrocks.load.EtlJobType;
 import com.starrocks.load.loadv2.JobState;
 import com.starrocks.load.loadv2.LoadManager;
@@ -56,9 +57,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -81,6 +84,11 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_QUERY_TIMEOUT;
     public static LongCounterMetric COUNTER_QUERY_SUCCESS;
     public static LongCounterMetric COUNTER_SLOW_QUERY;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_HIT;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_MISS;
+    // bytes of the mysql packets sent by the compressed protocol, before and after compression
+    public static LongCounterMetric COUNTER_MYSQL_COMPRESSION_RAW_BYTES;
+    public static LongCounterMetric COUNTER_MYSQL_COMPRESSION_SENT_BYTES;
     public static LongCounterMetric COUNTER_LOAD_ADD;
     public static LongCounterMetric COUNTER_LOAD_FINISHED;
     public static LongCounterMetric COUNTER_EDIT_LOG_WRITE;
@@ -102,6 +110,13 @@ public final class MetricRepo {
     public static Histogram HISTO_JOURNAL_WRITE_LATENCY;
     public static Histogram HISTO_JOURNAL_WRITE_BATCH;
     public static Histogram HISTO_JOURNAL_WRITE_BYTES;
+    // time from a report is received to it is handled, and the time of handling it, of every report type
+    public static final Map<ReportType, Histogram> HISTO_REPORT_WAIT_LATENCY = new EnumMap<>(ReportType.class);
+    public static final Map<ReportType, Histogram> HISTO_REPORT_EXEC_LATENCY = new EnumMap<>(ReportType.class);
+    public static Histogram HISTO_DB_LOCK_WAIT_LATENCY;
+    public static Histogram HISTO_TABLE_LOCK_WAIT_LATENCY;
+    public static Histogram HISTO_TXN_COMMIT_TO_VISIBLE_LATENCY;
+    public static Histogram HISTO_TXN_PUBLISH_BATCH;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -119,6 +134,17 @@ public final class MetricRepo {
     public static GaugeMetricImpl<Long> GAUGE_STACKED_JOURNAL_NUM;
 
     public static List<GaugeMetricImpl<Long>> GAUGE_ROUTINE_LOAD_LAGS;
+    // time cost and bytes of every image section, updated by the checkpoint thread
+    public static volatile List<GaugeMetricImpl<Long>> GAUGE_IMAGE_SECTIONS = new ArrayList<>();
+    // time cost of the phases of loading metadata when FE starts, e.g. loading image and replaying journal
+    private static final Map<String, GaugeMetricImpl<Long>> GAUGE_STARTUP_PHASES = new ConcurrentHashMap<>();
+    // catalog name + operation -> latency of the operation on the metadata of the external catalog
+    private static final Map<String, Histogram> HISTO_EXTERNAL_META_LATENCY = new ConcurrentHashMap<>();
+    // cache name + tier + result -> requests of the external metadata cache
+    private static final Map<String, LongCounterMetric> COUNTER_EXTERNAL_META_CACHE_REQUESTS =
+            new ConcurrentHashMap<>();
+    // op code + raw or stored -> bytes of the journals written
+    private static final Map<String, LongCounterMetric> COUNTER_JOURNAL_WRITE_BYTES = new ConcurrentHashMap<>();
 
     private static final ScheduledThreadPoolExecutor METRIC_TIMER =
             ThreadPoolManager.newDaemonScheduledThreadPool(1, "Metric-Timer-Pool", true);
@@ -220,6 +246,25 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(metaLogCount);
 
+        // replay lag of the non-leader frontends
+        GaugeMetric<Long> replayLagJournalIds = new GaugeMetric<Long>(
+                "meta_replay_lag_journal_ids", MetricUnit.NOUNIT, "number of journals not replayed yet") {
+            @Override
+            public Long getValue() {
+                return GlobalStateMgr.getCurrentState().getReplayLagJournalIds();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(replayLagJournalIds);
+
+        GaugeMetric<Long> replayLagMs = new GaugeMetric<Long>(
+                "meta_replay_lag_ms", MetricUnit.MILLISECONDS, "time the replayed meta is behind the leader") {
+            @Override
+            public Long getValue() {
+                return GlobalStateMgr.getCurrentState().getReplayLagMs();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(replayLagMs);
+
         // scheduled tablet num
         GaugeMetric<Long> scheduledTabletNum = (GaugeMetric<Long>) new GaugeMetric<Long>(
                 "scheduled_tablet_num", MetricUnit.NOUNIT, "number of tablets being scheduled") {
@@ -233,6 +278,35 @@ public final class MetricRepo {
         };
         STARROCKS_METRIC_REGISTER.addMetric(scheduledTabletNum);
 
+        // lake compaction
+        GaugeMetric<Long> lakeCompactionRunningTasks = new GaugeMetric<Long>(
+                "lake_compaction_running_tasks", MetricUnit.NOUNIT, "number of running lake compaction tasks") {
+            @Override
+            public Long getValue() {
+                return (long) GlobalStateMgr.getCurrentState().getCompactionManager().getRunningCompactionTaskNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(lakeCompactionRunningTasks);
+
+        GaugeMetric<Long> lakeCompactionCandidatePartitions = new GaugeMetric<Long>(
+                "lake_compaction_candidate_partitions", MetricUnit.NOUNIT,
+                "number of lake partitions waiting for compaction") {
+            @Override
+            public Long getValue() {
+                return (long) GlobalStateMgr.getCurrentState().getCompactionManager().getCandidatePartitionNum();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(lakeCompactionCandidatePartitions);
+
+        GaugeMetric<Double> lakeCompactionMaxScore = new GaugeMetric<Double>(
+                "lake_compaction_max_score", MetricUnit.NOUNIT, "max compaction score of lake partitions") {
+            @Override
+            public Double getValue() {
+                return GlobalStateMgr.getCurrentState().getCompactionManager().getMaxCompactionScore();
+            }
+        };
+        STARROCKS_METRIC_REGISTER.addMetric(lakeCompactionMaxScore);
+
         // routine load jobs
         RoutineLoadManager routineLoadManger = GlobalStateMgr.getCurrentState().getRoutineLoadManager();
         for (RoutineLoadJob.JobState state : RoutineLoadJob.JobState.values()) {
@@ -329,6 +403,18 @@ public final class MetricRepo {
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_SUCCESS);
         COUNTER_SLOW_QUERY = new LongCounterMetric("slow_query", MetricUnit.REQUESTS, "total slow query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_SLOW_QUERY);
+        COUNTER_PLAN_CACHE_HIT =
+                new LongCounterMetric("plan_cache_hit", MetricUnit.REQUESTS, "total query which reuses cached plan");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_HIT);
+        COUNTER_PLAN_CACHE_MISS =
+                new LongCounterMetric("plan_cache_miss", MetricUnit.REQUESTS, "total query which misses plan cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_MISS);
+        COUNTER_MYSQL_COMPRESSION_RAW_BYTES = new LongCounterMetric("mysql_compression_raw_bytes", MetricUnit.BYTES,
+                "bytes of the mysql packets sent by the compressed protocol before compression");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_MYSQL_COMPRESSION_RAW_BYTES);
+        COUNTER_MYSQL_COMPRESSION_SENT_BYTES = new LongCounterMetric("mysql_compression_sent_bytes", MetricUnit.BYTES,
+                "bytes of the mysql packets sent by the compressed protocol after compression");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_MYSQL_COMPRESSION_SENT_BYTES);
         COUNTER_LOAD_ADD = new LongCounterMetric("load_add", MetricUnit.REQUESTS, "total load submit");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_LOAD_ADD);
         COUNTER_ROUTINE_LOAD_PAUSED =
@@ -382,6 +468,21 @@ public final class MetricRepo {
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "batch"));
         HISTO_JOURNAL_WRITE_BYTES =
                 METRIC_REGISTER.histogram(MetricRegistry.name("journal", "write", "bytes"));
+        HISTO_DB_LOCK_WAIT_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("db_lock", "wait", "latency", "ms"));
+        HISTO_TXN_COMMIT_TO_VISIBLE_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("txn", "commit_to_visible", "latency", "ms"));
+        HISTO_TXN_PUBLISH_BATCH =
+                METRIC_REGISTER.histogram(MetricRegistry.name("txn", "publish", "batch"));
+        HISTO_TABLE_LOCK_WAIT_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("table_lock", "wait", "latency", "ms"));
+        for (ReportType type : ReportType.values()) {
+            String typeName = type.name().toLowerCase();
+            HISTO_REPORT_WAIT_LATENCY.put(type,
+                    METRIC_REGISTER.histogram(MetricRegistry.name("report", typeName, "wait", "latency", "ms")));
+            HISTO_REPORT_EXEC_LATENCY.put(type,
+                    METRIC_REGISTER.histogram(MetricRegistry.name("report", typeName, "exec", "latency", "ms")));
+        }
 
         // init system metrics
         initSystemMetrics();
@@ -603,6 +704,26 @@ public final class MetricRepo {
             collectRoutineLoadProcessMetrics(visitor);
         }
 
+        // image sections of the last checkpoint
+        for (GaugeMetricImpl<Long> metric : GAUGE_IMAGE_SECTIONS) {
+            visitor.visit(metric);
+        }
+
+        // startup phases
+        for (GaugeMetricImpl<Long> metric : GAUGE_STARTUP_PHASES.values()) {
+            visitor.visit(metric);
+        }
+
+        // external metadata caches
+        for (LongCounterMetric metric : COUNTER_EXTERNAL_META_CACHE_REQUESTS.values()) {
+            visitor.visit(metric);
+        }
+
+        // journal bytes by op type
+        for (LongCounterMetric metric : COUNTER_JOURNAL_WRITE_BYTES.values()) {
+            visitor.visit(metric);
+        }
+
         // node info
         visitor.getNodeInfo();
         return visitor.build();
@@ -677,6 +798,66 @@ public final class MetricRepo {
         }
     }
 
+    public static void updateStartupPhaseCost(String phase, long costMs) {
+        GAUGE_STARTUP_PHASES.computeIfAbsent(phase, k -> {
+            GaugeMetricImpl<Long> metric = new GaugeMetricImpl<>("startup_phase_ms", MetricUnit.MILLISECONDS,
+                    "time cost of the phase of loading metadata on startup");
+            metric.addLabel(new MetricLabel("phase", k));
+            return metric;
+        }).setValue(costMs);
+    }
+
+    /**
+     * Latency of getting the metadata of the external catalog, the operation is e.g. list_files or get_partitions.
+     */
+    public static Histogram getExternalMetaLatency(String catalogName, String operation) {
+        return HISTO_EXTERNAL_META_LATENCY.computeIfAbsent(catalogName + "." + operation, k ->
+                METRIC_REGISTER.histogram(MetricRegistry.name("external", catalogName, operation, "latency", "ms")));
+    }
+
+    /**
+     * Count the request of the external metadata cache, the tier is memory or disk.
+     */
+    public static void increaseExternalMetaCacheRequest(String cacheName, String tier, boolean hit) {
+        increaseExternalMetaCacheRequests(cacheName, tier, hit, 1L);
+    }
+
+    public static void increaseExternalMetaCacheRequests(String cacheName, String tier, boolean hit, long count) {
+        if (!isInit || count <= 0) {
+            return;
+        }
+        String result = hit ? "hit" : "miss";
+        COUNTER_EXTERNAL_META_CACHE_REQUESTS.computeIfAbsent(cacheName + "." + tier + "." + result, k -> {
+            LongCounterMetric metric = new LongCounterMetric("external_meta_cache_requests_total",
+                    MetricUnit.REQUESTS, "requests of the external metadata cache");
+            metric.addLabel(new MetricLabel("cache", cacheName));
+            metric.addLabel(new MetricLabel("tier", tier));
+            metric.addLabel(new MetricLabel("result", result));
+            return metric;
+        }).increase(count);
+    }
+
+    /**
+     * Count the bytes of the journal written, before and after the compression.
+     */
+    public static void increaseJournalWriteBytes(short opCode, long rawBytes, long storedBytes) {
+        if (!isInit) {
+            return;
+        }
+        getJournalWriteBytesCounter(opCode, "raw").increase(rawBytes);
+        getJournalWriteBytesCounter(opCode, "stored").increase(storedBytes);
+    }
+
+    private static LongCounterMetric getJournalWriteBytesCounter(short opCode, String type) {
+        return COUNTER_JOURNAL_WRITE_BYTES.computeIfAbsent(opCode + "." + type, k -> {
+            LongCounterMetric metric = new LongCounterMetric("journal_write_bytes_total",
+                    MetricUnit.BYTES, "bytes of the journals written");
+            metric.addLabel(new MetricLabel("op_type", String.valueOf(opCode)));
+            metric.addLabel(new MetricLabel("type", type));
+            return metric;
+        });
+    }
+
     public static synchronized List<Metric> getMetricsByName(String name) {
         return STARROCKS_METRIC_REGISTER.getMetricsByName(name);
     }
@@ -142,6 +142,10 @@ public class MysqlCapability {
         return (flags & Flag.CLIENT_SECURE_CONNECTION.getFlagBit()) != 0;
     }
 
+    public boolean isCompress() {
+        return (flags & Flag.CLIENT_COMPRESS.getFlagBit()) != 0;
+    }
+
     public boolean isSessionTrack() {
         return (flags & Flag.CLIENT_SESSION_TRACK.getFlagBit()) != 0;
     }
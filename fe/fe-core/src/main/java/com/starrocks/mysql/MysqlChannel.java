@@ -21,6 +21,9 @@
 
 package com.starrocks.mysql;
 
+import com.starrocks.common.Config;
+import com.starrocks.common.util.CompressionUtils;
+import com.starrocks.metric.MetricRepo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -28,11 +31,19 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * This class used to read/write MySQL logical packet.
  * MySQL protocol will split one logical packet more than 16MB to many packets.
  * http://dev.mysql.com/doc/internals/en/sending-more-than-16mbyte.html
+ *
+ * If CLIENT_COMPRESS is negotiated, the packets are sent and received in the compressed protocol after the
+ * authentication, i.e. the stream of the packets is split to the compressed packets, each of which has its own header
+ * and is compressed by zlib unless it is too small or incompressible.
+ * https://dev.mysql.com/doc/internals/en/compressed-packet-header.html
  */
 public class MysqlChannel {
     // max length which one MySQL physical can hold, if one logical packet is bigger than this,
@@ -41,6 +52,10 @@ public class MysqlChannel {
     // MySQL packet header length
     protected static final int PACKET_HEADER_LEN = 4;
     protected static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    // compressed payload length (3) + compressed sequence id (1) + uncompressed payload length (3)
+    protected static final int COMPRESSED_PACKET_HEADER_LEN = 7;
+    // the buffers of the compressed protocol larger than this are not reused
+    private static final int MAX_REUSED_BUFFER_SIZE = 2 * 1024 * 1024;
     // logger for this class
     protected static final Logger LOG = LogManager.getLogger(MysqlChannel.class);
     // next sequence id to receive or send
@@ -58,6 +73,23 @@ public class MysqlChannel {
     protected boolean isSend;
     protected boolean closed;
 
+    // whether the packets are sent and received in the compressed protocol
+    protected boolean compressionEnabled = false;
+    // next sequence id of the compressed packet to receive or send
+    protected int compressedSequenceId;
+    private Deflater deflater;
+    private Inflater inflater;
+    private ByteBuffer compressedHeaderBuffer;
+    // the payload of the last compressed packet received, and its uncompressed data
+    private ByteBuffer compressedReadBuffer;
+    private ByteBuffer uncompressedReadBuffer;
+    // the data received in the compressed protocol and not read yet
+    private ByteBuffer pendingReadBuffer;
+    private ByteBuffer compressedSendBuffer;
+    // the bytes sent in the compressed protocol, before and after compression
+    private long compressionRawBytes = 0;
+    private long compressionSentBytes = 0;
+
     protected MysqlChannel() {
         this.closed = false;
         this.sequenceId = 0;
@@ -93,6 +125,42 @@ public class MysqlChannel {
 
     public void setSequenceId(int sequenceId) {
         this.sequenceId = sequenceId;
+        this.compressedSequenceId = sequenceId;
+    }
+
+    /**
+     * Send and receive the packets in the compressed protocol from now on, which should be called after the OK packet
+     * of the authentication is sent, if CLIENT_COMPRESS is negotiated.
+     */
+    public void enableCompression() {
+        if (compressionEnabled) {
+            return;
+        }
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        inflater = new Inflater();
+        compressedHeaderBuffer = ByteBuffer.allocate(COMPRESSED_PACKET_HEADER_LEN);
+        compressionEnabled = true;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public long getCompressionRawBytes() {
+        return compressionRawBytes;
+    }
+
+    public long getCompressionSentBytes() {
+        return compressionSentBytes;
+    }
+
+    protected void endCompression() {
+        if (deflater != null) {
+            deflater.end();
+        }
+        if (inflater != null) {
+            inflater.end();
+        }
     }
 
     public String getRemoteIp() {
@@ -127,6 +195,7 @@ public class MysqlChannel {
             LOG.warn("Close channel exception, ignore.");
         } finally {
             closed = true;
+            endCompression();
         }
     }
 
@@ -143,6 +212,100 @@ public class MysqlChannel {
         return readLen;
     }
 
+    // read the data of the packets, which are decompressed from the compressed packets in the compressed protocol
+    private int readPacketData(ByteBuffer dstBuf) throws IOException {
+        if (!compressionEnabled) {
+            return readAll(dstBuf);
+        }
+        int readLen = 0;
+        while (dstBuf.remaining() != 0) {
+            if ((pendingReadBuffer == null || !pendingReadBuffer.hasRemaining()) && !readCompressedPacket()) {
+                return readLen;
+            }
+            int len = Math.min(dstBuf.remaining(), pendingReadBuffer.remaining());
+            dstBuf.put(pendingReadBuffer.array(), pendingReadBuffer.position(), len);
+            pendingReadBuffer.position(pendingReadBuffer.position() + len);
+            readLen += len;
+        }
+        return readLen;
+    }
+
+    // read one compressed packet to pendingReadBuffer, false for channel is closed.
+    private boolean readCompressedPacket() throws IOException {
+        compressedHeaderBuffer.clear();
+        if (readAll(compressedHeaderBuffer) != COMPRESSED_PACKET_HEADER_LEN) {
+            return false;
+        }
+        byte[] header = compressedHeaderBuffer.array();
+        int compressedLen = readInt3(header, 0);
+        int packetId = header[3] & 0xFF;
+        int uncompressedLen = readInt3(header, 4);
+        if (packetId != compressedSequenceId) {
+            LOG.warn("receive compressed packet sequence id[" + packetId + "] want to get[" + compressedSequenceId + "]");
+            throw new IOException("Bad compressed packet sequence.");
+        }
+        compressedSequenceId = (compressedSequenceId + 1) & 0xFF;
+
+        compressedReadBuffer = prepareBuffer(compressedReadBuffer, compressedLen);
+        int readLen = readAll(compressedReadBuffer);
+        if (readLen != compressedLen) {
+            LOG.warn("Length of received compressed packet content(" + readLen
+                    + ") is not equal with length in head.(" + compressedLen + ")");
+            return false;
+        }
+        compressedReadBuffer.flip();
+        if (uncompressedLen == 0) {
+            // not compressed
+            pendingReadBuffer = compressedReadBuffer;
+            return true;
+        }
+
+        uncompressedReadBuffer = prepareBuffer(uncompressedReadBuffer, uncompressedLen);
+        inflater.reset();
+        inflater.setInput(compressedReadBuffer.array(), 0, compressedLen);
+        try {
+            int len = 0;
+            while (len < uncompressedLen && !inflater.finished()) {
+                int n = inflater.inflate(uncompressedReadBuffer.array(), len, uncompressedLen - len);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                len += n;
+            }
+            if (len != uncompressedLen) {
+                throw new IOException("Compressed packet is decompressed to " + len + " bytes, expect "
+                        + uncompressedLen + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bad compressed packet.", e);
+        }
+        uncompressedReadBuffer.position(uncompressedLen);
+        uncompressedReadBuffer.flip();
+        pendingReadBuffer = uncompressedReadBuffer;
+        return true;
+    }
+
+    // reuse the buffer if it is large enough, unless it is too large to be kept
+    private static ByteBuffer prepareBuffer(ByteBuffer buffer, int size) {
+        if (buffer == null || buffer.capacity() < size
+                || (buffer.capacity() > MAX_REUSED_BUFFER_SIZE && size <= MAX_REUSED_BUFFER_SIZE)) {
+            buffer = ByteBuffer.allocate(Math.max(size, DEFAULT_BUFFER_SIZE));
+        }
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    private static int readInt3(byte[] buf, int offset) {
+        return (buf[offset] & 0xFF) | ((buf[offset + 1] & 0xFF) << 8) | ((buf[offset + 2] & 0xFF) << 16);
+    }
+
+    private static void writeInt3(byte[] buf, int offset, int value) {
+        buf[offset] = (byte) value;
+        buf[offset + 1] = (byte) (value >> 8);
+        buf[offset + 2] = (byte) (value >> 16);
+    }
+
     // read one logical mysql protocol packet
     // null for channel is closed.
     // NOTE: all of the following code is assumed that the channel is in block mode.
@@ -153,13 +316,14 @@ public class MysqlChannel {
 
         while (true) {
             headerByteBuffer.clear();
-            readLen = readAll(headerByteBuffer);
+            readLen = readPacketData(headerByteBuffer);
             if (readLen != PACKET_HEADER_LEN) {
                 // remote has close this channel
                 LOG.info("Receive packet header failed, remote {} may close the channel.", remoteHostPortString);
                 return null;
             }
-            if (packetId() != sequenceId) {
+            // the sequence id of the compressed packet is checked instead in the compressed protocol
+            if (!compressionEnabled && packetId() != sequenceId) {
                 LOG.warn("receive packet sequence id[" + packetId() + "] want to get[" + sequenceId + "]");
                 throw new IOException("Bad packet sequence.");
             }
@@ -181,7 +345,7 @@ public class MysqlChannel {
             // read one physical packet
             // before read, set limit to make read only one packet
             result.limit(result.position() + packetLen);
-            readLen = readAll(result);
+            readLen = readPacketData(result);
             if (readLen != packetLen) {
                 LOG.warn("Length of received packet content(" + readLen
                         + ") is not equal with length in head.(" + packetLen + ")");
@@ -207,6 +371,54 @@ public class MysqlChannel {
         isSend = true;
     }
 
+    // send the data of the packets, which are split to the compressed packets in the compressed protocol
+    private void netSend(ByteBuffer buffer) throws IOException {
+        if (!compressionEnabled) {
+            realNetSend(buffer);
+            return;
+        }
+        while (buffer.hasRemaining()) {
+            sendCompressedPacket(buffer, Math.min(buffer.remaining(), MAX_PHYSICAL_PACKET_LENGTH));
+        }
+    }
+
+    private void sendCompressedPacket(ByteBuffer buffer, int length) throws IOException {
+        compressedSendBuffer = prepareBuffer(compressedSendBuffer, COMPRESSED_PACKET_HEADER_LEN + length);
+        byte[] packet = compressedSendBuffer.array();
+        int offset = buffer.arrayOffset() + buffer.position();
+        int payloadLength = 0;
+        int uncompressedLength = 0;
+        if (length >= Config.mysql_server_compression_min_bytes) {
+            // only compressed if it gets smaller
+            int compressedLength = CompressionUtils.deflate(deflater, buffer.array(), offset, length,
+                    packet, COMPRESSED_PACKET_HEADER_LEN, length - 1);
+            if (compressedLength >= 0) {
+                payloadLength = compressedLength;
+                uncompressedLength = length;
+            }
+        }
+        if (uncompressedLength == 0) {
+            // too small or incompressible, send it uncompressed
+            System.arraycopy(buffer.array(), offset, packet, COMPRESSED_PACKET_HEADER_LEN, length);
+            payloadLength = length;
+        }
+        buffer.position(buffer.position() + length);
+
+        writeInt3(packet, 0, payloadLength);
+        packet[3] = (byte) compressedSequenceId;
+        writeInt3(packet, 4, uncompressedLength);
+        compressedSequenceId = (compressedSequenceId + 1) & 0xFF;
+        compressedSendBuffer.limit(COMPRESSED_PACKET_HEADER_LEN + payloadLength);
+        realNetSend(compressedSendBuffer);
+
+        compressionRawBytes += length;
+        compressionSentBytes += COMPRESSED_PACKET_HEADER_LEN + payloadLength;
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_MYSQL_COMPRESSION_RAW_BYTES.increase((long) length);
+            MetricRepo.COUNTER_MYSQL_COMPRESSION_SENT_BYTES.increase((long) COMPRESSED_PACKET_HEADER_LEN + payloadLength);
+        }
+    }
+
     public void flush() throws IOException {
         if (null == sendBuffer || sendBuffer.position() == 0) {
             // Nothing to send
@@ -215,7 +427,7 @@ public class MysqlChannel {
 
         sendBuffer.flip();
         try {
-            realNetSend(sendBuffer);
+            netSend(sendBuffer);
         } finally {
             sendBuffer.clear();
         }
@@ -258,7 +470,7 @@ public class MysqlChannel {
         }
         // Send this buffer if large enough
         if (buffer.remaining() > sendBuffer.remaining()) {
-            realNetSend(buffer);
+            netSend(buffer);
             return;
         }
         // Put it to
@@ -41,8 +41,10 @@ public class MysqlHandshakePacket extends MysqlPacket {
     private static final String SERVER_VERSION = Config.mysql_server_version;
     // 33 stands for UTF-8 character set
     private static final int CHARACTER_SET = 33;
-    // use default capability for all
+    // use default capability for all, and CLIENT_COMPRESS if the compression is enabled
     private static final MysqlCapability CAPABILITY = MysqlCapability.DEFAULT_CAPABILITY;
+    private static final MysqlCapability COMPRESS_CAPABILITY = new MysqlCapability(
+            CAPABILITY.getFlags() | MysqlCapability.Flag.CLIENT_COMPRESS.getFlagBit());
     // status flags not supported in StarRocks
     private static final int STATUS_FLAGS = 0;
     private static final String NATIVE_AUTH_PLUGIN_NAME = "mysql_native_password";
@@ -57,10 +59,16 @@ public class MysqlHandshakePacket extends MysqlPacket {
     // connection id used in KILL statement.
     private int connectionId;
     private byte[] authPluginData;
+    private MysqlCapability capability;
 
     public MysqlHandshakePacket(int connectionId) {
         this.connectionId = connectionId;
         authPluginData = MysqlPassword.createRandomString(SCRAMBLE_LENGTH);
+        capability = Config.mysql_server_enable_compression ? COMPRESS_CAPABILITY : CAPABILITY;
+    }
+
+    public MysqlCapability getCapability() {
+        return capability;
     }
 
     public byte[] getAuthPluginData() {
@@ -69,8 +77,6 @@ public class MysqlHandshakePacket extends MysqlPacket {
 
     @Override
     public void writeTo(MysqlSerializer serializer) {
-        MysqlCapability capability = CAPABILITY;
-
         serializer.writeInt1(PROTOCOL_VERSION);
         serializer.writeNulTerminateString(SERVER_VERSION);
         serializer.writeInt4(connectionId);
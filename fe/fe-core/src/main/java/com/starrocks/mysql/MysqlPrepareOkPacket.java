@@ -0,0 +1,31 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.mysql;
+
+// MySQL protocol COM_STMT_PREPARE_OK packet
+// https://dev.mysql.com/doc/internals/en/com-stmt-prepare-response.html
+public class MysqlPrepareOkPacket extends MysqlPacket {
+    private static final int PACKET_OK_INDICATOR = 0X00;
+    private static final int WARNINGS = 0;
+
+    private final int stmtId;
+    private final int numColumns;
+    private final int numParams;
+
+    public MysqlPrepareOkPacket(int stmtId, int numColumns, int numParams) {
+        this.stmtId = stmtId;
+        this.numColumns = numColumns;
+        this.numParams = numParams;
+    }
+
+    @Override
+    public void writeTo(MysqlSerializer serializer) {
+        serializer.writeInt1(PACKET_OK_INDICATOR);
+        serializer.writeInt4(stmtId);
+        serializer.writeInt2(numColumns);
+        serializer.writeInt2(numParams);
+        // reserved filler
+        serializer.writeInt1(0);
+        serializer.writeInt2(WARNINGS);
+    }
+}
@@ -183,6 +183,11 @@ public class MysqlProto {
 
         // change the capability of serializer
         context.setCapability(context.getServerCapability());
+        if (handshakePacket.getCapability().isCompress() && authPacket.getCapability().isCompress()) {
+            // the packets after the OK packet of the authentication are compressed
+            context.setCapability(new MysqlCapability(
+                    context.getCapability().getFlags() | MysqlCapability.Flag.CLIENT_COMPRESS.getFlagBit()));
+        }
         serializer.setCapability(context.getCapability());
 
         // NOTE: when we behind proxy, we need random string sent by proxy.
@@ -70,6 +70,9 @@ public class AcceptListener implements ChannelListener<AcceptingChannel<StreamCo
                         }
                         if (connectScheduler.registerConnection(context)) {
                             MysqlProto.sendResponsePacket(context);
+                            if (context.getCapability().isCompress()) {
+                                context.getMysqlChannel().enableCompression();
+                            }
                             connection.setCloseListener(
                                     streamConnection -> connectScheduler.unregisterConnection(context));
                         } else {
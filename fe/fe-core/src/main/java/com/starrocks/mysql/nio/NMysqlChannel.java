@@ -99,6 +99,7 @@ public class NMysqlChannel extends MysqlChannel {
             LOG.warn("Close channel exception, ignore.");
         } finally {
             closed = true;
+            endCompression();
         }
     }
 
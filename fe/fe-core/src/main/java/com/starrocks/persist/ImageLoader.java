@@ -0,0 +1,202 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.server.GlobalStateMgr;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Load the sections of image written by {@link ImageWriter}.
+ * <p>
+ * The sections are read from the stream returned by getStream() in the order they are written. If the image
+ * has the section index, the sections submitted by submit() are loaded by the worker threads from their own
+ * streams, and load() skips them in the main stream, so they are loaded concurrently with the databases.
+ * Otherwise, load() loads them in the main stream as before.
+ * Only the sections not depending on the others can be submitted, their checksum are checked against
+ * the section index by the workers.
+ * The main stream ends at the section index, so the section index is never read as the data of sections.
+ */
+public class ImageLoader implements Closeable {
+    private static final Logger LOG = LogManager.getLogger(ImageLoader.class);
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    public interface SectionLoader {
+        long load(DataInputStream dis, long checksum) throws IOException, DdlException;
+    }
+
+    private final File file;
+    // section name -> index, null if the image has no section index
+    private final Map<String, ImageWriter.SectionIndex> indexes;
+    private final CountingInputStream counter;
+    private final DataInputStream dis;
+
+    private final Map<String, SectionLoader> loaders = Maps.newHashMap();
+    // the sections loaded by the workers
+    private final Set<String> submitted = Sets.newHashSet();
+    private final List<Future<?>> futures = Lists.newArrayList();
+    private ExecutorService executor;
+
+    public ImageLoader(File file) throws IOException {
+        this.file = file;
+        ImageWriter.ImageIndex imageIndex = ImageWriter.readIndex(file);
+        if (imageIndex != null && imageIndex.getSections() != null && Config.image_load_threads_num > 1) {
+            indexes = Maps.newHashMap();
+            for (ImageWriter.SectionIndex index : imageIndex.getSections()) {
+                indexes.put(index.getName(), index);
+            }
+        } else {
+            indexes = null;
+        }
+        InputStream in = new FileInputStream(file);
+        if (imageIndex != null) {
+            in = ByteStreams.limit(in, imageIndex.getOffset());
+        }
+        counter = new CountingInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        dis = new DataInputStream(counter);
+    }
+
+    public DataInputStream getStream() {
+        return dis;
+    }
+
+    public ImageLoader addSection(String name, SectionLoader loader) {
+        loaders.put(name, loader);
+        return this;
+    }
+
+    /**
+     * Load the sections one by one in a worker if the image has section index, e.g. the sections of auth.
+     * Should be called after the header is loaded, the meta version of the caller is used by the worker.
+     */
+    public void submit(String... names) {
+        if (indexes == null) {
+            return;
+        }
+        for (String name : names) {
+            if (!indexes.containsKey(name)) {
+                LOG.warn("image section {} is not found in section index, load it sequentially", name);
+                return;
+            }
+        }
+        if (executor == null) {
+            executor = ThreadPoolManager.newDaemonFixedThreadPool(Config.image_load_threads_num,
+                    Integer.MAX_VALUE, "image-loader", false);
+        }
+        MetaContext metaContext = MetaContext.get();
+        boolean isCheckpoint = GlobalStateMgr.isCheckpointThread();
+        futures.add(executor.submit(() -> {
+            metaContext.setThreadLocalInfo();
+            if (isCheckpoint) {
+                GlobalStateMgr.registerCheckpointWorkerThread();
+            }
+            try {
+                for (String name : names) {
+                    loadSection(name, isCheckpoint);
+                }
+            } finally {
+                if (isCheckpoint) {
+                    GlobalStateMgr.unregisterCheckpointWorkerThread();
+                }
+                MetaContext.remove();
+            }
+            return null;
+        }));
+        submitted.addAll(Arrays.asList(names));
+    }
+
+    /**
+     * Load the section from the main stream, or skip it if it is loaded by the worker.
+     */
+    public long load(String name, long checksum) throws IOException, DdlException {
+        if (!submitted.contains(name)) {
+            return loaders.get(name).load(dis, checksum);
+        }
+        ImageWriter.SectionIndex index = indexes.get(name);
+        if (counter.getCount() != index.getOffset()) {
+            throw new IOException("unexpected offset " + counter.getCount() + " of image section " + name +
+                    ", expected: " + index.getOffset());
+        }
+        ByteStreams.skipFully(dis, index.getLength());
+        return checksum ^ index.getChecksum();
+    }
+
+    /**
+     * Wait for the sections loaded by the workers.
+     */
+    public void waitSections() throws IOException {
+        long startTime = System.currentTimeMillis();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted when loading image sections", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("failed to load image sections", e.getCause());
+        }
+        if (!futures.isEmpty()) {
+            LOG.info("finished to wait for image sections {} in {} ms", submitted,
+                    System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private void loadSection(String name, boolean isCheckpoint) throws IOException, DdlException {
+        ImageWriter.SectionIndex index = indexes.get(name);
+        long startTime = System.currentTimeMillis();
+        long checksum;
+        try (InputStream in = new FileInputStream(file)) {
+            ByteStreams.skipFully(in, index.getOffset());
+            DataInputStream sectionStream = new DataInputStream(
+                    new BufferedInputStream(ByteStreams.limit(in, index.getLength()), BUFFER_SIZE));
+            checksum = loaders.get(name).load(sectionStream, 0);
+        }
+        if (checksum != index.getChecksum()) {
+            throw new IOException("checksum mismatch of image section " + name + ": " + checksum + " vs. " +
+                    index.getChecksum());
+        }
+        long costMs = System.currentTimeMillis() - startTime;
+        if (!isCheckpoint) {
+            MetricRepo.updateStartupPhaseCost("load_image_section_" + name, costMs);
+        }
+        LOG.info("finished to load image section {} in {} ms", name, costMs);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        dis.close();
+    }
+}
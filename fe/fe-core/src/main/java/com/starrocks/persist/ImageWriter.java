@@ -0,0 +1,324 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.CountingOutputStream;
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.common.io.Text;
+import com.starrocks.metric.GaugeMetricImpl;
+import com.starrocks.metric.Metric.MetricUnit;
+import com.starrocks.metric.MetricLabel;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.server.GlobalStateMgr;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Write the sections of image in the order they are added.
+ * <p>
+ * When called by the checkpoint thread, the sections added by addSection are serialized in parallel
+ * into memory buffers while the previous sections are being written, and the sections added by
+ * addStreamingSection are written to the file directly by the calling thread, which is used for the
+ * large ones to avoid holding them in memory. The checksum of one section is the xor of its fields,
+ * so the sections can be serialized independently and the checksum of image is the xor of them.
+ * <p>
+ * The layout of sections is the same as before, a section index is appended at the end of image:
+ * [section]...[index magic][index version][section num][(name, offset, length, checksum)]...
+ * [index offset][index version][index magic]
+ * The trailer of the fixed length is checked by the readers explicitly, the sections end at the index offset,
+ * so {@link ImageLoader} stops the stream of sections there, and the sections reading until EOF, e.g. the
+ * sections not written by the older versions, still get EOF. The entries of an unknown index version are
+ * ignored, and the sections are loaded sequentially.
+ */
+public class ImageWriter {
+    private static final Logger LOG = LogManager.getLogger(ImageWriter.class);
+
+    public static final long INDEX_MAGIC = 0x5352494D47494458L; // SRIMGIDX
+    public static final int INDEX_VERSION = 1;
+    // index offset, index version and index magic
+    private static final int TRAILER_LENGTH = 8 + 4 + 8;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    public interface SectionWriter {
+        long write(DataOutputStream dos, long checksum) throws IOException;
+    }
+
+    private final List<Section> sections = Lists.newArrayList();
+
+    public ImageWriter addSection(String name, SectionWriter writer) {
+        sections.add(new Section(name, writer, false));
+        return this;
+    }
+
+    public ImageWriter addStreamingSection(String name, SectionWriter writer) {
+        sections.add(new Section(name, writer, true));
+        return this;
+    }
+
+    // Write the checksum of all the previous sections
+    public ImageWriter addChecksum() {
+        sections.add(new Section(null, null, true));
+        return this;
+    }
+
+    /**
+     * @return the checksum of image
+     */
+    public long write(File file) throws IOException {
+        ExecutorService executor = null;
+        // The other threads may hold the locks of metadata when dumping image, only the checkpoint
+        // thread serializes the sections in parallel.
+        int threadNum = Math.min(Config.checkpoint_image_write_threads_num, sections.size());
+        if (threadNum > 1 && GlobalStateMgr.isCheckpointThread()) {
+            executor = ThreadPoolManager.newDaemonFixedThreadPool(threadNum, sections.size(), "image-writer", false);
+            for (Section section : sections) {
+                if (!section.isStreaming) {
+                    section.future = executor.submit(section::serializeForCheckpoint);
+                }
+            }
+        }
+
+        List<SectionIndex> indexes = Lists.newArrayList();
+        long checksum = 0;
+        try (CountingOutputStream counter = new CountingOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+                DataOutputStream dos = new DataOutputStream(counter)) {
+            for (Section section : sections) {
+                if (section.isChecksum()) {
+                    dos.writeLong(checksum);
+                    continue;
+                }
+                long offset = counter.getCount();
+                SerializedSection serialized;
+                if (section.future != null) {
+                    serialized = getSerialized(section);
+                    dos.write(serialized.bytes);
+                } else {
+                    long startTime = System.currentTimeMillis();
+                    long sectionChecksum = section.writer.write(dos, 0);
+                    serialized = new SerializedSection(null, sectionChecksum, System.currentTimeMillis() - startTime);
+                }
+                checksum ^= serialized.checksum;
+                indexes.add(new SectionIndex(section.name, offset, counter.getCount() - offset,
+                        serialized.checksum, serialized.costMs));
+            }
+
+            long indexOffset = counter.getCount();
+            dos.writeLong(INDEX_MAGIC);
+            dos.writeInt(INDEX_VERSION);
+            dos.writeInt(indexes.size());
+            for (SectionIndex index : indexes) {
+                index.write(dos);
+            }
+            dos.writeLong(indexOffset);
+            dos.writeInt(INDEX_VERSION);
+            dos.writeLong(INDEX_MAGIC);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        updateMetrics(indexes);
+        return checksum;
+    }
+
+    private static SerializedSection getSerialized(Section section) throws IOException {
+        try {
+            return section.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted when writing image section " + section.name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("failed to write image section " + section.name, e.getCause());
+        }
+    }
+
+    private static void updateMetrics(List<SectionIndex> indexes) {
+        List<GaugeMetricImpl<Long>> metrics = Lists.newArrayList();
+        StringBuilder sb = new StringBuilder();
+        for (SectionIndex index : indexes) {
+            GaugeMetricImpl<Long> costMs = new GaugeMetricImpl<>("image_section_write_ms", MetricUnit.MILLISECONDS,
+                    "time cost of writing the section of image in the last checkpoint");
+            costMs.addLabel(new MetricLabel("section", index.name));
+            costMs.setValue(index.costMs);
+            metrics.add(costMs);
+
+            GaugeMetricImpl<Long> bytes = new GaugeMetricImpl<>("image_section_write_bytes", MetricUnit.BYTES,
+                    "bytes of the section of image in the last checkpoint");
+            bytes.addLabel(new MetricLabel("section", index.name));
+            bytes.setValue(index.length);
+            metrics.add(bytes);
+
+            sb.append(index.name).append(": ").append(index.costMs).append("ms/").append(index.length).append("B, ");
+        }
+        if (GlobalStateMgr.isCheckpointThread()) {
+            MetricRepo.GAUGE_IMAGE_SECTIONS = metrics;
+        }
+        LOG.info("image sections written: {}", sb);
+    }
+
+    /**
+     * Read the section index of image.
+     *
+     * @return null if the image has no section index
+     */
+    public static ImageIndex readIndex(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length();
+            if (length < TRAILER_LENGTH) {
+                return null;
+            }
+            raf.seek(length - TRAILER_LENGTH);
+            long indexOffset = raf.readLong();
+            int version = raf.readInt();
+            if (raf.readLong() != INDEX_MAGIC || indexOffset < 0 || indexOffset > length - TRAILER_LENGTH) {
+                return null;
+            }
+            raf.seek(indexOffset);
+            if (raf.readLong() != INDEX_MAGIC || raf.readInt() != version) {
+                return null;
+            }
+            if (version != INDEX_VERSION) {
+                LOG.warn("unknown version {} of image section index, ignore the sections of index", version);
+                return new ImageIndex(indexOffset, null);
+            }
+            int num = raf.readInt();
+            List<SectionIndex> indexes = Lists.newArrayListWithCapacity(num);
+            for (int i = 0; i < num; i++) {
+                indexes.add(SectionIndex.read(raf));
+            }
+            return new ImageIndex(indexOffset, indexes);
+        }
+    }
+
+    public static class ImageIndex {
+        // the end of sections
+        private final long offset;
+        // null if the version of index is unknown
+        private final List<SectionIndex> sections;
+
+        ImageIndex(long offset, List<SectionIndex> sections) {
+            this.offset = offset;
+            this.sections = sections;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public List<SectionIndex> getSections() {
+            return sections;
+        }
+    }
+
+    public static class SectionIndex {
+        private final String name;
+        private final long offset;
+        private final long length;
+        private final long checksum;
+        // only used by writer
+        private final long costMs;
+
+        SectionIndex(String name, long offset, long length, long checksum, long costMs) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+            this.costMs = costMs;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+
+        void write(DataOutputStream dos) throws IOException {
+            Text.writeString(dos, name);
+            dos.writeLong(offset);
+            dos.writeLong(length);
+            dos.writeLong(checksum);
+        }
+
+        static SectionIndex read(RandomAccessFile raf) throws IOException {
+            String name = Text.readString(raf);
+            return new SectionIndex(name, raf.readLong(), raf.readLong(), raf.readLong(), 0);
+        }
+    }
+
+    private static class SerializedSection {
+        private final byte[] bytes;
+        private final long checksum;
+        private final long costMs;
+
+        SerializedSection(byte[] bytes, long checksum, long costMs) {
+            this.bytes = bytes;
+            this.checksum = checksum;
+            this.costMs = costMs;
+        }
+    }
+
+    private static class Section {
+        private final String name;
+        private final SectionWriter writer;
+        private final boolean isStreaming;
+        private Future<SerializedSection> future;
+
+        Section(String name, SectionWriter writer, boolean isStreaming) {
+            this.name = name;
+            this.writer = writer;
+            this.isStreaming = isStreaming;
+        }
+
+        boolean isChecksum() {
+            return writer == null;
+        }
+
+        SerializedSection serialize() throws IOException {
+            long startTime = System.currentTimeMillis();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(out);
+            long checksum = writer.write(dos, 0);
+            dos.flush();
+            return new SerializedSection(out.toByteArray(), checksum, System.currentTimeMillis() - startTime);
+        }
+
+        // Called by the worker threads, which should see the checkpoint globalStateMgr
+        SerializedSection serializeForCheckpoint() throws IOException {
+            GlobalStateMgr.registerCheckpointWorkerThread();
+            try {
+                return serialize();
+            } finally {
+                GlobalStateMgr.unregisterCheckpointWorkerThread();
+            }
+        }
+    }
+}
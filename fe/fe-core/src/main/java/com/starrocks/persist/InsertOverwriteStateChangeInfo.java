@@ -3,6 +3,7 @@
 package com.starrocks.persist;
 
 import com.google.gson.annotations.SerializedName;
+import com.starrocks.catalog.MaterializedView;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
 import com.starrocks.load.InsertOverwriteJobState;
@@ -12,6 +13,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 public class InsertOverwriteStateChangeInfo implements Writable {
     @SerializedName(value = "jobId")
@@ -29,6 +31,10 @@ public class InsertOverwriteStateChangeInfo implements Writable {
     @SerializedName(value = "tmpPartitionIds")
     private List<Long> tmpPartitionIds;
 
+    // the base table versions refreshed by the overwrite of materialized view, set when the overwrite succeeds
+    @SerializedName(value = "mvBaseTableVersionMap")
+    private Map<Long, Map<String, MaterializedView.BasePartitionInfo>> mvBaseTableVersionMap;
+
     public InsertOverwriteStateChangeInfo(long jobId, InsertOverwriteJobState fromState,
                                           InsertOverwriteJobState toState,
                                           List<Long> sourcePartitionIds, List<Long> tmpPartitionIds) {
@@ -59,6 +65,14 @@ public class InsertOverwriteStateChangeInfo implements Writable {
         return tmpPartitionIds;
     }
 
+    public Map<Long, Map<String, MaterializedView.BasePartitionInfo>> getMvBaseTableVersionMap() {
+        return mvBaseTableVersionMap;
+    }
+
+    public void setMvBaseTableVersionMap(Map<Long, Map<String, MaterializedView.BasePartitionInfo>> versionMap) {
+        this.mvBaseTableVersionMap = versionMap;
+    }
+
     @Override
     public String toString() {
         return "InsertOverwriteStateChangeInfo{" +
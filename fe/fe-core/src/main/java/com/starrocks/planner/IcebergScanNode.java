@@ -14,6 +14,7 @@ import com.starrocks.common.AnalysisException;
 import com.starrocks.common.UserException;
 import com.starrocks.external.PredicateUtils;
 import com.starrocks.external.iceberg.ExpressionConverter;
+import com.starrocks.external.iceberg.IcebergScanPlanner;
 import com.starrocks.external.iceberg.IcebergUtil;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.plan.HDFSScanNodePredicates;
@@ -31,9 +32,12 @@ import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.exceptions.ValidationException;
 import org.apache.iceberg.expressions.Binder;
 import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -152,39 +156,57 @@ public class IcebergScanNode extends ScanNode {
             return;
         }
         preProcessConjuncts();
+        Table icebergTable = srIcebergTable.getIcebergTable();
+        if (IcebergScanPlanner.canPlan(icebergTable, snapshot.get())) {
+            long splitSize = PropertyUtil.propertyAsLong(icebergTable.properties(), TableProperties.SPLIT_SIZE,
+                    TableProperties.SPLIT_SIZE_DEFAULT);
+            for (DataFile file : IcebergScanPlanner.planDataFiles(icebergTable, snapshot.get(), icebergPredicates)) {
+                LOG.debug("Scan with file " + file.path() + ", file record count " + file.recordCount());
+                if (file.fileSizeInBytes() == 0) {
+                    continue;
+                }
+                for (long[] split : IcebergScanPlanner.splitDataFile(file, splitSize)) {
+                    addScanRangeLocations(file, split[0], split[1]);
+                }
+            }
+            return;
+        }
+
         for (CombinedScanTask combinedScanTask : IcebergUtil.getTableScan(
-                srIcebergTable.getIcebergTable(), snapshot.get(),
-                icebergPredicates).planTasks()) {
+                icebergTable, snapshot.get(), icebergPredicates).planTasks()) {
             for (FileScanTask task : combinedScanTask.files()) {
                 DataFile file = task.file();
                 LOG.debug("Scan with file " + file.path() + ", file record count " + file.recordCount());
                 if (file.fileSizeInBytes() == 0) {
                     continue;
                 }
-
-                TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
-
-                THdfsScanRange hdfsScanRange = new THdfsScanRange();
-                hdfsScanRange.setFull_path(file.path().toString());
-                hdfsScanRange.setOffset(task.start());
-                hdfsScanRange.setLength(task.length());
-                // For iceberg table we do not need partition id
-                hdfsScanRange.setPartition_id(-1);
-                hdfsScanRange.setFile_length(file.fileSizeInBytes());
-                hdfsScanRange.setFile_format(IcebergUtil.getHdfsFileFormat(file.format()).toThrift());
-                TScanRange scanRange = new TScanRange();
-                scanRange.setHdfs_scan_range(hdfsScanRange);
-                scanRangeLocations.setScan_range(scanRange);
-
-                // TODO: get hdfs block location information for scheduling, use iceberg meta cache
-                TScanRangeLocation scanRangeLocation = new TScanRangeLocation(new TNetworkAddress("-1", -1));
-                scanRangeLocations.addToLocations(scanRangeLocation);
-
-                result.add(scanRangeLocations);
+                addScanRangeLocations(file, task.start(), task.length());
             }
         }
     }
 
+    private void addScanRangeLocations(DataFile file, long start, long length) {
+        TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
+
+        THdfsScanRange hdfsScanRange = new THdfsScanRange();
+        hdfsScanRange.setFull_path(file.path().toString());
+        hdfsScanRange.setOffset(start);
+        hdfsScanRange.setLength(length);
+        // For iceberg table we do not need partition id
+        hdfsScanRange.setPartition_id(-1);
+        hdfsScanRange.setFile_length(file.fileSizeInBytes());
+        hdfsScanRange.setFile_format(IcebergUtil.getHdfsFileFormat(file.format()).toThrift());
+        TScanRange scanRange = new TScanRange();
+        scanRange.setHdfs_scan_range(hdfsScanRange);
+        scanRangeLocations.setScan_range(scanRange);
+
+        // TODO: get hdfs block location information for scheduling, use iceberg meta cache
+        TScanRangeLocation scanRangeLocation = new TScanRangeLocation(new TNetworkAddress("-1", -1));
+        scanRangeLocations.addToLocations(scanRangeLocation);
+
+        result.add(scanRangeLocations);
+    }
+
     public HDFSScanNodePredicates getScanNodePredicates() {
         return scanNodePredicates;
     }
@@ -690,6 +690,29 @@ public class OlapScanNode extends ScanNode {
         this.totalTabletsNum = totalTabletsNum;
     }
 
+    /**
+     * Only read the rows loaded in the given version ranges of the partitions, used by the incremental refresh of
+     * materialized views. The scanned version range of a partition is [from version, to version], the from
+     * version is 0 if it is null, and the to version is the visible version if it is null.
+     *
+     * @param partitionVersions partition id -> (from version, to version)
+     */
+    public void setIncrementalScanVersions(Map<Long, Pair<Long, Long>> partitionVersions) {
+        for (TScanRangeLocations locations : result) {
+            TInternalScanRange internalRange = locations.getScan_range().getInternal_scan_range();
+            Pair<Long, Long> versions = partitionVersions.get(internalRange.getPartition_id());
+            if (versions == null) {
+                continue;
+            }
+            if (versions.first != null) {
+                internalRange.setFrom_version(versions.first);
+            }
+            if (versions.second != null) {
+                internalRange.setVersion(String.valueOf(versions.second));
+            }
+        }
+    }
+
     @Override
     public boolean canDoReplicatedJoin() {
         return Utils.canDoReplicatedJoin(olapTable, selectedIndexId, selectedPartitionIds, scanTabletIds);
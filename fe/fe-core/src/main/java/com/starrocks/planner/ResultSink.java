@@ -42,6 +42,8 @@ public class ResultSink extends DataSink {
     private TResultSinkType sinkType;
     private String brokerName;
     private TResultFileSinkOptions fileSinkOptions;
+    // The rows are encoded in binary protocol for the prepared statements
+    private boolean isBinaryRow = false;
 
     public ResultSink(PlanNodeId exchNodeId, TResultSinkType sinkType) {
         this.exchNodeId = exchNodeId;
@@ -63,6 +65,9 @@ public class ResultSink extends DataSink {
         if (fileSinkOptions != null) {
             tResultSink.setFile_options(fileSinkOptions);
         }
+        if (isBinaryRow) {
+            tResultSink.setIs_binary_row(true);
+        }
         result.setResult_sink(tResultSink);
         return result;
     }
@@ -95,6 +100,10 @@ public class ResultSink extends DataSink {
         brokerName = outFileClause.getBrokerDesc() == null ? null : outFileClause.getBrokerDesc().getName();
     }
 
+    public void setBinaryRow(boolean isBinaryRow) {
+        this.isBinaryRow = isBinaryRow;
+    }
+
     public void setBrokerAddr(String ip, int port) {
         Preconditions.checkNotNull(fileSinkOptions);
         fileSinkOptions.setBroker_addresses(Lists.newArrayList(new TNetworkAddress(ip, port)));
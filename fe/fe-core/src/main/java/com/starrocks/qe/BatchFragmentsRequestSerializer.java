@@ -0,0 +1,161 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.util.CompressionUtils;
+import com.starrocks.rpc.PExecBatchPlanFragmentsRequest;
+import com.starrocks.thrift.TDescriptorTable;
+import com.starrocks.thrift.TExecBatchPlanFragmentsParams;
+import com.starrocks.thrift.TExecPlanFragmentParams;
+import com.starrocks.thrift.TPlanFragment;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TIOStreamTransport;
+
+import java.io.ByteArrayOutputStream;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Serializes the batch fragments requests of a query to the backends.
+ *
+ * The plan fragment and the descriptor table of the common params are the same for all the hosts, so they are only
+ * serialized once by the query, and the serialized bytes are spliced into the request of each host. It works since
+ * the binary protocol identifies the fields of a struct by their ids, rather than their positions.
+ * The request larger than deliver_fragments_compression_min_bytes is compressed by zlib, if it gets smaller.
+ *
+ * Not thread safe, which is used by the delivering thread of the coordinator.
+ */
+public class BatchFragmentsRequestSerializer {
+    private static final TField COMMON_PARAM_FIELD = new TField("common_param", TType.STRUCT,
+            TExecBatchPlanFragmentsParams._Fields.COMMON_PARAM.getThriftFieldId());
+    private static final TField UNIQUE_PARAMS_FIELD = new TField("unique_param_per_instance", TType.LIST,
+            TExecBatchPlanFragmentsParams._Fields.UNIQUE_PARAM_PER_INSTANCE.getThriftFieldId());
+    private static final TField FRAGMENT_FIELD = new TField("fragment", TType.STRUCT,
+            TExecPlanFragmentParams._Fields.FRAGMENT.getThriftFieldId());
+    private static final TField DESC_TBL_FIELD = new TField("desc_tbl", TType.STRUCT,
+            TExecPlanFragmentParams._Fields.DESC_TBL.getThriftFieldId());
+
+    private final TSerializer serializer = new TSerializer(new TBinaryProtocol.Factory());
+    // the plan fragments and descriptor tables shared by the requests -> the serialized bytes
+    private final Map<TBase<?, ?>, byte[]> serializedCommonFields = new IdentityHashMap<>();
+
+    private long serializedBytes = 0;
+    private long compressedBytes = 0;
+    private long serializeTimeNs = 0;
+
+    public PExecBatchPlanFragmentsRequest serialize(TExecBatchPlanFragmentsParams tRequest) throws TException {
+        long startTime = System.nanoTime();
+        byte[] serialized = serializeThrift(tRequest);
+        serializedBytes += serialized.length;
+
+        PExecBatchPlanFragmentsRequest pRequest = new PExecBatchPlanFragmentsRequest();
+        byte[] compressed = compress(serialized);
+        if (compressed != null) {
+            compressedBytes += compressed.length;
+            pRequest.setSerializedRequest(compressed);
+            pRequest.attachmentCompressionType = PExecBatchPlanFragmentsRequest.COMPRESSION_ZLIB;
+            pRequest.attachmentUncompressedSize = (long) serialized.length;
+        } else {
+            compressedBytes += serialized.length;
+            pRequest.setSerializedRequest(serialized);
+        }
+        serializeTimeNs += System.nanoTime() - startTime;
+        return pRequest;
+    }
+
+    byte[] serializeThrift(TExecBatchPlanFragmentsParams tRequest) throws TException {
+        TExecPlanFragmentParams commonParams = tRequest.getCommon_param();
+        TPlanFragment fragment = commonParams.getFragment();
+        TDescriptorTable descTable = commonParams.getDesc_tbl();
+        byte[] serializedCommonParams;
+        commonParams.setFragment(null);
+        commonParams.setDesc_tbl(null);
+        try {
+            serializedCommonParams = serializer.serialize(commonParams);
+        } finally {
+            commonParams.setFragment(fragment);
+            commonParams.setDesc_tbl(descTable);
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(serializedCommonParams.length * 2);
+        TProtocol protocol = new TBinaryProtocol(new TIOStreamTransport(output));
+        protocol.writeFieldBegin(COMMON_PARAM_FIELD);
+        // append the shared fields before the field stop, which is the last byte of the serialized struct
+        output.write(serializedCommonParams, 0, serializedCommonParams.length - 1);
+        writeCommonField(protocol, output, FRAGMENT_FIELD, fragment);
+        writeCommonField(protocol, output, DESC_TBL_FIELD, descTable);
+        protocol.writeFieldStop();
+        protocol.writeFieldEnd();
+
+        List<TExecPlanFragmentParams> uniqueParamsList = tRequest.getUnique_param_per_instance();
+        if (uniqueParamsList != null) {
+            protocol.writeFieldBegin(UNIQUE_PARAMS_FIELD);
+            protocol.writeListBegin(new TList(TType.STRUCT, uniqueParamsList.size()));
+            for (TExecPlanFragmentParams uniqueParams : uniqueParamsList) {
+                uniqueParams.write(protocol);
+            }
+            protocol.writeListEnd();
+            protocol.writeFieldEnd();
+        }
+        protocol.writeFieldStop();
+        return output.toByteArray();
+    }
+
+    private void writeCommonField(TProtocol protocol, ByteArrayOutputStream output, TField field, TBase<?, ?> value)
+            throws TException {
+        if (value == null) {
+            return;
+        }
+        byte[] serialized = serializedCommonFields.get(value);
+        if (serialized == null) {
+            serialized = serializer.serialize(value);
+            serializedCommonFields.put(value, serialized);
+        }
+        protocol.writeFieldBegin(field);
+        output.write(serialized, 0, serialized.length);
+        protocol.writeFieldEnd();
+    }
+
+    private static byte[] compress(byte[] data) {
+        long minBytes = Config.deliver_fragments_compression_min_bytes;
+        if (minBytes < 0 || data.length < minBytes) {
+            return null;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            // not worth it unless saving at least 1/8
+            byte[] buffer = new byte[data.length - data.length / 8];
+            int length = CompressionUtils.deflate(deflater, data, 0, data.length, buffer, 0, buffer.length);
+            if (length < 0) {
+                return null;
+            }
+            byte[] compressed = new byte[length];
+            System.arraycopy(buffer, 0, compressed, 0, length);
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public long getSerializedBytes() {
+        return serializedBytes;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getSerializeTimeNs() {
+        return serializeTimeNs;
+    }
+}
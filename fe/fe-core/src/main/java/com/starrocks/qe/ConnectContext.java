@@ -28,6 +28,7 @@ import com.starrocks.catalog.InternalCatalog;
 import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.cluster.ClusterNamespace;
 import com.starrocks.common.DdlException;
+import com.starrocks.common.Pair;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.mysql.MysqlCapability;
 import com.starrocks.mysql.MysqlChannel;
@@ -43,6 +44,7 @@ import com.starrocks.sql.ast.SetVar;
 import com.starrocks.sql.ast.UserVariable;
 import com.starrocks.sql.optimizer.dump.DumpInfo;
 import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.thrift.TUniqueId;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -71,6 +73,10 @@ public class ConnectContext {
     // such as Insert, export requests
     protected UUID lastQueryId;
 
+    // The max journal id of the writes of this session, which is returned by the leader when the statement is
+    // forwarded. It is the consistency token for the session to read its writes on the non-leader FE.
+    protected long lastWriteJournalId = 0;
+
     // The queryId is used to track a user's request. A user request will only have one queryId
     // in the entire StarRocks system. in some scenarios, a user request may be forwarded to multiple
     // nodes for processing or be processed repeatedly, but each execution instance will have
@@ -163,6 +169,17 @@ public class ConnectContext {
 
     protected PlannerProfile plannerProfile;
 
+    // The exec plans cached for the queries of this connection
+    protected PlanCache planCache = new PlanCache();
+
+    // The statements prepared by COM_STMT_PREPARE, stmt id -> statement
+    protected Map<Integer, ServerPreparedStatement> preparedStatements = new HashMap<>();
+    protected int nextPreparedStmtId = 1;
+
+    // table id -> (partition id -> (from version, to version)), the scans of these partitions only read the rows
+    // loaded in the version ranges, used by the incremental refresh of materialized views
+    protected Map<Long, Map<Long, Pair<Long, Long>>> incrementalScanVersions = null;
+
     protected ResourceGroup resourceGroup;
 
     public static ConnectContext get() {
@@ -304,6 +321,41 @@ public class ConnectContext {
     public void resetSessionVariable() {
         this.sessionVariable = VariableMgr.newSessionVariable();
         modifiedSessionVariables.clear();
+        planCache.clear();
+    }
+
+    public PlanCache getPlanCache() {
+        return planCache;
+    }
+
+    public Map<Long, Pair<Long, Long>> getIncrementalScanVersions(long tableId) {
+        return incrementalScanVersions == null ? null : incrementalScanVersions.get(tableId);
+    }
+
+    public void setIncrementalScanVersions(Map<Long, Map<Long, Pair<Long, Long>>> incrementalScanVersions) {
+        this.incrementalScanVersions = incrementalScanVersions;
+    }
+
+    public ServerPreparedStatement addPreparedStatement(String sql) {
+        ServerPreparedStatement stmt = new ServerPreparedStatement(nextPreparedStmtId++, sql);
+        preparedStatements.put(stmt.getStmtId(), stmt);
+        return stmt;
+    }
+
+    public ServerPreparedStatement getPreparedStatement(int stmtId) {
+        return preparedStatements.get(stmtId);
+    }
+
+    public void removePreparedStatement(int stmtId) {
+        preparedStatements.remove(stmtId);
+    }
+
+    public int getPreparedStatementCount() {
+        return preparedStatements.size();
+    }
+
+    public void clearPreparedStatements() {
+        preparedStatements.clear();
     }
 
     public void setSessionVariable(SessionVariable sessionVariable) {
@@ -452,6 +504,14 @@ public class ConnectContext {
         this.queryId = queryId;
     }
 
+    public long getLastWriteJournalId() {
+        return lastWriteJournalId;
+    }
+
+    public void updateLastWriteJournalId(long journalId) {
+        this.lastWriteJournalId = Math.max(lastWriteJournalId, journalId);
+    }
+
     public UUID getLastQueryId() {
         return lastQueryId;
     }
@@ -23,11 +23,13 @@ package com.starrocks.qe;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.ErrorCode;
@@ -40,7 +42,9 @@ import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.ResourceGroupMetricMgr;
 import com.starrocks.mysql.MysqlChannel;
 import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlPacket;
+import com.starrocks.mysql.MysqlPrepareOkPacket;
 import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.mysql.MysqlServerStatusFlag;
@@ -48,6 +52,7 @@ import com.starrocks.plugin.AuditEvent.EventType;
 import com.starrocks.proto.PQueryStatistics;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.FrontendOptions;
+import com.starrocks.sql.StatementPlanner;
 import com.starrocks.sql.ast.KillStmt;
 import com.starrocks.sql.ast.QueryStatement;
 import com.starrocks.sql.ast.StatementBase;
@@ -66,6 +71,7 @@ import java.nio.channels.AsynchronousCloseException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -136,6 +142,8 @@ public class ConnectProcessor {
         ctx.getSerializer().setCapability(ctx.getCapability());
         // reset session variable
         ctx.resetSessionVariable();
+        // close all prepared statements
+        ctx.clearPreparedStatements();
     }
 
     public void auditAfterExec(String origStmt, StatementBase parsedStmt, PQueryStatistics statistics) {
@@ -252,15 +260,26 @@ public class ConnectProcessor {
 
     // process COM_QUERY statement,
     private void handleQuery() {
-        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
-        // convert statement to Java string
-        String originStmt = null;
+        executeQuery(readStmtString());
+    }
+
+    // convert statement in packet to Java string
+    private String readStmtString() {
         byte[] bytes = packetBuf.array();
         int ending = packetBuf.limit() - 1;
         while (ending >= 1 && bytes[ending] == '\0') {
             ending--;
         }
-        originStmt = new String(bytes, 1, ending, StandardCharsets.UTF_8);
+        return new String(bytes, 1, ending, StandardCharsets.UTF_8);
+    }
+
+    private void executeQuery(String originStmt) {
+        executeQuery(originStmt, null);
+    }
+
+    // The prepared statement is executed without being parsed again
+    private void executeQuery(String originStmt, ServerPreparedStatement preparedStmt) {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
         ctx.getAuditEventBuilder().reset();
         ctx.getAuditEventBuilder()
                 .setTimestamp(System.currentTimeMillis())
@@ -277,7 +296,11 @@ public class ConnectProcessor {
             ctx.setQueryId(UUIDUtil.genUUID());
             List<StatementBase> stmts;
             try {
-                stmts = com.starrocks.sql.parser.SqlParser.parse(originStmt, ctx.getSessionVariable());
+                if (preparedStmt != null) {
+                    stmts = Collections.singletonList(preparedStmt.getStatement(ctx));
+                } else {
+                    stmts = com.starrocks.sql.parser.SqlParser.parse(originStmt, ctx.getSessionVariable());
+                }
             } catch (ParsingException parsingException) {
                 throw new AnalysisException(parsingException.getMessage());
             }
@@ -297,7 +320,11 @@ public class ConnectProcessor {
                     addRunningQueryDetail(parsedStmt);
                 }
 
-                executor = new StmtExecutor(ctx, parsedStmt);
+                if (preparedStmt != null) {
+                    executor = new StmtExecutor(ctx, preparedStmt);
+                } else {
+                    executor = new StmtExecutor(ctx, parsedStmt);
+                }
                 ctx.setExecutor(executor);
 
                 ctx.setIsLastStmt(i == stmts.size() - 1);
@@ -352,6 +379,110 @@ public class ConnectProcessor {
         addFinishedQueryDetail();
     }
 
+    // COM_STMT_PREPARE: the statement is parsed and analyzed, the definitions of its parameters and the
+    // columns of its result set are responded.
+    // https://dev.mysql.com/doc/internals/en/com-stmt-prepare-response.html
+    private void handleStmtPrepare() throws IOException {
+        if (ctx.getPreparedStatementCount() >= Config.max_prepared_stmt_count_per_session) {
+            ctx.getState().setError("Can't create more than max_prepared_stmt_count_per_session statements (current value: " +
+                    Config.max_prepared_stmt_count_per_session + ")");
+            return;
+        }
+        ServerPreparedStatement stmt = ctx.addPreparedStatement(readStmtString());
+        try {
+            stmt.prepare(ctx);
+            StatementPlanner.analyze(stmt, ctx);
+        } catch (Exception e) {
+            ctx.removePreparedStatement(stmt.getStmtId());
+            ctx.getState().setError(e.getMessage());
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+            return;
+        }
+
+        List<String> columnNames = stmt.getColumnNames();
+        List<Type> columnTypes = stmt.getColumnTypes();
+        MysqlSerializer serializer = ctx.getSerializer();
+        MysqlChannel channel = ctx.getMysqlChannel();
+        serializer.reset();
+        new MysqlPrepareOkPacket(stmt.getStmtId(), columnNames.size(), stmt.getNumParams()).writeTo(serializer);
+        channel.sendOnePacket(serializer.toByteBuffer());
+        for (Parameter parameter : stmt.getParameters()) {
+            serializer.reset();
+            serializer.writeField("?", parameter.getType());
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        if (stmt.getNumParams() > 0 && !columnNames.isEmpty()) {
+            serializer.reset();
+            new MysqlEofPacket(ctx.getState()).writeTo(serializer);
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        for (int i = 0; i < columnNames.size(); i++) {
+            serializer.reset();
+            serializer.writeField(columnNames.get(i), columnTypes.get(i));
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        // EOF of the last definitions is sent by finalizeCommand
+        ctx.getState().setEof();
+    }
+
+    // COM_STMT_EXECUTE: bind the parameters and execute the statement, the rows of query are sent in binary protocol
+    private void handleStmtExecute() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ServerPreparedStatement stmt = ctx.getPreparedStatement(stmtId);
+        if (stmt == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to COM_STMT_EXECUTE");
+            return;
+        }
+        // flags and iteration count, cursor is not supported and the whole result set is always sent
+        MysqlProto.readInt1(packetBuf);
+        MysqlProto.readInt4(packetBuf);
+
+        try {
+            stmt.bindParameters(packetBuf);
+        } catch (AnalysisException e) {
+            LOG.warn("Bind parameters of prepared statement failed.", e);
+            ctx.getState().setError(e.getMessage());
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+            return;
+        }
+        executeQuery(stmt.getSql(), stmt);
+    }
+
+    // COM_STMT_SEND_LONG_DATA: no response for this command, errors are reported by the following COM_STMT_EXECUTE
+    private void handleStmtSendLongData() {
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        int paramId = MysqlProto.readInt2(packetBuf);
+        ServerPreparedStatement stmt = ctx.getPreparedStatement(stmtId);
+        if (stmt == null) {
+            LOG.warn("Unknown prepared statement handler ({}) given to COM_STMT_SEND_LONG_DATA", stmtId);
+            return;
+        }
+        try {
+            stmt.appendLongData(paramId, MysqlProto.readEofString(packetBuf));
+        } catch (AnalysisException e) {
+            LOG.warn("Send long data of prepared statement failed.", e);
+        }
+    }
+
+    // COM_STMT_CLOSE: deallocate the prepared statement, no response for this command
+    private void handleStmtClose() {
+        ctx.removePreparedStatement(MysqlProto.readInt4(packetBuf));
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // COM_STMT_RESET: clear the long data of the prepared statement
+    private void handleStmtReset() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ServerPreparedStatement stmt = ctx.getPreparedStatement(stmtId);
+        if (stmt == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to COM_STMT_RESET");
+            return;
+        }
+        stmt.resetLongData();
+        ctx.getState().setOk();
+    }
+
     // Get the column definitions of a table
     private void handleFieldList() throws IOException {
         // Already get command code.
@@ -432,6 +563,22 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                handleStmtExecute();
+                ctx.setStartTime();
+                break;
+            case COM_STMT_SEND_LONG_DATA:
+                handleStmtSendLongData();
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
+            case COM_STMT_RESET:
+                handleStmtReset();
+                break;
             default:
                 ctx.getState().setError("Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
@@ -506,8 +653,8 @@ public class ConnectProcessor {
         MysqlChannel channel = ctx.getMysqlChannel();
         channel.sendAndFlush(packet);
 
-        // only change lastQueryId when current command is COM_QUERY
-        if (ctx.getCommand() == MysqlCommand.COM_QUERY) {
+        // only change lastQueryId when current command is COM_QUERY or COM_STMT_EXECUTE
+        if (ctx.getCommand() == MysqlCommand.COM_QUERY || ctx.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
             ctx.setLastQueryId(ctx.queryId);
             ctx.setQueryId(null);
         }
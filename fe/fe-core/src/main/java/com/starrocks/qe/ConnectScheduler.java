@@ -188,6 +188,9 @@ public class ConnectScheduler {
 
                 if (registerConnection(context)) {
                     MysqlProto.sendResponsePacket(context);
+                    if (context.getCapability().isCompress()) {
+                        context.getMysqlChannel().enableCompression();
+                    }
                 } else {
                     context.getState().setError("Reach limit of connections");
                     MysqlProto.sendResponsePacket(context);
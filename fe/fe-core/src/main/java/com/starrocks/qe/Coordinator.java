@@ -72,6 +72,7 @@ import com.starrocks.proto.PPlanFragmentCancelReason;
 import com.starrocks.proto.StatusPB;
 import com.starrocks.qe.QueryStatisticsItem.FragmentInstanceInfo;
 import com.starrocks.rpc.BackendServiceClient;
+import com.starrocks.rpc.PExecBatchPlanFragmentsRequest;
 import com.starrocks.rpc.RpcException;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.FrontendOptions;
@@ -91,6 +92,7 @@ import com.starrocks.thrift.TInternalScanRange;
 import com.starrocks.thrift.TLoadJobType;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TPipelineProfileLevel;
+import com.starrocks.thrift.TPlanFragment;
 import com.starrocks.thrift.TPlanFragmentDestination;
 import com.starrocks.thrift.TPlanFragmentExecParams;
 import com.starrocks.thrift.TQueryGlobals;
@@ -910,6 +912,8 @@ public class Coordinator {
             int profileFragmentId = 0;
 
             Set<Long> dbIds = connectContext != null ? connectContext.getCurrentSqlDbIds() : null;
+            BatchFragmentsRequestSerializer serializer = new BatchFragmentsRequestSerializer();
+            long rpcTimeNs = 0;
 
             this.descTable.setIs_cached(false);
             TDescriptorTable emptyDescTable = new TDescriptorTable();
@@ -1015,6 +1019,7 @@ public class Coordinator {
                 }
 
                 for (List<Pair<List<BackendExecState>, TExecBatchPlanFragmentsParams>> inflightRequests : inflightRequestsList) {
+                    long rpcStartTime = System.nanoTime();
                     List<Pair<BackendExecState, Future<PExecBatchPlanFragmentsResult>>> futures = Lists.newArrayList();
                     for (Pair<List<BackendExecState>, TExecBatchPlanFragmentsParams> inflightRequest : inflightRequests) {
                         List<BackendExecState> execStates = inflightRequest.first;
@@ -1024,7 +1029,7 @@ public class Coordinator {
                         // Just choose any instance ExecState to send the batch RPC request.
                         BackendExecState firstExecState = execStates.get(0);
                         futures.add(Pair.create(firstExecState,
-                                firstExecState.execRemoteBatchFragmentsAsync(inflightRequest.second)));
+                                firstExecState.execRemoteBatchFragmentsAsync(serializer.serialize(inflightRequest.second))));
                     }
 
                     for (Pair<BackendExecState, Future<PExecBatchPlanFragmentsResult>> pair : futures) {
@@ -1068,9 +1073,18 @@ public class Coordinator {
                             }
                         }
                     }
+                    rpcTimeNs += System.nanoTime() - rpcStartTime;
                 }
             }
 
+            queryProfile.addCounter("DeliverFragmentsBytes", TUnit.BYTES).setValue(serializer.getSerializedBytes());
+            queryProfile.addCounter("DeliverFragmentsCompressedBytes", TUnit.BYTES)
+                    .setValue(serializer.getCompressedBytes());
+            queryProfile.addCounter("DeliverFragmentsSerializeTime", TUnit.TIME_NS)
+                    .setValue(serializer.getSerializeTimeNs());
+            // the requests are serialized right before sent
+            queryProfile.addCounter("DeliverFragmentsRpcTime", TUnit.TIME_NS)
+                    .setValue(rpcTimeNs - serializer.getSerializeTimeNs());
             attachInstanceProfileToFragmentProfile();
         } finally {
             unlock();
@@ -2767,7 +2781,7 @@ public class Coordinator {
         }
 
         public Future<PExecBatchPlanFragmentsResult> execRemoteBatchFragmentsAsync(
-                TExecBatchPlanFragmentsParams tRequest) throws TException {
+                PExecBatchPlanFragmentsRequest pRequest) throws TException {
             TNetworkAddress brpcAddress;
             try {
                 brpcAddress = new TNetworkAddress(backend.getHost(), backend.getBrpcPort());
@@ -2776,7 +2790,7 @@ public class Coordinator {
             }
             this.initiated = true;
             try {
-                return BackendServiceClient.getInstance().execBatchPlanFragmentsAsync(brpcAddress, tRequest);
+                return BackendServiceClient.getInstance().execBatchPlanFragmentsAsync(brpcAddress, pRequest);
             } catch (RpcException e) {
                 // DO NOT throw exception here, return a complete future with error code,
                 // so that the following logic will cancel the fragment.
@@ -2843,6 +2857,8 @@ public class Coordinator {
         public FragmentScanRangeAssignment scanRangeAssignment = new FragmentScanRangeAssignment();
         TRuntimeFilterParams runtimeFilterParams = new TRuntimeFilterParams();
         public boolean bucketSeqToInstanceForFilterIsSet = false;
+        // the thrift fragment shared by the batch requests to all the hosts, which is serialized only once
+        private TPlanFragment commonThriftFragment = null;
 
         public FragmentExecParams(PlanFragment fragment) {
             this.fragment = fragment;
@@ -2873,12 +2889,13 @@ public class Coordinator {
          * @param descTable              The descriptor table, empty for the non-first instance
          *                               when enable pipeline and disable multi fragments in one request.
          * @param isEnablePipelineEngine Whether enable pipeline engine.
+         * @param thriftFragment         The thrift fragment.
          */
         private void toThriftForCommonParams(TExecPlanFragmentParams commonParams,
                                              TNetworkAddress destHost, TDescriptorTable descTable,
-                                             boolean isEnablePipelineEngine) {
+                                             boolean isEnablePipelineEngine, TPlanFragment thriftFragment) {
             commonParams.setProtocol_version(InternalServiceVersion.V1);
-            commonParams.setFragment(fragment.toThrift());
+            commonParams.setFragment(thriftFragment);
             commonParams.setDesc_tbl(descTable);
             commonParams.setFunc_version(4);
             commonParams.setCoord(coordAddress);
@@ -3043,7 +3060,8 @@ public class Coordinator {
                 }
                 TExecPlanFragmentParams params = new TExecPlanFragmentParams();
 
-                toThriftForCommonParams(params, instanceExecParam.getHost(), descTable, enablePipelineEngine);
+                toThriftForCommonParams(params, instanceExecParam.getHost(), descTable, enablePipelineEngine,
+                        fragment.toThrift());
                 toThriftForUniqueParams(params, i, instanceExecParam, enablePipelineEngine);
 
                 paramsList.add(params);
@@ -3056,8 +3074,11 @@ public class Coordinator {
                 Set<Long> dbIds, boolean enablePipelineEngine) throws Exception {
             setBucketSeqToInstanceForRuntimeFilters();
 
+            if (commonThriftFragment == null) {
+                commonThriftFragment = fragment.toThrift();
+            }
             TExecPlanFragmentParams commonParams = new TExecPlanFragmentParams();
-            toThriftForCommonParams(commonParams, destHost, descTable, enablePipelineEngine);
+            toThriftForCommonParams(commonParams, destHost, descTable, enablePipelineEngine, commonThriftFragment);
             fillRequiredFieldsToThrift(commonParams);
 
             List<TExecPlanFragmentParams> uniqueParamsList = Lists.newArrayList();
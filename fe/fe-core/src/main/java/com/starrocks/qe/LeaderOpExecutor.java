@@ -76,6 +76,7 @@ public class LeaderOpExecutor {
     public void execute() throws Exception {
         forward();
         LOG.info("forwarding to master get result max journal id: {}", result.maxJournalId);
+        ctx.updateLastWriteJournalId(result.maxJournalId);
         ctx.getGlobalStateMgr().getJournalObservable().waitOn(result.maxJournalId, waitTimeoutMs);
 
         if (result.state != null) {
@@ -21,6 +21,8 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
 import com.starrocks.common.Status;
 import com.starrocks.common.util.DebugUtil;
 import com.starrocks.metric.MetricRepo;
@@ -38,13 +40,28 @@ import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TDeserializer;
 import org.apache.thrift.TException;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+/**
+ * Fetch the result batches of the top fragment instance from BE.
+ * <p>
+ * Up to Config.result_fetch_max_inflight_rpc_num fetch rpcs are kept in flight, so BE can send the next
+ * batches while the caller is sending the current batch to the client. BE serves the waiting fetch rpcs
+ * in order and tags the results with consecutive packet seqs, the results received out of order are
+ * buffered until their turn comes. More fetches are only sent when the estimated bytes of the
+ * prefetched batches are under Config.result_fetch_max_prefetch_bytes.
+ */
 public class ResultReceiver {
     private static final Logger LOG = LogManager.getLogger(ResultReceiver.class);
+    // TDeserializer is not thread safe, reuse one per thread instead of creating one for every batch
+    private static final ThreadLocal<TDeserializer> DESERIALIZER = ThreadLocal.withInitial(TDeserializer::new);
+
     private boolean isDone = false;
     private boolean isCancel = false;
     private long packetIdx = 0;
@@ -54,6 +71,17 @@ public class ResultReceiver {
     private final Long backendId;
     private Thread currentThread;
 
+    private final int maxInflightFetches;
+    private final long maxPrefetchBytes;
+    // fetch rpcs which have been sent, in the order of sending
+    private final Deque<Fetch> pendingFetches = new ArrayDeque<>();
+    // fetch results received before their previous packets, packet seq -> fetch
+    private final Map<Long, Fetch> receivedFetches = Maps.newHashMap();
+    private long receivedBytes = 0;
+    // used to estimate the size of batches in flight
+    private long consumedBytes = 0;
+    private long consumedPackets = 0;
+
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, int timeoutMs) {
         this.finstId = new PUniqueId();
         this.finstId.hi = tid.hi;
@@ -61,6 +89,8 @@ public class ResultReceiver {
         this.backendId = backendId;
         this.address = address;
         this.timeoutTs = System.currentTimeMillis() + timeoutMs;
+        this.maxInflightFetches = Math.max(1, Config.result_fetch_max_inflight_rpc_num);
+        this.maxPrefetchBytes = Config.result_fetch_max_prefetch_bytes;
     }
 
     public RowBatch getNext(Status status) throws TException {
@@ -70,49 +100,68 @@ public class ResultReceiver {
         final RowBatch rowBatch = new RowBatch();
         try {
             while (!isDone && !isCancel) {
-                PFetchDataRequest request = new PFetchDataRequest(finstId);
-
                 currentThread = Thread.currentThread();
-                Future<PFetchDataResult> future = BackendServiceClient.getInstance().fetchDataAsync(address, request);
-                PFetchDataResult pResult = null;
-                while (pResult == null) {
-                    long currentTs = System.currentTimeMillis();
-                    if (currentTs >= timeoutTs) {
-                        throw new TimeoutException("query timeout");
+                sendFetches();
+
+                Fetch fetch = receivedFetches.remove(packetIdx);
+                if (fetch != null) {
+                    receivedBytes -= fetch.getSerializedSize();
+                }
+                while (fetch == null) {
+                    if (pendingFetches.isEmpty()) {
+                        // every fetch has returned, but none of them is the expected packet
+                        LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, receivedFetches.keySet());
+                        status.setRpcStatus("receive error packet");
+                        return null;
                     }
-                    try {
-                        pResult = future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        // continue to get result
-                        LOG.info("future get interrupted Exception");
-                        if (isCancel) {
-                            status.setStatus(Status.CANCELLED);
-                            return null;
+                    Fetch head = pendingFetches.peekFirst();
+                    PFetchDataResult pResult = waitResult(head.future, status);
+                    if (pResult == null) {
+                        return null;
+                    }
+                    pendingFetches.pollFirst();
+                    TStatusCode code = TStatusCode.findByValue(pResult.status.statusCode);
+                    if (code != TStatusCode.OK) {
+                        status.setPstatus(pResult.status);
+                        return null;
+                    }
+                    head.result = pResult;
+                    if (pResult.packetSeq == packetIdx) {
+                        fetch = head;
+                    } else if (pResult.packetSeq > packetIdx) {
+                        // all the fetches sent after eos also receive eos with the same packet seq
+                        if (receivedFetches.putIfAbsent(pResult.packetSeq, head) == null) {
+                            receivedBytes += head.getSerializedSize();
                         }
+                    } else {
+                        LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packetSeq);
+                        status.setRpcStatus("receive error packet");
+                        return null;
                     }
                 }
-                TStatusCode code = TStatusCode.findByValue(pResult.status.statusCode);
-                if (code != TStatusCode.OK) {
-                    status.setPstatus(pResult.status);
-                    return null;
-                }
 
+                PFetchDataResult pResult = fetch.result;
                 rowBatch.setQueryStatistics(pResult.queryStatistics);
-
-                if (packetIdx != pResult.packetSeq) {
-                    LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packetSeq);
-                    status.setRpcStatus("receive error packet");
-                    return null;
-                }
-
                 packetIdx++;
                 isDone = pResult.eos;
+                if (isDone) {
+                    // the fetches sent after eos are useless
+                    pendingFetches.clear();
+                    receivedFetches.clear();
+                    receivedBytes = 0;
+                }
 
-                byte[] serialResult = request.getSerializedResult();
+                byte[] serialResult = fetch.request.getSerializedResult();
                 if (serialResult != null && serialResult.length > 0) {
+                    consumedBytes += serialResult.length;
+                    consumedPackets++;
+                    if (!isDone) {
+                        // send the next fetches before deserializing, to keep BE busy while this batch is
+                        // deserialized and sent to the client
+                        sendFetches();
+                    }
                     TResultBatch resultBatch = new TResultBatch();
-                    TDeserializer deserializer = new TDeserializer();
-                    deserializer.deserialize(resultBatch, serialResult);
+                    DESERIALIZER.get().deserialize(resultBatch, serialResult);
                     rowBatch.setBatch(resultBatch);
                     rowBatch.setEos(pResult.eos);
                     return rowBatch;
@@ -152,6 +201,43 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    // Keep at least one fetch in flight, send more only when the prefetched batches are under budget
+    private void sendFetches() throws RpcException {
+        while (pendingFetches.size() + receivedFetches.size() < maxInflightFetches) {
+            if (!pendingFetches.isEmpty()) {
+                long avgBatchBytes = consumedPackets == 0 ? 0 : consumedBytes / consumedPackets;
+                if (receivedBytes + avgBatchBytes * (pendingFetches.size() + 1) > maxPrefetchBytes) {
+                    break;
+                }
+            }
+            PFetchDataRequest request = new PFetchDataRequest(finstId);
+            pendingFetches.addLast(new Fetch(request, BackendServiceClient.getInstance().fetchDataAsync(address, request)));
+        }
+    }
+
+    // Return null if the query is cancelled
+    private PFetchDataResult waitResult(Future<PFetchDataResult> future, Status status)
+            throws TimeoutException, ExecutionException {
+        PFetchDataResult pResult = null;
+        while (pResult == null) {
+            long currentTs = System.currentTimeMillis();
+            if (currentTs >= timeoutTs) {
+                throw new TimeoutException("query timeout");
+            }
+            try {
+                pResult = future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // continue to get result
+                LOG.info("future get interrupted Exception");
+                if (isCancel) {
+                    status.setStatus(Status.CANCELLED);
+                    return null;
+                }
+            }
+        }
+        return pResult;
+    }
+
     public void cancel() {
         isCancel = true;
         synchronized (this) {
@@ -164,4 +250,20 @@ public class ResultReceiver {
             }
         }
     }
+
+    private static class Fetch {
+        private final PFetchDataRequest request;
+        private final Future<PFetchDataResult> future;
+        private PFetchDataResult result;
+
+        Fetch(PFetchDataRequest request, Future<PFetchDataResult> future) {
+            this.request = request;
+            this.future = future;
+        }
+
+        long getSerializedSize() {
+            byte[] serialResult = request.getSerializedResult();
+            return serialResult == null ? 0 : serialResult.length;
+        }
+    }
 }
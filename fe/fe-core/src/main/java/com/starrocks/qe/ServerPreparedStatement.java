@@ -0,0 +1,355 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.DecimalLiteral;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.FloatLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.analysis.TableName;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.catalog.View;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlProto;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.analyzer.SemanticException;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.parser.SqlParser;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * A statement prepared by COM_STMT_PREPARE, it lives in the ConnectContext until COM_STMT_CLOSE
+ * or the connection is reset.
+ * <p>
+ * The statement is parsed with its parameter markers and analyzed once when preparing, the types of
+ * parameters are inferred from the context. The values sent by COM_STMT_EXECUTE are bound into the
+ * parameters of the analyzed statement, and cast to their types when planning. The statement is only
+ * parsed and analyzed again when the tables it uses are changed or the session is changed.
+ * Only queries are supported, the clients prepare the other statements locally.
+ * https://dev.mysql.com/doc/internals/en/com-stmt-execute.html
+ */
+public class ServerPreparedStatement {
+    // The highest bit of the parameter type means the parameter is unsigned
+    private static final int UNSIGNED_FLAG = 0x80;
+
+    private final int stmtId;
+    private final String sql;
+    private QueryStatement statement;
+    // The parameter markers of statement in the order of their positions
+    private List<Parameter> parameters;
+    private boolean analyzed = false;
+    // The session when the statement is parsed and analyzed, the names of tables are resolved by it
+    private String catalog;
+    private String database;
+    private SessionVariable sessionVariable;
+    // The tables and views resolved by the analyzer
+    private final Map<TableName, ResolvedTable> tables = Maps.newHashMap();
+    // types of parameters sent by the last execution, the client only send them when they are changed
+    private int[] paramTypes;
+    // data sent by COM_STMT_SEND_LONG_DATA, cleared after every execution
+    private ByteArrayOutputStream[] longData;
+
+    public ServerPreparedStatement(int stmtId, String sql) {
+        this.stmtId = stmtId;
+        this.sql = sql;
+    }
+
+    public int getStmtId() {
+        return stmtId;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getNumParams() {
+        return parameters.size();
+    }
+
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+
+    public List<String> getColumnNames() {
+        return statement.getQueryRelation().getColumnOutputNames();
+    }
+
+    public List<Type> getColumnTypes() {
+        return statement.getQueryRelation().getOutputExpression().stream()
+                .map(Expr::getOriginType).collect(Collectors.toList());
+    }
+
+    /**
+     * Parse the statement, the caller then analyzes it by {@link com.starrocks.sql.StatementPlanner#analyze}
+     * to get the columns of result set.
+     */
+    public void prepare(ConnectContext session) {
+        parse(session);
+        if (statement.isExplain() || statement.hasOutFileClause()) {
+            throw new SemanticException("This command is not supported in the prepared statement protocol yet");
+        }
+        longData = new ByteArrayOutputStream[parameters.size()];
+    }
+
+    /**
+     * Return the statement to be planned, it's parsed again if the current database is changed,
+     * so that the databases to lock are resolved by the current session.
+     */
+    public QueryStatement getStatement(ConnectContext session) {
+        if (!Objects.equals(catalog, session.getCurrentCatalog()) || !Objects.equals(database, session.getDatabase())) {
+            parse(session);
+        }
+        return statement;
+    }
+
+    /**
+     * Analyze the statement if it's not analyzed yet, or the session or the tables are changed since it's
+     * analyzed. The caller must hold the locks of the databases used by the statement.
+     *
+     * @return the analyzed statement
+     */
+    public QueryStatement analyze(ConnectContext session) {
+        if (analyzed && isAnalysisValid(session)) {
+            return statement;
+        }
+        if (analyzed) {
+            // The analyzed statement can't be analyzed again
+            parse(session);
+        }
+        Analyzer.analyze(statement, session);
+        tables.clear();
+        AnalyzerUtils.collectAllTableAndViewByName(statement)
+                .forEach((name, table) -> tables.put(name, new ResolvedTable(table)));
+        analyzed = true;
+        return statement;
+    }
+
+    private boolean isAnalysisValid(ConnectContext session) {
+        if (!Objects.equals(catalog, session.getCurrentCatalog()) || !Objects.equals(database, session.getDatabase())
+                || sessionVariable != session.getSessionVariable()) {
+            return false;
+        }
+        // The tables may be dropped and created again with the same name, or altered
+        for (Map.Entry<TableName, ResolvedTable> entry : tables.entrySet()) {
+            TableName name = entry.getKey();
+            Table table = GlobalStateMgr.getCurrentState().getMetadataMgr()
+                    .getTable(name.getCatalog(), name.getDb(), name.getTbl());
+            if (!entry.getValue().isSame(table)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void parse(ConnectContext session) {
+        List<Parameter> newParameters = Lists.newArrayList();
+        StatementBase stmt = SqlParser.parsePrepared(sql, session.getSessionVariable(), newParameters);
+        // Statements with result set other than query are sent in text protocol, let clients prepare them locally
+        if (!(stmt instanceof QueryStatement)) {
+            throw new SemanticException("This command is not supported in the prepared statement protocol yet");
+        }
+        // Keep the values bound to the parameters when parsed again
+        if (parameters != null) {
+            for (int i = 0; i < parameters.size() && i < newParameters.size(); i++) {
+                newParameters.get(i).setValue(parameters.get(i).getValue());
+            }
+        }
+        statement = (QueryStatement) stmt;
+        parameters = newParameters;
+        analyzed = false;
+        catalog = session.getCurrentCatalog();
+        database = session.getDatabase();
+        sessionVariable = session.getSessionVariable();
+    }
+
+    public void appendLongData(int paramId, byte[] data) throws AnalysisException {
+        if (paramId < 0 || paramId >= longData.length) {
+            throw new AnalysisException("Invalid parameter index " + paramId + " of prepared statement " + stmtId);
+        }
+        if (longData[paramId] == null) {
+            longData[paramId] = new ByteArrayOutputStream();
+        }
+        longData[paramId].write(data, 0, data.length);
+    }
+
+    public void resetLongData() {
+        for (int i = 0; i < longData.length; i++) {
+            longData[i] = null;
+        }
+    }
+
+    /**
+     * Read the parameters from the payload of COM_STMT_EXECUTE which has been read to the end of
+     * iteration-count, and bind them to the parameters of the statement.
+     */
+    public void bindParameters(ByteBuffer packet) throws AnalysisException {
+        int numParams = parameters.size();
+        if (numParams == 0) {
+            return;
+        }
+        try {
+            byte[] nullBitmap = MysqlProto.readFixedString(packet, (numParams + 7) / 8);
+            boolean newParamsBound = MysqlProto.readInt1(packet) == 1;
+            if (newParamsBound) {
+                paramTypes = new int[numParams];
+                for (int i = 0; i < numParams; i++) {
+                    paramTypes[i] = MysqlProto.readInt2(packet);
+                }
+            } else if (paramTypes == null) {
+                throw new AnalysisException("Types of parameters of prepared statement " + stmtId + " are not bound");
+            }
+
+            List<LiteralExpr> values = Lists.newArrayListWithCapacity(numParams);
+            for (int i = 0; i < numParams; i++) {
+                if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                    values.add(new NullLiteral());
+                } else if (longData[i] != null) {
+                    values.add(new StringLiteral(new String(longData[i].toByteArray(), StandardCharsets.UTF_8)));
+                } else {
+                    values.add(readParameter(packet, paramTypes[i] & 0xFF, (paramTypes[i] & (UNSIGNED_FLAG << 8)) != 0));
+                }
+            }
+            for (int i = 0; i < numParams; i++) {
+                parameters.get(i).setValue(values.get(i));
+            }
+        } catch (RuntimeException e) {
+            // BufferUnderflowException or NumberFormatException caused by malformed packet
+            throw new AnalysisException("Malformed parameters of prepared statement " + stmtId + ": " + e.getMessage());
+        } finally {
+            resetLongData();
+        }
+    }
+
+    // Decode one parameter in binary protocol to literal
+    // https://dev.mysql.com/doc/internals/en/binary-protocol-value.html
+    static LiteralExpr readParameter(ByteBuffer packet, int type, boolean unsigned) throws AnalysisException {
+        if (type == MysqlColType.MYSQL_TYPE_NULL.getCode()) {
+            return new NullLiteral();
+        } else if (type == MysqlColType.MYSQL_TYPE_TINY.getCode()) {
+            int value = MysqlProto.readInt1(packet);
+            return new IntLiteral(unsigned ? value : (byte) value);
+        } else if (type == MysqlColType.MYSQL_TYPE_SHORT.getCode() || type == MysqlColType.MYSQL_TYPE_YEAR.getCode()) {
+            int value = MysqlProto.readInt2(packet);
+            return new IntLiteral(unsigned ? value : (short) value);
+        } else if (type == MysqlColType.MYSQL_TYPE_LONG.getCode() || type == MysqlColType.MYSQL_TYPE_INT24.getCode()) {
+            int value = MysqlProto.readInt4(packet);
+            return new IntLiteral(unsigned ? Integer.toUnsignedLong(value) : value);
+        } else if (type == MysqlColType.MYSQL_TYPE_LONGLONG.getCode()) {
+            long value = MysqlProto.readInt8(packet);
+            return unsigned && value < 0 ? new LargeIntLiteral(Long.toUnsignedString(value)) : new IntLiteral(value);
+        } else if (type == MysqlColType.MYSQL_TYPE_FLOAT.getCode()) {
+            return new FloatLiteral((double) Float.intBitsToFloat(MysqlProto.readInt4(packet)), Type.FLOAT);
+        } else if (type == MysqlColType.MYSQL_TYPE_DOUBLE.getCode()) {
+            return new FloatLiteral(Double.longBitsToDouble(MysqlProto.readInt8(packet)), Type.DOUBLE);
+        } else if (type == MysqlColType.MYSQL_TYPE_DATE.getCode() || type == MysqlColType.MYSQL_TYPE_DATETIME.getCode() ||
+                type == MysqlColType.MYSQL_TYPE_TIMESTAMP.getCode()) {
+            return readDatetime(packet, type == MysqlColType.MYSQL_TYPE_DATE.getCode());
+        } else if (type == MysqlColType.MYSQL_TYPE_TIME.getCode()) {
+            return new StringLiteral(readTime(packet));
+        } else if (type == MysqlColType.MYSQL_TYPE_DECIMAL.getCode() ||
+                type == MysqlColType.MYSQL_TYPE_NEWDECIMAL.getCode()) {
+            String value = new String(MysqlProto.readLenEncodedString(packet), StandardCharsets.UTF_8);
+            return new DecimalLiteral(new BigDecimal(value.trim()));
+        } else {
+            // strings and blobs
+            return new StringLiteral(new String(MysqlProto.readLenEncodedString(packet), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static DateLiteral readDatetime(ByteBuffer packet, boolean isDate) throws AnalysisException {
+        int length = MysqlProto.readInt1(packet);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(packet);
+            month = MysqlProto.readInt1(packet);
+            day = MysqlProto.readInt1(packet);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(packet);
+            minute = MysqlProto.readInt1(packet);
+            second = MysqlProto.readInt1(packet);
+        }
+        if (length >= 11) {
+            microsecond = MysqlProto.readInt4(packet);
+        }
+        if (isDate) {
+            return new DateLiteral(String.format("%04d-%02d-%02d", year, month, day), Type.DATE);
+        }
+        String datetime = String.format("%04d-%02d-%02d %02d:%02d:%02d", year, month, day, hour, minute, second);
+        if (microsecond > 0) {
+            datetime += String.format(".%06d", microsecond);
+        }
+        return new DateLiteral(datetime, Type.DATETIME);
+    }
+
+    private static String readTime(ByteBuffer packet) {
+        int length = MysqlProto.readInt1(packet);
+        boolean negative = false;
+        long hours = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 8) {
+            negative = MysqlProto.readInt1(packet) == 1;
+            hours = (MysqlProto.readInt4(packet) & 0xFFFFFFFFL) * 24 + MysqlProto.readInt1(packet);
+            minute = MysqlProto.readInt1(packet);
+            second = MysqlProto.readInt1(packet);
+        }
+        if (length >= 12) {
+            microsecond = MysqlProto.readInt4(packet);
+        }
+        String time = String.format("%s%02d:%02d:%02d", negative ? "-" : "", hours, minute, second);
+        if (microsecond > 0) {
+            time += String.format(".%06d", microsecond);
+        }
+        return time;
+    }
+
+    // The table resolved by the analyzer, with the definition used by the analyzed statement
+    private static class ResolvedTable {
+        private final Table table;
+        private final List<Column> schema;
+        private final String viewDefinition;
+
+        ResolvedTable(Table table) {
+            this.table = table;
+            this.schema = Lists.newArrayList(table.getFullSchema());
+            this.viewDefinition = table instanceof View ? ((View) table).getInlineViewDef() : null;
+        }
+
+        boolean isSame(Table current) {
+            if (current != table || !schema.equals(current.getFullSchema())) {
+                return false;
+            }
+            return !(current instanceof View) || Objects.equals(viewDefinition, ((View) current).getInlineViewDef());
+        }
+    }
+}
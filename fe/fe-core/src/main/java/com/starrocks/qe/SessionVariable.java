@@ -217,6 +217,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_ENABLE_DP_JOIN_REORDER = "cbo_enable_dp_join_reorder";
     public static final String CBO_MAX_REORDER_NODE_USE_DP = "cbo_max_reorder_node_use_dp";
     public static final String CBO_ENABLE_GREEDY_JOIN_REORDER = "cbo_enable_greedy_join_reorder";
+    public static final String CBO_ENABLE_PARALLEL_JOIN_REORDER = "cbo_enable_parallel_join_reorder";
     public static final String CBO_ENABLE_REPLICATED_JOIN = "cbo_enable_replicated_join";
     public static final String CBO_USE_CORRELATED_JOIN_ESTIMATE = "cbo_use_correlated_join_estimate";
     public static final String CBO_ENABLE_LOW_CARDINALITY_OPTIMIZE = "cbo_enable_low_cardinality_optimize";
@@ -225,6 +226,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_CTE_REUSE_RATE = "cbo_cte_reuse_rate";
     public static final String CBO_CTE_MAX_LIMIT = "cbo_cte_max_limit";
     public static final String ENABLE_SQL_DIGEST = "enable_sql_digest";
+    public static final String ENABLE_PLAN_CACHE = "enable_plan_cache";
     public static final String CBO_MAX_REORDER_NODE = "cbo_max_reorder_node";
     public static final String CBO_PRUNE_SHUFFLE_COLUMN_RATE = "cbo_prune_shuffle_column_rate";
     public static final String CBO_PUSH_DOWN_AGGREGATE_MODE = "cbo_push_down_aggregate_mode";
@@ -285,6 +287,11 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String QUERY_CACHE_FORCE_POPULATE = "query_cache_force_populate";
     public static final String QUERY_CACHE_ENTRY_MAX_BYTES = "query_cache_entry_max_bytes";
     public static final String QUERY_CACHE_ENTRY_MAX_ROWS = "query_cache_entry_max_rows";
+
+    public static final String ENABLE_MATERIALIZED_VIEW_REWRITE = "enable_materialized_view_rewrite";
+    public static final String ENABLE_MATERIALIZED_VIEW_UNION_REWRITE = "enable_materialized_view_union_rewrite";
+
+    public static final String ENABLE_FOLLOWER_READ_YOUR_WRITES = "enable_follower_read_your_writes";
     public static final List<String> DEPRECATED_VARIABLES = ImmutableList.<String>builder()
             .add(CODEGEN_LEVEL)
             .add(ENABLE_SPILLING)
@@ -492,6 +499,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VarAttr(name = ENABLE_SQL_DIGEST, flag = VariableMgr.INVISIBLE)
     private boolean enableSQLDigest = false;
 
+    // Reuse the exec plan of the same query text in current session if the tables are not changed
+    @VarAttr(name = ENABLE_PLAN_CACHE)
+    private boolean enablePlanCache = false;
+
     /*
      * the parallel exec instance num for one Fragment in one BE
      * 1 means disable this feature
@@ -561,6 +572,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_ENABLE_GREEDY_JOIN_REORDER, flag = VariableMgr.INVISIBLE)
     private boolean cboEnableGreedyJoinReorder = true;
 
+    // Run DP and greedy join reorder algorithms concurrently instead of one by one
+    @VariableMgr.VarAttr(name = CBO_ENABLE_PARALLEL_JOIN_REORDER)
+    private boolean cboEnableParallelJoinReorder = false;
+
     @VariableMgr.VarAttr(name = CBO_DEBUG_ALIVE_BACKEND_NUMBER, flag = VariableMgr.INVISIBLE)
     private int cboDebugAliveBackendNumber = 0;
 
@@ -688,6 +703,19 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VarAttr(name = QUERY_CACHE_ENTRY_MAX_ROWS)
     private long queryCacheEntryMaxRows = 409600;
 
+    // rewrite the queries over the base tables to use the async materialized views
+    @VarAttr(name = ENABLE_MATERIALIZED_VIEW_REWRITE)
+    private boolean enableMaterializedViewRewrite = true;
+
+    // the stale partitions of async materialized views are compensated by the base tables with union all
+    @VarAttr(name = ENABLE_MATERIALIZED_VIEW_UNION_REWRITE)
+    private boolean enableMaterializedViewUnionRewrite = true;
+
+    // on the non-leader FE, wait for the journals of the last write of the session to be replayed before reading,
+    // and read the metadata locally instead of forwarding to the leader if possible
+    @VarAttr(name = ENABLE_FOLLOWER_READ_YOUR_WRITES)
+    private boolean enableFollowerReadYourWrites = false;
+
     public void setCboCTEMaxLimit(int cboCTEMaxLimit) {
         this.cboCTEMaxLimit = cboCTEMaxLimit;
     }
@@ -957,6 +985,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.cboEnableGreedyJoinReorder = true;
     }
 
+    public boolean isCboEnableParallelJoinReorder() {
+        return cboEnableParallelJoinReorder;
+    }
+
+    public void setCboEnableParallelJoinReorder(boolean cboEnableParallelJoinReorder) {
+        this.cboEnableParallelJoinReorder = cboEnableParallelJoinReorder;
+    }
+
     public int getCboMaxReorderNode() {
         return cboMaxReorderNode;
     }
@@ -1212,6 +1248,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return enableSQLDigest;
     }
 
+    public boolean isEnablePlanCache() {
+        return enablePlanCache;
+    }
+
+    public void setEnablePlanCache(boolean enablePlanCache) {
+        this.enablePlanCache = enablePlanCache;
+    }
+
     public void enableJoinReorder(boolean value) {
         this.disableJoinReorder = !value;
     }
@@ -1281,6 +1325,30 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         enableQueryCache = on;
     }
 
+    public boolean isEnableMaterializedViewRewrite() {
+        return enableMaterializedViewRewrite;
+    }
+
+    public void setEnableMaterializedViewRewrite(boolean enableMaterializedViewRewrite) {
+        this.enableMaterializedViewRewrite = enableMaterializedViewRewrite;
+    }
+
+    public boolean isEnableFollowerReadYourWrites() {
+        return enableFollowerReadYourWrites;
+    }
+
+    public void setEnableFollowerReadYourWrites(boolean enableFollowerReadYourWrites) {
+        this.enableFollowerReadYourWrites = enableFollowerReadYourWrites;
+    }
+
+    public boolean isEnableMaterializedViewUnionRewrite() {
+        return enableMaterializedViewUnionRewrite;
+    }
+
+    public void setEnableMaterializedViewUnionRewrite(boolean enableMaterializedViewUnionRewrite) {
+        this.enableMaterializedViewUnionRewrite = enableMaterializedViewUnionRewrite;
+    }
+
     public boolean isQueryCacheForcePopulate() {
         return queryCacheForcePopulate;
     }
@@ -21,6 +21,7 @@
 
 package com.starrocks.qe;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
@@ -32,6 +33,7 @@ import com.starrocks.analysis.StringLiteral;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.ExternalOlapTable;
+import com.starrocks.catalog.MaterializedView;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.ResourceGroup;
 import com.starrocks.catalog.ScalarType;
@@ -70,6 +72,7 @@ import com.starrocks.persist.gson.GsonUtils;
 import com.starrocks.planner.OlapScanNode;
 import com.starrocks.planner.OlapTableSink;
 import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.ResultSink;
 import com.starrocks.planner.ScanNode;
 import com.starrocks.proto.PQueryStatistics;
 import com.starrocks.proto.QueryStatisticsItemPB;
@@ -162,10 +165,15 @@ public class StmtExecutor {
     private final MysqlSerializer serializer;
     private final OriginStatement originStmt;
     private StatementBase parsedStmt;
+    // The statement prepared by COM_STMT_PREPARE, whose rows are sent in binary protocol
+    private ServerPreparedStatement preparedStmt = null;
     private RuntimeProfile profile;
     private Coordinator coord = null;
     private LeaderOpExecutor leaderOpExecutor = null;
     private RedirectStatus redirectStatus = null;
+    // the results of waiting for the last write of the session to be replayed, see syncLastWrite()
+    private boolean forwardForLastWrite = false;
+    private boolean readLocallyAfterSync = false;
     private final boolean isProxy;
     private List<ByteBuffer> proxyResultBuffer = null;
     private ShowResultSet proxyResultSet = null;
@@ -196,6 +204,12 @@ public class StmtExecutor {
         this.isProxy = false;
     }
 
+    // constructor for executing the prepared statement by COM_STMT_EXECUTE
+    public StmtExecutor(ConnectContext ctx, ServerPreparedStatement preparedStmt) {
+        this(ctx, preparedStmt.getStatement(ctx));
+        this.preparedStmt = preparedStmt;
+    }
+
     // At the end of query execution, we begin to add up profile
     public void initProfile(long beginTimeInNanoSecond) {
         profile = new RuntimeProfile("Query");
@@ -260,9 +274,25 @@ public class StmtExecutor {
         // this is a query stmt, but this non-master FE can not read, forward it to master
         if (parsedStmt instanceof QueryStatement && !GlobalStateMgr.getCurrentState().isLeader()
                 && !GlobalStateMgr.getCurrentState().canRead()) {
+            if (preparedStmt != null) {
+                throw new StarRocksPlannerException("The prepared statement can not be executed, because this FE " +
+                        "can not read and its binary rows can not be forwarded to leader", ErrorType.USER_ERROR);
+            }
             return true;
         }
 
+        // The rows of prepared statement are encoded in binary protocol by the BE of this FE
+        if (preparedStmt != null) {
+            return false;
+        }
+
+        if (forwardForLastWrite) {
+            return true;
+        }
+        if (readLocallyAfterSync) {
+            return false;
+        }
+
         if (redirectStatus == null) {
             return false;
         } else {
@@ -270,6 +300,52 @@ public class StmtExecutor {
         }
     }
 
+    @VisibleForTesting
+    void initRedirectStatus() {
+        redirectStatus = parsedStmt.getRedirectStatus();
+        syncLastWrite();
+    }
+
+    /**
+     * If the session enables enable_follower_read_your_writes, the non-leader FE waits for the journals of the last
+     * write of the session to be replayed, so that the query reads its writes, and the statements which only read
+     * the replicated metadata are executed locally instead of being forwarded to the leader.
+     * If the journals are not replayed in time, the statement is forwarded to the leader.
+     */
+    private void syncLastWrite() {
+        forwardForLastWrite = false;
+        readLocallyAfterSync = false;
+        GlobalStateMgr globalStateMgr = GlobalStateMgr.getCurrentState();
+        if (globalStateMgr.isLeader() || !context.getSessionVariable().isEnableFollowerReadYourWrites()) {
+            return;
+        }
+        boolean isQuery = parsedStmt instanceof QueryStatement;
+        if (!isQuery && (redirectStatus == null || !redirectStatus.isReadableAfterSync())) {
+            return;
+        }
+
+        long lastWriteJournalId = context.getLastWriteJournalId();
+        int maxWaitMs = Config.follower_read_your_writes_max_wait_ms;
+        // waitOn returns immediately without waiting if the timeout is not positive
+        if (lastWriteJournalId > globalStateMgr.getReplayedJournalId() && maxWaitMs > 0) {
+            try {
+                globalStateMgr.getJournalObservable().waitOn(lastWriteJournalId, maxWaitMs);
+            } catch (DdlException e) {
+                // checked below
+            }
+        }
+        boolean synced = globalStateMgr.getReplayedJournalId() >= lastWriteJournalId;
+        if (!synced) {
+            LOG.info("journal {} of the last write is not replayed in {} ms, forward stmt {} to leader",
+                    lastWriteJournalId, maxWaitMs, context.getStmtId());
+        }
+        if (isQuery) {
+            forwardForLastWrite = !synced;
+        } else {
+            readLocallyAfterSync = synced;
+        }
+    }
+
     public ByteBuffer getOutputPacket() {
         if (leaderOpExecutor == null) {
             return null;
@@ -342,7 +418,7 @@ public class StmtExecutor {
             boolean execPlanBuildByNewPlanner = false;
 
             try (PlannerProfile.ScopedTimer _ = PlannerProfile.getScopedTimer("Total")) {
-                redirectStatus = parsedStmt.getRedirectStatus();
+                initRedirectStatus();
                 if (!isForwardToLeader()) {
                     context.getDumpInfo().reset();
                     context.getDumpInfo().setOriginStmt(parsedStmt.getOrigStmt().originStmt);
@@ -355,6 +431,12 @@ public class StmtExecutor {
                             parsedStmt = selectStmt;
                             execPlan = StatementPlanner.plan(parsedStmt, context);
                         }
+                    } else if (preparedStmt != null) {
+                        execPlan = StatementPlanner.plan(preparedStmt, context);
+                        // The statement may be parsed again when planning
+                        parsedStmt = preparedStmt.getStatement(context);
+                        // The rows are encoded in binary protocol by BE
+                        ((ResultSink) execPlan.getFragments().get(0).getSink()).setBinaryRow(true);
                     } else {
                         execPlan = StatementPlanner.plan(parsedStmt, context);
                     }
@@ -681,10 +763,23 @@ public class StmtExecutor {
             // Return error message to client.
             context.getState().setError(e.getMessage());
             return;
+        } finally {
+            // The cached plans depend on session and user variables
+            context.getPlanCache().clear();
         }
         context.getState().setOk();
     }
 
+    // Count the reads of lake partitions by the executed query, which raise the compaction score of the partitions.
+    private void handleLakePartitionsRead(List<ScanNode> scanNodes) {
+        for (ScanNode scanNode : scanNodes) {
+            if (scanNode instanceof OlapScanNode && ((OlapScanNode) scanNode).getOlapTable().isLakeTable()) {
+                GlobalStateMgr.getCurrentState().getCompactionManager()
+                        .handlePartitionsRead(((OlapScanNode) scanNode).getSelectedPartitionIds());
+            }
+        }
+    }
+
     // Process a select statement.
     private void handleQueryStmt(ExecPlan execPlan) throws Exception {
         // Every time set no send flag and clean all data in buffer
@@ -711,6 +806,7 @@ public class StmtExecutor {
                 new QeProcessorImpl.QueryInfo(context, originStmt.originStmt, coord));
 
         coord.exec();
+        handleLakePartitionsRead(scanNodes);
 
         // send result
         // 1. If this is a query with OUTFILE clause, eg: select * from tbl1 into outfile xxx,
@@ -1395,12 +1491,16 @@ public class StmtExecutor {
                 }
                 // TODO: wait remote txn finished
             } else {
+                // the versions refreshed by an insert overwrite are committed with the replace of partitions
+                Map<Long, Map<String, MaterializedView.BasePartitionInfo>> mvBaseTableVersionMap =
+                        stmt instanceof InsertStmt && !((InsertStmt) stmt).isOverwrite() ?
+                                ((InsertStmt) stmt).getMvBaseTableVersionMap() : null;
                 if (GlobalStateMgr.getCurrentGlobalTransactionMgr().commitAndPublishTransaction(
                         database,
                         transactionId,
                         TabletCommitInfo.fromThrift(coord.getCommitInfos()),
                         context.getSessionVariable().getTransactionVisibleWaitTimeout() * 1000,
-                        new InsertTxnCommitAttachment(loadedRows))) {
+                        new InsertTxnCommitAttachment(loadedRows, mvBaseTableVersionMap))) {
                     txnStatus = TransactionStatus.VISIBLE;
                     MetricRepo.COUNTER_LOAD_FINISHED.increase(1L);
                     // collect table-level metrics
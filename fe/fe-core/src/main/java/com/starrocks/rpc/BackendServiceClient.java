@@ -91,7 +91,11 @@ public class BackendServiceClient {
             throws TException, RpcException {
         final PExecBatchPlanFragmentsRequest pRequest = new PExecBatchPlanFragmentsRequest();
         pRequest.setRequest(tRequest);
+        return execBatchPlanFragmentsAsync(address, pRequest);
+    }
 
+    public Future<PExecBatchPlanFragmentsResult> execBatchPlanFragmentsAsync(
+            TNetworkAddress address, PExecBatchPlanFragmentsRequest pRequest) throws RpcException {
         Future<PExecBatchPlanFragmentsResult> resultFuture = null;
         for (int i = 1; i <= Config.max_query_retry_time && resultFuture == null; ++i) {
             try {
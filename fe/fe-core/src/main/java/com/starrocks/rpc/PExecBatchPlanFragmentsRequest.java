@@ -2,8 +2,17 @@
 
 package com.starrocks.rpc;
 
+import com.baidu.bjf.remoting.protobuf.annotation.Protobuf;
 import com.baidu.bjf.remoting.protobuf.annotation.ProtobufClass;
 
 @ProtobufClass
 public class PExecBatchPlanFragmentsRequest extends AttachmentRequest {
+    // the value of CompressionTypePB
+    public static final int COMPRESSION_ZLIB = 6;
+
+    @Protobuf(order = 1)
+    public Integer attachmentCompressionType;
+
+    @Protobuf(order = 2)
+    public Long attachmentUncompressedSize;
 }
@@ -0,0 +1,302 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.scheduler;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.FunctionCallExpr;
+import com.starrocks.analysis.Subquery;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.KeysType;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Pair;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.ast.JoinRelation;
+import com.starrocks.sql.ast.QueryRelation;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.Relation;
+import com.starrocks.sql.ast.SelectRelation;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.ast.TableRelation;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.sql.plan.ExecPlan;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental refresh of an async materialized view, which only reads the rows appended to its base table since the
+ * last refresh instead of recomputing the affected partitions. It is only possible if
+ * 1. all the base tables are olap tables and only one of them has changed, which is a duplicate key table with
+ *    no delete, and none of its refreshed partitions is dropped or replaced since the last refresh
+ * 2. the defining query is an inner join of the base tables, and if it is aggregated, all the aggregations are
+ *    sum, count, min or max, so that the aggregated appended rows could be merged into the materialized view
+ * The result of the appended rows is inserted into the materialized view directly, or merged with the affected
+ * partitions of the materialized view to overwrite them if the defining query is aggregated. Either way the
+ * refreshed versions of the base tables are committed with the data, by the commit attachment of the insert txn or
+ * by the log of the overwrite, so the appended rows are never merged twice.
+ */
+class MvIncrementalRefresh {
+    private static final Logger LOG = LogManager.getLogger(MvIncrementalRefresh.class);
+
+    // aggregation of the defining query -> the function merging its results
+    private static final Map<String, String> MERGE_FUNCTIONS = ImmutableMap.of(
+            FunctionSet.SUM, FunctionSet.SUM,
+            FunctionSet.COUNT, FunctionSet.SUM,
+            FunctionSet.MIN, FunctionSet.MIN,
+            FunctionSet.MAX, FunctionSet.MAX);
+
+    private final MaterializedView mv;
+    private final OlapTable changedTable;
+    private final Set<String> changedPartitionNames;
+    // partition id of the changed table -> the first version not refreshed, the new partitions are read entirely
+    private final Map<Long, Long> fromVersions;
+    // output column name -> merge function, null for the group by columns. null if the query is not aggregated
+    private final Map<String, String> mergeFunctions;
+
+    private MvIncrementalRefresh(MaterializedView mv, OlapTable changedTable, Set<String> changedPartitionNames,
+                                 Map<Long, Long> fromVersions, Map<String, String> mergeFunctions) {
+        this.mv = mv;
+        this.changedTable = changedTable;
+        this.changedPartitionNames = changedPartitionNames;
+        this.fromVersions = fromVersions;
+        this.mergeFunctions = mergeFunctions;
+    }
+
+    /**
+     * Return null if the materialized view could not be refreshed incrementally.
+     *
+     * @param baseTables the snapshot of the base tables, table id -> <base table info, snapshot table>
+     */
+    static MvIncrementalRefresh create(MaterializedView mv,
+                                       Map<Long, Pair<MaterializedView.BaseTableInfo, Table>> baseTables,
+                                       ConnectContext ctx) {
+        OlapTable changedTable = null;
+        for (Pair<MaterializedView.BaseTableInfo, Table> tablePair : baseTables.values()) {
+            Table table = tablePair.second;
+            // the source partitions of the refresh are set by table name
+            if (!table.isOlapTable() || table.getName().equals(mv.getName())) {
+                return null;
+            }
+            if (mv.getNeedRefreshPartitionNames(table).isEmpty()) {
+                continue;
+            }
+            if (changedTable != null) {
+                return null;
+            }
+            changedTable = (OlapTable) table;
+        }
+        // the rows deleted or updated could not be removed from the materialized view incrementally
+        if (changedTable == null || changedTable.getKeysType() != KeysType.DUP_KEYS || changedTable.hasDelete()) {
+            return null;
+        }
+
+        Map<String, MaterializedView.BasePartitionInfo> refreshedPartitions = mv.getRefreshScheme()
+                .getAsyncRefreshContext().getBaseTableVisibleVersionMap().get(changedTable.getId());
+        if (refreshedPartitions == null || refreshedPartitions.isEmpty()) {
+            return null;
+        }
+        Set<String> changedPartitionNames = Sets.newHashSet();
+        Map<Long, Long> fromVersions = Maps.newHashMap();
+        for (Map.Entry<String, MaterializedView.BasePartitionInfo> entry : refreshedPartitions.entrySet()) {
+            Partition partition = changedTable.getPartition(entry.getKey());
+            MaterializedView.BasePartitionInfo partitionInfo = entry.getValue();
+            if (partition == null || partition.getId() != partitionInfo.getId() ||
+                    partition.getVisibleVersion() < partitionInfo.getVersion()) {
+                return null;
+            }
+            if (partition.getVisibleVersion() > partitionInfo.getVersion()) {
+                changedPartitionNames.add(partition.getName());
+                fromVersions.put(partition.getId(), partitionInfo.getVersion() + 1);
+            }
+        }
+        for (Partition partition : changedTable.getPartitions()) {
+            if (!refreshedPartitions.containsKey(partition.getName())) {
+                changedPartitionNames.add(partition.getName());
+            }
+        }
+
+        Map<String, String> mergeFunctions;
+        try {
+            StatementBase stmt = SqlParser.parse(mv.getViewDefineSql(), ctx.getSessionVariable()).get(0);
+            Analyzer.analyze(stmt, ctx);
+            mergeFunctions = getMergeFunctions(((QueryStatement) stmt).getQueryRelation(), changedTable);
+        } catch (Exception e) {
+            LOG.debug("failed to analyze the defining query of materialized view {}", mv.getName(), e);
+            return null;
+        }
+        if (mergeFunctions == null) {
+            return null;
+        }
+        return new MvIncrementalRefresh(mv, changedTable, changedPartitionNames, fromVersions,
+                mergeFunctions.isEmpty() ? null : mergeFunctions);
+    }
+
+    /**
+     * Return null if the result of the appended rows could not be merged into the materialized view, or an empty
+     * map if the query is not aggregated.
+     */
+    private static Map<String, String> getMergeFunctions(QueryRelation query, OlapTable changedTable) {
+        if (!(query instanceof SelectRelation) || query.hasLimit() || query.hasOrderByClause() ||
+                query.hasWithClause()) {
+            return null;
+        }
+        SelectRelation select = (SelectRelation) query;
+        if (select.isDistinct() || select.hasHavingClause() || select.hasAnalyticInfo() ||
+                (select.getGroupingSetsList() != null && !select.getGroupingSetsList().isEmpty()) ||
+                (select.getPredicate() != null && select.getPredicate().contains(Subquery.class))) {
+            return null;
+        }
+        List<TableRelation> tableRelations = Lists.newArrayList();
+        if (!collectInnerJoinedTables(select.getRelation(), tableRelations) ||
+                tableRelations.stream().filter(r -> r.getTable().getId() == changedTable.getId()).count() != 1) {
+            return null;
+        }
+
+        Map<String, String> mergeFunctions = Maps.newLinkedHashMap();
+        if (!select.hasAggregation()) {
+            return mergeFunctions;
+        }
+        List<String> outputNames = query.getColumnOutputNames();
+        List<Expr> outputExprs = select.getOutputExpr();
+        if (!outputExprs.containsAll(select.getGroupBy())) {
+            return null;
+        }
+        for (int i = 0; i < outputExprs.size(); i++) {
+            Expr expr = outputExprs.get(i);
+            if (select.getGroupBy().contains(expr)) {
+                mergeFunctions.put(outputNames.get(i), null);
+            } else if (expr instanceof FunctionCallExpr && select.getAggregate().contains(expr) &&
+                    !((FunctionCallExpr) expr).isDistinct() &&
+                    MERGE_FUNCTIONS.containsKey(((FunctionCallExpr) expr).getFnName().getFunction())) {
+                mergeFunctions.put(outputNames.get(i),
+                        MERGE_FUNCTIONS.get(((FunctionCallExpr) expr).getFnName().getFunction()));
+            } else {
+                return null;
+            }
+        }
+        return mergeFunctions;
+    }
+
+    private static boolean collectInnerJoinedTables(Relation relation, List<TableRelation> tableRelations) {
+        if (relation instanceof TableRelation) {
+            tableRelations.add((TableRelation) relation);
+            return true;
+        } else if (relation instanceof JoinRelation) {
+            JoinRelation join = (JoinRelation) relation;
+            if (!(join.getJoinOp().isInnerJoin() || join.getJoinOp().isCrossJoin()) || join.isLateral() ||
+                    (join.getOnPredicate() != null && join.getOnPredicate().contains(Subquery.class))) {
+                return false;
+            }
+            return collectInnerJoinedTables(join.getLeft(), tableRelations) &&
+                    collectInnerJoinedTables(join.getRight(), tableRelations);
+        }
+        return false;
+    }
+
+    /**
+     * The insert statement of the refresh, which reads the appended rows of the changed table.
+     */
+    String getDefinition() {
+        if (mergeFunctions == null) {
+            return "insert into " + mv.getName() + " " + mv.getViewDefineSql();
+        }
+        List<String> columns = Lists.newArrayList();
+        List<String> mergedColumns = Lists.newArrayList();
+        List<String> groupByColumns = Lists.newArrayList();
+        for (Map.Entry<String, String> entry : mergeFunctions.entrySet()) {
+            String column = "`" + entry.getKey() + "`";
+            columns.add(column);
+            if (entry.getValue() == null) {
+                mergedColumns.add(column);
+                groupByColumns.add(column);
+            } else {
+                mergedColumns.add(entry.getValue() + "(" + column + ") AS " + column);
+            }
+        }
+        String definition = "insert overwrite " + mv.getName() + " SELECT " + String.join(", ", mergedColumns) +
+                " FROM (SELECT " + String.join(", ", columns) + " FROM " + mv.getName() +
+                " UNION ALL (" + mv.getViewDefineSql() + ")) t";
+        if (!groupByColumns.isEmpty()) {
+            definition += " GROUP BY " + String.join(", ", groupByColumns);
+        }
+        return definition;
+    }
+
+    /**
+     * table name -> the partitions to read, only the changed partitions of the changed table are read, and the
+     * partitions to refresh of the materialized view are read to merge with the aggregated appended rows.
+     */
+    Map<String, Set<String>> getSourceTablePartitions(Map<Long, Pair<MaterializedView.BaseTableInfo, Table>> baseTables,
+                                                      Set<String> mvPartitionNames) {
+        Map<String, Set<String>> tableNamePartitionNames = Maps.newHashMap();
+        for (Pair<MaterializedView.BaseTableInfo, Table> tablePair : baseTables.values()) {
+            OlapTable olapTable = (OlapTable) tablePair.second;
+            if (olapTable.getId() == changedTable.getId()) {
+                tableNamePartitionNames.put(olapTable.getName(), changedPartitionNames);
+            } else {
+                tableNamePartitionNames.put(olapTable.getName(), olapTable.getPartitionNames());
+            }
+        }
+        if (mergeFunctions != null) {
+            tableNamePartitionNames.put(mv.getName(), mvPartitionNames);
+        }
+        return tableNamePartitionNames;
+    }
+
+    /**
+     * table id -> (partition id -> (from version, to version)), to be set into the context planning the refresh.
+     * The to versions are not set, so the visible versions are read.
+     */
+    Map<Long, Map<Long, Pair<Long, Long>>> getIncrementalScanVersions() {
+        Map<Long, Pair<Long, Long>> partitionVersions = Maps.newHashMap();
+        fromVersions.forEach((partitionId, fromVersion) ->
+                partitionVersions.put(partitionId, Pair.create(fromVersion, null)));
+        Map<Long, Map<Long, Pair<Long, Long>>> scanVersions = Maps.newHashMap();
+        scanVersions.put(changedTable.getId(), partitionVersions);
+        return scanVersions;
+    }
+
+    /**
+     * The scan versions of the changed table pinned to the versions read by the planned refresh. The insert
+     * overwrite is planned again when executed, and must read the same rows as the versions recorded for it.
+     */
+    Map<Long, Map<Long, Pair<Long, Long>>> getIncrementalScanVersions(ExecPlan execPlan) {
+        Map<Long, Pair<Long, Long>> partitionVersions = Maps.newHashMap();
+        for (ScanNode scanNode : execPlan.getScanNodes()) {
+            if (!(scanNode instanceof OlapScanNode) ||
+                    ((OlapScanNode) scanNode).getOlapTable().getId() != changedTable.getId()) {
+                continue;
+            }
+            OlapScanNode olapScanNode = (OlapScanNode) scanNode;
+            Iterator<Long> versions = olapScanNode.getSelectedPartitionVersions().iterator();
+            for (long partitionId : olapScanNode.getSelectedPartitionIds()) {
+                partitionVersions.put(partitionId, Pair.create(fromVersions.get(partitionId), versions.next()));
+            }
+        }
+        Map<Long, Map<Long, Pair<Long, Long>>> scanVersions = Maps.newHashMap();
+        scanVersions.put(changedTable.getId(), partitionVersions);
+        return scanVersions;
+    }
+
+    @Override
+    public String toString() {
+        return "MvIncrementalRefresh{mv=" + mv.getName() + ", changedTable=" + changedTable.getName() +
+                ", changedPartitions=" + changedPartitionNames.stream().sorted().collect(Collectors.toList()) +
+                ", aggregated=" + (mergeFunctions != null) + "}";
+    }
+}
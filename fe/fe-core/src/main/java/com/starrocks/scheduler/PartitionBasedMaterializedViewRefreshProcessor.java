@@ -25,6 +25,7 @@ import com.starrocks.catalog.PartitionKey;
 import com.starrocks.catalog.SinglePartitionInfo;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.common.io.DeepCopy;
@@ -34,6 +35,7 @@ import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
 import com.starrocks.planner.OlapScanNode;
 import com.starrocks.planner.ScanNode;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.QueryState.MysqlStateType;
 import com.starrocks.qe.StmtExecutor;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.StatementPlanner;
@@ -86,18 +88,84 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
     // table id -> <base table info, snapshot table>
     private Map<Long, Pair<MaterializedView.BaseTableInfo, Table>> snapshotBaseTables;
 
+    // plan of the current refresh
+    private InsertStmt insertStmt;
+    private ExecPlan execPlan;
+    private boolean isIncrementalRefresh;
+    // base table id -> (partition name -> partition info) of the base tables refreshed by the plan
+    private Map<Long, Map<String, MaterializedView.BasePartitionInfo>> refreshedVersionMap;
+
     // Core logics:
     // 1. prepare to check some conditions
     // 2. sync partitions with base tables(add or drop partitions, which will be optimized  by dynamic partition creation later)
     // 3. decide which partitions of materialized view to refresh and the corresponding base tables' source partitions
-    // 4. construct the refresh sql and execute it
-    // 5. update the source table version map if refresh task completes successfully
+    // 4. construct the refresh sql and execute it, only read the appended rows of base table if possible
+    // 5. update the source table version map if refresh task completes successfully, it is committed with the data
+    //    by the incremental refresh
     @Override
     public void processTaskRun(TaskRunContext context) throws Exception {
         prepare(context);
 
-        InsertStmt insertStmt = null;
-        ExecPlan execPlan = null;
+        if (!planRefresh(Config.enable_mv_incremental_refresh)) {
+            return;
+        }
+
+        // execute the ExecPlan of insert outside lock
+        ConnectContext ctx = mvContext.getCtx();
+        boolean incrementalRefreshFailed = false;
+        try {
+            refreshMaterializedView(mvContext, execPlan, insertStmt);
+            incrementalRefreshFailed = isIncrementalRefresh && ctx.getState().getStateType() == MysqlStateType.ERR;
+        } catch (Exception e) {
+            if (!isIncrementalRefresh) {
+                throw e;
+            }
+            ctx.getState().setError(e.getMessage());
+            incrementalRefreshFailed = true;
+        } finally {
+            ctx.setIncrementalScanVersions(null);
+        }
+        if (incrementalRefreshFailed) {
+            // e.g. there is a delete on the base table since the last refresh
+            LOG.warn("incremental refresh of materialized view:{} failed: {}, fall back to full refresh",
+                    materializedView.getName(), ctx.getState().getErrorMessage());
+            ctx.getState().reset();
+            if (!planRefresh(false)) {
+                return;
+            }
+            refreshMaterializedView(mvContext, execPlan, insertStmt);
+        }
+
+        // The incremental refresh commits the version map with the data, or the rows appended would be merged
+        // again if the FE crashes before the meta is updated. It is not committed if there is no data to load.
+        if (isIncrementalRefresh && isVersionMapCommitted()) {
+            return;
+        }
+        // insert execute successfully, update the meta of materialized view according to ExecPlan
+        updateMeta();
+    }
+
+    // the version maps of the refreshed tables are put into the materialized view when the refresh is committed
+    private boolean isVersionMapCommitted() {
+        Map<Long, Map<String, MaterializedView.BasePartitionInfo>> currentVersionMap =
+                materializedView.getRefreshScheme().getAsyncRefreshContext().getBaseTableVisibleVersionMap();
+        database.readLock();
+        try {
+            return refreshedVersionMap.entrySet().stream()
+                    .allMatch(entry -> currentVersionMap.get(entry.getKey()) == entry.getValue());
+        } finally {
+            database.readUnlock();
+        }
+    }
+
+    /**
+     * Generate the insert stmt and its ExecPlan of the refresh, return false if there is nothing to refresh.
+     */
+    private boolean planRefresh(boolean allowIncremental) throws Exception {
+        insertStmt = null;
+        execPlan = null;
+        isIncrementalRefresh = false;
+        refreshedVersionMap = null;
         int retryNum = 0;
         boolean checked = false;
         while (!checked) {
@@ -129,29 +197,43 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
                 LOG.debug("materialized view partitions to refresh:{}", partitionsToRefresh);
                 if (partitionsToRefresh.isEmpty()) {
                     LOG.info("no partitions to refresh for materialized view {}", materializedView.getName());
-                    return;
+                    return false;
                 }
 
-                Map<String, Set<String>> sourceTablePartitions = getSourceTablePartitions(partitionsToRefresh);
-                LOG.debug("materialized view:{} source partitions :{}",
-                        materializedView.getName(), sourceTablePartitions);
+                MvIncrementalRefresh incrementalRefresh = allowIncremental ?
+                        MvIncrementalRefresh.create(materializedView, snapshotBaseTables, mvContext.getCtx()) : null;
+                if (incrementalRefresh != null) {
+                    LOG.info("refresh materialized view incrementally: {}", incrementalRefresh);
+                    isIncrementalRefresh = true;
+                    insertStmt = generateInsertStmt(incrementalRefresh.getDefinition(), partitionsToRefresh,
+                            incrementalRefresh.getSourceTablePartitions(snapshotBaseTables, partitionsToRefresh));
+                    // the insert overwrite is planned again when executed, so keep it in the context until then
+                    mvContext.getCtx().setIncrementalScanVersions(incrementalRefresh.getIncrementalScanVersions());
+                } else {
+                    Map<String, Set<String>> sourceTablePartitions = getSourceTablePartitions(partitionsToRefresh);
+                    LOG.debug("materialized view:{} source partitions :{}",
+                            materializedView.getName(), sourceTablePartitions);
+                    insertStmt = generateInsertStmt(mvContext.getDefinition(), partitionsToRefresh,
+                            sourceTablePartitions);
+                }
 
                 // create ExecPlan
-                insertStmt = generateInsertStmt(partitionsToRefresh, sourceTablePartitions);
                 execPlan = generateRefreshPlan(mvContext.getCtx(), insertStmt);
+                refreshedVersionMap = getRefreshedVersionMap(execPlan);
+                if (isIncrementalRefresh) {
+                    // commit the version map with the data, and pin the scan versions for the insert overwrite
+                    // planned again, so that the rows read are the ones recorded by the version map
+                    insertStmt.setMvBaseTableVersionMap(refreshedVersionMap);
+                    mvContext.getCtx().setIncrementalScanVersions(incrementalRefresh.getIncrementalScanVersions(execPlan));
+                }
             } finally {
                 database.readUnlock();
             }
         }
-
-        // execute the ExecPlan of insert outside lock
-        refreshMaterializedView(mvContext, execPlan, insertStmt);
-
-        // insert execute successfully, update the meta of materialized view according to ExecPlan
-        updateMeta(execPlan);
+        return true;
     }
 
-    private void updateMeta(ExecPlan execPlan) {
+    private void updateMeta() {
         // update the meta if succeed
         if (!database.writeLockAndCheckExist()) {
             throw new DmlException("update meta failed. database:" + database.getFullName() + " not exist");
@@ -162,32 +244,10 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
             if (mv == null) {
                 throw new DmlException("update meta failed. materialized view:" + materializedView.getName() + " not exist");
             }
-            MaterializedView.AsyncRefreshContext refreshContext =
-                    materializedView.getRefreshScheme().getAsyncRefreshContext();
-            Map<Long, Map<String, MaterializedView.BasePartitionInfo>> currentVersionMap =
-                    refreshContext.getBaseTableVisibleVersionMap();
-            // should write this to log at one time
-            Map<Long, Map<String, MaterializedView.BasePartitionInfo>> changedTablePartitionInfos =
-                    getSourceTablePartitionInfos(execPlan);
             // update version map of materialized view
-            for (Map.Entry<Long, Map<String, MaterializedView.BasePartitionInfo>> tableEntry
-                    : changedTablePartitionInfos.entrySet()) {
-                Long tableId = tableEntry.getKey();
-                if (!currentVersionMap.containsKey(tableId)) {
-                    currentVersionMap.put(tableId, Maps.newHashMap());
-                }
-                Map<String, MaterializedView.BasePartitionInfo> currentTablePartitionInfo = currentVersionMap.get(tableId);
-                Map<String, MaterializedView.BasePartitionInfo> partitionInfoMap = tableEntry.getValue();
-                currentTablePartitionInfo.putAll(partitionInfoMap);
-
-                // remove partition info of not-exist partition for snapshot table from version map
-                Table snapshotTable = snapshotBaseTables.get(tableId).second;
-                if (snapshotTable.isOlapTable()) {
-                    OlapTable snapshotOlapTable = (OlapTable) snapshotTable;
-                    currentTablePartitionInfo.keySet().removeIf(partitionName ->
-                            !snapshotOlapTable.getPartitionNames().contains(partitionName));
-                }
-            }
+            materializedView.getRefreshScheme().getAsyncRefreshContext()
+                    .updateBaseTableVisibleVersionMap(refreshedVersionMap);
+            // should write this to log at one time
             ChangeMaterializedViewRefreshSchemeLog changeRefreshSchemeLog =
                     new ChangeMaterializedViewRefreshSchemeLog(materializedView);
             GlobalStateMgr.getCurrentState().getEditLog().logMvChangeRefreshScheme(changeRefreshSchemeLog);
@@ -196,6 +256,35 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
         }
     }
 
+    /**
+     * The version maps of the base tables scanned by the plan, which replace the current ones when the refresh
+     * succeeds. The caller must hold the lock of database.
+     */
+    private Map<Long, Map<String, MaterializedView.BasePartitionInfo>> getRefreshedVersionMap(ExecPlan execPlan) {
+        Map<Long, Map<String, MaterializedView.BasePartitionInfo>> currentVersionMap =
+                materializedView.getRefreshScheme().getAsyncRefreshContext().getBaseTableVisibleVersionMap();
+        Map<Long, Map<String, MaterializedView.BasePartitionInfo>> refreshedVersionMap = Maps.newHashMap();
+        for (Map.Entry<Long, Map<String, MaterializedView.BasePartitionInfo>> tableEntry
+                : getSourceTablePartitionInfos(execPlan).entrySet()) {
+            Long tableId = tableEntry.getKey();
+            Map<String, MaterializedView.BasePartitionInfo> tablePartitionInfo = Maps.newHashMap();
+            if (currentVersionMap.containsKey(tableId)) {
+                tablePartitionInfo.putAll(currentVersionMap.get(tableId));
+            }
+            tablePartitionInfo.putAll(tableEntry.getValue());
+
+            // remove partition info of not-exist partition for snapshot table from version map
+            Table snapshotTable = snapshotBaseTables.get(tableId).second;
+            if (snapshotTable.isOlapTable()) {
+                OlapTable snapshotOlapTable = (OlapTable) snapshotTable;
+                tablePartitionInfo.keySet().removeIf(partitionName ->
+                        !snapshotOlapTable.getPartitionNames().contains(partitionName));
+            }
+            refreshedVersionMap.put(tableId, tablePartitionInfo);
+        }
+        return refreshedVersionMap;
+    }
+
     private void prepare(TaskRunContext context) {
         Map<String, String> properties = context.getProperties();
         // NOTE: mvId is set in Task's properties when creating
@@ -437,7 +526,7 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
         return StatementPlanner.plan(insertStmt, ctx);
     }
 
-    private InsertStmt generateInsertStmt(Set<String> materializedViewPartitions,
+    private InsertStmt generateInsertStmt(String definition, Set<String> materializedViewPartitions,
                                           Map<String, Set<String>> sourceTablePartitions) {
         ConnectContext ctx = mvContext.getCtx();
         ctx.getAuditEventBuilder().reset();
@@ -448,7 +537,6 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
                 .setDb(ctx.getDatabase());
         ctx.getPlannerProfile().reset();
         ctx.setThreadLocalInfo();
-        String definition = mvContext.getDefinition();
         InsertStmt insertStmt =
                 (InsertStmt) SqlParser.parse(definition, ctx.getSessionVariable()).get(0);
         insertStmt.setTargetPartitionNames(new PartitionNames(false, new ArrayList<>(materializedViewPartitions)));
@@ -542,6 +630,10 @@ public class PartitionBasedMaterializedViewRefreshProcessor extends BaseTaskRunP
                 Map<String, MaterializedView.BasePartitionInfo> selectedPartitionIdVersions =
                         getSelectedPartitionInfos(olapScanNode);
                 OlapTable olapTable = olapScanNode.getOlapTable();
+                // the materialized view itself is scanned by the incremental refresh of aggregation
+                if (!snapshotBaseTables.containsKey(olapTable.getId())) {
+                    continue;
+                }
                 selectedBasePartitionInfos.put(olapTable.getId(), selectedPartitionIdVersions);
             }
         }
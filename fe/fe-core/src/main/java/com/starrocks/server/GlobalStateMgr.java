@@ -152,6 +152,8 @@ import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
 import com.starrocks.persist.DropPartitionInfo;
 import com.starrocks.persist.EditLog;
 import com.starrocks.persist.GlobalVarPersistInfo;
+import com.starrocks.persist.ImageLoader;
+import com.starrocks.persist.ImageWriter;
 import com.starrocks.persist.ModifyTableColumnOperationLog;
 import com.starrocks.persist.ModifyTablePropertyOperationLog;
 import com.starrocks.persist.MultiEraseTableInfo;
@@ -243,13 +245,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -325,7 +324,7 @@ public class GlobalStateMgr {
 
     private FrontendNodeType feType;
     // replica and observer use this value to decide provide read service or not
-    private long synchronizedTimeMs;
+    private volatile long synchronizedTimeMs;
 
     private CatalogIdGenerator idGenerator = new CatalogIdGenerator(NEXT_ID_INIT_VALUE);
 
@@ -336,6 +335,7 @@ public class GlobalStateMgr {
 
     private static GlobalStateMgr CHECKPOINT = null;
     private static long checkpointThreadId = -1;
+    private static final Set<Long> CHECKPOINT_WORKER_THREAD_IDS = ConcurrentHashMap.newKeySet();
     private Checkpoint checkpointer;
 
     private HAProtocol haProtocol = null;
@@ -728,7 +728,19 @@ public class GlobalStateMgr {
     }
 
     public static boolean isCheckpointThread() {
-        return Thread.currentThread().getId() == checkpointThreadId;
+        long threadId = Thread.currentThread().getId();
+        return threadId == checkpointThreadId ||
+                (!CHECKPOINT_WORKER_THREAD_IDS.isEmpty() && CHECKPOINT_WORKER_THREAD_IDS.contains(threadId));
+    }
+
+    // The threads working for the checkpoint thread, e.g. writing image sections in parallel,
+    // should be registered so that they can get the checkpoint globalStateMgr.
+    public static void registerCheckpointWorkerThread() {
+        CHECKPOINT_WORKER_THREAD_IDS.add(Thread.currentThread().getId());
+    }
+
+    public static void unregisterCheckpointWorkerThread() {
+        CHECKPOINT_WORKER_THREAD_IDS.remove(Thread.currentThread().getId());
     }
 
     public static PluginMgr getCurrentPluginMgr() {
@@ -785,6 +797,10 @@ public class GlobalStateMgr {
         return taskManager;
     }
 
+    public PublishVersionDaemon getPublishVersionDaemon() {
+        return publishVersionDaemon;
+    }
+
     public InsertOverwriteJobManager getInsertOverwriteJobManager() {
         return insertOverwriteJobManager;
     }
@@ -965,7 +981,9 @@ public class GlobalStateMgr {
                 throw new Exception("fencing failed. will exit");
             }
             long maxJournalId = journal.getMaxJournalId();
+            long replayStartTime = System.currentTimeMillis();
             replayJournal(maxJournalId);
+            updateStartupPhaseCost("replay_journal", replayStartTime);
             nodeMgr.checkCurrentNodeExist();
             journalWriter.init(maxJournalId);
         } catch (Exception e) {
@@ -1173,21 +1191,40 @@ public class GlobalStateMgr {
         LOG.info("start load image from {}. is ckpt: {}", curFile.getAbsolutePath(),
                 GlobalStateMgr.isCheckpointThread());
         long loadImageStartTime = System.currentTimeMillis();
-        DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(curFile)));
+        ImageLoader imageLoader = new ImageLoader(curFile);
+        DataInputStream dis = imageLoader.getStream();
         if (usingNewPrivilege) {
             auth = new Auth();
         }
+        // the sections which do not depend on the others, they are loaded concurrently with databases
+        // if the image has section index
+        imageLoader.addSection("auth", auth::loadAuth)
+                .addSection("smallFiles", smallFileMgr::loadSmallFiles)
+                .addSection("analyze", analyzeManager::loadAnalyze)
+                .addSection("resourceGroups", resourceGroupMgr::loadResourceGroups)
+                .addSection("authGson", auth::readAsGson)
+                .addSection("tasks", taskManager::loadTasks);
 
         long checksum = 0;
         long remoteChecksum = -1;  // in case of empty image file checksum match
         try {
             checksum = loadHeader(dis, checksum);
+            imageLoader.submit("auth", "authGson");
+            imageLoader.submit("smallFiles");
+            imageLoader.submit("analyze");
+            imageLoader.submit("resourceGroups");
+            imageLoader.submit("tasks");
+
             checksum = nodeMgr.loadLeaderInfo(dis, checksum);
             checksum = nodeMgr.loadFrontends(dis, checksum);
             checksum = nodeMgr.loadBackends(dis, checksum);
+            long startTime = System.currentTimeMillis();
             checksum = localMetastore.loadDb(dis, checksum);
+            updateStartupPhaseCost("load_image_db", startTime);
             // ATTN: this should be done after load Db, and before loadAlterJob
+            startTime = System.currentTimeMillis();
             localMetastore.recreateTabletInvertIndex();
+            updateStartupPhaseCost("rebuild_inverted_index", startTime);
             // rebuild es state state
             esRepository.loadTableFromCatalog();
             starRocksRepository.loadTableFromCatalog();
@@ -1201,22 +1238,22 @@ public class GlobalStateMgr {
             checksum = loadResources(dis, checksum);
             checksum = exportMgr.loadExportJob(dis, checksum);
             checksum = backupHandler.loadBackupHandler(dis, checksum, this);
-            checksum = auth.loadAuth(dis, checksum);
+            checksum = imageLoader.load("auth", checksum);
             // global transaction must be replayed before load jobs v2
             checksum = globalTransactionMgr.loadTransactionState(dis, checksum);
             checksum = colocateTableIndex.loadColocateTableIndex(dis, checksum);
             checksum = routineLoadManager.loadRoutineLoadJobs(dis, checksum);
             checksum = loadManager.loadLoadJobsV2(dis, checksum);
-            checksum = smallFileMgr.loadSmallFiles(dis, checksum);
+            checksum = imageLoader.load("smallFiles", checksum);
             checksum = pluginMgr.loadPlugins(dis, checksum);
             checksum = loadDeleteHandler(dis, checksum);
             remoteChecksum = dis.readLong();
-            checksum = analyzeManager.loadAnalyze(dis, checksum);
+            checksum = imageLoader.load("analyze", checksum);
             remoteChecksum = dis.readLong();
-            checksum = resourceGroupMgr.loadResourceGroups(dis, checksum);
-            checksum = auth.readAsGson(dis, checksum);
+            checksum = imageLoader.load("resourceGroups", checksum);
+            checksum = imageLoader.load("authGson", checksum);
             remoteChecksum = dis.readLong();
-            checksum = taskManager.loadTasks(dis, checksum);
+            checksum = imageLoader.load("tasks", checksum);
             remoteChecksum = dis.readLong();
             checksum = catalogMgr.loadCatalogs(dis, checksum);
             remoteChecksum = dis.readLong();
@@ -1228,10 +1265,12 @@ public class GlobalStateMgr {
             checksum = loadCompactionManager(dis, checksum);
             remoteChecksum = dis.readLong();
             loadRBACPrivilege(dis);
+            imageLoader.waitSections();
         } catch (EOFException exception) {
             LOG.warn("load image eof.", exception);
+            imageLoader.waitSections();
         } finally {
-            dis.close();
+            imageLoader.close();
         }
 
         Preconditions.checkState(remoteChecksum == checksum, remoteChecksum + " vs. " + checksum);
@@ -1242,9 +1281,17 @@ public class GlobalStateMgr {
 
         long loadImageEndTime = System.currentTimeMillis();
         this.imageJournalId = storage.getImageJournalId();
+        updateStartupPhaseCost("load_image", loadImageStartTime);
         LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
     }
 
+    private static void updateStartupPhaseCost(String phase, long startTime) {
+        // the checkpoint thread loads image periodically, which is not a phase of startup
+        if (!isCheckpointThread()) {
+            MetricRepo.updateStartupPhaseCost(phase, System.currentTimeMillis() - startTime);
+        }
+    }
+
     public long loadHeader(DataInputStream dis, long checksum) throws IOException {
         // for community, version schema is [int], and the int value must be positive
         // for starrocks, version schema is [-1, int, int]
@@ -1438,50 +1485,52 @@ public class GlobalStateMgr {
             auth = new Auth();
         }
 
-        long checksum = 0;
         long saveImageStartTime = System.currentTimeMillis();
-        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(curFile))) {
-            checksum = saveHeader(dos, replayedJournalId, checksum);
-            checksum = nodeMgr.saveLeaderInfo(dos, checksum);
-            checksum = nodeMgr.saveFrontends(dos, checksum);
-            checksum = nodeMgr.saveBackends(dos, checksum);
-            checksum = localMetastore.saveDb(dos, checksum);
-            checksum = load.saveLoadJob(dos, checksum);
-            checksum = saveAlterJob(dos, checksum);
-            checksum = recycleBin.saveRecycleBin(dos, checksum);
-            checksum = VariableMgr.saveGlobalVariable(dos, checksum);
-            checksum = localMetastore.saveCluster(dos, checksum);
-            checksum = nodeMgr.saveBrokers(dos, checksum);
-            checksum = resourceMgr.saveResources(dos, checksum);
-            checksum = exportMgr.saveExportJob(dos, checksum);
-            checksum = backupHandler.saveBackupHandler(dos, checksum);
-            checksum = auth.saveAuth(dos, checksum);
-            checksum = globalTransactionMgr.saveTransactionState(dos, checksum);
-            checksum = colocateTableIndex.saveColocateTableIndex(dos, checksum);
-            checksum = routineLoadManager.saveRoutineLoadJobs(dos, checksum);
-            checksum = loadManager.saveLoadJobsV2(dos, checksum);
-            checksum = smallFileMgr.saveSmallFiles(dos, checksum);
-            checksum = pluginMgr.savePlugins(dos, checksum);
-            checksum = deleteHandler.saveDeleteHandler(dos, checksum);
-            dos.writeLong(checksum);
-            checksum = analyzeManager.saveAnalyze(dos, checksum);
-            dos.writeLong(checksum);
-            checksum = resourceGroupMgr.saveResourceGroups(dos, checksum);
-            checksum = auth.writeAsGson(dos, checksum);
-            dos.writeLong(checksum);
-            checksum = taskManager.saveTasks(dos, checksum);
-            dos.writeLong(checksum);
-            checksum = catalogMgr.saveCatalogs(dos, checksum);
-            dos.writeLong(checksum);
-            checksum = saveInsertOverwriteJobs(dos, checksum);
-            checksum = nodeMgr.saveComputeNodes(dos, checksum);
-            dos.writeLong(checksum);
-            checksum = shardManager.saveShardManager(dos, checksum);
-            dos.writeLong(checksum);
-            checksum = compactionManager.saveCompactionManager(dos, checksum);
-            dos.writeLong(checksum);
-            saveRBACPrivilege(dos);
-        }
+        long checksum = new ImageWriter()
+                .addSection("header", (dos, c) -> saveHeader(dos, replayedJournalId, c))
+                .addSection("leaderInfo", nodeMgr::saveLeaderInfo)
+                .addSection("frontends", nodeMgr::saveFrontends)
+                .addSection("backends", nodeMgr::saveBackends)
+                .addStreamingSection("db", localMetastore::saveDb)
+                .addSection("loadJob", load::saveLoadJob)
+                .addSection("alterJob", this::saveAlterJob)
+                .addSection("recycleBin", recycleBin::saveRecycleBin)
+                .addSection("globalVariable", VariableMgr::saveGlobalVariable)
+                .addSection("cluster", localMetastore::saveCluster)
+                .addSection("brokers", nodeMgr::saveBrokers)
+                .addSection("resources", resourceMgr::saveResources)
+                .addSection("exportJob", exportMgr::saveExportJob)
+                .addSection("backupHandler", backupHandler::saveBackupHandler)
+                .addSection("auth", auth::saveAuth)
+                .addSection("transactionState", globalTransactionMgr::saveTransactionState)
+                .addSection("colocateTableIndex", colocateTableIndex::saveColocateTableIndex)
+                .addSection("routineLoadJobs", routineLoadManager::saveRoutineLoadJobs)
+                .addSection("loadJobsV2", loadManager::saveLoadJobsV2)
+                .addSection("smallFiles", smallFileMgr::saveSmallFiles)
+                .addSection("plugins", pluginMgr::savePlugins)
+                .addSection("deleteHandler", deleteHandler::saveDeleteHandler)
+                .addChecksum()
+                .addSection("analyze", analyzeManager::saveAnalyze)
+                .addChecksum()
+                .addSection("resourceGroups", resourceGroupMgr::saveResourceGroups)
+                .addSection("authGson", auth::writeAsGson)
+                .addChecksum()
+                .addSection("tasks", taskManager::saveTasks)
+                .addChecksum()
+                .addSection("catalogs", catalogMgr::saveCatalogs)
+                .addChecksum()
+                .addSection("insertOverwriteJobs", this::saveInsertOverwriteJobs)
+                .addSection("computeNodes", nodeMgr::saveComputeNodes)
+                .addChecksum()
+                .addSection("shardManager", shardManager::saveShardManager)
+                .addChecksum()
+                .addSection("compactionManager", compactionManager::saveCompactionManager)
+                .addChecksum()
+                .addSection("rbacPrivilege", (dos, c) -> {
+                    saveRBACPrivilege(dos);
+                    return c;
+                })
+                .write(curFile);
 
         if (usingNewPrivilege) {
             auth = null;
@@ -1609,7 +1658,11 @@ public class GlobalStateMgr {
                     if (cursor == null) {
                         // 1. set replay to the end
                         LOG.info("start to replay from {}", replayedJournalId.get());
-                        cursor = journal.read(replayedJournalId.get() + 1, JournalCursor.CUROSR_END_KEY);
+                        if (Config.metadata_journal_replay_pipeline_enabled) {
+                            cursor = journal.readAhead(replayedJournalId.get() + 1, JournalCursor.CUROSR_END_KEY);
+                        } else {
+                            cursor = journal.read(replayedJournalId.get() + 1, JournalCursor.CUROSR_END_KEY);
+                        }
                     } else {
                         cursor.refresh();
                     }
@@ -2562,6 +2615,28 @@ public class GlobalStateMgr {
         return this.journal.getMaxJournalId();
     }
 
+    /**
+     * The number of journals written by the leader but not replayed by this FE yet, always 0 on the leader.
+     */
+    public long getReplayLagJournalIds() {
+        if (isLeader() || journal == null) {
+            return 0L;
+        }
+        return Math.max(journal.getMaxJournalId() - replayedJournalId.get(), 0L);
+    }
+
+    /**
+     * How long the replayed metadata of this FE is behind the leader, measured by the timestamp journal the leader
+     * writes every 10 seconds, so it is 0 if all the journals are replayed, or at least the time since the last
+     * replayed timestamp journal otherwise.
+     */
+    public long getReplayLagMs() {
+        if (getReplayLagJournalIds() == 0 || synchronizedTimeMs == 0) {
+            return 0L;
+        }
+        return Math.max(System.currentTimeMillis() - synchronizedTimeMs, 0L);
+    }
+
     public long getEpoch() {
         return this.epoch;
     }
@@ -92,6 +92,7 @@ import com.starrocks.common.MetaNotFoundException;
 import com.starrocks.common.NotImplementedException;
 import com.starrocks.common.Pair;
 import com.starrocks.common.Status;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.DynamicPartitionUtil;
 import com.starrocks.common.util.PropertyAnalyzer;
@@ -213,6 +214,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
@@ -263,45 +267,68 @@ public class LocalMetastore implements ConnectorMetadata {
             return;
         }
 
-        // create inverted index
+        // create inverted index, the tables are added in parallel, every index of them is added in a batch
         TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
-        for (Database db : this.fullNameToDb.values()) {
-            long dbId = db.getId();
-            for (Table table : db.getTables()) {
-                if (!table.isNativeTable()) {
-                    continue;
-                }
+        boolean setSchemaHash = MetaContext.get().getMetaVersion() < FeMetaVersion.VERSION_48;
+        int threadNum = Config.image_load_threads_num;
+        ExecutorService executor = null;
+        if (threadNum > 1) {
+            executor = ThreadPoolManager.newDaemonFixedThreadPool(threadNum, Integer.MAX_VALUE,
+                    "inverted-index-rebuilder", false);
+        }
+        List<Future<?>> futures = Lists.newArrayList();
+        try {
+            for (Database db : this.fullNameToDb.values()) {
+                for (Table table : db.getTables()) {
+                    if (!table.isNativeTable()) {
+                        continue;
+                    }
+                    Runnable task = () -> addToTabletInvertIndex(invertedIndex, db.getId(), (OlapTable) table,
+                            setSchemaHash);
+                    if (executor != null) {
+                        futures.add(executor.submit(task));
+                    } else {
+                        task.run();
+                    }
+                } // end for tables
+            } // end for dbs
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("failed to recreate tablet inverted index", e);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
 
-                OlapTable olapTable = (OlapTable) table;
-                long tableId = olapTable.getId();
-                Collection<Partition> allPartitions = olapTable.getAllPartitions();
-                for (Partition partition : allPartitions) {
-                    long partitionId = partition.getId();
-                    TStorageMedium medium = olapTable.getPartitionInfo().getDataProperty(
-                            partitionId).getStorageMedium();
-                    for (MaterializedIndex index : partition
-                            .getMaterializedIndices(MaterializedIndex.IndexExtState.ALL)) {
-                        long indexId = index.getId();
-                        int schemaHash = olapTable.getSchemaHashByIndexId(indexId);
-                        TabletMeta tabletMeta = new TabletMeta(dbId, tableId, partitionId, indexId, schemaHash, medium,
-                                table.isLakeTable());
-                        for (Tablet tablet : index.getTablets()) {
-                            long tabletId = tablet.getId();
-                            invertedIndex.addTablet(tabletId, tabletMeta);
-                            if (table.isLocalTable()) {
-                                for (Replica replica : ((LocalTablet) tablet).getImmutableReplicas()) {
-                                    invertedIndex.addReplica(tabletId, replica);
-                                    if (MetaContext.get().getMetaVersion() < FeMetaVersion.VERSION_48) {
-                                        // set replica's schema hash
-                                        replica.setSchemaHash(schemaHash);
-                                    }
-                                }
-                            }
+    private static void addToTabletInvertIndex(TabletInvertedIndex invertedIndex, long dbId, OlapTable olapTable,
+                                               boolean setSchemaHash) {
+        long tableId = olapTable.getId();
+        Collection<Partition> allPartitions = olapTable.getAllPartitions();
+        for (Partition partition : allPartitions) {
+            long partitionId = partition.getId();
+            TStorageMedium medium = olapTable.getPartitionInfo().getDataProperty(
+                    partitionId).getStorageMedium();
+            for (MaterializedIndex index : partition
+                    .getMaterializedIndices(MaterializedIndex.IndexExtState.ALL)) {
+                long indexId = index.getId();
+                int schemaHash = olapTable.getSchemaHashByIndexId(indexId);
+                TabletMeta tabletMeta = new TabletMeta(dbId, tableId, partitionId, indexId, schemaHash, medium,
+                        olapTable.isLakeTable());
+                if (setSchemaHash && olapTable.isLocalTable()) {
+                    for (Tablet tablet : index.getTablets()) {
+                        for (Replica replica : ((LocalTablet) tablet).getImmutableReplicas()) {
+                            // set replica's schema hash
+                            replica.setSchemaHash(schemaHash);
                         }
-                    } // end for indices
-                } // end for partitions
-            } // end for tables
-        } // end for dbs
+                    }
+                }
+                invertedIndex.addTablets(tabletMeta, index.getTablets());
+            } // end for indices
+        } // end for partitions
     }
 
     public long loadDb(DataInputStream dis, long checksum) throws IOException {
@@ -2827,21 +2854,21 @@ public class LocalMetastore implements ConnectorMetadata {
 
     public void replayAddReplica(ReplicaPersistInfo info) {
         Database db = getDbIncludeRecycleBin(info.getDbId());
-        db.writeLock();
+        db.writeLockTable(info.getTableId());
         try {
             unprotectAddReplica(info);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTable(info.getTableId());
         }
     }
 
     public void replayUpdateReplica(ReplicaPersistInfo info) {
         Database db = getDbIncludeRecycleBin(info.getDbId());
-        db.writeLock();
+        db.writeLockTable(info.getTableId());
         try {
             unprotectUpdateReplica(info);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTable(info.getTableId());
         }
     }
 
@@ -2856,11 +2883,11 @@ public class LocalMetastore implements ConnectorMetadata {
 
     public void replayDeleteReplica(ReplicaPersistInfo info) {
         Database db = getDbIncludeRecycleBin(info.getDbId());
-        db.writeLock();
+        db.writeLockTable(info.getTableId());
         try {
             unprotectDeleteReplica(info);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTable(info.getTableId());
         }
     }
 
@@ -136,6 +136,8 @@ import com.starrocks.thrift.TRefreshTableRequest;
 import com.starrocks.thrift.TRefreshTableResponse;
 import com.starrocks.thrift.TReportExecStatusParams;
 import com.starrocks.thrift.TReportExecStatusResult;
+import com.starrocks.thrift.TReportPartitionReadsRequest;
+import com.starrocks.thrift.TReportPartitionReadsResponse;
 import com.starrocks.thrift.TReportRequest;
 import com.starrocks.thrift.TSetConfigRequest;
 import com.starrocks.thrift.TSetConfigResponse;
@@ -1394,6 +1396,14 @@ public class FrontendServiceImpl implements FrontendService.Iface {
         }
     }
 
+    @Override
+    public TReportPartitionReadsResponse reportPartitionReads(TReportPartitionReadsRequest request) throws TException {
+        if (request.isSetPartition_reads()) {
+            GlobalStateMgr.getCurrentState().getCompactionManager().addPartitionReads(request.getPartition_reads());
+        }
+        return new TReportPartitionReadsResponse(new TStatus(TStatusCode.OK));
+    }
+
     @Override
     public TGetTablesConfigResponse getTablesConfig(TGetTablesConfigRequest request) throws TException {
 
@@ -12,6 +12,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * To timing a function or a piece of code, you could
@@ -61,6 +62,7 @@ public class PlannerProfile {
     }
 
     private final Map<String, ScopedTimer> timers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
 
     public PlannerProfile() {
     }
@@ -87,6 +89,23 @@ public class PlannerProfile {
         return t;
     }
 
+    /**
+     * Add the value to the counter of the current query, e.g. the number of the files pruned in planning. The name
+     * is hierarchical like the timers.
+     */
+    public static void addCounter(String name, long value) {
+        ConnectContext ctx = ConnectContext.get();
+        if (ctx == null) {
+            return;
+        }
+        ctx.getPlannerProfile().counters.computeIfAbsent(name, key -> new AtomicLong(0)).addAndGet(value);
+    }
+
+    public long getCounter(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
     private RuntimeProfile getRuntimeProfile(RuntimeProfile parent, Map<String, RuntimeProfile> cache,
                                              String prefix) {
         if (cache.containsKey(prefix)) {
@@ -119,7 +138,15 @@ public class PlannerProfile {
     }
 
     public void buildTimers(RuntimeProfile parent) {
-        List<String> keys = new ArrayList<>(timers.keySet());
+        Map<String, String> infos = new HashMap<>();
+        for (Map.Entry<String, ScopedTimer> entry : timers.entrySet()) {
+            ScopedTimer t = entry.getValue();
+            infos.put(entry.getKey(), String.format("%dms / %d", t.getTotalTime(), t.getTotalCount()));
+        }
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            infos.put(entry.getKey(), String.valueOf(entry.getValue().get()));
+        }
+        List<String> keys = new ArrayList<>(infos.keySet());
         Collections.sort(keys);
 
         Map<String, RuntimeProfile> profilers = new HashMap<>();
@@ -128,8 +155,7 @@ public class PlannerProfile {
             String prefix = getKeyPrefix(key);
             String name = key.substring(prefix.length());
             RuntimeProfile p = getRuntimeProfile(parent, profilers, prefix);
-            ScopedTimer t = timers.get(key);
-            p.addInfoString(name, String.format("%dms / %d", t.getTotalTime(), t.getTotalCount()));
+            p.addInfoString(name, infos.get(key));
         }
     }
 
@@ -139,5 +165,6 @@ public class PlannerProfile {
 
     public void reset() {
         timers.clear();
+        counters.clear();
     }
 }
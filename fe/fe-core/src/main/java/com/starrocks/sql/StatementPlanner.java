@@ -1,10 +1,17 @@
 // This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
 package com.starrocks.sql;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.TableName;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.ServerPreparedStatement;
+import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.analyzer.Analyzer;
 import com.starrocks.sql.analyzer.AnalyzerUtils;
 import com.starrocks.sql.analyzer.PrivilegeChecker;
@@ -24,9 +31,10 @@ import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
-import com.starrocks.sql.plan.PlanFragmentBuilder;
+import com.starrocks.sql.plan.PhysicalPlan;
 import com.starrocks.thrift.TResultSinkType;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -39,18 +47,47 @@ public class StatementPlanner {
 
     public static ExecPlan plan(StatementBase stmt, ConnectContext session, boolean lockDb,
                                 TResultSinkType resultSinkType) {
+        return plan(stmt, session, lockDb, resultSinkType, null);
+    }
+
+    /**
+     * Plan the statement prepared by COM_STMT_PREPARE with the parameters bound, the statement is not
+     * analyzed again unless the tables or the session are changed.
+     */
+    public static ExecPlan plan(ServerPreparedStatement prepared, ConnectContext session) {
+        return plan(prepared.getStatement(session), session, true, TResultSinkType.MYSQL_PROTOCAL, prepared);
+    }
+
+    // Analyze the prepared statement to get the columns of its result set when preparing
+    public static void analyze(ServerPreparedStatement prepared, ConnectContext session) {
+        Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, prepared.getStatement(session));
+        try {
+            lock(dbs);
+            PrivilegeChecker.check(prepared.analyze(session), session);
+        } finally {
+            unLock(dbs);
+        }
+    }
+
+    private static ExecPlan plan(StatementBase stmt, ConnectContext session, boolean lockDb,
+                                 TResultSinkType resultSinkType, ServerPreparedStatement prepared) {
         if (stmt instanceof QueryStatement) {
             OptimizerTraceUtil.logQueryStatement(session, "after parse:\n%s", (QueryStatement) stmt);
         }
 
         Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, stmt);
         Map<String, Database> dbLocks = null;
+        Map<Database, List<Long>> tableLocks = null;
         if (lockDb) {
             dbLocks = dbs;
         }
         try {
             lock(dbLocks);
-            Analyzer.analyze(stmt, session);
+            if (prepared == null) {
+                Analyzer.analyze(stmt, session);
+            } else {
+                stmt = prepared.analyze(session);
+            }
             PrivilegeChecker.check(stmt, session);
             if (stmt instanceof QueryStatement) {
                 OptimizerTraceUtil.logQueryStatement(session, "after analyze:\n%s", (QueryStatement) stmt);
@@ -58,12 +95,33 @@ public class StatementPlanner {
 
             if (stmt instanceof QueryStatement) {
                 QueryStatement queryStmt = (QueryStatement) stmt;
+                if (lockDb && Config.enable_table_level_lock) {
+                    // The tables are known after analyze, only lock them when planning, so the planning does not
+                    // block and is not blocked by the writes to the other tables of the databases.
+                    // The db locks are released after the table locks are acquired, so there is no gap.
+                    tableLocks = lockTables(dbs, queryStmt);
+                    unLock(dbLocks);
+                    dbLocks = null;
+                }
                 session.setCurrentSqlDbIds(dbs.values().stream().map(Database::getId).collect(Collectors.toSet()));
                 resultSinkType = queryStmt.hasOutFileClause() ? TResultSinkType.FILE : resultSinkType;
-                ExecPlan plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
-                setOutfileSink(queryStmt, plan);
 
-                return plan;
+                // The plan cache relies on the db or table locks to check the tables
+                boolean usePlanCache = lockDb && !dbs.isEmpty() && resultSinkType == TResultSinkType.MYSQL_PROTOCAL
+                        && session.getSessionVariable().isEnablePlanCache();
+                if (!usePlanCache) {
+                    ExecPlan plan = createQueryPlan(queryStmt.getQueryRelation(), session, resultSinkType);
+                    setOutfileSink(queryStmt, plan);
+                    return plan;
+                }
+
+                Map<TableName, Table> tables = AnalyzerUtils.collectAllTableAndView(queryStmt);
+                PhysicalPlan physicalPlan = session.getPlanCache().get(queryStmt, session, tables);
+                if (physicalPlan == null) {
+                    physicalPlan = optimizeQuery(queryStmt.getQueryRelation(), session, resultSinkType);
+                    session.getPlanCache().put(queryStmt, session, tables, physicalPlan);
+                }
+                return physicalPlan.buildExecPlan(session, resultSinkType);
             } else if (stmt instanceof InsertStmt) {
                 return new InsertPlanner().plan((InsertStmt) stmt, session);
             } else if (stmt instanceof UpdateStmt) {
@@ -73,11 +131,17 @@ public class StatementPlanner {
             }
         } finally {
             unLock(dbLocks);
+            unLockTables(tableLocks);
         }
         return null;
     }
 
     public static ExecPlan createQueryPlan(Relation relation, ConnectContext session, TResultSinkType resultSinkType) {
+        return optimizeQuery(relation, session, resultSinkType).buildExecPlan(session, resultSinkType);
+    }
+
+    public static PhysicalPlan optimizeQuery(Relation relation, ConnectContext session,
+                                             TResultSinkType resultSinkType) {
         QueryRelation query = (QueryRelation) relation;
         List<String> colNames = query.getColumnOutputNames();
 
@@ -104,22 +168,14 @@ public class StatementPlanner {
                     new ColumnRefSet(logicalPlan.getOutputColumn()),
                     columnRefFactory);
 
-            //3. Build fragment exec plan
-            /*
-             * SingleNodeExecPlan is set in TableQueryPlanAction to generate a single-node Plan,
-             * currently only used in Spark/Flink Connector
-             * Because the connector sends only simple queries, it only needs to remove the output fragment
-             */
-            return new PlanFragmentBuilder().createPhysicalPlan(
-                    optimizedPlan, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames,
-                    resultSinkType,
-                    !session.getSessionVariable().isSingleNodeExecPlan());
+            //3. The fragments are built by the caller
+            return new PhysicalPlan(optimizedPlan, columnRefFactory, logicalPlan.getOutputColumn(), colNames,
+                    forceDisablePipeline);
         } finally {
             if (forceDisablePipeline) {
                 session.getSessionVariable().setEnablePipelineEngine(true);
             }
         }
-
     }
 
     // Lock all database before analyze
@@ -142,6 +198,68 @@ public class StatementPlanner {
         }
     }
 
+    // Read lock the tables of query, should be called with the db locks held
+    private static Map<Database, List<Long>> lockTables(Map<String, Database> dbs, QueryStatement stmt) {
+        Collection<Table> tables = AnalyzerUtils.collectAllTable(stmt).values();
+        // the dbs are locked in the order of their ids
+        Map<Long, Database> idToDb = Maps.newTreeMap();
+        Map<Long, List<Long>> dbToTableIds = Maps.newHashMap();
+        for (Database db : dbs.values()) {
+            List<Long> tableIds = Lists.newArrayList();
+            for (Table table : tables) {
+                if (table != null && db.getTable(table.getId()) == table) {
+                    tableIds.add(table.getId());
+                }
+            }
+            idToDb.put(db.getId(), db);
+            dbToTableIds.put(db.getId(), tableIds);
+        }
+
+        // the materialized views may be used to rewrite the query, they are locked in their own dbs
+        for (Table table : tables) {
+            if (table == null) {
+                continue;
+            }
+            for (long mvId : table.getRelatedMaterializedViews()) {
+                Long mvDbId = table.getRelatedMaterializedViewDbId(mvId);
+                Database mvDb = mvDbId == null ? null : GlobalStateMgr.getCurrentState().getDb(mvDbId);
+                if (mvDb == null) {
+                    continue;
+                }
+                List<Long> tableIds = dbToTableIds.get(mvDbId);
+                if (tableIds == null) {
+                    tableIds = Lists.newArrayList();
+                    idToDb.put(mvDbId, mvDb);
+                    dbToTableIds.put(mvDbId, tableIds);
+                } else if (tableIds.isEmpty()) {
+                    // the whole db is locked
+                    continue;
+                }
+                if (!tableIds.contains(mvId)) {
+                    tableIds.add(mvId);
+                }
+            }
+        }
+
+        Map<Database, List<Long>> tableLocks = Maps.newHashMap();
+        for (Database db : idToDb.values()) {
+            List<Long> tableIds = dbToTableIds.get(db.getId());
+            // lock the whole db if no table of it is found
+            db.readLockTables(tableIds);
+            tableLocks.put(db, tableIds);
+        }
+        return tableLocks;
+    }
+
+    private static void unLockTables(Map<Database, List<Long>> tableLocks) {
+        if (tableLocks == null) {
+            return;
+        }
+        for (Map.Entry<Database, List<Long>> entry : tableLocks.entrySet()) {
+            entry.getKey().readUnlockTables(entry.getValue());
+        }
+    }
+
     // if query stmt has OUTFILE clause, set info into ResultSink.
     // this should be done after fragments are generated.
     private static void setOutfileSink(QueryStatement queryStmt, ExecPlan plan) {
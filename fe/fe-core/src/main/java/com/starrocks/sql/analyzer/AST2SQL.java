@@ -27,6 +27,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LimitElement;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.StringLiteral;
@@ -600,6 +601,11 @@ public class AST2SQL {
             return visitExpression(node, context);
         }
 
+        @Override
+        public String visitParameter(Parameter node, Void context) {
+            return "?";
+        }
+
         @Override
         public String visitTimestampArithmeticExpr(TimestampArithmeticExpr node, Void context) {
             String funcName = node.getFuncName();
@@ -27,7 +27,9 @@ import com.starrocks.sql.ast.AstVisitor;
 import com.starrocks.sql.ast.CTERelation;
 import com.starrocks.sql.ast.InsertStmt;
 import com.starrocks.sql.ast.JoinRelation;
+import com.starrocks.sql.ast.QueryRelation;
 import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.Relation;
 import com.starrocks.sql.ast.SelectRelation;
 import com.starrocks.sql.ast.SetOperationRelation;
 import com.starrocks.sql.ast.StatementBase;
@@ -41,6 +43,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class AnalyzerUtils {
 
@@ -335,6 +338,61 @@ public class AnalyzerUtils {
         return tables;
     }
 
+    /**
+     * Collect the tables and views by their names rather than aliases, including the tables used by the views
+     * and the subqueries in expressions.
+     */
+    public static Map<TableName, Table> collectAllTableAndViewByName(StatementBase statementBase) {
+        Map<TableName, Table> tables = Maps.newHashMap();
+        new AnalyzerUtils.TableAndViewByNameCollector(tables).visit(statementBase);
+        return tables;
+    }
+
+    /**
+     * Collect the expressions of the relation and its child relations, the expressions of subqueries in
+     * expressions are not included.
+     *
+     * @return false if there is a relation whose expressions could not be collected
+     */
+    public static boolean collectExprs(Relation relation, List<Expr> exprs) {
+        if (relation instanceof QueryRelation && ((QueryRelation) relation).hasWithClause()) {
+            for (CTERelation cteRelation : ((QueryRelation) relation).getCteRelations()) {
+                if (!collectExprs(cteRelation.getCteQueryStatement().getQueryRelation(), exprs)) {
+                    return false;
+                }
+            }
+        }
+
+        if (relation instanceof SelectRelation) {
+            SelectRelation selectRelation = (SelectRelation) relation;
+            exprs.addAll(selectRelation.getOutputExpression());
+            exprs.add(selectRelation.getWhereClause());
+            exprs.add(selectRelation.getHavingClause());
+            if (selectRelation.getGroupBy() != null) {
+                exprs.addAll(selectRelation.getGroupBy());
+            }
+            if (selectRelation.getSortClause() != null) {
+                selectRelation.getSortClause().forEach(orderBy -> exprs.add(orderBy.getExpr()));
+            }
+            exprs.removeIf(Objects::isNull);
+            return collectExprs(selectRelation.getRelation(), exprs);
+        } else if (relation instanceof JoinRelation) {
+            JoinRelation joinRelation = (JoinRelation) relation;
+            if (joinRelation.getOnPredicate() != null) {
+                exprs.add(joinRelation.getOnPredicate());
+            }
+            return collectExprs(joinRelation.getLeft(), exprs) && collectExprs(joinRelation.getRight(), exprs);
+        } else if (relation instanceof SubqueryRelation) {
+            return collectExprs(((SubqueryRelation) relation).getQueryStatement().getQueryRelation(), exprs);
+        } else if (relation instanceof ViewRelation) {
+            return collectExprs(((ViewRelation) relation).getQueryStatement().getQueryRelation(), exprs);
+        } else if (relation instanceof SetOperationRelation) {
+            return ((SetOperationRelation) relation).getRelations().stream()
+                    .allMatch(child -> collectExprs(child, exprs));
+        }
+        return relation instanceof TableRelation;
+    }
+
     private static class TableAndViewCollector extends TableCollector {
         public TableAndViewCollector(Map<TableName, Table> dbs) {
             super(dbs);
@@ -347,6 +405,45 @@ public class AnalyzerUtils {
         }
     }
 
+    private static class TableAndViewByNameCollector extends TableCollector {
+        public TableAndViewByNameCollector(Map<TableName, Table> dbs) {
+            super(dbs);
+        }
+
+        @Override
+        public Void visitView(ViewRelation node, Void context) {
+            tables.put(node.getName(), node.getView());
+            return visit(node.getQueryStatement());
+        }
+
+        @Override
+        public Void visitSelect(SelectRelation node, Void context) {
+            List<Expr> exprs = Lists.newArrayList(node.getOutputExpression());
+            exprs.add(node.getWhereClause());
+            exprs.add(node.getHavingClause());
+            if (node.getGroupBy() != null) {
+                exprs.addAll(node.getGroupBy());
+            }
+            if (node.getSortClause() != null) {
+                node.getSortClause().forEach(orderBy -> exprs.add(orderBy.getExpr()));
+            }
+            visitSubqueries(exprs);
+            return super.visitSelect(node, context);
+        }
+
+        @Override
+        public Void visitJoin(JoinRelation node, Void context) {
+            visitSubqueries(Lists.newArrayList(node.getOnPredicate()));
+            return super.visitJoin(node, context);
+        }
+
+        private void visitSubqueries(List<Expr> exprs) {
+            List<Subquery> subqueries = Lists.newArrayList();
+            exprs.stream().filter(Objects::nonNull).forEach(expr -> expr.collect(Subquery.class, subqueries));
+            subqueries.forEach(subquery -> visit(subquery.getQueryStatement()));
+        }
+    }
+
     private static class TableCollectorWithAlias extends TableCollector {
         public TableCollectorWithAlias(Map<TableName, Table> dbs) {
             super(dbs);
@@ -31,6 +31,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.PlaceHolderExpr;
 import com.starrocks.analysis.Predicate;
 import com.starrocks.analysis.SlotRef;
@@ -178,9 +179,29 @@ public class ExpressionAnalyzer {
                 bottomUpAnalyze(visitor, expr, scope);
             }
         }
+        inferParameterTypes(expression);
         visitor.visit(expression, scope);
     }
 
+    // The parameters compared with other expressions take the type of the first of them,
+    // like "v1 = ?", "v1 in (?, ?)" and "v1 between ? and ?"
+    private void inferParameterTypes(Expr expression) {
+        if (!(expression instanceof BinaryPredicate || expression instanceof InPredicate ||
+                expression instanceof BetweenPredicate)) {
+            return;
+        }
+        Type type = expression.getChildren().stream().filter(child -> !(child instanceof Parameter))
+                .map(Expr::getType).findFirst().orElse(null);
+        if (type == null || !type.isScalarType() || type.isNull()) {
+            return;
+        }
+        for (Expr child : expression.getChildren()) {
+            if (child instanceof Parameter) {
+                child.setType(type);
+            }
+        }
+    }
+
     static class Visitor extends AstVisitor<Void, Scope> {
         private final AnalyzeState analyzeState;
         private final ConnectContext session;
@@ -548,6 +569,13 @@ public class ExpressionAnalyzer {
             return null;
         }
 
+        @Override
+        public Void visitParameter(Parameter node, Scope scope) {
+            // The type may be inferred from its parent later
+            node.setType(Type.STRING);
+            return null;
+        }
+
         @Override
         public Void visitLiteral(LiteralExpr node, Scope scope) {
             if (node instanceof LargeIntLiteral) {
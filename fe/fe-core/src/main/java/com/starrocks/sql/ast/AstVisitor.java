@@ -25,6 +25,7 @@ import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LimitElement;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.OrderByElement;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.Subquery;
@@ -936,6 +937,10 @@ public abstract class AstVisitor<R, C> {
         return visitExpression(node, context);
     }
 
+    public R visitParameter(Parameter node, C context) {
+        return visitExpression(node, context);
+    }
+
     public R visitTimestampArithmeticExpr(TimestampArithmeticExpr node, C context) {
         return visitExpression(node, context);
     }
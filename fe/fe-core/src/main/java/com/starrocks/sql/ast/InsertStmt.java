@@ -8,6 +8,7 @@ import com.starrocks.analysis.Expr;
 import com.starrocks.analysis.RedirectStatus;
 import com.starrocks.analysis.TableName;
 import com.starrocks.catalog.Column;
+import com.starrocks.catalog.MaterializedView;
 import com.starrocks.catalog.Table;
 
 import java.util.ArrayList;
@@ -61,6 +62,10 @@ public class InsertStmt extends DmlStmt {
     // If this is set to true it means a system refresh operation, which is allowed to write to materialized view.
     private boolean isSystem = false;
 
+    // base table id -> (partition name -> partition info), the base table versions refreshed by the insert into
+    // materialized view, which are committed with the data
+    private Map<Long, Map<String, MaterializedView.BasePartitionInfo>> mvBaseTableVersionMap = null;
+
     public InsertStmt(TableName tblName, PartitionNames targetPartitionNames, String label, List<String> cols,
                       QueryStatement queryStatement, boolean isOverwrite) {
         this.tblName = tblName;
@@ -133,6 +138,14 @@ public class InsertStmt extends DmlStmt {
         isSystem = system;
     }
 
+    public Map<Long, Map<String, MaterializedView.BasePartitionInfo>> getMvBaseTableVersionMap() {
+        return mvBaseTableVersionMap;
+    }
+
+    public void setMvBaseTableVersionMap(Map<Long, Map<String, MaterializedView.BasePartitionInfo>> versionMap) {
+        this.mvBaseTableVersionMap = versionMap;
+    }
+
     @Override
     public TableName getTableName() {
         return tblName;
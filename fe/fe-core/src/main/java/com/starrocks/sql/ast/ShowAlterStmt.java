@@ -125,8 +125,10 @@ public class ShowAlterStmt extends ShowStmt {
         return visitor.visitShowAlterStatement(this, context);
     }
 
+    // The progress of the running jobs is counted by the agent tasks in the memory of leader,
+    // so it is not shown when the stmt is executed on the non-leader FE.
     @Override
     public RedirectStatus getRedirectStatus() {
-        return RedirectStatus.FORWARD_NO_SYNC;
+        return RedirectStatus.FORWARD_OR_READ_AFTER_SYNC;
     }
 }
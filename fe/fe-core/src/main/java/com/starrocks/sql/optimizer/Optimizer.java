@@ -15,6 +15,7 @@ import com.starrocks.sql.optimizer.operator.logical.LogicalTreeAnchorOperator;
 import com.starrocks.sql.optimizer.rule.Rule;
 import com.starrocks.sql.optimizer.rule.RuleSetType;
 import com.starrocks.sql.optimizer.rule.join.ReorderJoinRule;
+import com.starrocks.sql.optimizer.rule.mv.AsyncMaterializedViewRule;
 import com.starrocks.sql.optimizer.rule.mv.MaterializedViewRule;
 import com.starrocks.sql.optimizer.rule.transformation.ApplyExceptionRule;
 import com.starrocks.sql.optimizer.rule.transformation.GroupByCountDistinctRewriteRule;
@@ -201,6 +202,16 @@ public class Optimizer {
         tree = new MaterializedViewRule().transform(tree, context).get(0);
         deriveLogicalProperty(tree);
 
+        AsyncMaterializedViewRule asyncMaterializedViewRule = new AsyncMaterializedViewRule();
+        tree = asyncMaterializedViewRule.transform(tree, context).get(0);
+        deriveLogicalProperty(tree);
+        if (asyncMaterializedViewRule.isRewritten()) {
+            // prune the unused columns of the materialized views
+            rootTaskContext.setRequiredColumns(requiredColumns.clone());
+            ruleRewriteOnlyOnce(tree, rootTaskContext, RuleSetType.PRUNE_COLUMNS);
+            deriveLogicalProperty(tree);
+        }
+
         ruleRewriteIterative(tree, rootTaskContext, RuleSetType.MULTI_DISTINCT_REWRITE);
         ruleRewriteIterative(tree, rootTaskContext, RuleSetType.PUSH_DOWN_PREDICATE);
 
@@ -226,6 +237,30 @@ public class Optimizer {
         return tree.getInputs().get(0);
     }
 
+    /**
+     * Rewrite the logical plan of the defining query of an async materialized view, only the rules normalizing the
+     * plan are applied, so the plan could be matched with the plans of queries by {@link AsyncMaterializedViewRule}.
+     */
+    public OptExpression rewriteMaterializedViewPlan(ConnectContext connectContext,
+                                                     OptExpression logicOperatorTree,
+                                                     ColumnRefSet requiredColumns,
+                                                     ColumnRefFactory columnRefFactory) {
+        context = new OptimizerContext(new Memo(), columnRefFactory, connectContext);
+        TaskContext rootTaskContext =
+                new TaskContext(context, new PhysicalPropertySet(), requiredColumns.clone(), Double.MAX_VALUE);
+        OptExpression tree = OptExpression.create(new LogicalTreeAnchorOperator(), logicOperatorTree);
+        deriveLogicalProperty(tree);
+
+        ruleRewriteIterative(tree, rootTaskContext, RuleSetType.PUSH_DOWN_PREDICATE);
+        ruleRewriteIterative(tree, rootTaskContext, new MergeTwoProjectRule());
+        ruleRewriteOnlyOnce(tree, rootTaskContext, RuleSetType.PRUNE_COLUMNS);
+        deriveLogicalProperty(tree);
+        ruleRewriteIterative(tree, rootTaskContext, new MergeTwoProjectRule());
+        ruleRewriteIterative(tree, rootTaskContext, RuleSetType.PRUNE_PROJECT);
+        deriveLogicalProperty(tree);
+        return tree.getInputs().get(0);
+    }
+
     private OptExpression pushDownAggregation(OptExpression tree, TaskContext rootTaskContext,
                                               ColumnRefSet requiredColumns) {
         if (context.getSessionVariable().getCboPushDownAggregateMode() == -1) {
@@ -96,6 +96,7 @@ public enum RuleType {
     TF_PUSH_DOWN_ASSERT_ONE_ROW_PROJECT,
 
     TF_MATERIALIZED_VIEW,
+    TF_ASYNC_MATERIALIZED_VIEW,
 
     TF_MERGE_TWO_AGG_RULE,
 
@@ -59,6 +59,13 @@ public abstract class JoinOrder {
         double cost = -1L;
         double rowCount = -1L;
 
+        ExpressionInfo copy() {
+            ExpressionInfo exprInfo = new ExpressionInfo(expr, leftChildExpr, rightChildExpr);
+            exprInfo.cost = cost;
+            exprInfo.rowCount = rowCount;
+            return exprInfo;
+        }
+
         @Override
         public int hashCode() {
             return Objects.hash(expr.getOp().hashCode(), leftChildExpr, rightChildExpr);
@@ -214,13 +221,17 @@ public abstract class JoinOrder {
     }
 
     protected void calculateStatistics(OptExpression expr) {
+        calculateStatistics(expr, context);
+    }
+
+    static void calculateStatistics(OptExpression expr, OptimizerContext context) {
         // Avoid repeated calculate
         if (expr.getStatistics() != null) {
             return;
         }
 
         for (OptExpression child : expr.getInputs()) {
-            calculateStatistics(child);
+            calculateStatistics(child, context);
         }
 
         ExpressionContext expressionContext = new ExpressionContext(expr);
@@ -245,8 +256,17 @@ public abstract class JoinOrder {
     }
 
     protected ExpressionInfo buildJoinExpr(GroupInfo leftGroup, GroupInfo rightGroup) {
-        ExpressionInfo leftExprInfo = leftGroup.bestExprInfo;
-        ExpressionInfo rightExprInfo = rightGroup.bestExprInfo;
+        return buildJoinExpr(leftGroup, rightGroup, false);
+    }
+
+    /**
+     * @param isolated push the required columns into the copies of the best expressions of child groups,
+     *                 rather than the best expressions themselves, so that the join expressions of the same
+     *                 child groups could be built concurrently
+     */
+    protected ExpressionInfo buildJoinExpr(GroupInfo leftGroup, GroupInfo rightGroup, boolean isolated) {
+        ExpressionInfo leftExprInfo = isolated ? leftGroup.bestExprInfo.copy() : leftGroup.bestExprInfo;
+        ExpressionInfo rightExprInfo = isolated ? rightGroup.bestExprInfo.copy() : rightGroup.bestExprInfo;
         Pair<ScalarOperator, ScalarOperator> predicates = buildInnerJoinPredicate(
                 leftGroup.atoms, rightGroup.atoms);
         LogicalJoinOperator newJoin;
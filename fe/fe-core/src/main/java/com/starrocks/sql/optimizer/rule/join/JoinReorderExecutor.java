@@ -0,0 +1,80 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.join;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.common.ErrorType;
+import com.starrocks.sql.common.StarRocksPlannerException;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The thread pool shared by the join reorder of all the queries.
+ */
+final class JoinReorderExecutor {
+    // Use the caller thread to run the task when all threads are busy, so a query will never wait
+    // for the join reorder of other queries, and the tasks submitted by a task never dead lock
+    private static final ThreadPoolExecutor EXECUTOR = ThreadPoolManager.newDaemonThreadPool(
+            0, Math.max(1, Config.optimizer_join_reorder_threads_num), 60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy(), "join-reorder-pool", true);
+
+    private JoinReorderExecutor() {
+    }
+
+    static int getParallelism() {
+        return Math.max(1, Config.optimizer_join_reorder_threads_num);
+    }
+
+    /**
+     * Run the tasks concurrently with the connect context of current thread, and return their results in the
+     * order of tasks.
+     */
+    static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        ConnectContext connectContext = ConnectContext.get();
+        List<Future<T>> futures = Lists.newArrayList();
+        for (Callable<T> task : tasks) {
+            futures.add(EXECUTOR.submit(() -> {
+                // The task may be run by current thread if the pool is busy, keep its thread local then
+                boolean needSetThreadLocal = connectContext != null && ConnectContext.get() != connectContext;
+                if (needSetThreadLocal) {
+                    connectContext.setThreadLocalInfo();
+                }
+                try {
+                    return task.call();
+                } finally {
+                    if (needSetThreadLocal) {
+                        ConnectContext.remove();
+                    }
+                }
+            }));
+        }
+
+        List<T> results = Lists.newArrayList();
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new StarRocksPlannerException("Join reorder is interrupted", ErrorType.INTERNAL_ERROR);
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new StarRocksPlannerException("Join reorder failed: " + e.getCause().getMessage(),
+                        ErrorType.INTERNAL_ERROR);
+            }
+        }
+        return results;
+    }
+}
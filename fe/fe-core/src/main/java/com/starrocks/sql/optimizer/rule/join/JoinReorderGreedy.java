@@ -6,6 +6,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.MinMaxPriorityQueue;
 import com.google.common.collect.Sets;
+import com.starrocks.common.Pair;
+import com.starrocks.sql.PlannerProfile;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptimizerContext;
 
@@ -13,6 +15,7 @@ import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 /**
@@ -20,10 +23,17 @@ import java.util.stream.Collectors;
  * This implementation refer to gporca CJoinOrderDPv2 and CJoinOrderGreedy
  */
 public class JoinReorderGreedy extends JoinOrder {
+    // The number of the join candidates built concurrently, which is shown in the planner profile
+    public static final String PARALLEL_CANDIDATES_COUNTER = "JoinReorder.Greedy.ParallelCandidates";
+    // Build the candidates of a level concurrently only if there are enough of them
+    private static final int MIN_PARALLEL_CANDIDATES = 16;
+
     protected final MinMaxPriorityQueue<ExpressionInfo> topKExpr;
+    private final boolean enableParallel;
 
     public JoinReorderGreedy(OptimizerContext context) {
         super(context);
+        this.enableParallel = context.getSessionVariable().isCboEnableParallelJoinReorder();
         // Ensure that topk's ExpressionInfo is returned in the same order, the final plan will be different if the
         // cost is same and get ExpressionInfo in different order.
         this.topKExpr = MinMaxPriorityQueue.orderedBy((Comparator<ExpressionInfo>) (left, right) -> {
@@ -73,32 +83,62 @@ public class JoinReorderGreedy extends JoinOrder {
             rightGroupInfos = getBestGroupList(rightGroupInfos, curLevel);
         }
         List<GroupInfo> bestLeftGroups = getBestGroupList(leftGroupInfos, curLevel);
+        List<Pair<GroupInfo, GroupInfo>> candidates = Lists.newArrayList();
         for (GroupInfo leftGroup : bestLeftGroups) {
-            BitSet leftBitset = leftGroup.atoms;
-            double bestCost = Double.MAX_VALUE;
-
             for (GroupInfo rightGroup : rightGroupInfos) {
-                BitSet rightBitset = rightGroup.atoms;
-                if (leftBitset.intersects(rightBitset)) {
-                    continue;
+                if (!leftGroup.atoms.intersects(rightGroup.atoms)) {
+                    candidates.add(new Pair<>(leftGroup, rightGroup));
                 }
+            }
+        }
 
-                ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
-                joinExpr.expr.deriveLogicalPropertyItself();
-                calculateStatistics(joinExpr.expr);
+        if (enableParallel && candidates.size() >= MIN_PARALLEL_CANDIDATES) {
+            // The candidates only read the groups of lower levels, so they are built concurrently,
+            // and added to the groups of current level in the original order.
+            List<ExpressionInfo> joinExprs = buildJoinExprsInParallel(candidates);
+            for (int i = 0; i < candidates.size(); i++) {
+                addCandidate(curLevel, candidates.get(i), joinExprs.get(i));
+            }
+        } else {
+            for (Pair<GroupInfo, GroupInfo> candidate : candidates) {
+                addCandidate(curLevel, candidate, buildCandidate(candidate, false));
+            }
+        }
+    }
 
-                BitSet joinBitSet = new BitSet();
-                joinBitSet.or(leftBitset);
-                joinBitSet.or(rightBitset);
+    private ExpressionInfo buildCandidate(Pair<GroupInfo, GroupInfo> candidate, boolean isolated) {
+        ExpressionInfo joinExpr = buildJoinExpr(candidate.first, candidate.second, isolated);
+        joinExpr.expr.deriveLogicalPropertyItself();
+        calculateStatistics(joinExpr.expr);
+        computeCost(joinExpr, true);
+        return joinExpr;
+    }
 
-                computeCost(joinExpr, true);
-                getOrCreateGroupInfo(curLevel, joinBitSet, joinExpr);
-                double joinCost = joinExpr.cost;
-                if (joinCost < bestCost) {
-                    bestCost = joinCost;
+    private List<ExpressionInfo> buildJoinExprsInParallel(List<Pair<GroupInfo, GroupInfo>> candidates) {
+        int batchSize = Math.max(MIN_PARALLEL_CANDIDATES / 2,
+                (candidates.size() + JoinReorderExecutor.getParallelism() - 1) / JoinReorderExecutor.getParallelism());
+        List<Callable<List<ExpressionInfo>>> tasks = Lists.newArrayList();
+        for (List<Pair<GroupInfo, GroupInfo>> batch : Lists.partition(candidates, batchSize)) {
+            tasks.add(() -> {
+                List<ExpressionInfo> joinExprs = Lists.newArrayList();
+                for (Pair<GroupInfo, GroupInfo> candidate : batch) {
+                    joinExprs.add(buildCandidate(candidate, true));
                 }
-            }
+                return joinExprs;
+            });
         }
+
+        List<ExpressionInfo> joinExprs = Lists.newArrayList();
+        JoinReorderExecutor.invokeAll(tasks).forEach(joinExprs::addAll);
+        PlannerProfile.addCounter(PARALLEL_CANDIDATES_COUNTER, candidates.size());
+        return joinExprs;
+    }
+
+    private void addCandidate(JoinLevel curLevel, Pair<GroupInfo, GroupInfo> candidate, ExpressionInfo joinExpr) {
+        BitSet joinBitSet = new BitSet();
+        joinBitSet.or(candidate.first.atoms);
+        joinBitSet.or(candidate.second.atoms);
+        getOrCreateGroupInfo(curLevel, joinBitSet, joinExpr);
     }
 
     private List<GroupInfo> getBestGroupList(List<GroupInfo> groupInfos, JoinLevel curLevel) {
@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -69,7 +70,33 @@ public class ReorderJoinRule extends Rule {
                    MultiJoinNode multiJoinNode) {
         reorderAlgorithm.reorder(Lists.newArrayList(multiJoinNode.getAtoms()),
                 multiJoinNode.getPredicates(), multiJoinNode.getExpressionMap());
+        copyInReorderResult(reorderAlgorithm, context, innerJoinRoot, multiJoinNode);
+    }
+
+    /**
+     * Run the reorder algorithms concurrently, then copy their results into memo one by one in the
+     * given order. Only the enumeration runs in other threads, memo is still modified by current thread.
+     * The statistics of atoms must have been calculated before, so that the algorithms only read the atoms.
+     */
+    void enumerateInParallel(List<JoinOrder> reorderAlgorithms, OptimizerContext context,
+                             OptExpression innerJoinRoot, MultiJoinNode multiJoinNode) {
+        List<Callable<Void>> tasks = Lists.newArrayList();
+        for (JoinOrder reorderAlgorithm : reorderAlgorithms) {
+            tasks.add(() -> {
+                reorderAlgorithm.reorder(Lists.newArrayList(multiJoinNode.getAtoms()),
+                        multiJoinNode.getPredicates(), multiJoinNode.getExpressionMap());
+                return null;
+            });
+        }
+        JoinReorderExecutor.invokeAll(tasks);
+
+        for (JoinOrder reorderAlgorithm : reorderAlgorithms) {
+            copyInReorderResult(reorderAlgorithm, context, innerJoinRoot, multiJoinNode);
+        }
+    }
 
+    private void copyInReorderResult(JoinOrder reorderAlgorithm, OptimizerContext context,
+                                     OptExpression innerJoinRoot, MultiJoinNode multiJoinNode) {
         List<OptExpression> reorderTopKResult = reorderAlgorithm.getResult();
         LogicalJoinOperator oldRoot = (LogicalJoinOperator) innerJoinRoot.getOp();
 
@@ -142,22 +169,35 @@ public class ReorderJoinRule extends Rule {
             for (OptExpression innerJoinRoot : innerJoinTrees) {
                 MultiJoinNode multiJoinNode = MultiJoinNode.toMultiJoinNode(innerJoinRoot);
 
-                enumerate(new JoinReorderLeftDeep(context), context, innerJoinRoot, multiJoinNode);
                 // If there is no statistical information, the DP and greedy reorder algorithm are disabled,
                 // and the query plan degenerates to the left deep tree
                 if (Utils.hasUnknownColumnsStats(input) && !FeConstants.runningUnitTest) {
+                    enumerate(new JoinReorderLeftDeep(context), context, innerJoinRoot, multiJoinNode);
                     continue;
                 }
 
+                List<JoinOrder> reorderAlgorithms = Lists.newArrayList(new JoinReorderLeftDeep(context));
                 if (multiJoinNode.getAtoms().size() <= context.getSessionVariable().getCboMaxReorderNodeUseDP()
                         && context.getSessionVariable().isCboEnableDPJoinReorder()) {
                     // 10 table join reorder takes more than 100ms,
                     // so the join reorder using dp is currently controlled below 10.
-                    enumerate(new JoinReorderDP(context), context, innerJoinRoot, multiJoinNode);
+                    reorderAlgorithms.add(new JoinReorderDP(context));
                 }
 
                 if (context.getSessionVariable().isCboEnableGreedyJoinReorder()) {
-                    enumerate(new JoinReorderGreedy(context), context, innerJoinRoot, multiJoinNode);
+                    reorderAlgorithms.add(new JoinReorderGreedy(context));
+                }
+
+                if (reorderAlgorithms.size() > 1 && context.getSessionVariable().isCboEnableParallelJoinReorder()) {
+                    // Calculate the statistics of atoms first, so the algorithms could be run concurrently
+                    for (OptExpression atom : multiJoinNode.getAtoms()) {
+                        JoinOrder.calculateStatistics(atom, context);
+                    }
+                    enumerateInParallel(reorderAlgorithms, context, innerJoinRoot, multiJoinNode);
+                } else {
+                    for (JoinOrder reorderAlgorithm : reorderAlgorithms) {
+                        enumerate(reorderAlgorithm, context, innerJoinRoot, multiJoinNode);
+                    }
                 }
             }
         }
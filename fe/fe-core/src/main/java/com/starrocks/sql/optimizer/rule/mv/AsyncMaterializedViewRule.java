@@ -0,0 +1,142 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.Table;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.rule.Rule;
+import com.starrocks.sql.optimizer.rule.RuleType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrite the SPJG sub plans of the query with the async materialized views of the scanned tables.
+ * For every maximal SPJG sub plan, the materialized view which could answer it and has the least estimated
+ * rows to read is chosen, and it is only used if it reads no more rows than the base tables.
+ */
+public class AsyncMaterializedViewRule extends Rule {
+    private static final Logger LOG = LogManager.getLogger(AsyncMaterializedViewRule.class);
+
+    private ColumnRefFactory factory;
+    private ConnectContext connectContext;
+    private boolean enableUnionRewrite;
+    private boolean rewritten = false;
+
+    public AsyncMaterializedViewRule() {
+        super(RuleType.TF_ASYNC_MATERIALIZED_VIEW, Pattern.create(OperatorType.PATTERN));
+    }
+
+    public boolean isRewritten() {
+        return rewritten;
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        connectContext = ConnectContext.get();
+        if (connectContext == null || !context.getSessionVariable().isEnableMaterializedViewRewrite()) {
+            return Lists.newArrayList(input);
+        }
+        Map<Long, MaterializedView> mvs = Maps.newHashMap();
+        collectMaterializedViews(input, mvs);
+        if (mvs.isEmpty()) {
+            return Lists.newArrayList(input);
+        }
+
+        factory = context.getColumnRefFactory();
+        enableUnionRewrite = context.getSessionVariable().isEnableMaterializedViewUnionRewrite();
+        return Lists.newArrayList(rewrite(input, Lists.newArrayList(mvs.values())));
+    }
+
+    private OptExpression rewrite(OptExpression expression, List<MaterializedView> mvs) {
+        SPJGPlan queryPlan = SPJGPlan.of(expression, false);
+        if (queryPlan != null) {
+            OptExpression result = rewriteByBestMv(queryPlan, mvs);
+            if (result != null) {
+                rewritten = true;
+                return result;
+            }
+        }
+        for (int i = 0; i < expression.arity(); i++) {
+            expression.setChild(i, rewrite(expression.inputAt(i), mvs));
+        }
+        return expression;
+    }
+
+    private OptExpression rewriteByBestMv(SPJGPlan queryPlan, List<MaterializedView> mvs) {
+        Set<Long> queryTableIds = Sets.newHashSet();
+        for (LogicalOlapScanOperator scan : queryPlan.getScans()) {
+            queryTableIds.add(scan.getTable().getId());
+        }
+
+        OptExpression best = null;
+        long bestRowCount = SPJGMaterializedViewRewriter.getBaseRowCount(queryPlan);
+        for (MaterializedView mv : mvs) {
+            Set<Long> baseTableIds = Sets.newHashSet();
+            mv.getBaseTableInfos().forEach(baseTableInfo -> baseTableIds.add(baseTableInfo.getTableId()));
+            if (!baseTableIds.equals(queryTableIds)) {
+                continue;
+            }
+            MaterializationContext mvContext = MaterializationContext.build(mv, factory, connectContext);
+            if (mvContext == null) {
+                continue;
+            }
+            SPJGMaterializedViewRewriter rewriter =
+                    new SPJGMaterializedViewRewriter(queryPlan, mvContext, factory, enableUnionRewrite);
+            OptExpression result = rewriter.rewrite();
+            // prefer the materialized view reading less rows, and never read more rows than the base tables
+            if (result != null && rewriter.getRowCount() <= bestRowCount &&
+                    (best == null || rewriter.getRowCount() < bestRowCount)) {
+                best = result;
+                bestRowCount = rewriter.getRowCount();
+                LOG.debug("query could be rewritten by materialized view {}, estimated rows {}",
+                        mv.getName(), bestRowCount);
+            }
+        }
+        return best;
+    }
+
+    private static void collectMaterializedViews(OptExpression expression, Map<Long, MaterializedView> mvs) {
+        if (expression.getOp() instanceof LogicalOlapScanOperator) {
+            Table table = ((LogicalOlapScanOperator) expression.getOp()).getTable();
+            for (long mvId : table.getRelatedMaterializedViews()) {
+                if (mvs.containsKey(mvId)) {
+                    continue;
+                }
+                MaterializedView mv = getMaterializedView(table, mvId);
+                if (mv != null && mv.isActive() && mv.getRefreshScheme() != null &&
+                        mv.getRefreshScheme().getType() == MaterializedView.RefreshType.ASYNC) {
+                    mvs.put(mvId, mv);
+                }
+            }
+        }
+        for (OptExpression input : expression.getInputs()) {
+            collectMaterializedViews(input, mvs);
+        }
+    }
+
+    private static MaterializedView getMaterializedView(Table baseTable, long mvId) {
+        Long dbId = baseTable.getRelatedMaterializedViewDbId(mvId);
+        Database db = dbId == null ? null : GlobalStateMgr.getCurrentState().getDb(dbId);
+        if (db == null) {
+            return null;
+        }
+        Table table = db.getTable(mvId);
+        return table instanceof MaterializedView ? (MaterializedView) table : null;
+    }
+}
@@ -0,0 +1,160 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Column;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.DistributionSpec;
+import com.starrocks.sql.optimizer.base.HashDistributionDesc;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copy a logical SPJG plan with the columns created by the column ref factory of another query, so that the plan
+ * of a materialized view built once could be put into the plans of different queries.
+ * Only the scan, project, filter, join and aggregation operators are supported.
+ */
+class LogicalPlanCopier {
+    private final ColumnRefFactory factory;
+    // column of the origin plan -> column of the copied plan
+    private final Map<ColumnRefOperator, ScalarOperator> columnMapping = Maps.newHashMap();
+
+    LogicalPlanCopier(ColumnRefFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Return null if there is any operator could not be copied.
+     */
+    OptExpression copy(OptExpression expression) {
+        List<OptExpression> inputs = Lists.newArrayList();
+        for (OptExpression input : expression.getInputs()) {
+            OptExpression copied = copy(input);
+            if (copied == null) {
+                return null;
+            }
+            inputs.add(copied);
+        }
+
+        Operator op = expression.getOp();
+        if (op.getProjection() != null) {
+            return null;
+        }
+        Operator copied;
+        if (op instanceof LogicalOlapScanOperator) {
+            copied = copyScan((LogicalOlapScanOperator) op);
+        } else if (op instanceof LogicalProjectOperator) {
+            Map<ColumnRefOperator, ScalarOperator> columnRefMap = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry :
+                    ((LogicalProjectOperator) op).getColumnRefMap().entrySet()) {
+                ScalarOperator value = rewrite(entry.getValue());
+                columnRefMap.put(getColumn(entry.getKey()), value);
+            }
+            copied = new LogicalProjectOperator(columnRefMap, op.getLimit());
+        } else if (op instanceof LogicalFilterOperator) {
+            copied = new LogicalFilterOperator.Builder().withOperator((LogicalFilterOperator) op)
+                    .setPredicate(rewrite(op.getPredicate()))
+                    .build();
+        } else if (op instanceof LogicalJoinOperator) {
+            LogicalJoinOperator join = (LogicalJoinOperator) op;
+            copied = new LogicalJoinOperator.Builder().withOperator(join)
+                    .setOnPredicate(rewrite(join.getOnPredicate()))
+                    .setPredicate(rewrite(join.getPredicate()))
+                    .build();
+        } else if (op instanceof LogicalAggregationOperator) {
+            LogicalAggregationOperator agg = (LogicalAggregationOperator) op;
+            Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, CallOperator> entry : agg.getAggregations().entrySet()) {
+                CallOperator call = (CallOperator) rewrite(entry.getValue());
+                aggregations.put(getColumn(entry.getKey()), call);
+            }
+            copied = new LogicalAggregationOperator.Builder().withOperator(agg)
+                    .setGroupingKeys(getColumns(agg.getGroupingKeys()))
+                    .setPartitionByColumns(getColumns(agg.getPartitionByColumns()))
+                    .setAggregations(aggregations)
+                    .setPredicate(rewrite(agg.getPredicate()))
+                    .build();
+        } else {
+            return null;
+        }
+        return OptExpression.create(copied, inputs);
+    }
+
+    private LogicalOlapScanOperator copyScan(LogicalOlapScanOperator scan) {
+        ImmutableMap.Builder<ColumnRefOperator, Column> colRefToColumnMetaMapBuilder = ImmutableMap.builder();
+        ImmutableMap.Builder<Column, ColumnRefOperator> columnMetaToColRefMapBuilder = ImmutableMap.builder();
+        // the unused columns are pruned from the output columns, but not from the columns of the table
+        Map<Integer, Integer> columnIdMapping = Maps.newHashMap();
+        int relationId = factory.getNextRelationId();
+        for (Map.Entry<Column, ColumnRefOperator> entry : scan.getColumnMetaToColRefMap().entrySet()) {
+            ColumnRefOperator column = getColumn(entry.getValue());
+            factory.updateColumnToRelationIds(column.getId(), relationId);
+            factory.updateColumnRefToColumns(column, entry.getKey());
+            columnMetaToColRefMapBuilder.put(entry.getKey(), column);
+            columnIdMapping.put(entry.getValue().getId(), column.getId());
+        }
+        for (Map.Entry<ColumnRefOperator, Column> entry : scan.getColRefToColumnMetaMap().entrySet()) {
+            colRefToColumnMetaMapBuilder.put(getColumn(entry.getKey()), entry.getValue());
+        }
+
+        HashDistributionDesc distributionDesc = scan.getDistributionSpec().getHashDistributionDesc();
+        List<Integer> distributionColumns = Lists.newArrayList();
+        for (Integer columnId : distributionDesc.getColumns()) {
+            distributionColumns.add(columnIdMapping.get(columnId));
+        }
+        return new LogicalOlapScanOperator(scan.getTable(),
+                colRefToColumnMetaMapBuilder.build(),
+                columnMetaToColRefMapBuilder.build(),
+                DistributionSpec.createHashDistributionSpec(
+                        new HashDistributionDesc(distributionColumns, distributionDesc.getSourceType())),
+                scan.getLimit(),
+                rewrite(scan.getPredicate()),
+                scan.getSelectedIndexId(),
+                scan.getSelectedPartitionId(),
+                scan.getPartitionNames(),
+                scan.getSelectedTabletId(),
+                scan.getHintsTabletIds());
+    }
+
+    /**
+     * Return the column of the copied plan, which is created if the column is not copied yet.
+     */
+    ColumnRefOperator getColumn(ColumnRefOperator column) {
+        ScalarOperator copied = columnMapping.get(column);
+        if (copied == null) {
+            copied = factory.create(column.getName(), column.getType(), column.isNullable());
+            columnMapping.put(column, copied);
+        }
+        return (ColumnRefOperator) copied;
+    }
+
+    private List<ColumnRefOperator> getColumns(List<ColumnRefOperator> columns) {
+        if (columns == null) {
+            return null;
+        }
+        List<ColumnRefOperator> copied = Lists.newArrayList();
+        for (ColumnRefOperator column : columns) {
+            copied.add(getColumn(column));
+        }
+        return copied;
+    }
+
+    private ScalarOperator rewrite(ScalarOperator operator) {
+        return new ReplaceColumnRefRewriter(columnMapping).rewrite(operator);
+    }
+}
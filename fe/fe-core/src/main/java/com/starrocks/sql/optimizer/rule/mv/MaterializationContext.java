@@ -0,0 +1,188 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.ast.QueryRelation;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Optimizer;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import com.starrocks.sql.parser.SqlParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The plan of the defining query of an async materialized view, built with the column ref factory of the query
+ * to be rewritten. The plan could be put into the plan of the query only once, so a new context is built for
+ * every rewrite attempt.
+ * The normalized plan is built once and cached for each materialized view, and copied with the columns of the
+ * query for every rewrite attempt.
+ */
+class MaterializationContext {
+    private static final Logger LOG = LogManager.getLogger(MaterializationContext.class);
+    private static final long MAX_CACHED_MV_PLANS = 1000;
+
+    // materialized view id -> the normalized plan of its defining query
+    private static final Cache<Long, MvPlan> MV_PLAN_CACHE =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_MV_PLANS).build();
+
+    private final MaterializedView mv;
+    private final OptExpression mvPlan;
+    // output columns of the plan, in the order of the base schema of the materialized view
+    private final List<ColumnRefOperator> mvPlanOutputs;
+    private final Set<String> stalePartitionNames;
+
+    private MaterializationContext(MaterializedView mv, OptExpression mvPlan, List<ColumnRefOperator> mvPlanOutputs,
+                                   Set<String> stalePartitionNames) {
+        this.mv = mv;
+        this.mvPlan = mvPlan;
+        this.mvPlanOutputs = mvPlanOutputs;
+        this.stalePartitionNames = stalePartitionNames;
+    }
+
+    /**
+     * Return null if the freshness of the materialized view could not be told, or its plan could not be built.
+     */
+    static MaterializationContext build(MaterializedView mv, ColumnRefFactory factory, ConnectContext connectContext) {
+        Set<String> stalePartitionNames = mv.getStalePartitionNames();
+        if (stalePartitionNames == null) {
+            return null;
+        }
+        MvPlan cachedPlan = getMvPlan(mv, connectContext);
+        if (cachedPlan.plan == null) {
+            return null;
+        }
+        LogicalPlanCopier copier = new LogicalPlanCopier(factory);
+        OptExpression mvPlan = copier.copy(cachedPlan.plan);
+        if (mvPlan == null) {
+            return null;
+        }
+        List<ColumnRefOperator> mvPlanOutputs = Lists.newArrayList();
+        for (ColumnRefOperator output : cachedPlan.outputs) {
+            mvPlanOutputs.add(copier.getColumn(output));
+        }
+        return new MaterializationContext(mv, mvPlan, mvPlanOutputs, stalePartitionNames);
+    }
+
+    private static MvPlan getMvPlan(MaterializedView mv, ConnectContext connectContext) {
+        List<OlapTable> baseTables = Lists.newArrayList();
+        for (MaterializedView.BaseTableInfo baseTableInfo : mv.getBaseTableInfos()) {
+            // checked by getStalePartitionNames
+            baseTables.add((OlapTable) baseTableInfo.getTable());
+        }
+        MvPlan mvPlan = MV_PLAN_CACHE.getIfPresent(mv.getId());
+        if (mvPlan == null || !mvPlan.isValid(mv, baseTables)) {
+            mvPlan = buildMvPlan(mv, baseTables, connectContext);
+            MV_PLAN_CACHE.put(mv.getId(), mvPlan);
+        }
+        return mvPlan;
+    }
+
+    private static MvPlan buildMvPlan(MaterializedView mv, List<OlapTable> baseTables, ConnectContext connectContext) {
+        try {
+            ColumnRefFactory factory = new ColumnRefFactory();
+            StatementBase stmt = SqlParser.parse(mv.getViewDefineSql(), connectContext.getSessionVariable()).get(0);
+            Analyzer.analyze(stmt, connectContext);
+            QueryRelation query = ((QueryStatement) stmt).getQueryRelation();
+            LogicalPlan logicalPlan = new RelationTransformer(factory, connectContext).transform(query);
+            OptExpression mvPlan = new Optimizer().rewriteMaterializedViewPlan(connectContext, logicalPlan.getRoot(),
+                    new ColumnRefSet(logicalPlan.getOutputColumn()), factory);
+
+            List<String> outputNames = query.getColumnOutputNames();
+            List<ColumnRefOperator> mvPlanOutputs = Lists.newArrayList();
+            for (Column column : mv.getBaseSchema()) {
+                int index = -1;
+                for (int i = 0; i < outputNames.size(); i++) {
+                    if (outputNames.get(i).equalsIgnoreCase(column.getName())) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    return new MvPlan(mv, baseTables, null, null);
+                }
+                mvPlanOutputs.add(logicalPlan.getOutputColumn().get(index));
+            }
+            return new MvPlan(mv, baseTables, mvPlan, mvPlanOutputs);
+        } catch (Exception e) {
+            LOG.debug("failed to build the plan of materialized view {}", mv.getName(), e);
+            return new MvPlan(mv, baseTables, null, null);
+        }
+    }
+
+    MaterializedView getMv() {
+        return mv;
+    }
+
+    OptExpression getMvPlan() {
+        return mvPlan;
+    }
+
+    List<ColumnRefOperator> getMvPlanOutputs() {
+        return mvPlanOutputs;
+    }
+
+    Set<String> getStalePartitionNames() {
+        return stalePartitionNames;
+    }
+
+    /**
+     * The normalized plan of a materialized view, it is never changed after built, so it is shared by the queries.
+     * It is built again if the materialized view or any of its base tables is replaced, or the schema is changed.
+     */
+    private static class MvPlan {
+        private final MaterializedView mv;
+        private final String viewDefineSql;
+        private final List<OlapTable> baseTables;
+        private final List<Integer> baseSchemaVersions = Lists.newArrayList();
+        // null if the materialized view could not be used to rewrite
+        private final OptExpression plan;
+        private final List<ColumnRefOperator> outputs;
+
+        MvPlan(MaterializedView mv, List<OlapTable> baseTables, OptExpression plan, List<ColumnRefOperator> outputs) {
+            this.mv = mv;
+            this.viewDefineSql = mv.getViewDefineSql();
+            this.baseTables = baseTables;
+            for (OlapTable baseTable : baseTables) {
+                baseSchemaVersions.add(getBaseSchemaVersion(baseTable));
+            }
+            this.plan = plan;
+            this.outputs = outputs;
+        }
+
+        boolean isValid(MaterializedView currentMv, List<OlapTable> currentBaseTables) {
+            if (mv != currentMv || !viewDefineSql.equals(currentMv.getViewDefineSql()) ||
+                    baseTables.size() != currentBaseTables.size()) {
+                return false;
+            }
+            for (int i = 0; i < baseTables.size(); i++) {
+                // the tables are compared by identity, they may be dropped and created again with the same id
+                if (baseTables.get(i) != currentBaseTables.get(i) ||
+                        baseSchemaVersions.get(i) != getBaseSchemaVersion(currentBaseTables.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int getBaseSchemaVersion(OlapTable table) {
+            return table.getIndexMetaByIndexId(table.getBaseIndexId()).getSchemaVersion();
+        }
+    }
+}
@@ -0,0 +1,489 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.DistributionInfo;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.HashDistributionInfo;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.ast.PartitionNames;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.DistributionSpec;
+import com.starrocks.sql.optimizer.base.HashDistributionDesc;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalUnionOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrite a SPJG query plan with an async materialized view whose defining query is also SPJG:
+ * <ul>
+ * <li>the query and the materialized view must scan the same tables, and every conjunct of the
+ * materialized view must be a conjunct of the query, the other conjuncts of the query are compensated
+ * by a filter on the materialized view.</li>
+ * <li>if the materialized view has no aggregation, the SPJ part of the query is replaced by the
+ * materialized view, and the aggregation of the query, if any, is applied on it.</li>
+ * <li>if both have aggregations, the aggregation of the query is answered by the materialized view directly
+ * when the group by keys are the same, otherwise it is rolled up from the aggregations of the
+ * materialized view.</li>
+ * <li>the stale partitions of the materialized view are compensated by a union all with the defining query
+ * on the corresponding partitions of the partition ref base table.</li>
+ * </ul>
+ */
+class SPJGMaterializedViewRewriter {
+    private final SPJGPlan queryPlan;
+    private final MaterializationContext mvContext;
+    private final ColumnRefFactory factory;
+    private final boolean enableUnionRewrite;
+
+    // estimated row count of the rewritten relation of the materialized view
+    private long rowCount;
+
+    SPJGMaterializedViewRewriter(SPJGPlan queryPlan, MaterializationContext mvContext, ColumnRefFactory factory,
+                                 boolean enableUnionRewrite) {
+        this.queryPlan = queryPlan;
+        this.mvContext = mvContext;
+        this.factory = factory;
+        this.enableUnionRewrite = enableUnionRewrite;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Return the plan to replace the query plan, or null if the query could not be rewritten.
+     */
+    OptExpression rewrite() {
+        SPJGPlan mvPlan = SPJGPlan.of(mvContext.getMvPlan(), true);
+        if (mvPlan == null) {
+            return null;
+        }
+
+        Map<Long, LogicalOlapScanOperator> queryScans = getScansByTableId(queryPlan);
+        Map<Long, LogicalOlapScanOperator> mvScans = getScansByTableId(mvPlan);
+        if (queryScans == null || mvScans == null || !queryScans.keySet().equals(mvScans.keySet())) {
+            return null;
+        }
+
+        // translate the columns of the scans of the materialized view to the ones of the query
+        Map<ColumnRefOperator, ScalarOperator> mvToQueryColumns = Maps.newHashMap();
+        for (Map.Entry<Long, LogicalOlapScanOperator> entry : mvScans.entrySet()) {
+            Map<String, ColumnRefOperator> queryColumns = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, Column> column :
+                    queryScans.get(entry.getKey()).getColRefToColumnMetaMap().entrySet()) {
+                queryColumns.put(column.getValue().getName().toLowerCase(), column.getKey());
+            }
+            for (Map.Entry<ColumnRefOperator, Column> column : entry.getValue().getColRefToColumnMetaMap().entrySet()) {
+                ColumnRefOperator queryColumn = queryColumns.get(column.getValue().getName().toLowerCase());
+                if (queryColumn == null) {
+                    // the column is not used by the query, a new column never matches any expression of the query
+                    queryColumn = factory.create(column.getValue().getName(), column.getValue().getType(),
+                            column.getValue().isAllowNull());
+                }
+                mvToQueryColumns.put(column.getKey(), queryColumn);
+            }
+        }
+        ReplaceColumnRefRewriter translator = new ReplaceColumnRefRewriter(mvToQueryColumns);
+
+        List<ScalarOperator> residualPredicates = Lists.newArrayList(queryPlan.getConjuncts());
+        for (ScalarOperator mvConjunct : mvPlan.getConjuncts()) {
+            ScalarOperator translated = translator.rewrite(mvConjunct);
+            ScalarOperator matched = residualPredicates.stream()
+                    .filter(conjunct -> isEquivalent(conjunct, translated)).findFirst().orElse(null);
+            if (matched == null) {
+                return null;
+            }
+            residualPredicates.remove(matched);
+        }
+
+        List<ColumnRefOperator> mvColumns = Lists.newArrayList();
+        OptExpression mvRelation = buildMvRelation(mvColumns);
+        if (mvRelation == null) {
+            return null;
+        }
+
+        // expression of the query -> column of the materialized view
+        Map<ScalarOperator, ColumnRefOperator> keyOutputs = Maps.newHashMap();
+        Map<ScalarOperator, ColumnRefOperator> aggOutputs = Maps.newHashMap();
+        for (int i = 0; i < mvColumns.size(); i++) {
+            ScalarOperator definition = mvPlan.getDefinition(mvContext.getMvPlanOutputs().get(i));
+            if (definition == null) {
+                return null;
+            }
+            definition = translator.rewrite(definition);
+            if (definition instanceof CallOperator && ((CallOperator) definition).isAggregate()) {
+                aggOutputs.putIfAbsent(definition, mvColumns.get(i));
+            } else if (!containsAggregate(definition)) {
+                keyOutputs.putIfAbsent(definition, mvColumns.get(i));
+            }
+        }
+
+        LogicalAggregationOperator queryAgg = queryPlan.getAggregation();
+        LogicalAggregationOperator mvAgg = mvPlan.getAggregation();
+        if (mvAgg == null) {
+            return rewriteSPJ(queryAgg, residualPredicates, keyOutputs, mvRelation);
+        } else if (queryAgg == null) {
+            return null;
+        }
+
+        List<ScalarOperator> residualOnMv = Lists.newArrayList();
+        for (ScalarOperator predicate : residualPredicates) {
+            ScalarOperator rewritten = rewriteByOutputs(predicate, keyOutputs);
+            if (rewritten == null) {
+                return null;
+            }
+            residualOnMv.add(rewritten);
+        }
+        OptExpression filtered = addFilter(mvRelation, residualOnMv);
+
+        Set<ScalarOperator> queryKeys = Sets.newHashSet();
+        for (ColumnRefOperator key : queryAgg.getGroupingKeys()) {
+            queryKeys.add(queryPlan.getDefinition(key));
+        }
+        Set<ScalarOperator> mvKeys = Sets.newHashSet();
+        for (ColumnRefOperator key : mvAgg.getGroupingKeys()) {
+            mvKeys.add(translator.rewrite(mvPlan.getDefinition(key)));
+        }
+
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (ColumnRefOperator key : queryAgg.getGroupingKeys()) {
+            ScalarOperator rewritten = rewriteByOutputs(queryPlan.getDefinition(key), keyOutputs);
+            if (rewritten == null) {
+                return null;
+            }
+            projection.put(key, rewritten);
+        }
+
+        if (queryKeys.equals(mvKeys)) {
+            // every row of the materialized view is a group of the query
+            for (ColumnRefOperator aggColumn : queryAgg.getAggregations().keySet()) {
+                ColumnRefOperator mvColumn = aggOutputs.get(queryPlan.getDefinition(aggColumn));
+                if (mvColumn == null) {
+                    return null;
+                }
+                projection.put(aggColumn, mvColumn);
+            }
+            OptExpression result = OptExpression.create(new LogicalProjectOperator(projection), filtered);
+            if (queryAgg.getPredicate() != null) {
+                result = OptExpression.create(new LogicalFilterOperator(queryAgg.getPredicate()), result);
+            }
+            return result;
+        }
+
+        // roll up the aggregations of the materialized view
+        Map<ColumnRefOperator, CallOperator> rollupAggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : queryAgg.getAggregations().entrySet()) {
+            ColumnRefOperator mvColumn = aggOutputs.get(queryPlan.getDefinition(entry.getKey()));
+            if (mvColumn == null) {
+                return null;
+            }
+            if (queryAgg.getGroupingKeys().isEmpty() && entry.getValue().getFnName().equals(FunctionSet.COUNT)) {
+                // the sum of counts is null rather than 0 if no row of the materialized view is matched
+                return null;
+            }
+            CallOperator rollup = buildRollupCall(entry.getValue(), mvColumn);
+            if (rollup == null) {
+                return null;
+            }
+            projection.put(mvColumn, mvColumn);
+            rollupAggregations.put(entry.getKey(), rollup);
+        }
+        LogicalAggregationOperator rollupAgg = new LogicalAggregationOperator(AggType.GLOBAL,
+                queryAgg.getGroupingKeys(), queryAgg.getGroupingKeys(), rollupAggregations, false, -1,
+                Operator.DEFAULT_LIMIT, queryAgg.getPredicate());
+        return OptExpression.create(rollupAgg,
+                OptExpression.create(new LogicalProjectOperator(projection), filtered));
+    }
+
+    private OptExpression rewriteSPJ(LogicalAggregationOperator queryAgg, List<ScalarOperator> residualPredicates,
+                                     Map<ScalarOperator, ColumnRefOperator> outputs, OptExpression mvRelation) {
+        List<ScalarOperator> residualOnMv = Lists.newArrayList();
+        for (ScalarOperator predicate : residualPredicates) {
+            ScalarOperator rewritten = rewriteByOutputs(predicate, outputs);
+            if (rewritten == null) {
+                return null;
+            }
+            residualOnMv.add(rewritten);
+        }
+
+        OptExpression spjRoot = queryPlan.getSpjRoot();
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (int columnId : spjRoot.getOutputColumns().getColumnIds()) {
+            ColumnRefOperator column = factory.getColumnRef(columnId);
+            ScalarOperator definition = queryPlan.getDefinition(column);
+            ScalarOperator rewritten = definition == null ? null : rewriteByOutputs(definition, outputs);
+            if (rewritten == null) {
+                return null;
+            }
+            projection.put(column, rewritten);
+        }
+
+        OptExpression result = OptExpression.create(new LogicalProjectOperator(projection),
+                addFilter(mvRelation, residualOnMv));
+        if (queryAgg != null) {
+            result = OptExpression.create(queryAgg, result);
+        }
+        return result;
+    }
+
+    /**
+     * Build the relation equivalent to the up-to-date data of the materialized view, the output columns are
+     * added to mvColumns in the order of its base schema.
+     */
+    private OptExpression buildMvRelation(List<ColumnRefOperator> mvColumns) {
+        MaterializedView mv = mvContext.getMv();
+        Set<String> stalePartitionNames = mvContext.getStalePartitionNames();
+        List<String> freshPartitionNames = Lists.newArrayList();
+        for (String partitionName : mv.getPartitionNames()) {
+            if (!stalePartitionNames.contains(partitionName)) {
+                freshPartitionNames.add(partitionName);
+            }
+        }
+        if (freshPartitionNames.isEmpty()) {
+            return null;
+        }
+
+        List<ColumnRefOperator> scanColumns = Lists.newArrayList();
+        OptExpression mvScan = buildMvScan(mv,
+                stalePartitionNames.isEmpty() ? null : new PartitionNames(false, freshPartitionNames), scanColumns);
+        rowCount = 0;
+        for (String partitionName : freshPartitionNames) {
+            rowCount += mv.getPartition(partitionName).getBaseIndex().getRowCount();
+        }
+        if (stalePartitionNames.isEmpty()) {
+            mvColumns.addAll(scanColumns);
+            return mvScan;
+        }
+
+        OlapTable refBaseTable = mv.getPartitionRefBaseTable();
+        if (!enableUnionRewrite || refBaseTable == null) {
+            return null;
+        }
+        Set<String> basePartitionNames = mv.getRefBasePartitionNames(stalePartitionNames);
+        if (basePartitionNames.isEmpty()) {
+            // the stale partitions have no data to compensate
+            mvColumns.addAll(scanColumns);
+            return mvScan;
+        }
+
+        List<ColumnRefOperator> planOutputs = mvContext.getMvPlanOutputs();
+        List<ColumnRefOperator> unionColumns = Lists.newArrayList();
+        for (int i = 0; i < scanColumns.size(); i++) {
+            ColumnRefOperator scanColumn = scanColumns.get(i);
+            if (!scanColumn.getType().equals(planOutputs.get(i).getType())) {
+                return null;
+            }
+            unionColumns.add(factory.create(scanColumn.getName(), scanColumn.getType(),
+                    scanColumn.isNullable() || planOutputs.get(i).isNullable()));
+        }
+        OptExpression compensation = restrictPartitions(mvContext.getMvPlan(), refBaseTable.getId(),
+                new PartitionNames(false, Lists.newArrayList(basePartitionNames)));
+        for (String partitionName : basePartitionNames) {
+            Partition partition = refBaseTable.getPartition(partitionName);
+            if (partition == null) {
+                return null;
+            }
+            rowCount += partition.getBaseIndex().getRowCount();
+        }
+        for (LogicalOlapScanOperator scan : queryPlan.getScans()) {
+            if (scan.getTable().getId() != refBaseTable.getId()) {
+                rowCount += ((OlapTable) scan.getTable()).getRowCount();
+            }
+        }
+
+        mvColumns.addAll(unionColumns);
+        LogicalUnionOperator union = new LogicalUnionOperator(unionColumns,
+                Lists.newArrayList(scanColumns, planOutputs), true);
+        return OptExpression.create(union, mvScan, compensation);
+    }
+
+    private OptExpression buildMvScan(MaterializedView mv, PartitionNames partitionNames,
+                                      List<ColumnRefOperator> scanColumns) {
+        ImmutableMap.Builder<ColumnRefOperator, Column> colRefToColumnMetaMapBuilder = ImmutableMap.builder();
+        ImmutableMap.Builder<Column, ColumnRefOperator> columnMetaToColRefMapBuilder = ImmutableMap.builder();
+        int relationId = factory.getNextRelationId();
+        for (Column column : mv.getBaseSchema()) {
+            ColumnRefOperator columnRef = factory.create(column.getName(), column.getType(), column.isAllowNull());
+            factory.updateColumnToRelationIds(columnRef.getId(), relationId);
+            factory.updateColumnRefToColumns(columnRef, column);
+            scanColumns.add(columnRef);
+            colRefToColumnMetaMapBuilder.put(columnRef, column);
+            columnMetaToColRefMapBuilder.put(column, columnRef);
+        }
+        Map<Column, ColumnRefOperator> columnMetaToColRefMap = columnMetaToColRefMapBuilder.build();
+
+        DistributionInfo distributionInfo = mv.getDefaultDistributionInfo();
+        Preconditions.checkState(distributionInfo instanceof HashDistributionInfo);
+        List<Integer> hashDistributeColumns = Lists.newArrayList();
+        for (Column distributedColumn : ((HashDistributionInfo) distributionInfo).getDistributionColumns()) {
+            hashDistributeColumns.add(columnMetaToColRefMap.get(distributedColumn).getId());
+        }
+        HashDistributionDesc hashDistributionDesc =
+                new HashDistributionDesc(hashDistributeColumns, HashDistributionDesc.SourceType.LOCAL);
+
+        LogicalOlapScanOperator scan = new LogicalOlapScanOperator(mv,
+                colRefToColumnMetaMapBuilder.build(),
+                columnMetaToColRefMap,
+                DistributionSpec.createHashDistributionSpec(hashDistributionDesc),
+                Operator.DEFAULT_LIMIT,
+                null,
+                mv.getBaseIndexId(),
+                null,
+                partitionNames,
+                Lists.newArrayList(),
+                Lists.newArrayList());
+        return OptExpression.create(scan);
+    }
+
+    private static OptExpression restrictPartitions(OptExpression expression, long tableId,
+                                                    PartitionNames partitionNames) {
+        Operator op = expression.getOp();
+        if (op instanceof LogicalOlapScanOperator && ((LogicalOlapScanOperator) op).getTable().getId() == tableId) {
+            LogicalOlapScanOperator scan = (LogicalOlapScanOperator) op;
+            LogicalOlapScanOperator restricted = new LogicalOlapScanOperator(scan.getTable(),
+                    scan.getColRefToColumnMetaMap(),
+                    scan.getColumnMetaToColRefMap(),
+                    scan.getDistributionSpec(),
+                    scan.getLimit(),
+                    scan.getPredicate(),
+                    scan.getSelectedIndexId(),
+                    null,
+                    partitionNames,
+                    Lists.newArrayList(),
+                    Lists.newArrayList());
+            return OptExpression.create(restricted);
+        }
+        List<OptExpression> inputs = Lists.newArrayList();
+        for (OptExpression input : expression.getInputs()) {
+            inputs.add(restrictPartitions(input, tableId, partitionNames));
+        }
+        return OptExpression.create(op, inputs);
+    }
+
+    private static OptExpression addFilter(OptExpression input, List<ScalarOperator> predicates) {
+        if (predicates.isEmpty()) {
+            return input;
+        }
+        return OptExpression.create(new LogicalFilterOperator(Utils.compoundAnd(predicates)), input);
+    }
+
+    /**
+     * Rewrite the expression with the output columns of the materialized view, return null if some column
+     * or aggregation in it is not an output.
+     */
+    private static ScalarOperator rewriteByOutputs(ScalarOperator expression,
+                                                   Map<ScalarOperator, ColumnRefOperator> outputs) {
+        ColumnRefOperator output = outputs.get(expression);
+        if (output != null) {
+            return output;
+        }
+        if (expression instanceof ColumnRefOperator ||
+                (expression instanceof CallOperator && ((CallOperator) expression).isAggregate())) {
+            return null;
+        }
+        if (expression.getChildren().isEmpty()) {
+            return expression;
+        }
+        ScalarOperator rewritten = expression.clone();
+        for (int i = 0; i < expression.getChildren().size(); i++) {
+            ScalarOperator child = rewriteByOutputs(expression.getChild(i), outputs);
+            if (child == null) {
+                return null;
+            }
+            rewritten.setChild(i, child);
+        }
+        return rewritten;
+    }
+
+    private static boolean containsAggregate(ScalarOperator expression) {
+        if (expression instanceof CallOperator && ((CallOperator) expression).isAggregate()) {
+            return true;
+        }
+        return expression.getChildren().stream().anyMatch(SPJGMaterializedViewRewriter::containsAggregate);
+    }
+
+    private static boolean isEquivalent(ScalarOperator left, ScalarOperator right) {
+        if (left.equals(right)) {
+            return true;
+        }
+        if (left instanceof BinaryPredicateOperator && right instanceof BinaryPredicateOperator) {
+            BinaryPredicateOperator leftPredicate = (BinaryPredicateOperator) left;
+            BinaryPredicateOperator rightPredicate = (BinaryPredicateOperator) right;
+            return leftPredicate.getBinaryType() == BinaryPredicateOperator.BinaryType.EQ &&
+                    rightPredicate.getBinaryType() == BinaryPredicateOperator.BinaryType.EQ &&
+                    leftPredicate.getChild(0).equals(rightPredicate.getChild(1)) &&
+                    leftPredicate.getChild(1).equals(rightPredicate.getChild(0));
+        }
+        return false;
+    }
+
+    private static CallOperator buildRollupCall(CallOperator aggCall, ColumnRefOperator mvColumn) {
+        if (aggCall.isDistinct()) {
+            return null;
+        }
+        String rollupFnName;
+        switch (aggCall.getFnName()) {
+            case FunctionSet.SUM:
+            case FunctionSet.COUNT:
+                rollupFnName = FunctionSet.SUM;
+                break;
+            case FunctionSet.MIN:
+            case FunctionSet.MAX:
+                rollupFnName = aggCall.getFnName();
+                break;
+            default:
+                return null;
+        }
+        Function fn = Expr.getBuiltinFunction(rollupFnName, new Type[] {mvColumn.getType()},
+                Function.CompareMode.IS_IDENTICAL);
+        if (fn == null || !fn.getReturnType().equals(aggCall.getType())) {
+            return null;
+        }
+        return new CallOperator(rollupFnName, fn.getReturnType(), Lists.newArrayList(mvColumn), fn);
+    }
+
+    private static Map<Long, LogicalOlapScanOperator> getScansByTableId(SPJGPlan plan) {
+        Map<Long, LogicalOlapScanOperator> scans = Maps.newHashMap();
+        for (LogicalOlapScanOperator scan : plan.getScans()) {
+            if (scans.put(scan.getTable().getId(), scan) != null) {
+                // self join is not supported
+                return null;
+            }
+        }
+        return scans;
+    }
+
+    static long getBaseRowCount(SPJGPlan plan) {
+        long rowCount = 0;
+        for (LogicalOlapScanOperator scan : plan.getScans()) {
+            rowCount += ((OlapTable) scan.getTable()).getRowCount();
+        }
+        return rowCount;
+    }
+}
@@ -0,0 +1,170 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalized form of a Select-Project-Join(-Group by) plan: the scanned tables, the conjuncts of all the filters
+ * and join predicates, and the definition of every output column, all expressed by the columns of the scans.
+ */
+class SPJGPlan {
+    private final List<LogicalOlapScanOperator> scans = Lists.newArrayList();
+    private final List<ScalarOperator> conjuncts = Lists.newArrayList();
+    // column -> expression on the columns of the scans
+    private final Map<ColumnRefOperator, ScalarOperator> definitions = Maps.newHashMap();
+    private LogicalAggregationOperator aggregation;
+    private OptExpression spjRoot;
+
+    private SPJGPlan() {
+    }
+
+    /**
+     * Return the normalized plan, or null if the plan is not a SPJG plan.
+     *
+     * @param allowTopProject whether a projection on the aggregation is allowed, which is the case for the plan
+     *                        of a materialized view
+     */
+    static SPJGPlan of(OptExpression root, boolean allowTopProject) {
+        SPJGPlan plan = new SPJGPlan();
+        OptExpression aggExpression = root;
+        LogicalProjectOperator topProject = null;
+        if (allowTopProject && root.getOp() instanceof LogicalProjectOperator && root.arity() == 1 &&
+                root.inputAt(0).getOp() instanceof LogicalAggregationOperator) {
+            topProject = (LogicalProjectOperator) root.getOp();
+            if (topProject.hasLimit() || topProject.getProjection() != null) {
+                return null;
+            }
+            aggExpression = root.inputAt(0);
+        }
+
+        if (aggExpression.getOp() instanceof LogicalAggregationOperator) {
+            LogicalAggregationOperator agg = (LogicalAggregationOperator) aggExpression.getOp();
+            if (agg.getType() != AggType.GLOBAL || agg.isSplit() || agg.hasLimit() || agg.getProjection() != null) {
+                return null;
+            }
+            plan.aggregation = agg;
+            plan.spjRoot = aggExpression.inputAt(0);
+        } else {
+            plan.spjRoot = root;
+        }
+
+        if (!plan.collect(plan.spjRoot)) {
+            return null;
+        }
+
+        if (plan.aggregation != null) {
+            for (Map.Entry<ColumnRefOperator, CallOperator> entry : plan.aggregation.getAggregations().entrySet()) {
+                plan.definitions.put(entry.getKey(), plan.normalize(entry.getValue()));
+            }
+        }
+        if (topProject != null) {
+            Map<ColumnRefOperator, ScalarOperator> projectDefinitions = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : topProject.getColumnRefMap().entrySet()) {
+                projectDefinitions.put(entry.getKey(), plan.normalize(entry.getValue()));
+            }
+            plan.definitions.putAll(projectDefinitions);
+        }
+        return plan;
+    }
+
+    private boolean collect(OptExpression expression) {
+        Operator op = expression.getOp();
+        if (op.hasLimit() || op.getProjection() != null) {
+            return false;
+        }
+
+        if (op instanceof LogicalOlapScanOperator) {
+            LogicalOlapScanOperator scan = (LogicalOlapScanOperator) op;
+            if (scan.getPartitionNames() != null || !scan.getHintsTabletIds().isEmpty() ||
+                    scan.getSelectedIndexId() != ((OlapTable) scan.getTable()).getBaseIndexId()) {
+                return false;
+            }
+            scans.add(scan);
+            for (ColumnRefOperator column : scan.getColRefToColumnMetaMap().keySet()) {
+                definitions.put(column, column);
+            }
+            addConjuncts(scan.getPredicate());
+            return true;
+        } else if (op instanceof LogicalProjectOperator) {
+            if (!collect(expression.inputAt(0))) {
+                return false;
+            }
+            Map<ColumnRefOperator, ScalarOperator> projectDefinitions = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry :
+                    ((LogicalProjectOperator) op).getColumnRefMap().entrySet()) {
+                projectDefinitions.put(entry.getKey(), normalize(entry.getValue()));
+            }
+            definitions.putAll(projectDefinitions);
+            return true;
+        } else if (op instanceof LogicalFilterOperator) {
+            if (!collect(expression.inputAt(0))) {
+                return false;
+            }
+            addConjuncts(op.getPredicate());
+            return true;
+        } else if (op instanceof LogicalJoinOperator) {
+            LogicalJoinOperator join = (LogicalJoinOperator) op;
+            if (!join.isInnerOrCrossJoin() || !collect(expression.inputAt(0)) || !collect(expression.inputAt(1))) {
+                return false;
+            }
+            addConjuncts(join.getOnPredicate());
+            addConjuncts(join.getPredicate());
+            return true;
+        }
+        return false;
+    }
+
+    private void addConjuncts(ScalarOperator predicate) {
+        if (predicate == null) {
+            return;
+        }
+        for (ScalarOperator conjunct : Utils.extractConjuncts(normalize(predicate))) {
+            if (!conjuncts.contains(conjunct)) {
+                conjuncts.add(conjunct);
+            }
+        }
+    }
+
+    ScalarOperator normalize(ScalarOperator operator) {
+        return new ReplaceColumnRefRewriter(definitions).rewrite(operator);
+    }
+
+    List<LogicalOlapScanOperator> getScans() {
+        return scans;
+    }
+
+    List<ScalarOperator> getConjuncts() {
+        return conjuncts;
+    }
+
+    ScalarOperator getDefinition(ColumnRefOperator column) {
+        return definitions.get(column);
+    }
+
+    LogicalAggregationOperator getAggregation() {
+        return aggregation;
+    }
+
+    OptExpression getSpjRoot() {
+        return spjRoot;
+    }
+}
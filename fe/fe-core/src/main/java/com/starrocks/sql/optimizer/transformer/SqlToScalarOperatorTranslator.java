@@ -26,6 +26,7 @@ import com.starrocks.analysis.IsNullPredicate;
 import com.starrocks.analysis.LikePredicate;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.SlotRef;
 import com.starrocks.analysis.Subquery;
@@ -656,6 +657,27 @@ public final class SqlToScalarOperatorTranslator {
                     ConstantOperator.createBigint(node.getIntValue())));
         }
 
+        @Override
+        public ScalarOperator visitParameter(Parameter node, Context context) {
+            LiteralExpr value = node.getValue();
+            if (value == null) {
+                throw new SemanticException("No value is bound to the parameter");
+            }
+            if (value instanceof NullLiteral) {
+                return ConstantOperator.createNull(node.getType());
+            }
+            // The bound value is cast to the type inferred when analyzing
+            ConstantOperator constant = (ConstantOperator) visitLiteral(value, context);
+            if (constant.getType().matchesType(node.getType())) {
+                return constant;
+            }
+            try {
+                return constant.castToStrictly(node.getType());
+            } catch (Exception e) {
+                throw new SemanticException("Invalid parameter value %s for type %s", value.toSql(), node.getType());
+            }
+        }
+
         @Override
         public ScalarOperator visitVariableExpr(VariableExpr node, Context context) {
             if (node.isNull()) {
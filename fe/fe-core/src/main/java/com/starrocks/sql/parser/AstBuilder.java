@@ -50,6 +50,7 @@ import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.OdbcScalarFunctionCall;
 import com.starrocks.analysis.OrderByElement;
 import com.starrocks.analysis.OutFileClause;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.analysis.ParseNode;
 import com.starrocks.analysis.Predicate;
 import com.starrocks.analysis.RoutineLoadDataSourceProperties;
@@ -356,9 +357,16 @@ import static java.util.stream.Collectors.toList;
 
 public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
     private final long sqlMode;
+    // The parameter markers are only allowed in prepared statements, null if not allowed
+    private final List<Parameter> parameters;
 
     public AstBuilder(long sqlMode) {
+        this(sqlMode, null);
+    }
+
+    public AstBuilder(long sqlMode, List<Parameter> parameters) {
         this.sqlMode = sqlMode;
+        this.parameters = parameters;
     }
 
     @Override
@@ -4315,6 +4323,16 @@ public class AstBuilder extends StarRocksBaseVisitor<ParseNode> {
         return new FunctionCallExpr("concat", new FunctionParams(Lists.newArrayList(left, right)));
     }
 
+    @Override
+    public ParseNode visitParameter(StarRocksParser.ParameterContext context) {
+        if (parameters == null) {
+            throw new ParsingException("Parameter markers are only supported in prepared statements");
+        }
+        Parameter parameter = new Parameter(context.start.getStartIndex());
+        parameters.add(parameter);
+        return parameter;
+    }
+
     @Override
     public ParseNode visitNullLiteral(StarRocksParser.NullLiteralContext context) {
         return new NullLiteral();
@@ -3,6 +3,7 @@ package com.starrocks.sql.parser;
 
 import com.clearspring.analytics.util.Lists;
 import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.Parameter;
 import com.starrocks.qe.OriginStatement;
 import com.starrocks.qe.SessionVariable;
 import com.starrocks.sql.ast.ImportColumnsStmt;
@@ -10,6 +11,7 @@ import com.starrocks.sql.ast.StatementBase;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 
+import java.util.Comparator;
 import java.util.List;
 
 public class SqlParser {
@@ -27,6 +29,24 @@ public class SqlParser {
         return statements;
     }
 
+    /**
+     * Parse the statement of COM_STMT_PREPARE, which may contain parameter markers.
+     *
+     * @param parameters the parameter markers are added to it in the order of their positions
+     */
+    public static StatementBase parsePrepared(String sql, SessionVariable sessionVariable, List<Parameter> parameters) {
+        StarRocksParser parser = parserBuilder(sql, sessionVariable);
+        List<StarRocksParser.SingleStatementContext> singleStatementContexts = parser.sqlStatements().singleStatement();
+        if (singleStatementContexts.size() != 1) {
+            throw new ParsingException("Only one statement can be prepared");
+        }
+        StatementBase statement = (StatementBase) new AstBuilder(sessionVariable.getSqlMode(), parameters)
+                .visitSingleStatement(singleStatementContexts.get(0));
+        statement.setOrigStmt(new OriginStatement(sql, 0));
+        parameters.sort(Comparator.comparingInt(Parameter::getPosition));
+        return statement;
+    }
+
     /**
      * We need not only sqlMode but also other parameters to define the property of parser.
      * Please consider use {@link #parse(String, SessionVariable)}
@@ -370,6 +370,7 @@ BITNOT: '~';
 
 ARROW: '->';
 AT: '@';
+PARAMETER: '?';
 
 INTEGER_VALUE
     : DIGIT+
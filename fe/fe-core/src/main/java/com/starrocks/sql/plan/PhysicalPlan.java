@@ -0,0 +1,64 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.thrift.TResultSinkType;
+
+import java.util.List;
+
+/**
+ * The optimized plan of a query, from which the fragments are built.
+ * <p>
+ * Building the fragments does not change the physical plan, so it can be built again for another
+ * execution of the query, and each execution gets its own {@link ExecPlan}.
+ */
+public class PhysicalPlan {
+    private final OptExpression root;
+    private final ColumnRefFactory columnRefFactory;
+    private final List<ColumnRefOperator> outputColumns;
+    private final List<String> colNames;
+    // The pipeline engine is disabled when the plan contains operators not supported by it
+    private final boolean forceDisablePipeline;
+
+    public PhysicalPlan(OptExpression root, ColumnRefFactory columnRefFactory, List<ColumnRefOperator> outputColumns,
+                        List<String> colNames, boolean forceDisablePipeline) {
+        this.root = root;
+        this.columnRefFactory = columnRefFactory;
+        this.outputColumns = outputColumns;
+        this.colNames = colNames;
+        this.forceDisablePipeline = forceDisablePipeline;
+    }
+
+    public OptExpression getRoot() {
+        return root;
+    }
+
+    public PhysicalPlan withRoot(OptExpression root) {
+        return new PhysicalPlan(root, columnRefFactory, outputColumns, colNames, forceDisablePipeline);
+    }
+
+    public ExecPlan buildExecPlan(ConnectContext session, TResultSinkType resultSinkType) {
+        try {
+            if (forceDisablePipeline) {
+                session.getSessionVariable().setEnablePipelineEngine(false);
+            }
+            /*
+             * SingleNodeExecPlan is set in TableQueryPlanAction to generate a single-node Plan,
+             * currently only used in Spark/Flink Connector
+             * Because the connector sends only simple queries, it only needs to remove the output fragment
+             */
+            return new PlanFragmentBuilder().createPhysicalPlan(
+                    root, session, outputColumns, columnRefFactory, colNames,
+                    resultSinkType,
+                    !session.getSessionVariable().isSingleNodeExecPlan());
+        } finally {
+            if (forceDisablePipeline) {
+                session.getSessionVariable().setEnablePipelineEngine(true);
+            }
+        }
+    }
+}
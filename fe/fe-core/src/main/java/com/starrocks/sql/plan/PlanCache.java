@@ -0,0 +1,298 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.FunctionCallExpr;
+import com.starrocks.analysis.LiteralExpr;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.ParseNode;
+import com.starrocks.analysis.Subquery;
+import com.starrocks.analysis.TableName;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.sql.analyzer.AST2SQL;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.ast.TableRelation;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.transformer.SqlToScalarOperatorTranslator;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache the physical plans of repeated queries in one session, so the query only need to be parsed and
+ * analyzed, the optimizer is skipped. The fragments are still built for each execution from the cached
+ * physical plan, which is never changed, so the changes to the exec plan by the coordinator are not shared.
+ * <p>
+ * The key is the analyzed statement with its literals replaced by parameters, so the queries which differ
+ * only in constants share one cached plan. The plan is reused directly if the constants are the same, or
+ * else the new constants are bound into it by {@link PlanRebinder} if it is safe, e.g. they are only used
+ * by the predicates.
+ * A cached plan is only reused when:
+ * 1. The session variables are not changed and the tables resolved by the analyzer are the same objects.
+ * 2. The partitions and the selected indexes of all scanned tables are not changed.
+ * The caller must hold the read locks of the related databases when get or put a plan, so that the
+ * tables can't be changed while checking.
+ */
+public class PlanCache {
+    // Functions which are folded to constant when planning, their results change every time
+    private static final Set<String> PLAN_TIME_FUNCTIONS = new ImmutableSet.Builder<String>()
+            .add("now").add("curdate").add("current_date").add("curtime").add("current_time")
+            .add("current_timestamp").add("localtime").add("localtimestamp").add("utc_timestamp")
+            .add("unix_timestamp").add("sysdate")
+            .build();
+
+    private final Map<String, CachedPlan> plans = new LinkedHashMap<String, CachedPlan>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPlan> eldest) {
+            return size() > Config.plan_cache_max_entries_per_session;
+        }
+    };
+
+    private long hitCount = 0;
+
+    public PhysicalPlan get(QueryStatement stmt, ConnectContext session, Map<TableName, Table> tables) {
+        ParameterizedQuery query = ParameterizedQuery.create(stmt, session);
+        if (query == null) {
+            return null;
+        }
+        CachedPlan cachedPlan = plans.get(query.key);
+        if (cachedPlan == null) {
+            increaseMissCount();
+            return null;
+        }
+        PhysicalPlan plan = cachedPlan.isValid(session, tables) ? cachedPlan.bind(query.parameters) : null;
+        if (plan == null) {
+            plans.remove(query.key);
+            increaseMissCount();
+            return null;
+        }
+        hitCount++;
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_HIT.increase(1L);
+        }
+        return plan;
+    }
+
+    public void put(QueryStatement stmt, ConnectContext session, Map<TableName, Table> tables, PhysicalPlan plan) {
+        if (!isCacheable(stmt, tables, plan)) {
+            return;
+        }
+        ParameterizedQuery query = ParameterizedQuery.create(stmt, session);
+        if (query != null) {
+            plans.put(query.key, new CachedPlan(session.getSessionVariable(), tables, plan, query.parameters));
+        }
+    }
+
+    public void clear() {
+        plans.clear();
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    private static void increaseMissCount() {
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_MISS.increase(1L);
+        }
+    }
+
+    static boolean isCacheable(QueryStatement stmt, Map<TableName, Table> tables, PhysicalPlan plan) {
+        if (stmt.isExplain() || stmt.hasOutFileClause() || tables.isEmpty()) {
+            return false;
+        }
+        // Views may be altered without changing the tables, and the scan ranges of external tables
+        // depend on the files when planning
+        if (!tables.values().stream().allMatch(table -> table instanceof OlapTable)) {
+            return false;
+        }
+        List<PhysicalOlapScanOperator> scans = Lists.newArrayList();
+        if (!collectOlapScans(plan.getRoot(), scans) || scans.isEmpty()) {
+            return false;
+        }
+        List<Expr> exprs = Lists.newArrayList();
+        if (!AnalyzerUtils.collectExprs(stmt.getQueryRelation(), exprs)) {
+            return false;
+        }
+        // The tables and views used by subqueries in expressions are not collected
+        return exprs.stream().noneMatch(expr -> expr.contains(Subquery.class) || containsNonDeterministicFunction(expr));
+    }
+
+    // Return false if there is a scan of other tables, or of materialized views, whose partitions rewritten onto
+    // become stale after the base tables change, without changing the materialized views
+    private static boolean collectOlapScans(OptExpression expr, List<PhysicalOlapScanOperator> scans) {
+        if (expr.getOp() instanceof PhysicalOlapScanOperator) {
+            if (((PhysicalOlapScanOperator) expr.getOp()).getTable() instanceof MaterializedView) {
+                return false;
+            }
+            scans.add((PhysicalOlapScanOperator) expr.getOp());
+        } else if (expr.getOp() instanceof PhysicalScanOperator) {
+            return false;
+        }
+        return expr.getInputs().stream().allMatch(input -> collectOlapScans(input, scans));
+    }
+
+    // Check the functions resolved by the analyzer, rather than the names in sql
+    static boolean containsNonDeterministicFunction(Expr expr) {
+        if (expr instanceof FunctionCallExpr) {
+            Function fn = ((FunctionCallExpr) expr).getFn();
+            // The user defined functions may return different results every time
+            if (fn == null || fn.isUdf()) {
+                return true;
+            }
+            String fnName = fn.functionName().toLowerCase();
+            if (FunctionSet.nonDeterministicFunctions.contains(fnName) || PLAN_TIME_FUNCTIONS.contains(fnName)) {
+                return true;
+            }
+        }
+        return expr.getChildren().stream().anyMatch(PlanCache::containsNonDeterministicFunction);
+    }
+
+    /**
+     * The analyzed statement with its literals replaced by parameters.
+     */
+    private static class ParameterizedQuery {
+        private final String key;
+        private final List<ConstantOperator> parameters;
+
+        private ParameterizedQuery(String key, List<ConstantOperator> parameters) {
+            this.key = key;
+            this.parameters = parameters;
+        }
+
+        static ParameterizedQuery create(QueryStatement stmt, ConnectContext session) {
+            ParameterizedSQLBuilder builder = new ParameterizedSQLBuilder();
+            String sql;
+            try {
+                sql = builder.visit(stmt);
+            } catch (RuntimeException e) {
+                // Some nodes of the statement could not be printed
+                return null;
+            }
+            String key = session.getCurrentCatalog() + "." + session.getDatabase() + "." +
+                    session.getQualifiedUser() + ":" + sql;
+            return new ParameterizedQuery(key, builder.parameters);
+        }
+    }
+
+    private static class ParameterizedSQLBuilder extends AST2SQL.SQLBuilder {
+        private final List<ConstantOperator> parameters = Lists.newArrayList();
+
+        @Override
+        public String visitNode(ParseNode node, Void context) {
+            throw new UnsupportedOperationException("Unknown node " + node.getClass().getSimpleName());
+        }
+
+        @Override
+        public String visitLiteral(LiteralExpr node, Void context) {
+            parameters.add((ConstantOperator) SqlToScalarOperatorTranslator.translate(node));
+            return "?";
+        }
+
+        // The bound value of a prepared statement is a constant too
+        @Override
+        public String visitParameter(Parameter node, Void context) {
+            parameters.add((ConstantOperator) SqlToScalarOperatorTranslator.translate(node));
+            return "?";
+        }
+
+        @Override
+        public String visitTable(TableRelation node, Void context) {
+            StringBuilder sqlBuilder = new StringBuilder(super.visitTable(node, context));
+            // The partitions and tablets are not printed by the default builder
+            if (node.getPartitionNames() != null) {
+                sqlBuilder.append(" PARTITION").append(node.getPartitionNames().isTemp() ? "(TEMP " : "(")
+                        .append(String.join(", ", node.getPartitionNames().getPartitionNames())).append(")");
+            }
+            if (node.getTabletIds() != null && !node.getTabletIds().isEmpty()) {
+                sqlBuilder.append(" TABLET").append(node.getTabletIds());
+            }
+            return sqlBuilder.toString();
+        }
+    }
+
+    private static class CachedPlan {
+        private final SessionVariable sessionVariable;
+        private final Set<Table> tables = Sets.newIdentityHashSet();
+        // table -> partition ids when the plan is built
+        private final Map<OlapTable, Set<Long>> partitionIds = new IdentityHashMap<>();
+        private final List<PhysicalOlapScanOperator> scans = Lists.newArrayList();
+        private final PhysicalPlan plan;
+        private final List<ConstantOperator> parameters;
+        // null if the plan could not be bound with other parameters
+        private final PlanRebinder rebinder;
+
+        CachedPlan(SessionVariable sessionVariable, Map<TableName, Table> tables, PhysicalPlan plan,
+                   List<ConstantOperator> parameters) {
+            this.sessionVariable = sessionVariable;
+            this.tables.addAll(tables.values());
+            this.plan = plan;
+            this.parameters = parameters;
+            this.rebinder = PlanRebinder.create(plan.getRoot(), parameters);
+            collectOlapScans(plan.getRoot(), scans);
+            for (PhysicalOlapScanOperator scan : scans) {
+                partitionIds.computeIfAbsent((OlapTable) scan.getTable(), PlanCache::getPartitionIds);
+            }
+        }
+
+        boolean isValid(ConnectContext session, Map<TableName, Table> currentTables) {
+            // The tables may be dropped and created again with the same name
+            Set<Table> resolvedTables = Sets.newIdentityHashSet();
+            resolvedTables.addAll(currentTables.values());
+            if (sessionVariable != session.getSessionVariable() || !tables.equals(resolvedTables)) {
+                return false;
+            }
+            for (Map.Entry<OlapTable, Set<Long>> entry : partitionIds.entrySet()) {
+                if (!entry.getValue().equals(getPartitionIds(entry.getKey()))) {
+                    return false;
+                }
+            }
+            // The index is replaced by schema change or dropped
+            return scans.stream().allMatch(scan ->
+                    ((OlapTable) scan.getTable()).getIndexMetaByIndexId(scan.getSelectedIndexId()) != null);
+        }
+
+        PhysicalPlan bind(List<ConstantOperator> newParameters) {
+            if (parameters.equals(newParameters)) {
+                return plan;
+            }
+            if (rebinder == null) {
+                return null;
+            }
+            OptExpression root = rebinder.rebind(plan.getRoot(), newParameters);
+            return root == null ? null : plan.withRoot(root);
+        }
+    }
+
+    private static Set<Long> getPartitionIds(OlapTable table) {
+        Set<Long> ids = Sets.newHashSet();
+        for (Partition partition : table.getAllPartitions()) {
+            ids.add(partition.getId());
+        }
+        return ids;
+    }
+}
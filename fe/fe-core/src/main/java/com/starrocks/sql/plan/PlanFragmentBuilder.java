@@ -32,6 +32,7 @@ import com.starrocks.catalog.Tablet;
 import com.starrocks.catalog.Type;
 import com.starrocks.common.Config;
 import com.starrocks.common.IdGenerator;
+import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.planner.AggregationNode;
 import com.starrocks.planner.AnalyticEvalNode;
@@ -568,6 +569,11 @@ public class PlanFragmentBuilder {
                     scanNode.addScanRangeLocations(partition, selectedTable, tablets, localBeId);
                 }
                 scanNode.setTotalTabletsNum(totalTabletsNum);
+                Map<Long, Pair<Long, Long>> incrementalScanVersions =
+                        context.getConnectContext().getIncrementalScanVersions(referenceTable.getId());
+                if (incrementalScanVersions != null) {
+                    scanNode.setIncrementalScanVersions(incrementalScanVersions);
+                }
             } catch (UserException e) {
                 throw new StarRocksPlannerException(
                         "Build Exec OlapScanNode fail, scan info is invalid," + e.getMessage(),
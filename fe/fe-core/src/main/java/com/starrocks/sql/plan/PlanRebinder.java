@@ -0,0 +1,320 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.Projection;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashAggregateOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashJoinOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.transformation.DistributionPruneRule;
+import com.starrocks.sql.optimizer.rule.transformation.PartitionPruneRule;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds the constants of a query into the physical plan cached for another query, which differs from it
+ * only in constants.
+ * <p>
+ * The constants of the query are the parameters, and they are matched with the constants of the plan by value.
+ * A plan could be bound only if:
+ * 1. All the operators of the plan are known here, so are all their scalar operators.
+ * 2. The constants matching the parameters only appear in the predicates of scan, filter and join operators,
+ * and each of them matches exactly one parameter.
+ * 3. Each parameter matches some constant of the plan, i.e. it is not folded or removed by the optimizer.
+ * 4. The partitions and tablets selected by each olap scan could be pruned again from its predicate.
+ * The partitions and tablets of the olap scans are pruned again after their predicates are bound.
+ */
+class PlanRebinder {
+    private final List<ConstantOperator> parameters;
+    // The parameters matched by some constant of the plan
+    private final BitSet matchedParameters = new BitSet();
+
+    private PlanRebinder(List<ConstantOperator> parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * @return null if the plan could not be bound with other parameters
+     */
+    static PlanRebinder create(OptExpression root, List<ConstantOperator> parameters) {
+        if (parameters.isEmpty() || parameters.stream().anyMatch(ConstantOperator::isNull)) {
+            return null;
+        }
+        PlanRebinder rebinder = new PlanRebinder(parameters);
+        if (!rebinder.check(root) || rebinder.matchedParameters.cardinality() != parameters.size()) {
+            return null;
+        }
+        return rebinder;
+    }
+
+    /**
+     * @return the plan bound with the parameters, or null if any of them could not be bound
+     */
+    OptExpression rebind(OptExpression root, List<ConstantOperator> newParameters) {
+        if (newParameters.size() != parameters.size()) {
+            return null;
+        }
+        for (int i = 0; i < parameters.size(); i++) {
+            if (newParameters.get(i).isNull() ||
+                    !isSameKind(parameters.get(i).getType(), newParameters.get(i).getType())) {
+                return null;
+            }
+        }
+        try {
+            return bindPlan(root, newParameters);
+        } catch (Exception e) {
+            // the new parameter could not be cast to the type of the constant in plan
+            return null;
+        }
+    }
+
+    private boolean check(OptExpression expr) {
+        Operator op = expr.getOp();
+        List<ScalarOperator> predicates = Lists.newArrayList();
+        List<ScalarOperator> others = Lists.newArrayList();
+        addProjection(others, op.getProjection());
+        switch (op.getOpType()) {
+            case PHYSICAL_OLAP_SCAN:
+                PhysicalOlapScanOperator scan = (PhysicalOlapScanOperator) op;
+                LogicalOlapScanOperator pruned = prune(scan, scan.getPredicate());
+                if (!Sets.newHashSet(pruned.getSelectedPartitionId()).equals(
+                        Sets.newHashSet(scan.getSelectedPartitionId())) ||
+                        !Sets.newHashSet(pruned.getSelectedTabletId()).equals(
+                                Sets.newHashSet(scan.getSelectedTabletId()))) {
+                    return false;
+                }
+                predicates.add(op.getPredicate());
+                break;
+            case PHYSICAL_FILTER:
+                predicates.add(op.getPredicate());
+                break;
+            case PHYSICAL_HASH_JOIN:
+                predicates.add(((PhysicalHashJoinOperator) op).getOnPredicate());
+                predicates.add(op.getPredicate());
+                break;
+            case PHYSICAL_HASH_AGG:
+                others.addAll(((PhysicalHashAggregateOperator) op).getAggregations().values());
+                others.add(op.getPredicate());
+                break;
+            case PHYSICAL_PROJECT:
+                others.addAll(((PhysicalProjectOperator) op).getColumnRefMap().values());
+                others.addAll(((PhysicalProjectOperator) op).getCommonSubOperatorMap().values());
+                break;
+            case PHYSICAL_TOPN:
+            case PHYSICAL_DISTRIBUTION:
+            case PHYSICAL_LIMIT:
+                others.add(op.getPredicate());
+                break;
+            default:
+                return false;
+        }
+
+        List<ConstantOperator> constants = Lists.newArrayList();
+        predicates.forEach(predicate -> collectConstants(predicate, constants));
+        for (ConstantOperator constant : constants) {
+            BitSet matched = matchParameters(constant);
+            if (matched.cardinality() > 1) {
+                return false;
+            }
+            matchedParameters.or(matched);
+        }
+
+        constants.clear();
+        others.forEach(scalar -> collectConstants(scalar, constants));
+        if (constants.stream().anyMatch(constant -> !matchParameters(constant).isEmpty())) {
+            return false;
+        }
+        return expr.getInputs().stream().allMatch(this::check);
+    }
+
+    private OptExpression bindPlan(OptExpression expr, List<ConstantOperator> newParameters) throws Exception {
+        List<OptExpression> inputs = Lists.newArrayList();
+        boolean inputChanged = false;
+        for (OptExpression input : expr.getInputs()) {
+            OptExpression newInput = bindPlan(input, newParameters);
+            inputChanged |= newInput != input;
+            inputs.add(newInput);
+        }
+
+        Operator op = expr.getOp();
+        Operator newOp = op;
+        if (op instanceof PhysicalOlapScanOperator) {
+            ScalarOperator predicate = bind(op.getPredicate(), newParameters);
+            if (predicate != op.getPredicate()) {
+                newOp = copyScan((PhysicalOlapScanOperator) op, predicate);
+            }
+        } else if (op instanceof PhysicalFilterOperator) {
+            ScalarOperator predicate = bind(op.getPredicate(), newParameters);
+            if (predicate != op.getPredicate()) {
+                newOp = new PhysicalFilterOperator(predicate, op.getLimit(), op.getProjection());
+            }
+        } else if (op instanceof PhysicalHashJoinOperator) {
+            PhysicalHashJoinOperator join = (PhysicalHashJoinOperator) op;
+            ScalarOperator onPredicate = bind(join.getOnPredicate(), newParameters);
+            ScalarOperator predicate = bind(op.getPredicate(), newParameters);
+            if (onPredicate != join.getOnPredicate() || predicate != op.getPredicate()) {
+                newOp = new PhysicalHashJoinOperator(join.getJoinType(), onPredicate, join.getJoinHint(),
+                        op.getLimit(), predicate, op.getProjection());
+            }
+        }
+
+        if (newOp == op && !inputChanged) {
+            return expr;
+        }
+        OptExpression newExpr = OptExpression.create(newOp, inputs);
+        newExpr.setLogicalProperty(expr.getLogicalProperty());
+        newExpr.setStatistics(expr.getStatistics());
+        newExpr.setRequiredProperties(expr.getRequiredProperties());
+        newExpr.setCost(expr.getCost());
+        newExpr.setPlanCount(expr.getPlanCount());
+        return newExpr;
+    }
+
+    // Return the scalar operator itself if it contains no parameters
+    private ScalarOperator bind(ScalarOperator scalar, List<ConstantOperator> newParameters) throws Exception {
+        if (scalar == null) {
+            return null;
+        }
+        if (scalar instanceof ConstantOperator) {
+            ConstantOperator constant = (ConstantOperator) scalar;
+            int index = matchParameters(constant).nextSetBit(0);
+            if (index < 0) {
+                return scalar;
+            }
+            ConstantOperator value = newParameters.get(index);
+            if (!value.getType().matchesType(constant.getType())) {
+                value = value.castTo(constant.getType());
+            }
+            if (value.isNull()) {
+                throw new IllegalArgumentException("Parameter " + newParameters.get(index) + " overflows");
+            }
+            return value;
+        }
+
+        ScalarOperator result = scalar;
+        for (int i = 0; i < scalar.getChildren().size(); i++) {
+            ScalarOperator child = scalar.getChildren().get(i);
+            ScalarOperator newChild = bind(child, newParameters);
+            if (newChild != child) {
+                if (result == scalar) {
+                    result = scalar.clone();
+                }
+                result.setChild(i, newChild);
+            }
+        }
+        return result;
+    }
+
+    private static PhysicalOlapScanOperator copyScan(PhysicalOlapScanOperator scan, ScalarOperator predicate) {
+        LogicalOlapScanOperator pruned = prune(scan, predicate);
+        PhysicalOlapScanOperator newScan = new PhysicalOlapScanOperator(scan.getTable(),
+                scan.getColRefToColumnMetaMap(), scan.getDistributionSpec(), scan.getLimit(), predicate,
+                scan.getSelectedIndexId(), pruned.getSelectedPartitionId(), pruned.getSelectedTabletId(),
+                scan.getProjection());
+        newScan.setPreAggregation(scan.isPreAggregation());
+        newScan.setTurnOffReason(scan.getTurnOffReason());
+        newScan.setGlobalDicts(scan.getGlobalDicts());
+        newScan.setGlobalDictStringColumns(scan.getGlobalDictStringColumns());
+        newScan.setDictStringIdToIntIds(scan.getDictStringIdToIntIds());
+        newScan.setOutputColumns(scan.getOutputColumns());
+        return newScan;
+    }
+
+    // Prune the partitions and tablets of the scan with the predicate, like the optimizer does
+    private static LogicalOlapScanOperator prune(PhysicalOlapScanOperator scan, ScalarOperator predicate) {
+        Map<Column, ColumnRefOperator> columnMetaToColRefMap = Maps.newHashMap();
+        scan.getColRefToColumnMetaMap().forEach((columnRef, column) -> columnMetaToColRefMap.put(column, columnRef));
+        LogicalOlapScanOperator logicalScan = new LogicalOlapScanOperator((OlapTable) scan.getTable(),
+                scan.getColRefToColumnMetaMap(), columnMetaToColRefMap, scan.getDistributionSpec(), scan.getLimit(),
+                predicate, scan.getSelectedIndexId(), null, null, Lists.newArrayList(), Lists.newArrayList());
+
+        List<OptExpression> result = new PartitionPruneRule().transform(OptExpression.create(logicalScan), null);
+        logicalScan = (LogicalOlapScanOperator) result.get(0).getOp();
+        result = new DistributionPruneRule().transform(OptExpression.create(logicalScan), null);
+        return result.isEmpty() ? logicalScan : (LogicalOlapScanOperator) result.get(0).getOp();
+    }
+
+    private BitSet matchParameters(ConstantOperator constant) {
+        BitSet matched = new BitSet();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (matches(parameters.get(i), constant)) {
+                matched.set(i);
+            }
+        }
+        return matched;
+    }
+
+    // Whether the constant is the parameter, or the parameter cast to the type of constant
+    private static boolean matches(ConstantOperator parameter, ConstantOperator constant) {
+        if (constant.isNull() || !isCastable(parameter.getType(), constant.getType())) {
+            return false;
+        }
+        if (parameter.getType().matchesType(constant.getType())) {
+            return parameter.equals(constant);
+        }
+        try {
+            return constant.equals(parameter.castTo(constant.getType()));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean isCastable(Type from, Type to) {
+        if (isSameKind(from, to)) {
+            return true;
+        }
+        // the date and datetime literals are written as strings
+        return from.isStringType() && to.isDateType();
+    }
+
+    private static boolean isSameKind(Type left, Type right) {
+        if (left.isBoolean() || right.isBoolean()) {
+            return left.isBoolean() && right.isBoolean();
+        } else if (isNumeric(left) || isNumeric(right)) {
+            return isNumeric(left) && isNumeric(right);
+        } else if (left.isStringType() || right.isStringType()) {
+            return left.isStringType() && right.isStringType();
+        } else if (left.isDateType() || right.isDateType()) {
+            return left.isDateType() && right.isDateType();
+        }
+        return false;
+    }
+
+    private static boolean isNumeric(Type type) {
+        return type.isNumericType() || type.isDecimalOfAnyVersion();
+    }
+
+    private static void addProjection(List<ScalarOperator> scalars, Projection projection) {
+        if (projection != null) {
+            scalars.addAll(projection.getColumnRefMap().values());
+            scalars.addAll(projection.getCommonSubOperatorMap().values());
+        }
+    }
+
+    private static void collectConstants(ScalarOperator scalar, List<ConstantOperator> constants) {
+        if (scalar == null) {
+            return;
+        }
+        if (scalar instanceof ConstantOperator) {
+            constants.add((ConstantOperator) scalar);
+            return;
+        }
+        scalar.getChildren().forEach(child -> collectConstants(child, constants));
+    }
+}
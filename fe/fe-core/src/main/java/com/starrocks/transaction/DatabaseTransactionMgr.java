@@ -27,6 +27,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.LocalTablet;
 import com.starrocks.catalog.MaterializedIndex;
@@ -64,7 +65,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -73,6 +73,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -82,7 +86,7 @@ import static java.lang.Long.min;
 /**
  * Transaction Manager in database level, as a component in GlobalTransactionMgr
  * DatabaseTransactionMgr mainly be responsible for the following content:
- * 1. provide read/write lock in database level
+ * 1. provide read/write lock in database level, and the label striped locks of single transaction
  * 2. provide basic txn infos interface in database level to GlobalTransactionMgr
  * 3. do some transaction management, such as add/update/delete transaction.
  * Attention: all api in DatabaseTransactionMgr should be only invoked by GlobalTransactionMgr
@@ -94,21 +98,34 @@ public class DatabaseTransactionMgr {
 
     private long dbId;
 
+    private static final int TXN_LOCK_STRIPES = 64;
+
     // the lock is used to control the access to transaction states
-    // no other locks should be inside this lock
+    // no other locks should be inside this lock, except the stripes of txnLocks
+    // The operations on a single transaction (begin, commit, abort, finish...) hold the read lock and the
+    // stripe of txn label in txnLocks, so the operations on the transactions of different labels run
+    // concurrently, and the edit log of them are written concurrently.
+    // The operations on the whole database transaction manager (replay) hold the write lock.
     private ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock(true);
 
+    // label -> lock, serializes the operations on the transactions of the same label
+    private final Striped<Lock> txnLocks = Striped.lock(TXN_LOCK_STRIPES);
+
+    // the maps below are concurrent, so the lookups of transaction state and label are lock free
+
     // transactionId -> running TransactionState
-    private Map<Long, TransactionState> idToRunningTransactionState = Maps.newHashMap();
+    private Map<Long, TransactionState> idToRunningTransactionState = Maps.newConcurrentMap();
 
     // transactionId -> final status TransactionState
-    private Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newHashMap();
+    private Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newConcurrentMap();
 
-    // to store transtactionStates with final status
-    private ArrayDeque<TransactionState> finalStatusTransactionStateDeque = new ArrayDeque<>();
+    // to store transtactionStates with final status, the expiry of it is guarded by itself
+    private ConcurrentLinkedDeque<TransactionState> finalStatusTransactionStateDeque = new ConcurrentLinkedDeque<>();
 
-    // store committed transactions' dependency relationships
-    private TransactionGraph transactionGraph = new TransactionGraph();
+    // store committed transactions' dependency relationships, guarded by itself.
+    // The transactions of the same table are committed under the table lock, so they are still added
+    // to the graph in the order of commit.
+    private final TransactionGraph transactionGraph = new TransactionGraph();
 
     // label -> txn ids
     // this is used for checking if label already used. a label may correspond to multiple txns,
@@ -116,13 +133,13 @@ public class DatabaseTransactionMgr {
     // this member should be consistent with idToTransactionState,
     // which means if a txn exist in idToRunningTransactionState or idToFinalStatusTransactionState
     // it must exists in dbIdToTxnLabels, and vice versa
-    private Map<String, Set<Long>> labelToTxnIds = Maps.newHashMap();
+    private Map<String, Set<Long>> labelToTxnIds = Maps.newConcurrentMap();
 
     // count the number of running txns of database, except for the routine load txn
-    private int runningTxnNums = 0;
+    private final AtomicInteger runningTxnNums = new AtomicInteger(0);
 
     // count only the number of running routine load txns of database
-    private int runningRoutineLoadTxnNums = 0;
+    private final AtomicInteger runningRoutineLoadTxnNums = new AtomicInteger(0);
 
     private GlobalStateMgr globalStateMgr;
 
@@ -133,7 +150,7 @@ public class DatabaseTransactionMgr {
     // not realtime usedQuota value to make a fast check for database data quota
     private volatile long usedQuotaDataBytes = -1;
 
-    private long maxCommitTs = 0;
+    private final AtomicLong maxCommitTs = new AtomicLong(0);
 
     private final TransactionStateListenerFactory stateListenerFactory = new TransactionStateListenerFactory();
 
@@ -155,6 +172,16 @@ public class DatabaseTransactionMgr {
         this.transactionLock.writeLock().unlock();
     }
 
+    protected void lockTransaction(String label) {
+        readLock();
+        txnLocks.get(label).lock();
+    }
+
+    protected void unlockTransaction(String label) {
+        txnLocks.get(label).unlock();
+        readUnlock();
+    }
+
     public DatabaseTransactionMgr(long dbId, GlobalStateMgr globalStateMgr, TransactionIdGenerator idGenerator) {
         this.dbId = dbId;
         this.globalStateMgr = globalStateMgr;
@@ -167,20 +194,12 @@ public class DatabaseTransactionMgr {
     }
 
     public TransactionState getTransactionState(Long transactionId) {
-        readLock();
-        try {
-            TransactionState transactionState = idToRunningTransactionState.get(transactionId);
-            if (transactionState != null) {
-                return transactionState;
-            } else {
-                return idToFinalStatusTransactionState.get(transactionId);
-            }
-        } finally {
-            readUnlock();
-        }
+        return unprotectedGetTransactionState(transactionId);
     }
 
     private TransactionState unprotectedGetTransactionState(Long transactionId) {
+        // a finished txn is put into idToFinalStatusTransactionState before removed from idToRunningTransactionState,
+        // so it is always found in one of them without lock
         TransactionState transactionState = idToRunningTransactionState.get(transactionId);
         if (transactionState != null) {
             return transactionState;
@@ -197,17 +216,18 @@ public class DatabaseTransactionMgr {
 
     @VisibleForTesting
     protected int getRunningTxnNums() {
-        return runningTxnNums;
+        return runningTxnNums.get();
     }
 
     @VisibleForTesting
     protected int getRunningRoutineLoadTxnNums() {
-        return runningRoutineLoadTxnNums;
+        return runningRoutineLoadTxnNums.get();
     }
 
     @VisibleForTesting
     protected int getFinishedTxnNums() {
-        return finalStatusTransactionStateDeque.size();
+        // size() of ConcurrentLinkedDeque traverses the deque, the map has the same elements
+        return idToFinalStatusTransactionState.size();
     }
 
     public List<List<String>> getTxnStateInfoList(boolean running, int limit) {
@@ -265,10 +285,10 @@ public class DatabaseTransactionMgr {
                                  TransactionState.LoadJobSourceType sourceType, long listenerId, long timeoutSecond)
             throws DuplicatedRequestException, LabelAlreadyUsedException, BeginTransactionException, AnalysisException {
         checkDatabaseDataQuota();
-        writeLock();
+        Preconditions.checkNotNull(coordinator);
+        Preconditions.checkNotNull(label);
+        lockTransaction(label);
         try {
-            Preconditions.checkNotNull(coordinator);
-            Preconditions.checkNotNull(label);
             FeNameFormat.checkLabel(label);
 
             /*
@@ -283,8 +303,8 @@ public class DatabaseTransactionMgr {
                 List<TransactionState> notAbortedTxns = Lists.newArrayList();
                 for (long txnId : existingTxnIds) {
                     TransactionState txn = unprotectedGetTransactionState(txnId);
-                    Preconditions.checkNotNull(txn);
-                    if (txn.getTransactionStatus() != TransactionStatus.ABORTED) {
+                    // the final status txn may be expired and removed concurrently
+                    if (txn != null && txn.getTransactionStatus() != TransactionStatus.ABORTED) {
                         notAbortedTxns.add(txn);
                     }
                 }
@@ -326,7 +346,7 @@ public class DatabaseTransactionMgr {
             }
             throw e;
         } finally {
-            writeUnlock();
+            unlockTransaction(label);
         }
     }
 
@@ -451,12 +471,12 @@ public class DatabaseTransactionMgr {
 
         Span unprotectedCommitSpan = TraceManager.startSpan("unprotectedCommitTransaction", txnSpan);
 
-        writeLock();
+        lockTransaction(transactionState.getLabel());
         try {
             unprotectedCommitTransaction(transactionState, stateListeners);
             txnOperated = true;
         } finally {
-            writeUnlock();
+            unlockTransaction(transactionState.getLabel());
             int numPartitions = 0;
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 numPartitions += entry.getValue().getIdToPartitionCommitInfo().size();
@@ -573,11 +593,11 @@ public class DatabaseTransactionMgr {
 
         Span unprotectedCommitSpan = TraceManager.startSpan("unprotectedPreparedTransaction", txnSpan);
 
-        writeLock();
+        lockTransaction(transactionState.getLabel());
         try {
             unprotectedPrepareTransaction(transactionState, stateListeners);
         } finally {
-            writeUnlock();
+            unlockTransaction(transactionState.getLabel());
             int numPartitions = 0;
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 numPartitions += entry.getValue().getIdToPartitionCommitInfo().size();
@@ -649,12 +669,12 @@ public class DatabaseTransactionMgr {
 
         Span unprotectedCommitSpan = TraceManager.startSpan("unprotectedCommitPreparedTransaction", txnSpan);
 
-        writeLock();
+        lockTransaction(transactionState.getLabel());
         try {
             unprotectedCommitPreparedTransaction(transactionState, db);
             txnOperated = true;
         } finally {
-            writeUnlock();
+            unlockTransaction(transactionState.getLabel());
             int numPartitions = 0;
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 numPartitions += entry.getValue().getIdToPartitionCommitInfo().size();
@@ -677,52 +697,48 @@ public class DatabaseTransactionMgr {
     }
 
     public void deleteTransaction(TransactionState transactionState) {
-        writeLock();
+        readLock();
         try {
-            // here we only delete the oldest element, so if element exist in finalStatusTransactionStateDeque,
-            // it must at the front of the finalStatusTransactionStateDeque
-            if (!finalStatusTransactionStateDeque.isEmpty() &&
-                    transactionState.getTransactionId() ==
-                            finalStatusTransactionStateDeque.getFirst().getTransactionId()) {
-                finalStatusTransactionStateDeque.pop();
-                clearTransactionState(transactionState);
+            synchronized (finalStatusTransactionStateDeque) {
+                // here we only delete the oldest element, so if element exist in finalStatusTransactionStateDeque,
+                // it must at the front of the finalStatusTransactionStateDeque
+                TransactionState first = finalStatusTransactionStateDeque.peekFirst();
+                if (first != null && transactionState.getTransactionId() == first.getTransactionId()) {
+                    finalStatusTransactionStateDeque.pollFirst();
+                    clearTransactionState(transactionState);
+                }
             }
         } finally {
-            writeUnlock();
+            readUnlock();
         }
     }
 
     public TransactionStatus getLabelState(String label) {
-        readLock();
-        try {
-            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
-            if (existingTxnIds == null || existingTxnIds.isEmpty()) {
-                return TransactionStatus.UNKNOWN;
-            }
-            // find the latest txn (which id is largest)
-            long maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
-            return unprotectedGetTransactionState(maxTxnId).getTransactionStatus();
-        } finally {
-            readUnlock();
-        }
+        Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+        if (existingTxnIds == null) {
+            return TransactionStatus.UNKNOWN;
+        }
+        // find the latest txn (which id is largest)
+        Optional<Long> maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf));
+        if (!maxTxnId.isPresent()) {
+            return TransactionStatus.UNKNOWN;
+        }
+        // the txn may be expired and removed concurrently
+        TransactionState transactionState = unprotectedGetTransactionState(maxTxnId.get());
+        return transactionState == null ? TransactionStatus.UNKNOWN : transactionState.getTransactionStatus();
     }
 
     public Long getLabelTxnID(String label) {
-        readLock();
-        try {
-            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
-            if (existingTxnIds == null || existingTxnIds.isEmpty()) {
-                return (long) -1;
-            }
-            // find the latest txn (which id is largest)
-            Optional<Long> v = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf));
-            if (v.isPresent()) {
-                return v.get();
-            } else {
-                return (long) -1;
-            }
-        } finally {
-            readUnlock();
+        Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+        if (existingTxnIds == null) {
+            return (long) -1;
+        }
+        // find the latest txn (which id is largest)
+        Optional<Long> v = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf));
+        if (v.isPresent()) {
+            return v.get();
+        } else {
+            return (long) -1;
         }
     }
 
@@ -743,7 +759,10 @@ public class DatabaseTransactionMgr {
     public List<TransactionState> getReadyToPublishTxnList() {
         readLock();
         try {
-            List<Long> txnIds = transactionGraph.getTxnsWithoutDependency();
+            List<Long> txnIds;
+            synchronized (transactionGraph) {
+                txnIds = transactionGraph.getTxnsWithoutDependency();
+            }
             return txnIds.stream().map(id -> idToRunningTransactionState.get(id)).collect(Collectors.toList());
         } finally {
             readUnlock();
@@ -865,7 +884,7 @@ public class DatabaseTransactionMgr {
 
         Database db = globalStateMgr.getDb(transactionState.getDbId());
         if (db == null) {
-            writeLock();
+            lockTransaction(transactionState.getLabel());
             try {
                 transactionState.setTransactionStatus(TransactionStatus.ABORTED);
                 transactionState.setReason("db is dropped");
@@ -873,11 +892,13 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 return;
             } finally {
-                writeUnlock();
+                unlockTransaction(transactionState.getLabel());
             }
         }
         Span finishSpan = TraceManager.startSpan("finishTransaction", transactionState.getTxnSpan());
-        db.writeLock();
+        // copy the table ids, the dropped tables are removed from transaction state when finishing it
+        List<Long> tableIds = Lists.newArrayList(transactionState.getTableIdList());
+        db.writeLockTables(tableIds);
         try {
             boolean hasError = false;
             for (TableCommitInfo tableCommitInfo : transactionState.getIdToTableCommitInfos().values()) {
@@ -997,7 +1018,7 @@ public class DatabaseTransactionMgr {
                 return;
             }
             boolean txnOperated = false;
-            writeLock();
+            lockTransaction(transactionState.getLabel());
             try {
                 transactionState.setErrorReplicas(errorReplicaIds);
                 transactionState.setFinishTime(System.currentTimeMillis());
@@ -1006,13 +1027,17 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 transactionState.notifyVisible();
                 txnOperated = true;
+                if (MetricRepo.isInit) {
+                    MetricRepo.HISTO_TXN_COMMIT_TO_VISIBLE_LATENCY.update(
+                            transactionState.getFinishTime() - transactionState.getCommitTime());
+                }
                 // TODO(cmy): We found a very strange problem. When delete-related transactions are processed here,
                 // subsequent `updateCatalogAfterVisible()` is called, but it does not seem to be executed here
                 // (because the relevant editlog does not see the log of visible transactions).
                 // So I add a log here for observation.
                 LOG.debug("after set transaction {} to visible", transactionState);
             } finally {
-                writeUnlock();
+                unlockTransaction(transactionState.getLabel());
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
             }
             Span updateCatalogSpan = TraceManager.startSpan("updateCatalogAfterVisible", finishSpan);
@@ -1022,7 +1047,7 @@ public class DatabaseTransactionMgr {
                 updateCatalogSpan.end();
             }
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(tableIds);
             finishSpan.end();
         }
         LOG.info("finish transaction {} successfully", transactionState);
@@ -1035,7 +1060,7 @@ public class DatabaseTransactionMgr {
             return;
         }
         // commit timestamps needs to be strictly monotonically increasing
-        long commitTs = Math.max(System.currentTimeMillis(), maxCommitTs + 1);
+        long commitTs = maxCommitTs.updateAndGet(ts -> Math.max(System.currentTimeMillis(), ts + 1));
         transactionState.setCommitTime(commitTs);
         // update transaction state version
         transactionState.setTransactionStatus(TransactionStatus.COMMITTED);
@@ -1081,7 +1106,7 @@ public class DatabaseTransactionMgr {
             return;
         }
         // commit timestamps needs to be strictly monotonically increasing
-        long commitTs = Math.max(System.currentTimeMillis(), maxCommitTs + 1);
+        long commitTs = maxCommitTs.updateAndGet(ts -> Math.max(System.currentTimeMillis(), ts + 1));
         transactionState.setCommitTime(commitTs);
         // update transaction state version
         transactionState.setTransactionStatus(TransactionStatus.COMMITTED);
@@ -1141,36 +1166,47 @@ public class DatabaseTransactionMgr {
             }
         }
         // it's OK if getCommitTime() returns -1
-        maxCommitTs = Math.max(maxCommitTs, transactionState.getCommitTime());
+        maxCommitTs.accumulateAndGet(transactionState.getCommitTime(), Math::max);
         if (!transactionState.getTransactionStatus().isFinalStatus()) {
             if (idToRunningTransactionState.put(transactionState.getTransactionId(), transactionState) == null) {
                 if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums++;
+                    runningRoutineLoadTxnNums.incrementAndGet();
                 } else {
-                    runningTxnNums++;
+                    runningTxnNums.incrementAndGet();
                 }
             }
             if (Config.enable_new_publish_mechanism && transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
-                transactionGraph.add(transactionState.getTransactionId(), transactionState.getTableIdList());
+                synchronized (transactionGraph) {
+                    transactionGraph.add(transactionState.getTransactionId(), transactionState.getTableIdList());
+                }
             }
         } else {
+            // put into the final map before removed from the running map, see unprotectedGetTransactionState
+            idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
             if (idToRunningTransactionState.remove(transactionState.getTransactionId()) != null) {
                 if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums--;
+                    runningRoutineLoadTxnNums.decrementAndGet();
                 } else {
-                    runningTxnNums--;
+                    runningTxnNums.decrementAndGet();
                 }
             }
-            transactionGraph.remove(transactionState.getTransactionId());
-            idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
+            synchronized (transactionGraph) {
+                transactionGraph.remove(transactionState.getTransactionId());
+            }
             finalStatusTransactionStateDeque.add(transactionState);
         }
         updateTxnLabels(transactionState);
     }
 
     private void updateTxnLabels(TransactionState transactionState) {
-        Set<Long> txnIds = labelToTxnIds.computeIfAbsent(transactionState.getLabel(), k -> Sets.newHashSet());
-        txnIds.add(transactionState.getTransactionId());
+        // compute is atomic on the label, so it does not race with the removal in clearTransactionState
+        labelToTxnIds.compute(transactionState.getLabel(), (label, txnIds) -> {
+            if (txnIds == null) {
+                txnIds = Sets.newConcurrentHashSet();
+            }
+            txnIds.add(transactionState.getTransactionId());
+            return txnIds;
+        });
     }
 
     public void abortTransaction(String label, String reason) throws UserException {
@@ -1186,7 +1222,7 @@ public class DatabaseTransactionMgr {
             TransactionState prepareTxn = null;
             for (Long txnId : existingTxns) {
                 TransactionState txn = unprotectedGetTransactionState(txnId);
-                if (txn.getTransactionStatus() == TransactionStatus.PREPARE) {
+                if (txn != null && txn.getTransactionStatus() == TransactionStatus.PREPARE) {
                     prepareTxn = txn;
                     break;
                 }
@@ -1235,11 +1271,11 @@ public class DatabaseTransactionMgr {
         // before state transform
         TxnStateChangeCallback callback = transactionState.beforeStateTransform(TransactionStatus.ABORTED);
         boolean txnOperated = false;
-        writeLock();
+        lockTransaction(transactionState.getLabel());
         try {
             txnOperated = unprotectAbortTransaction(transactionId, abortPrepared, reason);
         } finally {
-            writeUnlock();
+            unlockTransaction(transactionState.getLabel());
             transactionState.afterStateTransform(TransactionStatus.ABORTED, txnOperated, callback, reason);
         }
 
@@ -1345,28 +1381,32 @@ public class DatabaseTransactionMgr {
         return partitionInfos;
     }
 
+    // the expiry only holds the read lock, the running transactions are not blocked
     public void removeExpiredTxns(long currentMillis) {
-        writeLock();
+        readLock();
         try {
             StringBuilder expiredTxnMsgs = new StringBuilder(1024);
             String prefix = "";
             int numJobsToRemove = getTransactionNum() - Config.label_keep_max_num;
-            while (!finalStatusTransactionStateDeque.isEmpty()) {
-                TransactionState transactionState = finalStatusTransactionStateDeque.getFirst();
-                if (transactionState.isExpired(currentMillis) || numJobsToRemove > 0) {
-                    finalStatusTransactionStateDeque.pop();
-                    clearTransactionState(transactionState);
-                    --numJobsToRemove;
-                    expiredTxnMsgs.append(prefix);
-                    prefix = ", ";
-                    expiredTxnMsgs.append(transactionState.getTransactionId());
-                    if (expiredTxnMsgs.length() > 4096) {
-                        LOG.info("transaction list [{}] are expired, remove them from transaction manager",
-                                expiredTxnMsgs);
-                        expiredTxnMsgs = new StringBuilder(1024);
+            while (true) {
+                TransactionState transactionState;
+                synchronized (finalStatusTransactionStateDeque) {
+                    transactionState = finalStatusTransactionStateDeque.peekFirst();
+                    if (transactionState == null
+                            || (!transactionState.isExpired(currentMillis) && numJobsToRemove <= 0)) {
+                        break;
                     }
-                } else {
-                    break;
+                    finalStatusTransactionStateDeque.pollFirst();
+                    clearTransactionState(transactionState);
+                }
+                --numJobsToRemove;
+                expiredTxnMsgs.append(prefix);
+                prefix = ", ";
+                expiredTxnMsgs.append(transactionState.getTransactionId());
+                if (expiredTxnMsgs.length() > 4096) {
+                    LOG.info("transaction list [{}] are expired, remove them from transaction manager",
+                            expiredTxnMsgs);
+                    expiredTxnMsgs = new StringBuilder(1024);
                 }
             }
             if (expiredTxnMsgs.length() > 0) {
@@ -1374,21 +1414,20 @@ public class DatabaseTransactionMgr {
                         expiredTxnMsgs);
             }
         } finally {
-            writeUnlock();
+            readUnlock();
         }
     }
 
     private void clearTransactionState(TransactionState transactionState) {
+        labelToTxnIds.computeIfPresent(transactionState.getLabel(), (label, txnIds) -> {
+            txnIds.remove(transactionState.getTransactionId());
+            return txnIds.isEmpty() ? null : txnIds;
+        });
         idToFinalStatusTransactionState.remove(transactionState.getTransactionId());
-        Set<Long> txnIds = unprotectedGetTxnIdsByLabel(transactionState.getLabel());
-        txnIds.remove(transactionState.getTransactionId());
-        if (txnIds.isEmpty()) {
-            labelToTxnIds.remove(transactionState.getLabel());
-        }
     }
 
     public int getTransactionNum() {
-        return idToRunningTransactionState.size() + finalStatusTransactionStateDeque.size();
+        return idToRunningTransactionState.size() + idToFinalStatusTransactionState.size();
     }
 
     public List<Pair<Long, Long>> getTransactionIdByCoordinateBe(String coordinateHost, int limit) {
@@ -1459,9 +1498,11 @@ public class DatabaseTransactionMgr {
                 //    and other txn may not be able to submitted.
                 break;
             default:
-                if (runningTxnNums >= Config.max_running_txn_num_per_db) {
+                // the limit is checked without the exclusive lock, it may be exceeded by the concurrent begins
+                // of different labels, which is bounded by the number of the concurrent requests
+                if (runningTxnNums.get() >= Config.max_running_txn_num_per_db) {
                     throw new BeginTransactionException("current running txns on db " + dbId + " is "
-                            + runningTxnNums + ", larger than limit " + Config.max_running_txn_num_per_db);
+                            + runningTxnNums.get() + ", larger than limit " + Config.max_running_txn_num_per_db);
                 }
                 break;
         }
@@ -1588,7 +1629,7 @@ public class DatabaseTransactionMgr {
         readLock();
         try {
             infos.add(Lists.newArrayList("running", String.valueOf(
-                    runningTxnNums + runningRoutineLoadTxnNums)));
+                    runningTxnNums.get() + runningRoutineLoadTxnNums.get())));
             long finishedNum = getFinishedTxnNums();
             infos.add(Lists.newArrayList("finished", String.valueOf(finishedNum)));
         } finally {
@@ -1602,6 +1643,7 @@ public class DatabaseTransactionMgr {
             entry.getValue().write(out);
         }
 
+        // Written in the order they are finished, the oldest ones are removed first when they are loaded
         for (TransactionState transactionState : finalStatusTransactionStateDeque) {
             transactionState.write(out);
         }
@@ -1614,7 +1656,7 @@ public class DatabaseTransactionMgr {
     public void finishTransactionNew(TransactionState transactionState, Set<Long> publishErrorReplicas) throws UserException {
         Database db = globalStateMgr.getDb(transactionState.getDbId());
         if (db == null) {
-            writeLock();
+            lockTransaction(transactionState.getLabel());
             try {
                 transactionState.setTransactionStatus(TransactionStatus.ABORTED);
                 transactionState.setReason("db is dropped");
@@ -1622,15 +1664,17 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 return;
             } finally {
-                writeUnlock();
+                unlockTransaction(transactionState.getLabel());
             }
         }
         Span finishSpan = TraceManager.startSpan("finishTransaction", transactionState.getTxnSpan());
-        db.writeLock();
+        // copy the table ids, the dropped tables are removed from transaction state when finishing it
+        List<Long> tableIds = Lists.newArrayList(transactionState.getTableIdList());
+        db.writeLockTables(tableIds);
         finishSpan.addEvent("db_lock");
         try {
             boolean txnOperated = false;
-            writeLock();
+            lockTransaction(transactionState.getLabel());
             finishSpan.addEvent("txnmgr_lock");
             try {
                 transactionState.setErrorReplicas(publishErrorReplicas);
@@ -1641,8 +1685,12 @@ public class DatabaseTransactionMgr {
                 unprotectUpsertTransactionState(transactionState, false);
                 transactionState.notifyVisible();
                 txnOperated = true;
+                if (MetricRepo.isInit) {
+                    MetricRepo.HISTO_TXN_COMMIT_TO_VISIBLE_LATENCY.update(
+                            transactionState.getFinishTime() - transactionState.getCommitTime());
+                }
             } finally {
-                writeUnlock();
+                unlockTransaction(transactionState.getLabel());
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
             }
             Span updateCatalogSpan = TraceManager.startSpan("updateCatalogAfterVisible", finishSpan);
@@ -1652,7 +1700,7 @@ public class DatabaseTransactionMgr {
                 updateCatalogSpan.end();
             }
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(tableIds);
             finishSpan.end();
         }
         LOG.info("finish transaction {} successfully", transactionState);
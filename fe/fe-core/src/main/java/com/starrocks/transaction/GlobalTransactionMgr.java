@@ -344,7 +344,18 @@ public class GlobalTransactionMgr implements Writable {
 
         LOG.debug("try to commit transaction: {}", transactionId);
         DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
-        return dbTransactionMgr.commitTransaction(transactionId, tabletCommitInfos, txnCommitAttachment);
+        VisibleStateWaiter waiter = dbTransactionMgr.commitTransaction(transactionId, tabletCommitInfos,
+                txnCommitAttachment);
+        wakeUpPublishVersionDaemon();
+        return waiter;
+    }
+
+    // publish the committed transaction without waiting for the interval of publish version daemon
+    private void wakeUpPublishVersionDaemon() {
+        PublishVersionDaemon publishVersionDaemon = GlobalStateMgr.getCurrentState().getPublishVersionDaemon();
+        if (publishVersionDaemon != null) {
+            publishVersionDaemon.wakeUp();
+        }
     }
 
     public void prepareTransaction(long dbId, long transactionId, List<TabletCommitInfo> tabletCommitInfos,
@@ -370,15 +381,17 @@ public class GlobalTransactionMgr implements Writable {
         VisibleStateWaiter waiter;
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+        List<Long> tableIds = getTableIdsToLock(db.getId(), transactionId);
+        if (!db.tryWriteLockTables(tableIds, timeoutMillis, TimeUnit.MILLISECONDS)) {
             throw new UserException("get database write lock timeout, database="
                     + db.getFullName() + ", timeoutMillis=" + timeoutMillis);
         }
         try {
             waiter = getDatabaseTransactionMgr(db.getId()).commitPreparedTransaction(transactionId);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(tableIds);
         }
+        wakeUpPublishVersionDaemon();
 
         stopWatch.stop();
         long publishTimeoutMillis = timeoutMillis - stopWatch.getTime();
@@ -390,6 +403,15 @@ public class GlobalTransactionMgr implements Writable {
         waiter.await(publishTimeoutMillis, TimeUnit.MILLISECONDS);
     }
 
+    // The tables of transaction to lock when committing it, empty if they are unknown, then the whole db is locked.
+    private List<Long> getTableIdsToLock(long dbId, long transactionId) {
+        TransactionState transactionState = getTransactionState(dbId, transactionId);
+        if (transactionState == null) {
+            return Lists.newArrayList();
+        }
+        return Lists.newArrayList(transactionState.getTableIdList());
+    }
+
     public boolean commitAndPublishTransaction(Database db, long transactionId,
                                                List<TabletCommitInfo> tabletCommitInfos, long timeoutMillis)
             throws UserException {
@@ -402,7 +424,8 @@ public class GlobalTransactionMgr implements Writable {
             throws UserException {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+        List<Long> tableIds = getTableIdsToLock(db.getId(), transactionId);
+        if (!db.tryWriteLockTables(tableIds, timeoutMillis, TimeUnit.MILLISECONDS)) {
             throw new UserException("get database write lock timeout, database="
                     + db.getOriginName() + ", timeoutMillis=" + timeoutMillis);
         }
@@ -410,7 +433,7 @@ public class GlobalTransactionMgr implements Writable {
         try {
             waiter = commitTransaction(db.getId(), transactionId, tabletCommitInfos, txnCommitAttachment);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(tableIds);
         }
         stopWatch.stop();
         long publishTimeoutMillis = timeoutMillis - stopWatch.getTime();
@@ -2,30 +2,47 @@
 package com.starrocks.transaction;
 
 import com.google.gson.annotations.SerializedName;
+import com.starrocks.catalog.MaterializedView;
 import com.starrocks.common.io.Text;
 import com.starrocks.persist.gson.GsonUtils;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Map;
 
 public class InsertTxnCommitAttachment extends TxnCommitAttachment {
     @SerializedName("loadedRows")
     private long loadedRows;
 
+    // the base table versions refreshed by the insert into materialized view, they are updated when the txn is
+    // committed, so the data and the versions are refreshed atomically
+    @SerializedName("mvBaseTableVersionMap")
+    private Map<Long, Map<String, MaterializedView.BasePartitionInfo>> mvBaseTableVersionMap;
+
     public InsertTxnCommitAttachment() {
         super(TransactionState.LoadJobSourceType.INSERT_STREAMING);
     }
 
     public InsertTxnCommitAttachment(long loadedRows) {
+        this(loadedRows, null);
+    }
+
+    public InsertTxnCommitAttachment(long loadedRows,
+                                     Map<Long, Map<String, MaterializedView.BasePartitionInfo>> mvBaseTableVersionMap) {
         super(TransactionState.LoadJobSourceType.INSERT_STREAMING);
         this.loadedRows = loadedRows;
+        this.mvBaseTableVersionMap = mvBaseTableVersionMap;
     }
 
     public long getLoadedRows() {
         return loadedRows;
     }
 
+    public Map<Long, Map<String, MaterializedView.BasePartitionInfo>> getMvBaseTableVersionMap() {
+        return mvBaseTableVersionMap;
+    }
+
     @Override
     public void write(DataOutput out) throws IOException {
         super.write(out);
@@ -39,5 +56,6 @@ public class InsertTxnCommitAttachment extends TxnCommitAttachment {
         InsertTxnCommitAttachment insertTxnCommitAttachment =
                 GsonUtils.GSON.fromJson(s, InsertTxnCommitAttachment.class);
         this.loadedRows = insertTxnCommitAttachment.getLoadedRows();
+        this.mvBaseTableVersionMap = insertTxnCommitAttachment.getMvBaseTableVersionMap();
     }
 }
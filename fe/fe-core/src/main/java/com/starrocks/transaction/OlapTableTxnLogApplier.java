@@ -6,6 +6,7 @@ import com.google.common.collect.Lists;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.LocalTablet;
 import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.MaterializedView;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.Replica;
@@ -15,6 +16,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class OlapTableTxnLogApplier implements TransactionLogApplier {
@@ -45,6 +47,15 @@ public class OlapTableTxnLogApplier implements TransactionLogApplier {
             }
             partition.setNextVersion(partition.getNextVersion() + 1);
         }
+        // the base table versions refreshed by the insert into materialized view are committed with the data
+        if (table instanceof MaterializedView && txnState.getTxnCommitAttachment() instanceof InsertTxnCommitAttachment) {
+            Map<Long, Map<String, MaterializedView.BasePartitionInfo>> versionMap =
+                    ((InsertTxnCommitAttachment) txnState.getTxnCommitAttachment()).getMvBaseTableVersionMap();
+            if (versionMap != null) {
+                ((MaterializedView) table).getRefreshScheme().getAsyncRefreshContext()
+                        .updateBaseTableVisibleVersionMap(versionMap);
+            }
+        }
     }
 
     @Override
@@ -22,6 +22,7 @@
 package com.starrocks.transaction;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.MaterializedIndex;
@@ -34,10 +35,12 @@ import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.MetaNotFoundException;
 import com.starrocks.common.NoAliveBackendException;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.LeaderDaemon;
 import com.starrocks.lake.LakeTable;
 import com.starrocks.lake.Utils;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.rpc.RpcException;
 import com.starrocks.scheduler.Constants;
 import com.starrocks.server.GlobalStateMgr;
@@ -50,9 +53,13 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 
@@ -62,6 +69,8 @@ public class PublishVersionDaemon extends LeaderDaemon {
 
     private static final long RETRY_INTERVAL_MS = 1000;
 
+    private ExecutorService finishExecutor = null;
+
     public PublishVersionDaemon() {
         super("PUBLISH_VERSION", Config.publish_version_interval_ms);
     }
@@ -124,9 +133,13 @@ public class PublishVersionDaemon extends LeaderDaemon {
                 LOG.info("send publish tasks for txn_id: {}", transactionState.getTransactionId());
             }
         }
+        // the tasks of all the ready transactions are sent to each backend in one batch
         if (!batchTask.getAllTasks().isEmpty()) {
             AgentTaskExecutor.submit(batchTask);
         }
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_TXN_PUBLISH_BATCH.update(readyTransactionStates.size());
+        }
 
         if (Config.enable_new_publish_mechanism) {
             publishVersionNew(globalTransactionMgr, readyTransactionStates);
@@ -134,53 +147,129 @@ public class PublishVersionDaemon extends LeaderDaemon {
         }
 
         // try to finish the transaction, if failed just retry in next loop
-        for (TransactionState transactionState : readyTransactionStates) {
-            Map<Long, PublishVersionTask> transTasks = transactionState.getPublishVersionTasks();
-            Set<Long> publishErrorReplicaIds = Sets.newHashSet();
-            Set<Long> unfinishedBackends = Sets.newHashSet();
-            boolean allTaskFinished = true;
-            for (PublishVersionTask publishVersionTask : transTasks.values()) {
-                if (publishVersionTask.isFinished()) {
-                    // sometimes backend finish publish version task, but it maybe failed to change
-                    // transaction id to version for some tablets,
-                    // and it will upload the failed tablet info to fe and fe will deal with them
-                    Set<Long> errReplicas = publishVersionTask.getErrorReplicas();
-                    if (!errReplicas.isEmpty()) {
-                        publishErrorReplicaIds.addAll(errReplicas);
+        List<List<TransactionState>> groups = groupByTables(readyTransactionStates);
+        if (groups.size() <= 1) {
+            for (TransactionState transactionState : readyTransactionStates) {
+                tryFinishTransaction(globalTransactionMgr, transactionState);
+            }
+            return;
+        }
+        // The groups do not share any table, they are finished concurrently, so the edit logs of them are written
+        // in the same journal batch. The transactions in a group are finished one by one in the order of commit.
+        List<Future<?>> futures = Lists.newArrayListWithCapacity(groups.size());
+        for (List<TransactionState> group : groups) {
+            futures.add(getFinishExecutor().submit(() -> {
+                for (TransactionState transactionState : group) {
+                    try {
+                        tryFinishTransaction(globalTransactionMgr, transactionState);
+                    } catch (Throwable t) {
+                        LOG.warn("failed to finish transaction {}", transactionState.getTransactionId(), t);
                     }
-                } else {
-                    allTaskFinished = false;
-                    // Publish version task may succeed and finish in quorum replicas
-                    // but not finish in one replica.
-                    // here collect the backendId that do not finish publish version
-                    unfinishedBackends.add(publishVersionTask.getBackendId());
                 }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOG.warn("failed to finish transactions", e);
             }
-            boolean shouldFinishTxn = true;
-            if (!allTaskFinished) {
-                shouldFinishTxn = globalTransactionMgr.canTxnFinished(transactionState,
-                        publishErrorReplicaIds, unfinishedBackends);
+        }
+    }
+
+    private synchronized ExecutorService getFinishExecutor() {
+        if (finishExecutor == null) {
+            finishExecutor = ThreadPoolManager.newDaemonFixedThreadPool(Config.publish_version_finish_threads_num,
+                    Integer.MAX_VALUE, "publish-version-finish", true);
+        }
+        return finishExecutor;
+    }
+
+    /**
+     * Group the transactions into the groups not sharing any table, the order of transactions in each group is kept.
+     * All the transactions are in one group if the tables of some transaction are unknown.
+     */
+    static List<List<TransactionState>> groupByTables(List<TransactionState> transactionStates) {
+        int[] parents = new int[transactionStates.size()];
+        Map<Long, Integer> tableToTxnIndex = Maps.newHashMap();
+        for (int i = 0; i < transactionStates.size(); i++) {
+            parents[i] = i;
+            List<Long> tableIds = transactionStates.get(i).getTableIdList();
+            if (tableIds == null || tableIds.isEmpty()) {
+                return Collections.singletonList(transactionStates);
             }
+            for (long tableId : tableIds) {
+                Integer j = tableToTxnIndex.putIfAbsent(tableId, i);
+                if (j != null) {
+                    parents[findRoot(parents, i)] = findRoot(parents, j);
+                }
+            }
+        }
+        Map<Integer, List<TransactionState>> groups = Maps.newLinkedHashMap();
+        for (int i = 0; i < transactionStates.size(); i++) {
+            groups.computeIfAbsent(findRoot(parents, i), k -> Lists.newArrayList()).add(transactionStates.get(i));
+        }
+        return Lists.newArrayList(groups.values());
+    }
 
-            if (shouldFinishTxn) {
-                globalTransactionMgr.finishTransaction(transactionState.getDbId(), transactionState.getTransactionId(),
-                        publishErrorReplicaIds);
-                if (transactionState.getTransactionStatus() != TransactionStatus.VISIBLE) {
-                    transactionState.updateSendTaskTime();
-                    LOG.debug("publish version for transaction {} failed, has {} error replicas during publish",
-                            transactionState, publishErrorReplicaIds.size());
-                } else {
-                    for (PublishVersionTask task : transactionState.getPublishVersionTasks().values()) {
-                        AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.PUBLISH_VERSION, task.getSignature());
-                    }
-                    // clear publish version tasks to reduce memory usage when state changed to visible.
-                    transactionState.clearPublishVersionTasks();
+    private static int findRoot(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
 
-                    // Refresh materialized view when base table update transaction has been visible if necessary
-                    refreshMvIfNecessary(transactionState);
+    private void tryFinishTransaction(GlobalTransactionMgr globalTransactionMgr, TransactionState transactionState)
+            throws UserException {
+        Map<Long, PublishVersionTask> transTasks = transactionState.getPublishVersionTasks();
+        Set<Long> publishErrorReplicaIds = Sets.newHashSet();
+        Set<Long> unfinishedBackends = Sets.newHashSet();
+        boolean allTaskFinished = true;
+        for (PublishVersionTask publishVersionTask : transTasks.values()) {
+            if (publishVersionTask.isFinished()) {
+                // sometimes backend finish publish version task, but it maybe failed to change
+                // transaction id to version for some tablets,
+                // and it will upload the failed tablet info to fe and fe will deal with them
+                Set<Long> errReplicas = publishVersionTask.getErrorReplicas();
+                if (!errReplicas.isEmpty()) {
+                    publishErrorReplicaIds.addAll(errReplicas);
                 }
+            } else {
+                allTaskFinished = false;
+                // Publish version task may succeed and finish in quorum replicas
+                // but not finish in one replica.
+                // here collect the backendId that do not finish publish version
+                unfinishedBackends.add(publishVersionTask.getBackendId());
             }
-        } // end for readyTransactionStates
+        }
+        boolean shouldFinishTxn = true;
+        if (!allTaskFinished) {
+            shouldFinishTxn = globalTransactionMgr.canTxnFinished(transactionState,
+                    publishErrorReplicaIds, unfinishedBackends);
+        }
+
+        if (shouldFinishTxn) {
+            globalTransactionMgr.finishTransaction(transactionState.getDbId(), transactionState.getTransactionId(),
+                    publishErrorReplicaIds);
+            if (transactionState.getTransactionStatus() != TransactionStatus.VISIBLE) {
+                transactionState.updateSendTaskTime();
+                LOG.debug("publish version for transaction {} failed, has {} error replicas during publish",
+                        transactionState, publishErrorReplicaIds.size());
+            } else {
+                for (PublishVersionTask task : transactionState.getPublishVersionTasks().values()) {
+                    AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.PUBLISH_VERSION, task.getSignature());
+                }
+                // clear publish version tasks to reduce memory usage when state changed to visible.
+                transactionState.clearPublishVersionTasks();
+
+                // Refresh materialized view when base table update transaction has been visible if necessary
+                refreshMvIfNecessary(transactionState);
+            }
+        }
     }
 
     private void publishVersionNew(GlobalTransactionMgr globalTransactionMgr, List<TransactionState> txns) {
@@ -292,7 +381,7 @@ public class PublishVersionDaemon extends LeaderDaemon {
         List<Tablet> normalTablets = null;
         List<Tablet> shadowTablets = null;
 
-        db.readLock();
+        db.readLockTable(tableId);
         try {
             LakeTable table = (LakeTable) db.getTable(tableId);
             if (table == null) {
@@ -334,7 +423,7 @@ public class PublishVersionDaemon extends LeaderDaemon {
                 }
             }
         } finally {
-            db.readUnlock();
+            db.readUnlockTable(tableId);
         }
 
         return publishNormalTablets(normalTablets, txnId, txnVersion) && publishShadowTablets(shadowTablets, txnId, txnVersion);
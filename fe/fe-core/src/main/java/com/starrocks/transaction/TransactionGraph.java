@@ -15,8 +15,8 @@ import java.util.stream.Collectors;
 
 /**
  * store transactions' dependency relationships
- * this class is used in DatabaseTransactionMgr and all methods are protected by mgr's lock
- * so this class does not require additional synchronization
+ * this class is used in DatabaseTransactionMgr and all methods are protected by synchronizing on the graph
+ * in mgr, so this class does not require additional synchronization
  */
 public class TransactionGraph {
     private static final Logger LOG = LogManager.getLogger(TransactionGraph.class);
@@ -79,10 +79,11 @@ public class OlapTableTest {
             for (Tablet tablet : newIndex.getTablets()) {
                 Assert.assertTrue(tablet instanceof LocalTablet);
             }
-            tbl.addRelatedMaterializedView(10L);
-            tbl.addRelatedMaterializedView(20L);
-            tbl.addRelatedMaterializedView(30L);
+            tbl.addRelatedMaterializedView(1L, 10L);
+            tbl.addRelatedMaterializedView(1L, 20L);
+            tbl.addRelatedMaterializedView(1L, 30L);
             Assert.assertEquals(Sets.newHashSet(10L, 20L, 30L), tbl.getRelatedMaterializedViews());
+            Assert.assertEquals(Long.valueOf(1L), tbl.getRelatedMaterializedViewDbId(10L));
             tbl.removeRelatedMaterializedView(10L);
             tbl.removeRelatedMaterializedView(20L);
             Assert.assertEquals(Sets.newHashSet(30L), tbl.getRelatedMaterializedViews());
@@ -0,0 +1,72 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.catalog;
+
+import com.starrocks.catalog.Replica.ReplicaState;
+import com.starrocks.thrift.TStorageMedium;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint of the tablets and replicas in catalog and the inverted index.
+ * The gc.alloc.rate.norm reported by the gc profiler is the bytes allocated to build them, which is
+ * close to their footprint because almost nothing is garbage, divide it by tabletNum * REPLICA_NUM
+ * to get the bytes per replica.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TabletHeapBench {
+    private static final int REPLICA_NUM = 3;
+    private static final int TABLETS_PER_INDEX = 32;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TabletHeapBench.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Param({"100000", "1000000"})
+    public int tabletNum;
+
+    @Benchmark
+    public Object buildTablets() {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        MaterializedIndex[] indexes = new MaterializedIndex[tabletNum / TABLETS_PER_INDEX];
+        long id = 1;
+        for (int i = 0; i < indexes.length; i++) {
+            MaterializedIndex index = new MaterializedIndex(id++);
+            TabletMeta tabletMeta = new TabletMeta(1, 2, 3, index.getId(), 0, TStorageMedium.HDD);
+            for (int j = 0; j < TABLETS_PER_INDEX; j++) {
+                LocalTablet tablet = new LocalTablet(id++);
+                for (int k = 0; k < REPLICA_NUM; k++) {
+                    tablet.addReplica(new Replica(id++, k, 2, 0, 1024, 100, ReplicaState.NORMAL, -1, 2), true);
+                }
+                index.addTablet(tablet, tabletMeta, true);
+            }
+            invertedIndex.addTablets(tabletMeta, index.getTablets());
+            indexes[i] = index;
+        }
+        return new Object[] {invertedIndex, indexes};
+    }
+}
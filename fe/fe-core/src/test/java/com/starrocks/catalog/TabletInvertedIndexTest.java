@@ -0,0 +1,65 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Replica.ReplicaState;
+import com.starrocks.thrift.TStorageMedium;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class TabletInvertedIndexTest {
+
+    @Test
+    public void testAddAndDelete() {
+        TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+        TabletMeta hddMeta = new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.HDD);
+        TabletMeta ssdMeta = new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.SSD);
+        // tablets in different shards
+        for (long tabletId = 100; tabletId < 300; tabletId++) {
+            invertedIndex.addTablet(tabletId, tabletId % 2 == 0 ? hddMeta : ssdMeta);
+            for (long backendId = 1; backendId <= 3; backendId++) {
+                invertedIndex.addReplica(tabletId,
+                        new Replica(tabletId * 10 + backendId, backendId, 0, ReplicaState.NORMAL));
+            }
+        }
+
+        Assert.assertSame(hddMeta, invertedIndex.getTabletMeta(100));
+        Assert.assertNull(invertedIndex.getTabletMeta(1000));
+        Assert.assertEquals(TabletInvertedIndex.NOT_EXIST_TABLET_META,
+                invertedIndex.getTabletMetaList(Lists.newArrayList(101L, 1000L)).get(1));
+        Assert.assertEquals(200, invertedIndex.getTabletNumByBackendId(1));
+        Assert.assertEquals(100, invertedIndex.getTabletIdsByBackendIdAndStorageMedium(2, TStorageMedium.SSD).size());
+        Map<TStorageMedium, Long> replicaNum = invertedIndex.getReplicaNumByBeIdAndStorageMedium(3);
+        Assert.assertEquals(100, replicaNum.get(TStorageMedium.HDD).longValue());
+        Assert.assertEquals(100, replicaNum.get(TStorageMedium.SSD).longValue());
+        Assert.assertEquals(150, invertedIndex.getTabletIdByReplica(1502).longValue());
+        Assert.assertEquals(3, invertedIndex.getReplicasByTabletId(150).size());
+
+        // replace the replica on the same backend
+        Replica newReplica = new Replica(10000, 2, 0, ReplicaState.NORMAL);
+        invertedIndex.addReplica(150, newReplica);
+        Assert.assertSame(newReplica, invertedIndex.getReplica(150, 2));
+        Assert.assertEquals(3, invertedIndex.getReplicasByTabletId(150).size());
+
+        invertedIndex.deleteReplica(150, 2);
+        Assert.assertNull(invertedIndex.getReplica(150, 2));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(10000));
+        Assert.assertEquals(199, invertedIndex.getTabletNumByBackendId(2));
+        List<Replica> replicas = invertedIndex.getReplicasOnBackendByTabletIds(Lists.newArrayList(150L, 151L), 2);
+        Assert.assertNull(replicas.get(0));
+        Assert.assertEquals(1512, replicas.get(1).getId());
+
+        invertedIndex.deleteTablet(151);
+        Assert.assertNull(invertedIndex.getTabletMeta(151));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(1511));
+        Assert.assertEquals(199, invertedIndex.getTabletIdsByBackendId(1).size());
+        Assert.assertTrue(invertedIndex.getReplicasByTabletId(151).isEmpty());
+
+        invertedIndex.clear();
+        Assert.assertEquals(0, invertedIndex.getTabletNumByBackendId(1));
+    }
+}
@@ -21,6 +21,9 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class CompressionUtilsTest {
     @Test
@@ -277,4 +280,28 @@ public class CompressionUtilsTest {
         System.out.println("Length of the string after decompression is: " + decompressedStr.length());
         Assert.assertEquals(origStr, decompressedStr);
     }
+
+    @Test
+    public void testDeflate() throws Exception {
+        byte[] input = new byte[4096];
+        Arrays.fill(input, 1024, 4096, (byte) 'a');
+        byte[] output = new byte[input.length + 8];
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            int length = CompressionUtils.deflate(deflater, input, 0, input.length, output, 8, input.length);
+            Assert.assertTrue(length > 0 && length < input.length);
+            Inflater inflater = new Inflater();
+            inflater.setInput(output, 8, length);
+            byte[] inflated = new byte[input.length];
+            Assert.assertEquals(input.length, inflater.inflate(inflated));
+            inflater.end();
+            Assert.assertArrayEquals(input, inflated);
+
+            // the deflater is reused, and gives up if the output is not small enough
+            Assert.assertEquals(-1, CompressionUtils.deflate(deflater, input, 0, input.length, output, 0, 4));
+            Assert.assertEquals(length, CompressionUtils.deflate(deflater, input, 0, input.length, output, 0, length));
+        } finally {
+            deflater.end();
+        }
+    }
 }
@@ -0,0 +1,141 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import com.starrocks.common.util.IntentionLock.Mode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class IntentionLockTest {
+
+    // try to lock in another thread, and release it immediately
+    private static boolean tryLockInOtherThread(IntentionLock lock, Mode mode) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> {
+                if (lock.tryLock(mode, 50, TimeUnit.MILLISECONDS)) {
+                    lock.unlock(mode);
+                    return true;
+                }
+                return false;
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompatibility() throws Exception {
+        boolean[][] compatible = {
+                // IS    IX     S      X
+                {true, true, true, false},
+                {true, true, false, false},
+                {true, false, true, false},
+                {false, false, false, false},
+        };
+        Mode[] modes = Mode.values();
+        for (int i = 0; i < modes.length; i++) {
+            for (int j = 0; j < modes.length; j++) {
+                IntentionLock lock = new IntentionLock(true);
+                lock.lock(modes[i]);
+                try {
+                    Assert.assertEquals(modes[i] + " vs " + modes[j], compatible[i][j],
+                            tryLockInOtherThread(lock, modes[j]));
+                } finally {
+                    lock.unlock(modes[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReentrant() throws Exception {
+        IntentionLock lock = new IntentionLock(true);
+        lock.lock(Mode.SHARED);
+        lock.lock(Mode.SHARED);
+        lock.unlock(Mode.SHARED);
+        Assert.assertFalse(tryLockInOtherThread(lock, Mode.INTENTION_EXCLUSIVE));
+        lock.unlock(Mode.SHARED);
+        Assert.assertTrue(tryLockInOtherThread(lock, Mode.INTENTION_EXCLUSIVE));
+        Assert.assertFalse(lock.isHeldByCurrentThread());
+
+        lock.lock(Mode.EXCLUSIVE);
+        lock.lock(Mode.SHARED);
+        lock.lock(Mode.INTENTION_EXCLUSIVE);
+        Assert.assertTrue(lock.isExclusiveHeldByCurrentThread());
+        lock.unlock(Mode.INTENTION_EXCLUSIVE);
+        lock.unlock(Mode.SHARED);
+        lock.unlock(Mode.EXCLUSIVE);
+        Assert.assertTrue(tryLockInOtherThread(lock, Mode.EXCLUSIVE));
+    }
+
+    @Test
+    public void testNestedLockUnderIntentionShared() throws Exception {
+        IntentionLock lock = new IntentionLock(true);
+        lock.lock(Mode.INTENTION_SHARED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // another thread holds IX
+            executor.submit(() -> lock.lock(Mode.INTENTION_EXCLUSIVE)).get();
+            // S is not granted by the IS held by this thread, it waits for the IX of the other thread
+            Assert.assertFalse(lock.tryLock(Mode.SHARED, 50, TimeUnit.MILLISECONDS));
+            executor.submit(() -> lock.unlock(Mode.INTENTION_EXCLUSIVE)).get();
+            Assert.assertTrue(lock.tryLock(Mode.SHARED, 50, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(tryLockInOtherThread(lock, Mode.INTENTION_EXCLUSIVE));
+            lock.unlock(Mode.SHARED);
+        } finally {
+            executor.shutdown();
+        }
+        lock.unlock(Mode.INTENTION_SHARED);
+        Assert.assertFalse(lock.isHeldByCurrentThread());
+
+        // hand over from S to IS, the S group is released with S
+        lock.lock(Mode.SHARED);
+        lock.lock(Mode.INTENTION_SHARED);
+        lock.unlock(Mode.SHARED);
+        Assert.assertTrue(tryLockInOtherThread(lock, Mode.INTENTION_EXCLUSIVE));
+        lock.unlock(Mode.INTENTION_SHARED);
+    }
+
+    @Test
+    public void testUpgradeRejected() throws Exception {
+        Mode[][] rejected = {
+                {Mode.INTENTION_EXCLUSIVE, Mode.SHARED},
+                {Mode.INTENTION_EXCLUSIVE, Mode.EXCLUSIVE},
+                {Mode.SHARED, Mode.INTENTION_EXCLUSIVE},
+                {Mode.SHARED, Mode.EXCLUSIVE},
+                {Mode.INTENTION_SHARED, Mode.EXCLUSIVE},
+        };
+        for (Mode[] modes : rejected) {
+            IntentionLock lock = new IntentionLock(true);
+            lock.lock(modes[0]);
+            try {
+                Assert.assertThrows(modes[0] + " -> " + modes[1], IllegalStateException.class,
+                        () -> lock.lock(modes[1]));
+                Assert.assertThrows(modes[0] + " -> " + modes[1], IllegalStateException.class,
+                        () -> lock.tryLock(modes[1], 50, TimeUnit.MILLISECONDS));
+            } finally {
+                lock.unlock(modes[0]);
+            }
+            Assert.assertFalse(lock.isHeldByCurrentThread());
+            Assert.assertTrue(tryLockInOtherThread(lock, Mode.EXCLUSIVE));
+        }
+    }
+
+    @Test
+    public void testDowngradeFromExclusive() throws Exception {
+        IntentionLock lock = new IntentionLock(true);
+        lock.lock(Mode.EXCLUSIVE);
+        lock.lock(Mode.SHARED);
+        lock.unlock(Mode.EXCLUSIVE);
+        // the S acquired under X still excludes IX
+        Assert.assertFalse(tryLockInOtherThread(lock, Mode.INTENTION_EXCLUSIVE));
+        Assert.assertTrue(tryLockInOtherThread(lock, Mode.SHARED));
+        lock.unlock(Mode.SHARED);
+        Assert.assertTrue(tryLockInOtherThread(lock, Mode.INTENTION_EXCLUSIVE));
+    }
+}
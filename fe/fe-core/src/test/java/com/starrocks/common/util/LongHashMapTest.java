@@ -0,0 +1,59 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LongHashMapTest {
+
+    @Test
+    public void testRandomOperations() {
+        LongHashMap<Long> map = new LongHashMap<>();
+        LongLongHashMap longMap = new LongLongHashMap(-1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            // small key range to make collisions and removals in probe sequences
+            long key = random.nextInt(2000) - 10;
+            long value = random.nextLong();
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+                longMap.remove(key);
+            } else {
+                Assert.assertEquals(expected.put(key, value), map.put(key, value));
+                longMap.put(key, value);
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(expected.size(), longMap.size());
+        for (long key = -10; key < 2000; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+            Assert.assertEquals(expected.getOrDefault(key, -1L).longValue(), longMap.get(key));
+            Assert.assertEquals(expected.containsKey(key), longMap.containsKey(key));
+        }
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        Assert.assertEquals(expected, visited);
+        Assert.assertEquals(expected.size(), map.keys().length);
+        Assert.assertEquals(expected.size(), map.values().size());
+
+        map.clear();
+        longMap.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(1));
+        Assert.assertEquals(0, longMap.size());
+        Assert.assertEquals(-1, longMap.get(0));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPutNull() {
+        new LongHashMap<String>().put(1, null);
+    }
+}
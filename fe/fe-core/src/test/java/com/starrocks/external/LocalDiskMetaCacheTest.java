@@ -0,0 +1,161 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external;
+
+import com.starrocks.common.Config;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
+public class LocalDiskMetaCacheTest {
+    private static final LocalDiskMetaCache.Codec<String> CODEC = new LocalDiskMetaCache.Codec<String>() {
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalDiskMetaCache<String> newCache(File dir, long capacityBytes, long ttlSec) throws IOException {
+        return new LocalDiskMetaCache<>("test", dir, () -> capacityBytes, ttlSec, CODEC);
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        File dir = folder.newFolder();
+        LocalDiskMetaCache<String> cache = newCache(dir, 1024 * 1024, -1);
+        Assert.assertNull(cache.get("db/tbl/[1]"));
+        cache.put("db/tbl/[1]", "p1", System.currentTimeMillis());
+        cache.put("db/tbl/[2]", "p2", System.currentTimeMillis());
+        Assert.assertEquals("p1", cache.get("db/tbl/[1]"));
+        Assert.assertEquals("p2", cache.get("db/tbl/[2]"));
+        Assert.assertTrue(cache.getUsedBytes() > 0);
+
+        cache.put("db/tbl/[1]", "p1_v2", System.currentTimeMillis());
+        Assert.assertEquals("p1_v2", cache.get("db/tbl/[1]"));
+        cache.invalidate("db/tbl/[2]");
+        Assert.assertNull(cache.get("db/tbl/[2]"));
+
+        // survives the restart
+        LocalDiskMetaCache<String> reopened = newCache(dir, 1024 * 1024, -1);
+        Assert.assertEquals("p1_v2", reopened.get("db/tbl/[1]"));
+        Assert.assertEquals(cache.getUsedBytes(), reopened.getUsedBytes());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        File dir = folder.newFolder();
+        LocalDiskMetaCache<String> cache = newCache(dir, 1024 * 1024, -1);
+        cache.put("db/tbl/[1]", "p1", System.currentTimeMillis());
+        cache.put("db/tbl2/[1]", "p1", System.currentTimeMillis());
+        cache.put("db/tbl_other/[1]", "p1", System.currentTimeMillis());
+        Thread.sleep(2);
+        cache.invalidatePrefix("db/tbl/");
+        Assert.assertNull(cache.get("db/tbl/[1]"));
+        Assert.assertEquals("p1", cache.get("db/tbl2/[1]"));
+        Assert.assertEquals("p1", cache.get("db/tbl_other/[1]"));
+
+        // the entries written after the invalidation are valid
+        Thread.sleep(2);
+        cache.put("db/tbl/[1]", "p1_v2", System.currentTimeMillis());
+        Assert.assertEquals("p1_v2", newCache(dir, 1024 * 1024, -1).get("db/tbl/[1]"));
+
+        cache.invalidateAll();
+        Assert.assertEquals(1, cache.getGeneration());
+        Assert.assertNull(cache.get("db/tbl/[1]"));
+        LocalDiskMetaCache<String> reopened = newCache(dir, 1024 * 1024, -1);
+        Assert.assertEquals(1, reopened.getGeneration());
+        Assert.assertNull(reopened.get("db/tbl2/[1]"));
+    }
+
+    @Test
+    public void testInvalidateWhileLoading() throws Exception {
+        LocalDiskMetaCache<String> cache = newCache(folder.newFolder(), 1024 * 1024, -1);
+        long loadTime = System.currentTimeMillis();
+        Thread.sleep(2);
+        cache.invalidatePrefix("db/tbl");
+        Thread.sleep(2);
+        // the value loaded before the invalidation is put after it
+        cache.put("db/tbl/[1]", "p1", loadTime);
+        Assert.assertNull(cache.get("db/tbl/[1]"));
+    }
+
+    @Test
+    public void testInvalidatedPrefixLog() throws Exception {
+        File dir = folder.newFolder();
+        LocalDiskMetaCache<String> cache = newCache(dir, 1024 * 1024, -1);
+        cache.put("db/tbl0/[1]", "p1", System.currentTimeMillis());
+        Thread.sleep(2);
+        // the log is appended, and compacted once most of the records are overwritten
+        for (int i = 0; i < 3000; i++) {
+            cache.invalidatePrefix("db/tbl" + (i % 10));
+        }
+        Assert.assertEquals(10, cache.getInvalidatedPrefixNum());
+        Assert.assertTrue(cache.getPrefixLogRecords() <= 1024);
+
+        LocalDiskMetaCache<String> reopened = newCache(dir, 1024 * 1024, -1);
+        Assert.assertEquals(10, reopened.getInvalidatedPrefixNum());
+        Assert.assertEquals(10, reopened.getPrefixLogRecords());
+        Assert.assertNull(reopened.get("db/tbl0/[1]"));
+
+        // bump the generation rather than keeping too many prefixes even if they never expire
+        for (int i = 0; i <= LocalDiskMetaCache.MAX_INVALIDATED_PREFIXES; i++) {
+            reopened.invalidatePrefix("db/tbl" + i);
+        }
+        Assert.assertEquals(1, reopened.getGeneration());
+        Assert.assertEquals(0, reopened.getInvalidatedPrefixNum());
+        Assert.assertEquals(0, newCache(dir, 1024 * 1024, -1).getInvalidatedPrefixNum());
+    }
+
+    @Test
+    public void testExpireAndEvict() throws Exception {
+        LocalDiskMetaCache<String> expiredCache = newCache(folder.newFolder(), 1024 * 1024, 0);
+        expiredCache.put("key", "value", System.currentTimeMillis());
+        Thread.sleep(2);
+        Assert.assertNull(expiredCache.get("key"));
+
+        File dir = folder.newFolder();
+        LocalDiskMetaCache<String> cache = newCache(dir, 1024 * 1024, -1);
+        cache.put("key0", "value", System.currentTimeMillis());
+        long entryBytes = cache.getUsedBytes();
+        Thread.sleep(10);
+
+        // the least recently used entry is evicted first
+        cache = newCache(dir, entryBytes * 10, -1);
+        for (int i = 1; i < 20; i++) {
+            cache.put("key" + i, "value", System.currentTimeMillis());
+        }
+        Assert.assertTrue(cache.getUsedBytes() <= entryBytes * 10);
+        Assert.assertNull(cache.get("key0"));
+    }
+
+    @Test
+    public void testMaxAgeAfterRestart() throws Exception {
+        long maxAgeSec = Config.external_meta_disk_cache_max_age_after_restart_sec;
+        try {
+            Config.external_meta_disk_cache_max_age_after_restart_sec = 0;
+            File dir = folder.newFolder();
+            LocalDiskMetaCache<String> cache = newCache(dir, 1024 * 1024, -1);
+            cache.put("key", "value", System.currentTimeMillis());
+            Thread.sleep(2);
+            // the entries written since fe starts are kept until the ttl
+            Assert.assertEquals("value", cache.get("key"));
+            Assert.assertNull(newCache(dir, 1024 * 1024, -1).get("key"));
+        } finally {
+            Config.external_meta_disk_cache_max_age_after_restart_sec = maxAgeSec;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.google.common.collect.Maps;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.HiveTable;
 import com.starrocks.catalog.ScalarType;
+import com.starrocks.common.Config;
 import com.starrocks.connector.exception.StarRocksConnectorException;
 import com.starrocks.external.PartitionUtil;
 import org.apache.hadoop.hive.conf.HiveConf;
@@ -25,6 +26,10 @@ import org.junit.Test;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.starrocks.external.hive.RemoteFileInputFormat.ORC;
 import static org.apache.hadoop.hive.common.StatsSetupConst.ROW_COUNT;
@@ -116,6 +121,64 @@ public class HiveMetastoreTest {
         Assert.assertEquals("hdfs://127.0.0.1:10000/hive.db/hive_tbl/part1=3/part2=4", partition2.getFullPath());
     }
 
+    @Test
+    public void testGetPartitionByNamesInBatches() {
+        int batchSize = Config.hive_meta_partition_batch_size;
+        Config.hive_meta_partition_batch_size = 2;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<String> partitionNames = Lists.newArrayList();
+            for (int i = 0; i < 5; i++) {
+                partitionNames.add("part1=" + i + "/part2=" + i);
+            }
+            for (HiveMetastore metastore : Lists.newArrayList(
+                    new HiveMetastore(new MockedHiveMetaClient(), "hive_catalog"),
+                    new HiveMetastore(new MockedHiveMetaClient(), "hive_catalog", executor))) {
+                Map<String, com.starrocks.external.hive.Partition> partitions =
+                        metastore.getPartitionsByNames("db1", "table1", partitionNames);
+                Assert.assertEquals(5, partitions.size());
+                for (String partitionName : partitionNames) {
+                    Assert.assertEquals("hdfs://127.0.0.1:10000/hive.db/hive_tbl/" + partitionName,
+                            partitions.get(partitionName).getFullPath());
+                }
+            }
+        } finally {
+            Config.hive_meta_partition_batch_size = batchSize;
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetPartitionByNamesInBatchesInterrupted() throws Exception {
+        int batchSize = Config.hive_meta_partition_batch_size;
+        Config.hive_meta_partition_batch_size = 1;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch cancelled = new CountDownLatch(2);
+        HiveMetaClient client = new MockedHiveMetaClient() {
+            @Override
+            public List<Partition> getPartitionsByNames(String dbName, String tblName, List<String> partitionNames) {
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException e) {
+                    cancelled.countDown();
+                }
+                return Lists.newArrayList();
+            }
+        };
+        try {
+            HiveMetastore metastore = new HiveMetastore(client, "hive_catalog", executor);
+            Thread.currentThread().interrupt();
+            Assert.assertThrows(StarRocksConnectorException.class,
+                    () -> metastore.getPartitionsByNames("db1", "table1", Lists.newArrayList("part1=1", "part1=2")));
+            // the interrupt is kept for the caller, and the pending batches are cancelled
+            Assert.assertTrue(Thread.interrupted());
+            Assert.assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        } finally {
+            Config.hive_meta_partition_batch_size = batchSize;
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testGetTableStatistics() {
         HiveMetaClient client = new MockedHiveMetaClient();
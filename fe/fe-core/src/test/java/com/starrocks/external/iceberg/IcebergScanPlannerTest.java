@@ -0,0 +1,178 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.external.iceberg;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.starrocks.qe.ConnectContext;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+public class IcebergScanPlannerTest {
+    private static final long MB = 1024L * 1024L;
+
+    private static final Schema SCHEMA = new Schema(
+            required(1, "k1", Types.IntegerType.get()),
+            required(2, "k2", Types.IntegerType.get()));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static DataFile newDataFile(long length, List<Long> splitOffsets) {
+        return DataFiles.builder(PartitionSpec.unpartitioned())
+                .withPath("hdfs://host/warehouse/t/data/00000.parquet")
+                .withFormat(FileFormat.PARQUET)
+                .withFileSizeInBytes(length)
+                .withRecordCount(100)
+                .withSplitOffsets(splitOffsets)
+                .build();
+    }
+
+    private static void assertSplits(List<long[]> splits, long... expected) {
+        Assert.assertEquals(expected.length / 2, splits.size());
+        for (int i = 0; i < splits.size(); i++) {
+            Assert.assertEquals(expected[i * 2], splits.get(i)[0]);
+            Assert.assertEquals(expected[i * 2 + 1], splits.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void testSplitDataFile() {
+        // split evenly without split offsets
+        assertSplits(IcebergScanPlanner.splitDataFile(newDataFile(300 * MB, null), 128 * MB),
+                0, 128 * MB, 128 * MB, 128 * MB, 256 * MB, 44 * MB);
+
+        // split at the row groups of about the split size
+        List<Long> offsets = Lists.newArrayList(4L, 100 * MB, 200 * MB, 250 * MB);
+        assertSplits(IcebergScanPlanner.splitDataFile(newDataFile(300 * MB, offsets), 128 * MB),
+                0, 200 * MB, 200 * MB, 100 * MB);
+
+        // invalid split offsets
+        offsets = Lists.newArrayList(4L, 400 * MB);
+        assertSplits(IcebergScanPlanner.splitDataFile(newDataFile(200 * MB, offsets), 128 * MB),
+                0, 128 * MB, 128 * MB, 72 * MB);
+
+        assertSplits(IcebergScanPlanner.splitDataFile(newDataFile(10 * MB, null), 128 * MB), 0, 10 * MB);
+    }
+
+    private static DataFile newDataFile(Table table, String partitionPath, int minK2, int maxK2) {
+        Metrics metrics = new Metrics(10L, null,
+                ImmutableMap.of(1, 10L, 2, 10L),
+                ImmutableMap.of(1, 0L, 2, 0L),
+                ImmutableMap.of(2, Conversions.toByteBuffer(Types.IntegerType.get(), minK2)),
+                ImmutableMap.of(2, Conversions.toByteBuffer(Types.IntegerType.get(), maxK2)));
+        return DataFiles.builder(table.spec())
+                .withPath(table.location() + "/data/" + partitionPath + "/" + minK2 + ".parquet")
+                .withFormat(FileFormat.PARQUET)
+                .withFileSizeInBytes(1024)
+                .withPartitionPath(partitionPath)
+                .withMetrics(metrics)
+                .build();
+    }
+
+    private static Set<String> planDataFiles(Table table, Snapshot snapshot, Expression filter,
+                                             ConnectContext ctx) {
+        ctx.setThreadLocalInfo();
+        try {
+            return IcebergScanPlanner.planDataFiles(table, snapshot, Lists.newArrayList(filter)).stream()
+                    .map(dataFile -> dataFile.path().toString())
+                    .collect(Collectors.toCollection(TreeSet::new));
+        } finally {
+            ConnectContext.remove();
+        }
+    }
+
+    private static Set<String> planFilesByScan(Table table, Snapshot snapshot, Expression filter) throws Exception {
+        Set<String> paths = new TreeSet<>();
+        try (CloseableIterable<FileScanTask> tasks = table.newScan().useSnapshot(snapshot.snapshotId())
+                .filter(filter).planFiles()) {
+            for (FileScanTask task : tasks) {
+                paths.add(task.file().path().toString());
+            }
+        }
+        return paths;
+    }
+
+    @Test
+    public void testPlanDataFiles() throws Exception {
+        PartitionSpec spec = PartitionSpec.builderFor(SCHEMA).identity("k1").build();
+        Table table = new HadoopTables(new Configuration()).create(SCHEMA, spec, folder.newFolder().getPath());
+        // every fast append writes a new manifest
+        table.newFastAppend().appendFile(newDataFile(table, "k1=1", 1, 10)).commit();
+        Snapshot snapshot1 = table.currentSnapshot();
+        table.newFastAppend()
+                .appendFile(newDataFile(table, "k1=2", 11, 20))
+                .appendFile(newDataFile(table, "k1=2", 21, 30))
+                .commit();
+        Snapshot snapshot2 = table.currentSnapshot();
+        table.updateSpec().addField("k2").commit();
+        table.newFastAppend().appendFile(newDataFile(table, "k1=3/k2=40", 40, 40)).commit();
+        Snapshot snapshot3 = table.currentSnapshot();
+        Assert.assertEquals(2, table.specs().size());
+        Assert.assertEquals(3, snapshot3.dataManifests().size());
+
+        // the manifests shared by the snapshots are only read once
+        ConnectContext ctx = new ConnectContext();
+        Expression filter = Expressions.alwaysTrue();
+        Assert.assertEquals(planFilesByScan(table, snapshot1, filter), planDataFiles(table, snapshot1, filter, ctx));
+        Assert.assertEquals(1, ctx.getPlannerProfile().getCounter("Iceberg.Plan.ManifestCacheMisses"));
+        ctx = new ConnectContext();
+        Assert.assertEquals(planFilesByScan(table, snapshot2, filter), planDataFiles(table, snapshot2, filter, ctx));
+        Assert.assertEquals(1, ctx.getPlannerProfile().getCounter("Iceberg.Plan.ManifestCacheMisses"));
+        ctx = new ConnectContext();
+        Set<String> dataFiles = planDataFiles(table, snapshot3, filter, ctx);
+        Assert.assertEquals(planFilesByScan(table, snapshot3, filter), dataFiles);
+        Assert.assertEquals(4, dataFiles.size());
+        Assert.assertEquals(1, ctx.getPlannerProfile().getCounter("Iceberg.Plan.ManifestCacheMisses"));
+
+        // the manifests are pruned by the partition summaries of both specs
+        ctx = new ConnectContext();
+        filter = Expressions.equal("k1", 2);
+        dataFiles = planDataFiles(table, snapshot3, filter, ctx);
+        Assert.assertEquals(planFilesByScan(table, snapshot3, filter), dataFiles);
+        Assert.assertEquals(2, dataFiles.size());
+        Assert.assertEquals(2, ctx.getPlannerProfile().getCounter("Iceberg.Plan.PrunedManifests"));
+        Assert.assertEquals(0, ctx.getPlannerProfile().getCounter("Iceberg.Plan.PrunedDataFiles"));
+        Assert.assertEquals(0, ctx.getPlannerProfile().getCounter("Iceberg.Plan.ManifestCacheMisses"));
+
+        // the data files are pruned by the column metrics, and by the partitions of the new spec
+        ctx = new ConnectContext();
+        filter = Expressions.greaterThan("k2", 25);
+        dataFiles = planDataFiles(table, snapshot3, filter, ctx);
+        Assert.assertEquals(planFilesByScan(table, snapshot3, filter), dataFiles);
+        Assert.assertEquals(2, dataFiles.size());
+        Assert.assertEquals(0, ctx.getPlannerProfile().getCounter("Iceberg.Plan.PrunedManifests"));
+        Assert.assertEquals(2, ctx.getPlannerProfile().getCounter("Iceberg.Plan.PrunedDataFiles"));
+
+        ctx = new ConnectContext();
+        filter = Expressions.and(Expressions.equal("k1", 3), Expressions.lessThan("k2", 40));
+        Assert.assertTrue(planDataFiles(table, snapshot3, filter, ctx).isEmpty());
+        Assert.assertTrue(planFilesByScan(table, snapshot3, filter).isEmpty());
+        Assert.assertEquals(3, ctx.getPlannerProfile().getCounter("Iceberg.Plan.PrunedManifests"));
+    }
+}
@@ -0,0 +1,81 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.journal;
+
+import com.google.common.base.Strings;
+import com.starrocks.common.Config;
+import com.starrocks.common.io.DataOutputBuffer;
+import com.starrocks.common.io.Text;
+import com.starrocks.persist.OperationType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class JournalEncodingTest {
+    private final String compression = Config.metadata_journal_compression;
+
+    @After
+    public void tearDown() {
+        Config.metadata_journal_compression = compression;
+    }
+
+    private static DataOutputBuffer serialize(short op, String text) throws IOException {
+        DataOutputBuffer buffer = new DataOutputBuffer(128);
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(op);
+        entity.setData(new Text(text));
+        entity.write(buffer);
+        return buffer;
+    }
+
+    private static JournalEntity deserialize(byte[] data) throws IOException {
+        JournalEntity entity = new JournalEntity();
+        entity.readFields(new DataInputStream(new ByteArrayInputStream(JournalEncoding.decode(data))));
+        return entity;
+    }
+
+    @Test
+    public void testCompress() throws IOException {
+        Config.metadata_journal_compression = JournalEncoding.COMPRESSION_DEFLATE;
+        String json = "{\"id\":10001,\"name\":\"tbl\",\"partitions\":[" +
+                Strings.repeat("{\"id\":10002,\"visibleVersion\":1},", 100) + "]}";
+        DataOutputBuffer buffer = serialize(OperationType.OP_SAVE_NEXTID, json);
+        byte[] encoded = JournalEncoding.encode(buffer.getData(), buffer.getLength());
+        Assert.assertNotNull(encoded);
+        Assert.assertTrue(encoded.length < buffer.getLength() / 4);
+        Assert.assertEquals(OperationType.OP_SAVE_NEXTID, JournalEncoding.getOpCode(encoded, encoded.length));
+        Assert.assertArrayEquals(Arrays.copyOf(buffer.getData(), buffer.getLength()), JournalEncoding.decode(encoded));
+
+        JournalEntity entity = deserialize(encoded);
+        Assert.assertEquals(OperationType.OP_SAVE_NEXTID, entity.getOpCode());
+        Assert.assertEquals(json, entity.getData().toString());
+    }
+
+    @Test
+    public void testNotCompressed() throws IOException {
+        DataOutputBuffer buffer = serialize(OperationType.OP_SAVE_NEXTID, Strings.repeat("a", 1024));
+        Config.metadata_journal_compression = JournalEncoding.COMPRESSION_NONE;
+        Assert.assertNull(JournalEncoding.encode(buffer.getData(), buffer.getLength()));
+
+        // too small
+        Config.metadata_journal_compression = JournalEncoding.COMPRESSION_DEFLATE;
+        DataOutputBuffer small = serialize(OperationType.OP_SAVE_NEXTID, "123");
+        Assert.assertNull(JournalEncoding.encode(small.getData(), small.getLength()));
+
+        // incompressible
+        byte[] random = new byte[4096];
+        new Random(0).nextBytes(random);
+        Assert.assertNull(JournalEncoding.encode(random, random.length));
+
+        // the legacy encoding is read as is
+        byte[] legacy = Arrays.copyOf(small.getData(), small.getLength());
+        Assert.assertEquals(OperationType.OP_SAVE_NEXTID, JournalEncoding.getOpCode(legacy, legacy.length));
+        Assert.assertEquals("123", deserialize(legacy).getData().toString());
+    }
+}
@@ -9,12 +9,18 @@ import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.Transaction;
 import com.sleepycat.je.rep.InsufficientLogException;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.FeConstants;
 import com.starrocks.common.io.DataOutputBuffer;
 import com.starrocks.common.io.Text;
+import com.starrocks.common.util.UnitTestUtil;
 import com.starrocks.journal.JournalCursor;
 import com.starrocks.journal.JournalEntity;
 import com.starrocks.journal.JournalException;
 import com.starrocks.journal.JournalInconsistentException;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.persist.CreateTableInfo;
 import com.starrocks.persist.OperationType;
 import com.starrocks.utframe.UtFrameUtils;
 import mockit.Delegate;
@@ -91,6 +97,110 @@ public class BDBJournalCursorTest {
         return buffer;
     }
 
+    @Test
+    public void testPipelinedNoMock() throws Exception {
+        BDBEnvironment environment = initBDBEnv();
+        BDBJEJournal journal = new BDBJEJournal(environment);
+        journal.open();
+
+        // db1: 1-3, db4: 4-6
+        journal.batchWriteBegin();
+        for (int i = 1; i <= 3; ++ i) {
+            journal.batchWriteAppend(i, makeBuffer(i));
+        }
+        journal.batchWriteCommit();
+        journal.rollJournal(4);
+        journal.batchWriteBegin();
+        for (int i = 4; i <= 6; ++ i) {
+            journal.batchWriteAppend(i, makeBuffer(i));
+        }
+        journal.batchWriteCommit();
+
+        // read ahead with a queue smaller than the journals
+        BDBPipelinedJournalCursor cursor = BDBPipelinedJournalCursor.getJournalCursor(environment, "", 2, -1, 2);
+        for (int i = 2; i <= 6; ++ i) {
+            JournalEntity entity = cursor.next();
+            Assert.assertEquals(OperationType.OP_SAVE_NEXTID, entity.getOpCode());
+            Assert.assertEquals(String.valueOf(i), entity.getData().toString());
+        }
+        Assert.assertNull(cursor.next());
+
+        // the reader is restarted by refresh
+        journal.batchWriteBegin();
+        journal.batchWriteAppend(7, makeBuffer(7));
+        journal.batchWriteCommit();
+        Assert.assertNull(cursor.next());
+        cursor.refresh();
+        JournalEntity entity = cursor.next();
+        Assert.assertEquals("7", entity.getData().toString());
+        Assert.assertNull(cursor.next());
+        cursor.close();
+
+        // read to the key
+        cursor = BDBPipelinedJournalCursor.getJournalCursor(environment, "", 1, 3, 100);
+        for (int i = 1; i <= 3; ++ i) {
+            Assert.assertEquals(String.valueOf(i), cursor.next().getData().toString());
+        }
+        Assert.assertNull(cursor.next());
+        cursor.close();
+        journal.close();
+    }
+
+    @Test
+    public void testPipelinedCreateTableAndBadData() throws Exception {
+        BDBEnvironment environment = initBDBEnv();
+        BDBJEJournal journal = new BDBJEJournal(environment);
+        journal.open();
+
+        // 1: save next id, 2: create table, 3: bad data, 4: save next id
+        Database db = UnitTestUtil.createDb(1, 2, 3, 4, 5, 6, 1);
+        OlapTable table = (OlapTable) db.getTable(2);
+        DataOutputBuffer createTable = new DataOutputBuffer(128);
+        JournalEntity createTableEntity = new JournalEntity();
+        createTableEntity.setOpCode(OperationType.OP_CREATE_TABLE);
+        createTableEntity.setData(new CreateTableInfo(db.getFullName(), table));
+        createTableEntity.write(createTable);
+        DataOutputBuffer badData = new DataOutputBuffer(128);
+        badData.write("lalala".getBytes());
+        journal.batchWriteBegin();
+        journal.batchWriteAppend(1, makeBuffer(1));
+        journal.batchWriteAppend(2, createTable);
+        journal.batchWriteAppend(3, badData);
+        journal.batchWriteAppend(4, makeBuffer(4));
+        journal.batchWriteCommit();
+
+        // the tables read the meta version of the replayer when deserialized by the other threads
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setStarRocksMetaVersion(FeConstants.starrocks_meta_version);
+        metaContext.setThreadLocalInfo();
+        try {
+            BDBPipelinedJournalCursor cursor = BDBPipelinedJournalCursor.getJournalCursor(environment, "", 1, -1, 100);
+            Assert.assertEquals("1", cursor.next().getData().toString());
+            JournalEntity entity = cursor.next();
+            Assert.assertEquals(OperationType.OP_CREATE_TABLE, entity.getOpCode());
+            CreateTableInfo info = (CreateTableInfo) entity.getData();
+            Assert.assertEquals(table.getName(), info.getTable().getName());
+            Assert.assertEquals(table.getPartitions().size(), ((OlapTable) info.getTable()).getPartitions().size());
+
+            // the bad journal is retried after refresh rather than read past
+            for (int i = 0; i < 2; i++) {
+                Assert.assertThrows(JournalException.class, cursor::next);
+                Assert.assertNull(cursor.next());
+                cursor.refresh();
+            }
+            Assert.assertThrows(JournalException.class, cursor::next);
+            cursor.skipNext();
+            cursor.refresh();
+            Assert.assertEquals("4", cursor.next().getData().toString());
+            Assert.assertNull(cursor.next());
+            cursor.close();
+        } finally {
+            MetaContext.remove();
+        }
+        journal.close();
+    }
+
     @Test
     public void testNormalNoMock() throws Exception {
         BDBEnvironment environment = initBDBEnv();
@@ -3,21 +3,34 @@
 package com.starrocks.lake.compaction;
 
 import com.starrocks.common.Config;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class CompactionManagerTest {
     private CompactionManager compactionManager;
+    private final String selector = Config.lake_compaction_selector;
+    private final String sorter = Config.lake_compaction_sorter;
 
     @Before
     public void init() {
+        Config.lake_compaction_selector = "SimpleSelector";
+        Config.lake_compaction_sorter = "RandomSorter";
         compactionManager = new CompactionManager();
     }
 
+    @After
+    public void tearDown() {
+        Config.lake_compaction_selector = selector;
+        Config.lake_compaction_sorter = sorter;
+    }
+
     @Test
     public void testChoosePartitionsToCompact() {
         PartitionIdentifier partition1 = new PartitionIdentifier(1, 2, 3);
@@ -60,4 +73,50 @@ public class CompactionManagerTest {
         Assert.assertEquals(1, compactionList.size());
         Assert.assertSame(partition2, compactionList.get(0));
     }
+
+    @Test
+    public void testChoosePartitionsToCompactByScore() {
+        Config.lake_compaction_selector = "ScoreSelector";
+        Config.lake_compaction_sorter = "ScoreSorter";
+        compactionManager = new CompactionManager();
+
+        PartitionIdentifier partition1 = new PartitionIdentifier(1, 2, 3);
+        PartitionIdentifier partition2 = new PartitionIdentifier(1, 2, 4);
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= 20; i++) {
+            compactionManager.handleLoadingFinished(partition1, i, now);
+            compactionManager.handleLoadingFinished(partition2, i, now);
+        }
+        Assert.assertEquals(2, compactionManager.choosePartitionsToCompact().size());
+        Assert.assertEquals(2, compactionManager.getCandidatePartitionNum());
+
+        // the partition read more is compacted first
+        for (int i = 0; i < 100; i++) {
+            compactionManager.handlePartitionsRead(Collections.singletonList(partition2.getPartitionId()));
+        }
+        List<PartitionIdentifier> compactionList = compactionManager.choosePartitionsToCompact();
+        Assert.assertEquals(2, compactionList.size());
+        Assert.assertEquals(partition2, compactionList.get(0));
+        Assert.assertEquals(partition1, compactionList.get(1));
+        Assert.assertTrue(compactionManager.getMaxCompactionScore() > 40);
+    }
+
+    @Test
+    public void testReportPartitionReads() {
+        compactionManager.handlePartitionsRead(Arrays.asList(3L, 4L));
+        compactionManager.handlePartitionsRead(Collections.singletonList(3L));
+        Map<Long, Long> reads = compactionManager.drainPartitionReads();
+        Assert.assertEquals(2, reads.size());
+        Assert.assertEquals(2L, (long) reads.get(3L));
+        Assert.assertEquals(1L, (long) reads.get(4L));
+        Assert.assertTrue(compactionManager.drainPartitionReads().isEmpty());
+
+        // the reads reported by the other FEs
+        CompactionManager leader = new CompactionManager();
+        leader.handlePartitionsRead(Collections.singletonList(3L));
+        leader.addPartitionReads(reads);
+        reads = leader.drainPartitionReads();
+        Assert.assertEquals(3L, (long) reads.get(3L));
+        Assert.assertEquals(1L, (long) reads.get(4L));
+    }
 }
@@ -0,0 +1,99 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.lake.compaction;
+
+import com.starrocks.common.Config;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScoreSelectorTest {
+    private final Selector selector = new ScoreSelector();
+    private final Sorter sorter = new ScoreSorter();
+
+    private static PartitionStatistics newStatistics(long partitionId, long deltaVersions, long lastCompactionTime) {
+        PartitionStatistics statistics = new PartitionStatistics(new PartitionIdentifier(1, 2, partitionId));
+        statistics.setLastCompactionVersion(new PartitionVersion(1, lastCompactionTime));
+        statistics.setCurrentVersion(new PartitionVersion(1 + deltaVersions, System.currentTimeMillis()));
+        return statistics;
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertEquals(0, selector.select(new ArrayList<>()).size());
+    }
+
+    @Test
+    public void testMinVersionsAndScore() {
+        long hourAgo = System.currentTimeMillis() - 3600 * 1000L;
+        long minuteAgo = System.currentTimeMillis() - 60 * 1000L;
+        List<PartitionStatistics> statisticsList = new ArrayList<>();
+        // less than the min versions
+        statisticsList.add(newStatistics(3, Config.lake_compaction_score_selector_min_versions - 1, hourAgo));
+        // score is less than the min score
+        statisticsList.add(newStatistics(4, Config.lake_compaction_score_selector_min_versions, minuteAgo));
+        Assert.assertEquals(0, selector.select(statisticsList).size());
+
+        PartitionStatistics statistics = newStatistics(5, (long) Config.lake_compaction_score_selector_min_score, hourAgo);
+        statisticsList.add(statistics);
+        Assert.assertSame(statistics, selector.select(statisticsList).get(0));
+
+        statistics.setNextCompactionTime(System.currentTimeMillis() + 60 * 1000);
+        Assert.assertEquals(0, selector.select(statisticsList).size());
+    }
+
+    @Test
+    public void testAgeThreshold() {
+        long thresholdMs = Config.lake_compaction_simple_selector_threshold_seconds * 1000;
+        List<PartitionStatistics> statisticsList = new ArrayList<>();
+        // the score is less than the min score, but not compacted for a long time
+        PartitionStatistics statistics = newStatistics(3, Config.lake_compaction_score_selector_min_versions,
+                System.currentTimeMillis() - thresholdMs - 1000);
+        statisticsList.add(statistics);
+        List<PartitionStatistics> selected = selector.select(statisticsList);
+        Assert.assertEquals(1, selected.size());
+        Assert.assertTrue(selected.get(0).getCompactionScore() < Config.lake_compaction_score_selector_min_score);
+
+        // the min versions is still required
+        statisticsList.add(newStatistics(4, Config.lake_compaction_score_selector_min_versions - 1, 0));
+        Assert.assertEquals(1, selector.select(statisticsList).size());
+    }
+
+    @Test
+    public void testScoreOrder() {
+        long now = System.currentTimeMillis();
+        long hourAgo = now - 3600 * 1000L;
+        List<PartitionStatistics> statisticsList = new ArrayList<>();
+        PartitionStatistics cold = newStatistics(3, 30, hourAgo);
+        statisticsList.add(cold);
+        // more versions
+        PartitionStatistics moreVersions = newStatistics(4, 60, hourAgo);
+        statisticsList.add(moreVersions);
+        // same versions as the cold one, but loaded in the last minute
+        PartitionStatistics hotIngestion = newStatistics(5, 30, now);
+        statisticsList.add(hotIngestion);
+        // same versions as the cold one, but read frequently
+        PartitionStatistics hotRead = newStatistics(6, 30, hourAgo);
+        hotRead.addReads(1000, now, Config.lake_compaction_score_read_half_life_seconds * 1000);
+        statisticsList.add(hotRead);
+
+        List<PartitionStatistics> sorted = sorter.sort(selector.select(statisticsList));
+        Assert.assertEquals(4, sorted.size());
+        Assert.assertSame(hotRead, sorted.get(0));
+        Assert.assertSame(moreVersions, sorted.get(1));
+        Assert.assertSame(hotIngestion, sorted.get(2));
+        Assert.assertSame(cold, sorted.get(3));
+    }
+
+    @Test
+    public void testReadsDecay() {
+        PartitionStatistics statistics = newStatistics(3, 10, 0);
+        statistics.addReads(100, 0, 1000);
+        Assert.assertEquals(100, statistics.getRecentReads(0, 1000), 0.001);
+        Assert.assertEquals(50, statistics.getRecentReads(1000, 1000), 0.001);
+        statistics.addReads(50, 1000, 1000);
+        Assert.assertEquals(50, statistics.getRecentReads(2000, 1000), 0.001);
+    }
+}
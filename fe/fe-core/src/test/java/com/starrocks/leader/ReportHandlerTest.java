@@ -4,21 +4,34 @@ package com.starrocks.leader;
 
 import com.google.common.collect.Lists;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.catalog.TabletMeta;
 import com.starrocks.common.FeConstants;
 import com.starrocks.common.util.UUIDUtil;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.system.Backend;
+import com.starrocks.thrift.TBackend;
+import com.starrocks.thrift.TReportRequest;
 import com.starrocks.thrift.TTablet;
 import com.starrocks.thrift.TTabletInfo;
 import com.starrocks.utframe.StarRocksAssert;
 import com.starrocks.utframe.UtFrameUtils;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
 
 public class ReportHandlerTest {
     private static ConnectContext connectContext;
@@ -29,6 +42,8 @@ public class ReportHandlerTest {
         FeConstants.runningUnitTest = true;
 
         UtFrameUtils.createMinStarRocksCluster();
+        UtFrameUtils.addMockBackend(10002);
+        UtFrameUtils.addMockBackend(10003);
 
         // create connect context
         connectContext = UtFrameUtils.createDefaultCtx();
@@ -37,7 +52,9 @@ public class ReportHandlerTest {
 
         starRocksAssert.withDatabase("test").useDatabase("test")
                 .withTable("CREATE TABLE test.properties_change_test(k1 int, v1 int) " +
-                        "primary key(k1) distributed by hash(k1) properties('replication_num' = '1');");
+                        "primary key(k1) distributed by hash(k1) properties('replication_num' = '1');")
+                .withTable("CREATE TABLE test.concurrent_report_test(k1 int, v1 int) " +
+                        "duplicate key(k1) distributed by hash(k1) buckets 16 properties('replication_num' = '3');");
     }
 
     @Test
@@ -63,4 +80,96 @@ public class ReportHandlerTest {
         ReportHandler handler = new ReportHandler();
         handler.testHandleSetTabletEnablePersistentIndex(backendId, backendTablets);
     }
-}
\ No newline at end of file
+
+    // report all the tablets of backend in meta with the path hash
+    private static TReportRequest newFullTabletReport(Backend backend, long version, long pathHash) {
+        TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
+        List<TTablet> tablets = Lists.newArrayList();
+        for (long tabletId : invertedIndex.getTabletIdsByBackendId(backend.getId())) {
+            TabletMeta tabletMeta = invertedIndex.getTabletMeta(tabletId);
+            Replica replica = invertedIndex.getReplica(tabletId, backend.getId());
+            TTabletInfo tabletInfo = new TTabletInfo(tabletId, tabletMeta.getOldSchemaHash(), replica.getVersion(), 0,
+                    replica.getRowCount(), replica.getDataSize());
+            tabletInfo.setPartition_id(tabletMeta.getPartitionId());
+            tabletInfo.setPath_hash(pathHash);
+            tablets.add(new TTablet(Lists.newArrayList(tabletInfo)));
+        }
+        TReportRequest request = new TReportRequest(
+                new TBackend(backend.getHost(), backend.getBePort(), backend.getHttpPort()));
+        request.setReport_version(version);
+        request.setTablet_list(tablets);
+        return request;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("timeout", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testConcurrentReports() throws Exception {
+        // replica id -> the path hashes set by the reports of its backend in order
+        Map<Long, List<Long>> pathHashes = new ConcurrentHashMap<>();
+        new MockUp<Replica>() {
+            @Mock
+            public void setPathHash(Invocation invocation, long pathHash) {
+                Replica replica = invocation.getInvokedInstance();
+                if (pathHash / 1000 == replica.getBackendId()) {
+                    pathHashes.computeIfAbsent(replica.getId(), k -> Collections.synchronizedList(Lists.newArrayList()))
+                            .add(pathHash);
+                }
+                invocation.proceed();
+            }
+        };
+        ReportHandler handler = new ReportHandler();
+        handler.start();
+
+        // every backend sends its reports in order, while the backends report concurrently
+        List<Long> backendIds = Lists.newArrayList(10001L, 10002L, 10003L);
+        int reportNum = 20;
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Throwable> errors = Collections.synchronizedList(Lists.newArrayList());
+        List<Thread> threads = Lists.newArrayList();
+        for (long backendId : backendIds) {
+            Backend backend = GlobalStateMgr.getCurrentSystemInfo().getBackend(backendId);
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int i = 1; i <= reportNum; i++) {
+                        handler.handleReport(newFullTabletReport(backend, i, backendId * 1000 + i));
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+
+        TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
+        for (long backendId : backendIds) {
+            List<Long> tabletIds = invertedIndex.getTabletIdsByBackendId(backendId);
+            waitFor(() -> tabletIds.stream().allMatch(tabletId ->
+                    invertedIndex.getReplica(tabletId, backendId).getPathHash() == backendId * 1000 + reportNum));
+            Assert.assertTrue(tabletIds.size() >= 16);
+            for (long tabletId : tabletIds) {
+                Replica replica = invertedIndex.getReplica(tabletId, backendId);
+                // the last report of every backend is applied, none of them is lost
+                Assert.assertEquals(backendId * 1000 + reportNum, replica.getPathHash());
+                // the superseded reports may be skipped, but never applied after the newer ones
+                List<Long> applied = pathHashes.get(replica.getId());
+                for (int i = 1; i < applied.size(); i++) {
+                    Assert.assertTrue(applied.toString(), applied.get(i - 1) < applied.get(i));
+                }
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -333,4 +334,60 @@ public class MysqlChannelTest {
         channel1.sendOnePacket(buf);
     }
 
+    @Test
+    public void testCompression() throws IOException {
+        // the data written by one channel is read by the other one
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        new Expectations() {
+            {
+                channel.write((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeWrite(ByteBuffer buffer) {
+                        int writeLen = buffer.remaining();
+                        written.write(buffer.array(), buffer.arrayOffset() + buffer.position(), writeLen);
+                        buffer.position(buffer.limit());
+                        return writeLen;
+                    }
+                };
+                channel.read((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeRead(ByteBuffer buffer) {
+                        byte[] data = written.toByteArray();
+                        if (readIdx >= data.length) {
+                            return -1;
+                        }
+                        int readLen = Math.min(buffer.remaining(), data.length - readIdx);
+                        buffer.put(data, readIdx, readLen);
+                        readIdx += readLen;
+                        return readLen;
+                    }
+                };
+            }
+        };
+
+        MysqlChannel sender = new MysqlChannel(channel);
+        sender.enableCompression();
+        sender.setSequenceId(0);
+        byte[] large = new byte[100000];
+        for (int i = 0; i < large.length; ++i) {
+            large[i] = (byte) ('a' + (i % 26));
+        }
+        sender.sendOnePacket(ByteBuffer.wrap(large));
+        sender.sendOnePacket(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        sender.flush();
+        sender.sendAndFlush(ByteBuffer.wrap(new byte[] {4, 5}));
+        Assert.assertEquals(large.length + 3 + 2 + 4 * 3, sender.getCompressionRawBytes());
+        Assert.assertEquals(written.size(), sender.getCompressionSentBytes());
+        Assert.assertTrue(sender.getCompressionSentBytes() < large.length / 10);
+
+        MysqlChannel receiver = new MysqlChannel(channel);
+        receiver.enableCompression();
+        receiver.setSequenceId(0);
+        Assert.assertEquals(ByteBuffer.wrap(large), receiver.fetchOnePacket());
+        Assert.assertEquals(ByteBuffer.wrap(new byte[] {1, 2, 3}), receiver.fetchOnePacket());
+        Assert.assertEquals(ByteBuffer.wrap(new byte[] {4, 5}), receiver.fetchOnePacket());
+        Assert.assertNull(receiver.fetchOnePacket());
+    }
 }
@@ -0,0 +1,129 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist;
+
+import com.starrocks.common.Config;
+import com.starrocks.meta.MetaContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ImageLoaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final int oldThreadsNum = Config.image_load_threads_num;
+    private final Map<String, Integer> loaded = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() {
+        new MetaContext().setThreadLocalInfo();
+    }
+
+    @After
+    public void tearDown() {
+        Config.image_load_threads_num = oldThreadsNum;
+        MetaContext.remove();
+    }
+
+    private static ImageWriter.SectionWriter intSection(int value) {
+        return (dos, checksum) -> {
+            dos.writeInt(value);
+            return checksum ^ value;
+        };
+    }
+
+    private ImageLoader.SectionLoader intLoader(String name) {
+        return (dis, checksum) -> {
+            int value = dis.readInt();
+            loaded.put(name, value);
+            return checksum ^ value;
+        };
+    }
+
+    private File writeImage() throws Exception {
+        File file = folder.newFile();
+        new ImageWriter()
+                .addSection("a", intSection(1))
+                .addSection("b", intSection(2))
+                .addChecksum()
+                .addSection("c", intSection(4))
+                .addSection("d", intSection(8))
+                .addChecksum()
+                .write(file);
+        return file;
+    }
+
+    private void loadImage(File file) throws Exception {
+        try (ImageLoader imageLoader = new ImageLoader(file)) {
+            DataInputStream dis = imageLoader.getStream();
+            imageLoader.addSection("b", intLoader("b"))
+                    .addSection("c", intLoader("c"))
+                    .addSection("d", intLoader("d"));
+            imageLoader.submit("b");
+            imageLoader.submit("c", "d");
+
+            long checksum = dis.readInt();
+            checksum = imageLoader.load("b", checksum);
+            Assert.assertEquals(checksum, dis.readLong());
+            checksum = imageLoader.load("c", checksum);
+            checksum = imageLoader.load("d", checksum);
+            Assert.assertEquals(checksum, dis.readLong());
+            imageLoader.waitSections();
+            Assert.assertEquals(15, checksum);
+        }
+        Assert.assertEquals(2, loaded.get("b").intValue());
+        Assert.assertEquals(4, loaded.get("c").intValue());
+        Assert.assertEquals(8, loaded.get("d").intValue());
+    }
+
+    @Test
+    public void testLoadParallel() throws Exception {
+        Config.image_load_threads_num = 4;
+        loadImage(writeImage());
+    }
+
+    @Test
+    public void testLoadSerial() throws Exception {
+        Config.image_load_threads_num = 1;
+        loadImage(writeImage());
+    }
+
+    @Test
+    public void testLoadUntilEof() throws Exception {
+        // the sections are loaded from the main stream as before, which ends before the section index
+        Config.image_load_threads_num = 1;
+        try (ImageLoader imageLoader = new ImageLoader(writeImage())) {
+            DataInputStream dis = imageLoader.getStream();
+            Assert.assertEquals(1, dis.readInt());
+            Assert.assertEquals(2, dis.readInt());
+            Assert.assertEquals(3, dis.readLong());
+            Assert.assertEquals(4, dis.readInt());
+            Assert.assertEquals(8, dis.readInt());
+            Assert.assertEquals(15, dis.readLong());
+            // the sections not in image, e.g. written by the newer versions, get EOF
+            Assert.assertThrows(EOFException.class, dis::readLong);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testChecksumMismatch() throws Exception {
+        Config.image_load_threads_num = 4;
+        File file = writeImage();
+        try (ImageLoader imageLoader = new ImageLoader(file)) {
+            imageLoader.addSection("c", (dis, checksum) -> checksum ^ dis.readInt() ^ 1);
+            imageLoader.submit("c");
+            imageLoader.waitSections();
+        }
+    }
+}
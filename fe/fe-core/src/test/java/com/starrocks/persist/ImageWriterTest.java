@@ -0,0 +1,109 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.persist;
+
+import com.starrocks.common.Config;
+import com.starrocks.server.GlobalStateMgr;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+public class ImageWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final int oldThreadsNum = Config.checkpoint_image_write_threads_num;
+
+    @After
+    public void tearDown() {
+        Config.checkpoint_image_write_threads_num = oldThreadsNum;
+        GlobalStateMgr.unregisterCheckpointWorkerThread();
+    }
+
+    private static ImageWriter.SectionWriter intSection(int value) {
+        return (dos, checksum) -> {
+            dos.writeInt(value);
+            return checksum ^ value;
+        };
+    }
+
+    private static ImageWriter newWriter() {
+        return new ImageWriter()
+                .addSection("a", intSection(1))
+                .addStreamingSection("b", intSection(2))
+                .addChecksum()
+                .addSection("c", intSection(4))
+                .addSection("d", intSection(8))
+                .addChecksum();
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        Config.checkpoint_image_write_threads_num = 1;
+        File serialFile = folder.newFile("image.serial");
+        Assert.assertEquals(15, newWriter().write(serialFile));
+
+        // serialize the sections in parallel as the checkpoint thread
+        Config.checkpoint_image_write_threads_num = 4;
+        GlobalStateMgr.registerCheckpointWorkerThread();
+        File parallelFile = folder.newFile("image.parallel");
+        Assert.assertEquals(15, newWriter().write(parallelFile));
+        Assert.assertArrayEquals(Files.readAllBytes(serialFile.toPath()), Files.readAllBytes(parallelFile.toPath()));
+
+        // the layout is the same as the serial writer
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(parallelFile))) {
+            Assert.assertEquals(1, dis.readInt());
+            Assert.assertEquals(2, dis.readInt());
+            Assert.assertEquals(3, dis.readLong());
+            Assert.assertEquals(4, dis.readInt());
+            Assert.assertEquals(8, dis.readInt());
+            Assert.assertEquals(15, dis.readLong());
+            Assert.assertEquals(ImageWriter.INDEX_MAGIC, dis.readLong());
+            Assert.assertEquals(ImageWriter.INDEX_VERSION, dis.readInt());
+        }
+
+        ImageWriter.ImageIndex imageIndex = ImageWriter.readIndex(parallelFile);
+        Assert.assertEquals(32, imageIndex.getOffset());
+        List<ImageWriter.SectionIndex> indexes = imageIndex.getSections();
+        Assert.assertEquals(4, indexes.size());
+        Assert.assertEquals("c", indexes.get(2).getName());
+        Assert.assertEquals(16, indexes.get(2).getOffset());
+        Assert.assertEquals(4, indexes.get(2).getLength());
+        Assert.assertEquals(4, indexes.get(2).getChecksum());
+    }
+
+    @Test
+    public void testReadIndexOfUnknownVersion() throws Exception {
+        File file = folder.newFile("image.unknown");
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file))) {
+            dos.writeInt(1);
+            dos.writeLong(ImageWriter.INDEX_MAGIC);
+            dos.writeInt(ImageWriter.INDEX_VERSION + 1);
+            dos.writeUTF("the entries of a newer version");
+            dos.writeLong(4);
+            dos.writeInt(ImageWriter.INDEX_VERSION + 1);
+            dos.writeLong(ImageWriter.INDEX_MAGIC);
+        }
+        // the end of sections is still known
+        ImageWriter.ImageIndex imageIndex = ImageWriter.readIndex(file);
+        Assert.assertEquals(4, imageIndex.getOffset());
+        Assert.assertNull(imageIndex.getSections());
+    }
+
+    @Test
+    public void testReadIndexOfOldImage() throws Exception {
+        File file = folder.newFile("image.old");
+        Files.write(file.toPath(), new byte[] {1, 2, 3});
+        Assert.assertNull(ImageWriter.readIndex(file));
+    }
+}
@@ -0,0 +1,116 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.rpc.PExecBatchPlanFragmentsRequest;
+import com.starrocks.thrift.InternalServiceVersion;
+import com.starrocks.thrift.TDataPartition;
+import com.starrocks.thrift.TDescriptorTable;
+import com.starrocks.thrift.TExecBatchPlanFragmentsParams;
+import com.starrocks.thrift.TExecPlanFragmentParams;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TPartitionType;
+import com.starrocks.thrift.TPlanFragment;
+import com.starrocks.thrift.TQueryOptions;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class BatchFragmentsRequestSerializerTest {
+    private final long compressionMinBytes = Config.deliver_fragments_compression_min_bytes;
+
+    @After
+    public void tearDown() {
+        Config.deliver_fragments_compression_min_bytes = compressionMinBytes;
+    }
+
+    private static TExecBatchPlanFragmentsParams newRequest(TPlanFragment fragment, TDescriptorTable descTable,
+                                                            int numInstances) {
+        TExecPlanFragmentParams commonParams = new TExecPlanFragmentParams();
+        commonParams.setProtocol_version(InternalServiceVersion.V1);
+        commonParams.setFragment(fragment);
+        commonParams.setDesc_tbl(descTable);
+        commonParams.setCoord(new TNetworkAddress("127.0.0.1", 9020));
+        commonParams.setQuery_options(new TQueryOptions());
+
+        List<TExecPlanFragmentParams> uniqueParamsList = Lists.newArrayList();
+        for (int i = 0; i < numInstances; i++) {
+            TExecPlanFragmentParams uniqueParams = new TExecPlanFragmentParams();
+            uniqueParams.setProtocol_version(InternalServiceVersion.V1);
+            uniqueParams.setBackend_num(i);
+            uniqueParams.setPipeline_dop(8);
+            uniqueParamsList.add(uniqueParams);
+        }
+
+        TExecBatchPlanFragmentsParams request = new TExecBatchPlanFragmentsParams();
+        request.setCommon_param(commonParams);
+        request.setUnique_param_per_instance(uniqueParamsList);
+        return request;
+    }
+
+    private static TExecBatchPlanFragmentsParams deserialize(byte[] data) throws TException {
+        TExecBatchPlanFragmentsParams request = new TExecBatchPlanFragmentsParams();
+        new TDeserializer(new TBinaryProtocol.Factory()).deserialize(request, data);
+        return request;
+    }
+
+    @Test
+    public void testSerialize() throws TException {
+        TPlanFragment fragment = new TPlanFragment(new TDataPartition(TPartitionType.UNPARTITIONED));
+        TDescriptorTable descTable = new TDescriptorTable(Collections.emptyList());
+        TDescriptorTable emptyDescTable = new TDescriptorTable(Collections.emptyList());
+        emptyDescTable.setIs_cached(true);
+
+        BatchFragmentsRequestSerializer serializer = new BatchFragmentsRequestSerializer();
+        TExecBatchPlanFragmentsParams request = newRequest(fragment, descTable, 3);
+        Assert.assertEquals(request, deserialize(serializer.serializeThrift(request)));
+        Assert.assertSame(fragment, request.getCommon_param().getFragment());
+        Assert.assertSame(descTable, request.getCommon_param().getDesc_tbl());
+
+        // the serialized fragment is reused by the request to the other host
+        request = newRequest(fragment, emptyDescTable, 1);
+        Assert.assertEquals(request, deserialize(serializer.serializeThrift(request)));
+
+        request = newRequest(null, null, 0);
+        Assert.assertEquals(request, deserialize(serializer.serializeThrift(request)));
+    }
+
+    @Test
+    public void testCompress() throws TException, DataFormatException {
+        TPlanFragment fragment = new TPlanFragment(new TDataPartition(TPartitionType.UNPARTITIONED));
+        TExecBatchPlanFragmentsParams request =
+                newRequest(fragment, new TDescriptorTable(Collections.emptyList()), 100);
+
+        BatchFragmentsRequestSerializer serializer = new BatchFragmentsRequestSerializer();
+        PExecBatchPlanFragmentsRequest pRequest = serializer.serialize(request);
+        Assert.assertNull(pRequest.attachmentCompressionType);
+        Assert.assertEquals(request, deserialize(pRequest.getSerializedRequest()));
+
+        Config.deliver_fragments_compression_min_bytes = 0;
+        pRequest = serializer.serialize(request);
+        Assert.assertEquals(PExecBatchPlanFragmentsRequest.COMPRESSION_ZLIB,
+                pRequest.attachmentCompressionType.intValue());
+        Assert.assertTrue(pRequest.getSerializedRequest().length < pRequest.attachmentUncompressedSize);
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(pRequest.getSerializedRequest());
+        byte[] uncompressed = new byte[pRequest.attachmentUncompressedSize.intValue()];
+        Assert.assertEquals(uncompressed.length, inflater.inflate(uncompressed));
+        inflater.end();
+        Assert.assertEquals(request, deserialize(uncompressed));
+
+        Assert.assertEquals(uncompressed.length * 2, serializer.getSerializedBytes());
+        Assert.assertEquals(uncompressed.length + pRequest.getSerializedRequest().length,
+                serializer.getCompressedBytes());
+    }
+}
@@ -210,4 +210,15 @@ public class ConnectContextTest {
         Assert.assertNotNull(ConnectContext.get());
         Assert.assertEquals(ctx, ConnectContext.get());
     }
+
+    @Test
+    public void testLastWriteJournalId() {
+        ConnectContext ctx = new ConnectContext(socketChannel);
+        Assert.assertEquals(0, ctx.getLastWriteJournalId());
+        ctx.updateLastWriteJournalId(100);
+        Assert.assertEquals(100, ctx.getLastWriteJournalId());
+        // the journal id returned by the forwarded read is smaller than the last write
+        ctx.updateLastWriteJournalId(90);
+        Assert.assertEquals(100, ctx.getLastWriteJournalId());
+    }
 }
@@ -0,0 +1,109 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.Status;
+import com.starrocks.proto.PFetchDataResult;
+import com.starrocks.proto.StatusPB;
+import com.starrocks.rpc.BackendServiceClient;
+import com.starrocks.rpc.PFetchDataRequest;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TResultBatch;
+import com.starrocks.thrift.TUniqueId;
+import mockit.Mock;
+import mockit.MockUp;
+import org.apache.thrift.TSerializer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+public class ResultReceiverTest {
+    private final int oldMaxInflightRpcNum = Config.result_fetch_max_inflight_rpc_num;
+
+    @After
+    public void tearDown() {
+        Config.result_fetch_max_inflight_rpc_num = oldMaxInflightRpcNum;
+    }
+
+    private static PFetchDataResult newResult(long packetSeq, boolean eos) {
+        PFetchDataResult result = new PFetchDataResult();
+        result.status = new StatusPB();
+        result.status.statusCode = 0;
+        result.packetSeq = packetSeq;
+        result.eos = eos;
+        return result;
+    }
+
+    private static byte[] serializeBatch(long packetSeq) throws Exception {
+        List<ByteBuffer> rows = Lists.newArrayList(
+                ByteBuffer.wrap(String.valueOf(packetSeq).getBytes(StandardCharsets.UTF_8)));
+        return new TSerializer().serialize(new TResultBatch(rows, false, packetSeq));
+    }
+
+    @Test
+    public void testPrefetchOutOfOrder() throws Exception {
+        Config.result_fetch_max_inflight_rpc_num = 3;
+        List<PFetchDataRequest> requests = Lists.newArrayList();
+        new MockUp<BackendServiceClient>() {
+            @Mock
+            public Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                    throws Exception {
+                // BE receives the first two fetches in reverse order, and eos after the second packet
+                int idx = requests.size();
+                requests.add(request);
+                long packetSeq = idx == 0 ? 1 : (idx == 1 ? 0 : 2);
+                if (packetSeq == 2) {
+                    return CompletableFuture.completedFuture(newResult(packetSeq, true));
+                }
+                request.setSerializedResult(serializeBatch(packetSeq));
+                return CompletableFuture.completedFuture(newResult(packetSeq, false));
+            }
+        };
+
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), 10000);
+        Status status = new Status();
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        // three fetches are sent at first, and the consumed one is replaced by a new fetch
+        Assert.assertEquals(4, requests.size());
+        Assert.assertEquals(0, batch.getBatch().getPacket_seq());
+        Assert.assertFalse(batch.isEos());
+
+        batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertEquals(1, batch.getBatch().getPacket_seq());
+
+        batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertNull(batch.getBatch());
+        Assert.assertNull(receiver.getNext(status));
+    }
+
+    @Test
+    public void testPacketLost() throws Exception {
+        Config.result_fetch_max_inflight_rpc_num = 1;
+        new MockUp<BackendServiceClient>() {
+            @Mock
+            public Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                    throws Exception {
+                request.setSerializedResult(serializeBatch(1));
+                return CompletableFuture.completedFuture(newResult(1, false));
+            }
+        };
+
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), 10000);
+        Status status = new Status();
+        Assert.assertNull(receiver.getNext(status));
+        Assert.assertFalse(status.ok());
+    }
+}
@@ -0,0 +1,209 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.IntLiteral;
+import com.starrocks.analysis.LargeIntLiteral;
+import com.starrocks.analysis.NullLiteral;
+import com.starrocks.analysis.Parameter;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Type;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlSerializer;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.sql.analyzer.SemanticException;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.parser.ParsingException;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TExplainLevel;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class ServerPreparedStatementTest extends PlanTestBase {
+
+    private static ServerPreparedStatement prepare(String sql) {
+        ServerPreparedStatement stmt = new ServerPreparedStatement(1, sql);
+        stmt.prepare(connectContext);
+        StatementPlanner.analyze(stmt, connectContext);
+        return stmt;
+    }
+
+    @Test
+    public void testParsePrepared() {
+        List<Parameter> parameters = Lists.newArrayList();
+        SqlParser.parsePrepared("select * from t0 where v1 = ? and v2 in (?, '?')", connectContext.getSessionVariable(),
+                parameters);
+        Assert.assertEquals(2, parameters.size());
+        Assert.assertEquals(28, parameters.get(0).getPosition());
+        Assert.assertEquals(41, parameters.get(1).getPosition());
+
+        // The parameter markers are only allowed in prepared statements
+        Assert.assertThrows(ParsingException.class,
+                () -> SqlParser.parse("select * from t0 where v1 = ?", connectContext.getSessionVariable()));
+    }
+
+    @Test
+    public void testPrepare() {
+        ServerPreparedStatement stmt = prepare("select v1, v2 + 1 as x from t0 where v2 = ? and v3 in (?, ?)");
+        Assert.assertEquals(3, stmt.getNumParams());
+        // The types of parameters are inferred from the columns compared with them
+        for (Parameter parameter : stmt.getParameters()) {
+            Assert.assertEquals(Type.BIGINT, parameter.getType());
+        }
+        Assert.assertEquals(Lists.newArrayList("v1", "x"), stmt.getColumnNames());
+        Assert.assertEquals(Lists.newArrayList(Type.BIGINT, Type.BIGINT), stmt.getColumnTypes());
+    }
+
+    @Test
+    public void testPrepareNotSupported() {
+        String[] sqls = {
+                "explain select v1 from t0 where v2 = ?",
+                "insert into t0 values (?, ?, ?)",
+                "select v1 from t0; select v2 from t0",
+        };
+        for (String sql : sqls) {
+            try {
+                prepare(sql);
+                Assert.fail("prepared " + sql);
+            } catch (SemanticException | ParsingException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testBindParameters() throws Exception {
+        ServerPreparedStatement stmt = prepare("select v1 from t0 where v2 = ? and v3 = ?");
+        QueryStatement analyzed = stmt.getStatement(connectContext);
+
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        // null bitmap: no null parameter
+        serializer.writeInt1(0x00);
+        // new params bound
+        serializer.writeInt1(1);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_VAR_STRING.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_LONGLONG.getCode());
+        serializer.writeLenEncodedString("10");
+        serializer.writeInt8(-1);
+        stmt.bindParameters(serializer.toByteBuffer());
+        Assert.assertEquals(new StringLiteral("10"), stmt.getParameters().get(0).getValue());
+        Assert.assertEquals(new IntLiteral(-1), stmt.getParameters().get(1).getValue());
+
+        ExecPlan plan = StatementPlanner.plan(stmt, connectContext);
+        String explain = plan.getExplainString(TExplainLevel.NORMAL);
+        Assert.assertTrue(explain, explain.contains("2: v2 = 10"));
+        Assert.assertTrue(explain, explain.contains("3: v3 = -1"));
+
+        // the types are not sent again, use the types bound before
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeInt1(0);
+        serializer.writeLenEncodedString("20");
+        serializer.writeInt8(5);
+        stmt.bindParameters(serializer.toByteBuffer());
+        plan = StatementPlanner.plan(stmt, connectContext);
+        explain = plan.getExplainString(TExplainLevel.NORMAL);
+        Assert.assertTrue(explain, explain.contains("2: v2 = 20"));
+        Assert.assertTrue(explain, explain.contains("3: v3 = 5"));
+        // The statement is not parsed and analyzed again
+        Assert.assertSame(analyzed, stmt.getStatement(connectContext));
+
+        // null bitmap: the second parameter is null
+        serializer.reset();
+        serializer.writeInt1(0x02);
+        serializer.writeInt1(0);
+        serializer.writeLenEncodedString("20");
+        stmt.bindParameters(serializer.toByteBuffer());
+        Assert.assertTrue(stmt.getParameters().get(1).getValue() instanceof NullLiteral);
+
+        // The value could not be cast to the type of parameter
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeInt1(0);
+        serializer.writeLenEncodedString("abc");
+        serializer.writeInt8(1);
+        stmt.bindParameters(serializer.toByteBuffer());
+        Assert.assertThrows(SemanticException.class, () -> StatementPlanner.plan(stmt, connectContext));
+    }
+
+    @Test
+    public void testLongData() throws Exception {
+        ServerPreparedStatement stmt = prepare("select v1 from t0 where v2 = ?");
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt1(0x00);
+        serializer.writeInt1(1);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_BLOB.getCode());
+        stmt.appendLongData(0, "1".getBytes());
+        stmt.appendLongData(0, "2".getBytes());
+        stmt.bindParameters(serializer.toByteBuffer());
+        Assert.assertEquals(new StringLiteral("12"), stmt.getParameters().get(0).getValue());
+        Assert.assertThrows(Exception.class, () -> stmt.appendLongData(1, "1".getBytes()));
+    }
+
+    @Test
+    public void testReadParameter() throws Exception {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt1(0xff);
+        Assert.assertEquals(new IntLiteral(-1), ServerPreparedStatement.readParameter(serializer.toByteBuffer(),
+                MysqlColType.MYSQL_TYPE_TINY.getCode(), false));
+        Assert.assertEquals(new IntLiteral(255), ServerPreparedStatement.readParameter(serializer.toByteBuffer(),
+                MysqlColType.MYSQL_TYPE_TINY.getCode(), true));
+
+        serializer.reset();
+        serializer.writeInt8(-1);
+        Assert.assertEquals(new LargeIntLiteral("18446744073709551615"), ServerPreparedStatement.readParameter(
+                serializer.toByteBuffer(), MysqlColType.MYSQL_TYPE_LONGLONG.getCode(), true));
+
+        serializer.reset();
+        serializer.writeInt8(Double.doubleToLongBits(1.5));
+        Assert.assertEquals(1.5, ServerPreparedStatement.readParameter(serializer.toByteBuffer(),
+                MysqlColType.MYSQL_TYPE_DOUBLE.getCode(), false).getDoubleValue(), 0);
+
+        serializer.reset();
+        serializer.writeInt1(7);
+        serializer.writeInt2(2022);
+        serializer.writeInt1(3);
+        serializer.writeInt1(4);
+        serializer.writeInt1(5);
+        serializer.writeInt1(6);
+        serializer.writeInt1(7);
+        ByteBuffer packet = serializer.toByteBuffer();
+        Assert.assertEquals(new DateLiteral(2022, 3, 4, 5, 6, 7), ServerPreparedStatement.readParameter(packet,
+                MysqlColType.MYSQL_TYPE_DATETIME.getCode(), false));
+    }
+
+    @Test
+    public void testNotForwardToLeader() throws Exception {
+        boolean[] canRead = {true};
+        new MockUp<GlobalStateMgr>() {
+            @Mock
+            public boolean isLeader() {
+                return false;
+            }
+
+            @Mock
+            public boolean canRead() {
+                return canRead[0];
+            }
+        };
+        ServerPreparedStatement stmt = prepare("select v1 from t0 where v2 = ?");
+        StmtExecutor executor = new StmtExecutor(connectContext, stmt);
+        executor.initRedirectStatus();
+        Assert.assertFalse(executor.isForwardToLeader());
+
+        // the binary rows can not be proxied from the leader
+        canRead[0] = false;
+        Assert.assertThrows(StarRocksPlannerException.class, executor::isForwardToLeader);
+    }
+}
@@ -0,0 +1,105 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.qe;
+
+import com.starrocks.common.Config;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.ast.StatementBase;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StmtExecutorTest {
+    private final AtomicLong replayedJournalId = new AtomicLong(0);
+    private ConnectContext ctx;
+    private int maxWaitMs;
+
+    @Before
+    public void setUp() {
+        new MockUp<GlobalStateMgr>() {
+            @Mock
+            public boolean isLeader() {
+                return false;
+            }
+
+            @Mock
+            public boolean canRead() {
+                return true;
+            }
+
+            @Mock
+            public long getReplayedJournalId() {
+                return replayedJournalId.get();
+            }
+        };
+        ctx = UtFrameUtils.createDefaultCtx();
+        ctx.getSessionVariable().setEnableFollowerReadYourWrites(true);
+        maxWaitMs = Config.follower_read_your_writes_max_wait_ms;
+    }
+
+    @After
+    public void tearDown() {
+        Config.follower_read_your_writes_max_wait_ms = maxWaitMs;
+    }
+
+    private boolean isForwardToLeader(String sql) throws Exception {
+        StatementBase stmt = UtFrameUtils.parseStmtWithNewParserNotIncludeAnalyzer(sql, ctx);
+        StmtExecutor executor = new StmtExecutor(ctx, stmt);
+        executor.initRedirectStatus();
+        return executor.isForwardToLeader();
+    }
+
+    @Test
+    public void testReadLocallyAfterSync() throws Exception {
+        replayedJournalId.set(10);
+        ctx.updateLastWriteJournalId(10);
+        Assert.assertFalse(isForwardToLeader("select 1"));
+        Assert.assertFalse(isForwardToLeader("show alter table column from db"));
+        // the other statements are forwarded as before, e.g. the prepared txns are not written to the journal
+        Assert.assertTrue(isForwardToLeader("show transaction from db where id = 1"));
+        Assert.assertTrue(isForwardToLeader("show load from db"));
+
+        ctx.getSessionVariable().setEnableFollowerReadYourWrites(false);
+        Assert.assertFalse(isForwardToLeader("select 1"));
+        Assert.assertTrue(isForwardToLeader("show alter table column from db"));
+    }
+
+    @Test
+    public void testWaitForReplay() throws Exception {
+        Config.follower_read_your_writes_max_wait_ms = 10000;
+        replayedJournalId.set(5);
+        ctx.updateLastWriteJournalId(10);
+        Thread replayer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            replayedJournalId.set(10);
+            GlobalStateMgr.getCurrentState().getJournalObservable().notifyObservers(10L);
+        });
+        replayer.start();
+        Assert.assertFalse(isForwardToLeader("show alter table column from db"));
+        replayer.join();
+    }
+
+    @Test
+    public void testForwardOnTimeout() throws Exception {
+        Config.follower_read_your_writes_max_wait_ms = 100;
+        replayedJournalId.set(5);
+        ctx.updateLastWriteJournalId(10);
+        Assert.assertTrue(isForwardToLeader("select 1"));
+        Assert.assertTrue(isForwardToLeader("show alter table column from db"));
+
+        // not waiting at all, rather than treating the last write as replayed
+        Config.follower_read_your_writes_max_wait_ms = 0;
+        Assert.assertTrue(isForwardToLeader("select 1"));
+        Assert.assertTrue(isForwardToLeader("show alter table column from db"));
+    }
+}
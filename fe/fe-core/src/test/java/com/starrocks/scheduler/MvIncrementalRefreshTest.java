@@ -0,0 +1,217 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.scheduler;
+
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.Pair;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.transaction.InsertTxnCommitAttachment;
+import com.starrocks.transaction.OlapTableTxnLogApplier;
+import com.starrocks.transaction.TableCommitInfo;
+import com.starrocks.transaction.TransactionState;
+import com.starrocks.transaction.TxnCommitAttachment;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Map;
+import java.util.Set;
+
+public class MvIncrementalRefreshTest {
+
+    private static ConnectContext connectContext;
+    private static StarRocksAssert starRocksAssert;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        FeConstants.runningUnitTest = true;
+        Config.enable_experimental_mv = true;
+        UtFrameUtils.createMinStarRocksCluster();
+        connectContext = UtFrameUtils.createDefaultCtx();
+        starRocksAssert = new StarRocksAssert(connectContext);
+        starRocksAssert.withDatabase("test").useDatabase("test")
+                .withTable("CREATE TABLE test.inc_t1\n" +
+                        "(\n" +
+                        "    k1 date,\n" +
+                        "    k2 int,\n" +
+                        "    v1 int\n" +
+                        ")\n" +
+                        "DUPLICATE KEY(k1)\n" +
+                        "PARTITION BY RANGE(k1)\n" +
+                        "(\n" +
+                        "    PARTITION p1 values less than('2022-02-01'),\n" +
+                        "    PARTITION p2 values less than('2022-03-01')\n" +
+                        ")\n" +
+                        "DISTRIBUTED BY HASH(k2) BUCKETS 3\n" +
+                        "PROPERTIES('replication_num' = '1');")
+                .withTable("CREATE TABLE test.inc_t2\n" +
+                        "(\n" +
+                        "    k2 int,\n" +
+                        "    v2 int\n" +
+                        ")\n" +
+                        "DUPLICATE KEY(k2)\n" +
+                        "DISTRIBUTED BY HASH(k2) BUCKETS 3\n" +
+                        "PROPERTIES('replication_num' = '1');")
+                .withNewMaterializedView("create materialized view test.inc_mv_agg\n" +
+                        "distributed by hash(k2) buckets 3\n" +
+                        "refresh manual\n" +
+                        "properties('replication_num' = '1')\n" +
+                        "as select k2, sum(v1) as total, count(v1) as cnt, max(v1) as max_v1 " +
+                        "from inc_t1 group by k2;")
+                .withNewMaterializedView("create materialized view test.inc_mv_join\n" +
+                        "partition by k1\n" +
+                        "distributed by hash(k2) buckets 3\n" +
+                        "refresh manual\n" +
+                        "properties('replication_num' = '1')\n" +
+                        "as select inc_t1.k1, inc_t1.k2, inc_t2.v2 from inc_t1 join inc_t2 on inc_t1.k2 = inc_t2.k2;")
+                .withNewMaterializedView("create materialized view test.inc_mv_avg\n" +
+                        "distributed by hash(k2) buckets 3\n" +
+                        "refresh manual\n" +
+                        "properties('replication_num' = '1')\n" +
+                        "as select k2, avg(v1) as avg_v1 from inc_t1 group by k2;");
+    }
+
+    @Before
+    public void setUp() {
+        for (String mvName : new String[] {"inc_mv_agg", "inc_mv_join", "inc_mv_avg"}) {
+            markRefreshed(getMv(mvName));
+        }
+    }
+
+    private static MaterializedView getMv(String mvName) {
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        return (MaterializedView) db.getTable(mvName);
+    }
+
+    private static OlapTable getTable(String tableName) {
+        Database db = GlobalStateMgr.getCurrentState().getDb("test");
+        return (OlapTable) db.getTable(tableName);
+    }
+
+    private static void markRefreshed(MaterializedView mv) {
+        Map<Long, Map<String, MaterializedView.BasePartitionInfo>> versionMap =
+                mv.getRefreshScheme().getAsyncRefreshContext().getBaseTableVisibleVersionMap();
+        versionMap.clear();
+        for (MaterializedView.BaseTableInfo baseTableInfo : mv.getBaseTableInfos()) {
+            OlapTable baseTable = (OlapTable) baseTableInfo.getTable();
+            Map<String, MaterializedView.BasePartitionInfo> partitionInfos = Maps.newHashMap();
+            for (Partition partition : baseTable.getPartitions()) {
+                partitionInfos.put(partition.getName(),
+                        new MaterializedView.BasePartitionInfo(partition.getId(), partition.getVisibleVersion()));
+            }
+            versionMap.put(baseTable.getId(), partitionInfos);
+        }
+    }
+
+    private static MvIncrementalRefresh create(MaterializedView mv) {
+        Map<Long, Pair<MaterializedView.BaseTableInfo, Table>> baseTables =
+                new PartitionBasedMaterializedViewRefreshProcessor().collectBaseTables(mv);
+        return MvIncrementalRefresh.create(mv, baseTables, connectContext);
+    }
+
+    @Test
+    public void testAggregation() {
+        MaterializedView mv = getMv("inc_mv_agg");
+        Assert.assertNull(create(mv));
+
+        OlapTable t1 = getTable("inc_t1");
+        Partition p2 = t1.getPartition("p2");
+        long refreshedVersion = p2.getVisibleVersion();
+        p2.setVisibleVersion(refreshedVersion + 2, System.currentTimeMillis());
+        try {
+            MvIncrementalRefresh incrementalRefresh = create(mv);
+            Assert.assertNotNull(incrementalRefresh);
+            String definition = incrementalRefresh.getDefinition();
+            Assert.assertTrue(definition, definition.startsWith("insert overwrite inc_mv_agg SELECT `k2`, " +
+                    "sum(`total`) AS `total`, sum(`cnt`) AS `cnt`, max(`max_v1`) AS `max_v1` " +
+                    "FROM (SELECT `k2`, `total`, `cnt`, `max_v1` FROM inc_mv_agg UNION ALL ("));
+            Assert.assertTrue(definition, definition.endsWith(")) t GROUP BY `k2`"));
+
+            Map<Long, Map<Long, Pair<Long, Long>>> scanVersions = incrementalRefresh.getIncrementalScanVersions();
+            Assert.assertEquals(Long.valueOf(refreshedVersion + 1), scanVersions.get(t1.getId()).get(p2.getId()).first);
+            Assert.assertFalse(scanVersions.get(t1.getId()).containsKey(t1.getPartition("p1").getId()));
+
+            Set<String> mvPartitionNames = mv.getPartitionNames();
+            Map<String, Set<String>> sourcePartitions = incrementalRefresh.getSourceTablePartitions(
+                    new PartitionBasedMaterializedViewRefreshProcessor().collectBaseTables(mv), mvPartitionNames);
+            Assert.assertEquals(1, sourcePartitions.get("inc_t1").size());
+            Assert.assertTrue(sourcePartitions.get("inc_t1").contains("p2"));
+            Assert.assertEquals(mvPartitionNames, sourcePartitions.get("inc_mv_agg"));
+
+            // avg could not be merged
+            Assert.assertNull(create(getMv("inc_mv_avg")));
+        } finally {
+            p2.setVisibleVersion(refreshedVersion, System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void testJoin() {
+        MaterializedView mv = getMv("inc_mv_join");
+        OlapTable t1 = getTable("inc_t1");
+        Partition p1 = t1.getPartition("p1");
+        long refreshedVersion = p1.getVisibleVersion();
+        p1.setVisibleVersion(refreshedVersion + 1, System.currentTimeMillis());
+        try {
+            MvIncrementalRefresh incrementalRefresh = create(mv);
+            Assert.assertNotNull(incrementalRefresh);
+            Assert.assertEquals("insert into inc_mv_join " + mv.getViewDefineSql(), incrementalRefresh.getDefinition());
+
+            // more than one base tables changed
+            Partition t2Partition = getTable("inc_t2").getPartitions().iterator().next();
+            long t2Version = t2Partition.getVisibleVersion();
+            t2Partition.setVisibleVersion(t2Version + 1, System.currentTimeMillis());
+            Assert.assertNull(create(mv));
+            t2Partition.setVisibleVersion(t2Version, System.currentTimeMillis());
+
+            // the refreshed partition is replaced
+            mv.getRefreshScheme().getAsyncRefreshContext().getBaseTableVisibleVersionMap().get(t1.getId())
+                    .put("p1", new MaterializedView.BasePartitionInfo(-1, refreshedVersion));
+            Assert.assertNull(create(mv));
+        } finally {
+            p1.setVisibleVersion(refreshedVersion, System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void testCommitVersionMap() throws Exception {
+        MaterializedView mv = getMv("inc_mv_join");
+        OlapTable t1 = getTable("inc_t1");
+        Map<Long, Map<String, MaterializedView.BasePartitionInfo>> versionMap = Maps.newHashMap();
+        Map<String, MaterializedView.BasePartitionInfo> t1VersionMap = Maps.newHashMap();
+        t1VersionMap.put("p1", new MaterializedView.BasePartitionInfo(t1.getPartition("p1").getId(), 100L));
+        versionMap.put(t1.getId(), t1VersionMap);
+
+        // the version map is persisted with the txn state of the insert
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new InsertTxnCommitAttachment(10, versionMap).write(new DataOutputStream(bytes));
+        TxnCommitAttachment attachment =
+                TxnCommitAttachment.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(100L, ((InsertTxnCommitAttachment) attachment).getMvBaseTableVersionMap()
+                .get(t1.getId()).get("p1").getVersion());
+
+        // and updated when the txn is committed or replayed
+        TransactionState txnState = new TransactionState();
+        txnState.setTxnCommitAttachment(attachment);
+        new OlapTableTxnLogApplier(mv).applyCommitLog(txnState, new TableCommitInfo(mv.getId()));
+        Map<Long, Map<String, MaterializedView.BasePartitionInfo>> currentVersionMap =
+                mv.getRefreshScheme().getAsyncRefreshContext().getBaseTableVisibleVersionMap();
+        Assert.assertEquals(100L, currentVersionMap.get(t1.getId()).get("p1").getVersion());
+        Assert.assertTrue(currentVersionMap.containsKey(getTable("inc_t2").getId()));
+    }
+}
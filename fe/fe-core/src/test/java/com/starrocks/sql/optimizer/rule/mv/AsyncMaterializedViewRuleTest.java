@@ -0,0 +1,198 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.Config;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class AsyncMaterializedViewRuleTest extends PlanTestBase {
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        Config.enable_experimental_mv = true;
+        starRocksAssert.withTable("CREATE TABLE test.mv_base_t1\n" +
+                        "(\n" +
+                        "    k1 date,\n" +
+                        "    k2 int,\n" +
+                        "    v1 int\n" +
+                        ")\n" +
+                        "DUPLICATE KEY(k1)\n" +
+                        "PARTITION BY RANGE(k1)\n" +
+                        "(\n" +
+                        "    PARTITION p1 values less than('2020-02-01'),\n" +
+                        "    PARTITION p2 values less than('2020-03-01')\n" +
+                        ")\n" +
+                        "DISTRIBUTED BY HASH(k2) BUCKETS 3\n" +
+                        "PROPERTIES('replication_num' = '1');")
+                .withNewMaterializedView("create materialized view mv_agg_t1 " +
+                        "distributed by hash(k2) " +
+                        "refresh async START('2122-12-31') EVERY(INTERVAL 1 HOUR) " +
+                        "PROPERTIES (\n" +
+                        "\"replication_num\" = \"1\"\n" +
+                        ") " +
+                        "as select k1, k2, sum(v1) as total, count(v1) as cnt from mv_base_t1 group by k1, k2;");
+    }
+
+    @Before
+    public void setUp() {
+        connectContext.getSessionVariable().setEnableMaterializedViewRewrite(true);
+        markRefreshed();
+    }
+
+    private static void markRefreshed() {
+        Database db = starRocksAssert.getCtx().getGlobalStateMgr().getDb("test");
+        OlapTable baseTable = (OlapTable) db.getTable("mv_base_t1");
+        MaterializedView mv = (MaterializedView) db.getTable("mv_agg_t1");
+        Map<String, MaterializedView.BasePartitionInfo> versionMap = Maps.newHashMap();
+        for (Partition partition : baseTable.getPartitions()) {
+            versionMap.put(partition.getName(),
+                    new MaterializedView.BasePartitionInfo(partition.getId(), partition.getVisibleVersion()));
+        }
+        mv.getRefreshScheme().getAsyncRefreshContext().getBaseTableVisibleVersionMap()
+                .put(baseTable.getId(), versionMap);
+    }
+
+    @Test
+    public void testExactMatch() throws Exception {
+        String plan = getFragmentPlan("select k1, k2, sum(v1) from mv_base_t1 group by k1, k2");
+        assertContains(plan, "TABLE: mv_agg_t1");
+        Assert.assertFalse(plan.contains("TABLE: mv_base_t1"));
+    }
+
+    @Test
+    public void testRollup() throws Exception {
+        String plan = getFragmentPlan("select k2, count(v1), sum(v1) from mv_base_t1 " +
+                "where k1 = '2020-01-10' group by k2");
+        assertContains(plan, "TABLE: mv_agg_t1");
+        assertContains(plan, "k1 = '2020-01-10'");
+        Assert.assertFalse(plan.contains("TABLE: mv_base_t1"));
+    }
+
+    @Test
+    public void testNotRewritten() throws Exception {
+        // v1 is not an output of the materialized view
+        String plan = getFragmentPlan("select k2, max(v1) from mv_base_t1 group by k2");
+        assertContains(plan, "TABLE: mv_base_t1");
+
+        // the materialized view has no row of the query without aggregation
+        plan = getFragmentPlan("select k1, k2 from mv_base_t1");
+        assertContains(plan, "TABLE: mv_base_t1");
+
+        // the rolled up count of no row is null rather than 0
+        plan = getFragmentPlan("select count(v1) from mv_base_t1 where k1 = '2020-01-10'");
+        assertContains(plan, "TABLE: mv_base_t1");
+        plan = getFragmentPlan("select sum(v1) from mv_base_t1 where k1 = '2020-01-10'");
+        assertContains(plan, "TABLE: mv_agg_t1");
+
+        connectContext.getSessionVariable().setEnableMaterializedViewRewrite(false);
+        plan = getFragmentPlan("select k1, k2, sum(v1) from mv_base_t1 group by k1, k2");
+        assertContains(plan, "TABLE: mv_base_t1");
+    }
+
+    @Test
+    public void testRewrittenPlanNotCached() throws Exception {
+        connectContext.getSessionVariable().setEnablePlanCache(true);
+        connectContext.getPlanCache().clear();
+        try {
+            String plan = UtFrameUtils.getPlanAndFragment(connectContext,
+                    "select k1, k2, sum(v1) from mv_base_t1 group by k1, k2").second.getExplainString(TExplainLevel.NORMAL);
+            assertContains(plan, "TABLE: mv_agg_t1");
+            // the partitions of the materialized view become stale without changing the plan
+            Assert.assertEquals(0, connectContext.getPlanCache().size());
+        } finally {
+            connectContext.getSessionVariable().setEnablePlanCache(false);
+            connectContext.getPlanCache().clear();
+        }
+    }
+
+    @Test
+    public void testLockMaterializedViewsInTheirDbs() throws Exception {
+        boolean tableLevelLock = Config.enable_table_level_lock;
+        Map<Long, List<Long>> lockedTables = Maps.newHashMap();
+        new MockUp<Database>() {
+            @Mock
+            public void readLockTables(Invocation invocation, Collection<Long> tableIds) {
+                Database db = invocation.getInvokedInstance();
+                lockedTables.put(db.getId(), Lists.newArrayList(tableIds));
+                invocation.proceed(tableIds);
+            }
+        };
+        try {
+            Config.enable_table_level_lock = true;
+            starRocksAssert.withDatabase("mv_db").withNewMaterializedView("create materialized view mv_db.mv_other " +
+                    "distributed by hash(k2) " +
+                    "refresh async START('2122-12-31') EVERY(INTERVAL 1 HOUR) " +
+                    "PROPERTIES (\n" +
+                    "\"replication_num\" = \"1\"\n" +
+                    ") " +
+                    "as select k2, sum(v1) as total from test.mv_base_t1 group by k2;");
+            Database db = starRocksAssert.getCtx().getGlobalStateMgr().getDb("test");
+            Database mvDb = starRocksAssert.getCtx().getGlobalStateMgr().getDb("mv_db");
+            long baseTableId = db.getTable("mv_base_t1").getId();
+            long mvId = db.getTable("mv_agg_t1").getId();
+            long otherMvId = mvDb.getTable("mv_other").getId();
+
+            getFragmentPlan("select k2, sum(v1) from mv_base_t1 group by k2");
+            Assert.assertEquals(Lists.newArrayList(baseTableId, mvId), lockedTables.get(db.getId()));
+            Assert.assertEquals(Lists.newArrayList(otherMvId), lockedTables.get(mvDb.getId()));
+        } finally {
+            Config.enable_table_level_lock = tableLevelLock;
+            starRocksAssert.dropDatabase("mv_db");
+        }
+    }
+
+    @Test
+    public void testStaleMaterializedView() throws Exception {
+        Database db = starRocksAssert.getCtx().getGlobalStateMgr().getDb("test");
+        OlapTable baseTable = (OlapTable) db.getTable("mv_base_t1");
+        MaterializedView mv = (MaterializedView) db.getTable("mv_agg_t1");
+        // the materialized view is not partitioned, so all the data is stale once a base partition changes
+        mv.getRefreshScheme().getAsyncRefreshContext().getBaseTableVisibleVersionMap()
+                .get(baseTable.getId()).get("p2").setVersion(0);
+        String plan = getFragmentPlan("select k1, k2, sum(v1) from mv_base_t1 group by k1, k2");
+        assertContains(plan, "TABLE: mv_base_t1");
+    }
+
+    @Test
+    public void testCachedMvPlan() throws Exception {
+        Database db = starRocksAssert.getCtx().getGlobalStateMgr().getDb("test");
+        MaterializedView mv = (MaterializedView) db.getTable("mv_agg_t1");
+        ColumnRefFactory factory1 = new ColumnRefFactory();
+        MaterializationContext context1 = MaterializationContext.build(mv, factory1, connectContext);
+        ColumnRefFactory factory2 = new ColumnRefFactory();
+        factory2.create("x", Type.INT, true);
+        MaterializationContext context2 = MaterializationContext.build(mv, factory2, connectContext);
+        Assert.assertNotNull(context1);
+        Assert.assertNotNull(context2);
+        // the cached plan is copied with the columns of each query
+        Assert.assertNotSame(context1.getMvPlan(), context2.getMvPlan());
+        Assert.assertEquals(mv.getBaseSchema().size(), context2.getMvPlanOutputs().size());
+        for (int i = 0; i < context2.getMvPlanOutputs().size(); i++) {
+            ColumnRefOperator output = context2.getMvPlanOutputs().get(i);
+            Assert.assertSame(output, factory2.getColumnRef(output.getId()));
+            Assert.assertNotEquals(context1.getMvPlanOutputs().get(i).getId(), output.getId());
+        }
+        Assert.assertNotNull(SPJGPlan.of(context2.getMvPlan(), true));
+    }
+}
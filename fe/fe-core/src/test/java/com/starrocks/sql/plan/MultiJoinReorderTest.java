@@ -5,6 +5,7 @@ package com.starrocks.sql.plan;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.common.FeConstants;
 import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.rule.join.JoinReorderGreedy;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -456,4 +457,43 @@ public class MultiJoinReorderTest extends PlanTestBase {
         String plan = getFragmentPlan(sql);
         Assert.assertTrue(plan.contains("<slot 27> : NULL"));
     }
+
+    @Test
+    public void testParallelJoinReorder() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().enableGreedyJoinReorder();
+        String sql = "select * from t1 " +
+                "join t3 on t1.v4 = t3.v10 " +
+                "join t0 on t1.v4 = t0.v2 " +
+                "join t2 on t1.v5 = t2.v8 ";
+        String serialPlan = getFragmentPlan(sql);
+        try {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(true);
+            String parallelPlan = getFragmentPlan(sql);
+            Assert.assertEquals(serialPlan, parallelPlan);
+        } finally {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(false);
+        }
+    }
+
+    @Test
+    public void testParallelGreedyJoinReorder() throws Exception {
+        connectContext.getSessionVariable().enableGreedyJoinReorder();
+        // more atoms than cbo_max_reorder_node_use_dp, so only the left deep and greedy algorithms are used
+        StringBuilder sql = new StringBuilder("select * from t0 a0");
+        for (int i = 1; i <= 11; i++) {
+            sql.append(" join t0 a").append(i).append(" on a").append(i - 1).append(".v1 = a").append(i)
+                    .append(".v2");
+        }
+        try {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(true);
+            connectContext.getPlannerProfile().reset();
+            String plan = getFragmentPlan(sql.toString());
+            Assert.assertTrue(plan.contains("HASH JOIN"));
+            Assert.assertTrue(connectContext.getPlannerProfile()
+                    .getCounter(JoinReorderGreedy.PARALLEL_CANDIDATES_COUNTER) > 0);
+        } finally {
+            connectContext.getSessionVariable().setCboEnableParallelJoinReorder(false);
+        }
+    }
 }
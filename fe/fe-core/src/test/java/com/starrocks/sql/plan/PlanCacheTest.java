@@ -0,0 +1,131 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PlanCacheTest extends PlanTestBase {
+
+    @Before
+    public void before() {
+        connectContext.getSessionVariable().setEnablePlanCache(true);
+        connectContext.getPlanCache().clear();
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        connectContext.getPlanCache().clear();
+    }
+
+    private long getHitCount() {
+        return connectContext.getPlanCache().getHitCount();
+    }
+
+    @Test
+    public void testReusePlan() throws Exception {
+        String sql = "select v1, sum(v2) from t0 where v3 = 1 group by v1";
+        ExecPlan plan = UtFrameUtils.getPlanAndFragment(connectContext, sql).second;
+        long hitCount = getHitCount();
+        ExecPlan cachedPlan = UtFrameUtils.getPlanAndFragment(connectContext, sql).second;
+        Assert.assertEquals(hitCount + 1, getHitCount());
+        // Each execution gets its own fragments
+        Assert.assertNotSame(plan, cachedPlan);
+        Assert.assertNotSame(plan.getFragments().get(0), cachedPlan.getFragments().get(0));
+        Assert.assertEquals(plan.getExplainString(TExplainLevel.NORMAL),
+                cachedPlan.getExplainString(TExplainLevel.NORMAL));
+    }
+
+    @Test
+    public void testRebindConstants() throws Exception {
+        UtFrameUtils.getPlanAndFragment(connectContext, "select v1, sum(v2) from t0 where v3 = 1 group by v1");
+        long hitCount = getHitCount();
+        ExecPlan plan = UtFrameUtils.getPlanAndFragment(connectContext,
+                "select v1, sum(v2) from t0 where v3 = 2 group by v1").second;
+        Assert.assertEquals(hitCount + 1, getHitCount());
+        Assert.assertEquals(1, connectContext.getPlanCache().size());
+        String explain = plan.getExplainString(TExplainLevel.NORMAL);
+        Assert.assertTrue(explain, explain.contains("3: v3 = 2"));
+        Assert.assertFalse(explain, explain.contains("3: v3 = 1"));
+    }
+
+    @Test
+    public void testConstantsNotRebound() throws Exception {
+        // The constant of projection is not bound again
+        UtFrameUtils.getPlanAndFragment(connectContext, "select v1 + 1 from t0 where v2 = 1");
+        long hitCount = getHitCount();
+        ExecPlan plan = UtFrameUtils.getPlanAndFragment(connectContext, "select v1 + 2 from t0 where v2 = 1").second;
+        Assert.assertEquals(hitCount, getHitCount());
+        Assert.assertTrue(plan.getExplainString(TExplainLevel.NORMAL).contains("1: v1 + 2"));
+    }
+
+    @Test
+    public void testPlanNotCached() throws Exception {
+        String[] sqls = {
+                "select v1 from t0 where v3 < unix_timestamp()",
+                "select v1 from t0 where v3 < abs(rand())",
+                "select v1 from t0 where v3 in (select v4 from t1)",
+                "explain select v1 from t0",
+                "select 1",
+        };
+        for (String sql : sqls) {
+            UtFrameUtils.getPlanAndFragment(connectContext, sql);
+        }
+        Assert.assertEquals(0, connectContext.getPlanCache().size());
+
+        // The name of a column is not a function
+        UtFrameUtils.getPlanAndFragment(connectContext, "select v1 as now from t0 where v2 = 1");
+        Assert.assertEquals(1, connectContext.getPlanCache().size());
+    }
+
+    @Test
+    public void testNewVersionAfterReuse() throws Exception {
+        String sql = "select v1 from t0 where v2 = 1";
+        UtFrameUtils.getPlanAndFragment(connectContext, sql);
+
+        OlapTable table = (OlapTable) connectContext.getGlobalStateMgr().getDb("test").getTable("t0");
+        Partition partition = table.getPartitions().iterator().next();
+        long version = partition.getVisibleVersion();
+        long versionTime = partition.getVisibleVersionTime();
+        try {
+            partition.setVisibleVersion(version + 1, versionTime);
+            long hitCount = getHitCount();
+            ExecPlan plan = UtFrameUtils.getPlanAndFragment(connectContext, sql).second;
+            Assert.assertEquals(hitCount + 1, getHitCount());
+            // The scan ranges are built again with the new version
+            OlapScanNode scanNode = (OlapScanNode) plan.getScanNodes().get(0);
+            Assert.assertEquals(String.valueOf(version + 1), scanNode.getScanRangeLocations(0).get(0)
+                    .getScan_range().getInternal_scan_range().getVersion());
+        } finally {
+            partition.setVisibleVersion(version, versionTime);
+        }
+    }
+
+    @Test
+    public void testInvalidateBySessionVariable() throws Exception {
+        String sql = "select v1 from t0 where v2 = 1";
+        UtFrameUtils.getPlanAndFragment(connectContext, sql);
+        UtFrameUtils.getPlanAndFragment(connectContext, "select /*+ SET_VAR(pipeline_dop=1) */ v1 from t0");
+        long hitCount = getHitCount();
+        UtFrameUtils.getPlanAndFragment(connectContext, sql);
+        Assert.assertEquals(hitCount + 1, getHitCount());
+
+        SessionVariable sessionVariable = connectContext.getSessionVariable();
+        try {
+            connectContext.setSessionVariable((SessionVariable) sessionVariable.clone());
+            UtFrameUtils.getPlanAndFragment(connectContext, sql);
+            Assert.assertEquals(hitCount + 1, getHitCount());
+        } finally {
+            connectContext.setSessionVariable(sessionVariable);
+        }
+    }
+}
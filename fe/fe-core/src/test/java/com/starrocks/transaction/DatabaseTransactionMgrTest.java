@@ -29,6 +29,7 @@ import com.starrocks.catalog.GlobalStateMgrTestUtil;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeMetaVersion;
+import com.starrocks.common.LabelAlreadyUsedException;
 import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.TimeUtils;
@@ -39,9 +40,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -281,4 +290,79 @@ public class DatabaseTransactionMgrTest {
         assertEquals(3, masterDbTransMgr.getTransactionNum());
         assertNull(masterDbTransMgr.unprotectedGetTxnIdsByLabel(GlobalStateMgrTestUtil.testTxnLable1));
     }
+
+    @Test
+    public void testConcurrentBeginTransaction() throws Exception {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        int numThreads = 8;
+        int numLabels = 50;
+        AtomicInteger numLabelAlreadyUsed = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = Lists.newArrayList();
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    // all the threads begin the transactions of the same labels
+                    for (int j = 0; j < numLabels; j++) {
+                        try {
+                            masterTransMgr.beginTransaction(GlobalStateMgrTestUtil.testDbId1,
+                                    Lists.newArrayList(GlobalStateMgrTestUtil.testTableId1), "concurrent_label_" + j,
+                                    transactionSource, TransactionState.LoadJobSourceType.BACKEND_STREAMING,
+                                    Config.stream_load_default_timeout_second);
+                        } catch (LabelAlreadyUsedException e) {
+                            numLabelAlreadyUsed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals((numThreads - 1) * numLabels, numLabelAlreadyUsed.get());
+        assertEquals(2 + numLabels, masterDbTransMgr.getRunningTxnNums());
+        for (int j = 0; j < numLabels; j++) {
+            assertEquals(1, masterDbTransMgr.unprotectedGetTxnIdsByLabel("concurrent_label_" + j).size());
+            assertEquals(TransactionStatus.PREPARE, masterDbTransMgr.getLabelState("concurrent_label_" + j));
+        }
+    }
+
+    @Test
+    public void testWriteFinalTxnsInFinishOrder() throws Exception {
+        FakeGlobalStateMgr.setGlobalStateMgr(masterGlobalStateMgr);
+        long txnId3 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable3);
+        long txnId4 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable4);
+        // finished in the reverse order of their ids
+        masterTransMgr.abortTransaction(GlobalStateMgrTestUtil.testDbId1, txnId4, "test");
+        masterTransMgr.abortTransaction(GlobalStateMgrTestUtil.testDbId1, txnId3, "test");
+
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        masterTransMgr.write(new DataOutputStream(image));
+
+        FakeGlobalStateMgr.setGlobalStateMgr(slaveGlobalStateMgr);
+        slaveTransMgr.removeDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        slaveTransMgr.addDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        slaveTransMgr.readFields(new DataInputStream(new ByteArrayInputStream(image.toByteArray())));
+        DatabaseTransactionMgr slaveDbTransMgr = slaveTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        assertEquals(4, slaveDbTransMgr.getTransactionNum());
+
+        // The loaded transactions are written in the same order
+        ByteArrayOutputStream reloadedImage = new ByteArrayOutputStream();
+        slaveTransMgr.write(new DataOutputStream(reloadedImage));
+        List<Long> finalTxnIds = Lists.newArrayList();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(reloadedImage.toByteArray()));
+        int numTransactions = in.readInt();
+        for (int i = 0; i < numTransactions; i++) {
+            TransactionState transactionState = new TransactionState();
+            transactionState.readFields(in);
+            if (transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
+                finalTxnIds.add(transactionState.getTransactionId());
+            }
+        }
+        assertEquals(Lists.newArrayList(txnId4, txnId3), finalTxnIds);
+    }
 }
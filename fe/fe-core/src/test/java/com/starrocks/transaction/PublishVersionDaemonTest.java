@@ -0,0 +1,46 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Inc.
+
+package com.starrocks.transaction;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class PublishVersionDaemonTest {
+
+    private static TransactionState newTxn(long txnId, Long... tableIds) {
+        return new TransactionState(1, Lists.newArrayList(tableIds), txnId, "label_" + txnId, null,
+                TransactionState.LoadJobSourceType.BACKEND_STREAMING,
+                new TransactionState.TxnCoordinator(TransactionState.TxnSourceType.FE, "fe"), -1, 60000);
+    }
+
+    private static List<Long> txnIds(List<TransactionState> txns) {
+        List<Long> txnIds = Lists.newArrayList();
+        for (TransactionState txn : txns) {
+            txnIds.add(txn.getTransactionId());
+        }
+        return txnIds;
+    }
+
+    @Test
+    public void testGroupByTables() {
+        List<TransactionState> txns = Lists.newArrayList(
+                newTxn(1, 10L),
+                newTxn(2, 20L),
+                newTxn(3, 10L, 30L),
+                newTxn(4, 40L),
+                newTxn(5, 30L, 20L));
+        List<List<TransactionState>> groups = PublishVersionDaemon.groupByTables(txns);
+        Assert.assertEquals(2, groups.size());
+        Assert.assertEquals(Lists.newArrayList(1L, 2L, 3L, 5L), txnIds(groups.get(0)));
+        Assert.assertEquals(Lists.newArrayList(4L), txnIds(groups.get(1)));
+
+        // the tables of txn 6 are unknown, all the transactions are in one group
+        txns.add(newTxn(6));
+        groups = PublishVersionDaemon.groupByTables(txns);
+        Assert.assertEquals(1, groups.size());
+        Assert.assertEquals(6, groups.get(0).size());
+    }
+}
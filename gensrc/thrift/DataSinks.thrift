@@ -116,6 +116,8 @@ struct TMultiCastDataStreamSink {
 struct TResultSink {
     1: optional TResultSinkType type;
     2: optional TResultFileSinkOptions file_options;
+    // Encode the rows of MYSQL_PROTOCAL in binary protocol, for the prepared statements
+    3: optional bool is_binary_row;
 }
 
 struct TMysqlTableSink {
@@ -981,6 +981,15 @@ struct TSetConfigResponse {
     1: required Status.TStatus status
 }
 
+// The reads of lake partitions counted by a non-leader FE, which raise the compaction scores of the partitions
+struct TReportPartitionReadsRequest {
+    1: optional map<i64, i64> partition_reads
+}
+
+struct TReportPartitionReadsResponse {
+    1: required Status.TStatus status
+}
+
 struct TAuthInfo {
     // If not set, match every database
     1: optional string pattern
@@ -1097,5 +1106,7 @@ service FrontendService {
     TAbortRemoteTxnResponse  abortRemoteTxn(1: TAbortRemoteTxnRequest request)
 
     TSetConfigResponse setConfig(1: TSetConfigRequest request)
+
+    TReportPartitionReadsResponse reportPartitionReads(1: TReportPartitionReadsRequest request)
 }
 
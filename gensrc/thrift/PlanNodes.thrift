@@ -106,6 +106,9 @@ struct TInternalScanRange {
   8: optional string index_name
   9: optional string table_name 
   10: optional i64 partition_id
+  // only read the rowsets in the version range [from_version, version], used by the incremental refresh of
+  // materialized views to read the rows appended since the last refresh. 0 or unset means all the rowsets.
+  11: optional i64 from_version
 }
 
 enum TFileFormatType {